@@ -0,0 +1,60 @@
+package com.devshaks.delivery.customer.config;
+
+import com.devshaks.delivery.customer.replica.CompactedTopicReplica;
+import com.devshaks.delivery.customer.restaurants.RestaurantDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+@Configuration
+public class RestaurantReplicaConfig {
+
+    /**
+     * Local copy of the restaurant catalogue, bootstrapped from restaurant-service's NDJSON
+     * catalogue stream and kept current from its compacted change topic.
+     */
+    @Bean
+    public CompactedTopicReplica<RestaurantDTO> restaurantReplica(KafkaProperties kafkaProperties,
+            RestTemplate restTemplate,
+            ObjectMapper objectMapper,
+            @Value("${application.catalogue.topic:restaurant-catalogue}") String topic,
+            @Value("${application.config.restaurant-service-url}") String restaurantServiceUrl) {
+        return new CompactedTopicReplica<>(
+                topic,
+                kafkaProperties.buildConsumerProperties(null),
+                json -> parse(objectMapper, json),
+                restaurant -> String.valueOf(restaurant.getId()),
+                restaurant -> restaurant.getVersion() == null ? 0 : restaurant.getVersion(),
+                sink -> restTemplate.execute(restaurantServiceUrl + "/stream", HttpMethod.GET,
+                        request -> request.getHeaders().setAccept(List.of(MediaType.APPLICATION_NDJSON)),
+                        response -> {
+                            try (BufferedReader reader = new BufferedReader(
+                                    new InputStreamReader(response.getBody(), StandardCharsets.UTF_8))) {
+                                reader.lines()
+                                        .filter(line -> !line.isBlank())
+                                        .forEach(line -> sink.accept(parse(objectMapper, line)));
+                            }
+                            return null;
+                        }));
+    }
+
+    private static RestaurantDTO parse(ObjectMapper objectMapper, String json) {
+        try {
+            return objectMapper.readValue(json, RestaurantDTO.class);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -13,6 +13,7 @@ import com.devshaks.delivery.customer.handlers.UnauthorizedException;
 import com.devshaks.delivery.customer.kafka.FavouriteEventProducer;
 import com.devshaks.delivery.customer.restaurants.RestaurantDTO;
 import com.devshaks.delivery.customer.restaurants.RestaurantFeignClient;
+import com.devshaks.delivery.customer.replica.CompactedTopicReplica;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -33,6 +34,7 @@ public class CustomerService {
     private final AddressRepository addressRepository;
     private final CustomerMapper customerMapper;
     private final RestaurantFeignClient restaurantFeignClient;
+    private final CompactedTopicReplica<RestaurantDTO> restaurantReplica;
     private final FavouriteRestaurantRepository favouriteRestaurantsRepository;
     private final FavouriteMapper favouriteMapper;
     private final FavouriteEventProducer favouriteEventProducer;
@@ -133,7 +135,7 @@ public class CustomerService {
             throw new BusinessException("Restaurant with ID: " + restaurantId + " is already a favourite");
         }
 
-        RestaurantDTO restaurantDTO = restaurantFeignClient.getRestaurantById(restaurantId);
+        RestaurantDTO restaurantDTO = findRestaurant(restaurantId);
         FavouriteRestaurants favouriteRestaurants = favouriteMapper.mapFavouritesToRestaurantResponse(restaurantDTO);
         favouriteRestaurants.setCustomer(customer);
         customer.getFavouriteRestaurants().add(favouriteRestaurants);
@@ -152,7 +154,7 @@ public class CustomerService {
                 .findFirst()
                 .orElseThrow(() -> new RestaurantNotFoundException(
                         "Restaurant with ID: " + restaurantId + " not found in favourites"));
-        RestaurantDTO restaurantDTO = restaurantFeignClient.getRestaurantById(restaurantId);
+        RestaurantDTO restaurantDTO = findRestaurant(restaurantId);
         customer.getFavouriteRestaurants().remove(favouriteRestaurants);
         favouriteRestaurantsRepository.delete(favouriteRestaurants);
         customerRepository.save(customer);
@@ -163,7 +165,13 @@ public class CustomerService {
         Customer customer = customerRepository.findById(customerId)
                 .orElseThrow(() -> new CustomerNotFoundException("Customer with ID: " + customerId + " not found"));
         return customer.getFavouriteRestaurants().stream()
-                .map(favourite -> restaurantFeignClient.getRestaurantById(favourite.getRestaurantId()))
+                .map(favourite -> findRestaurant(favourite.getRestaurantId()))
                 .collect(Collectors.toList());
     }
-}
\ No newline at end of file
+
+    // Served from the local catalogue replica, falling back to restaurant-service while it bootstraps
+    private RestaurantDTO findRestaurant(Integer restaurantId) {
+        return restaurantReplica.get(String.valueOf(restaurantId))
+                .orElseGet(() -> restaurantFeignClient.getRestaurantById(restaurantId));
+    }
+}
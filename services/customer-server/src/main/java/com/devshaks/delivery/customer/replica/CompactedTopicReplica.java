@@ -0,0 +1,234 @@
+package com.devshaks.delivery.customer.replica;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.WakeupException;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.springframework.context.SmartLifecycle;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * In-memory replica of a log-compacted topic of versioned state events, keyed by entity
+ * ID, where a null value is a deletion carrying the version deleted at in its
+ * {@code version} header. Reusable for any such feed: give it the topic, how to parse
+ * and version a value, and how to load a snapshot of the current state.
+ * <p>
+ * Bootstrap records the end offsets of every partition, loads the snapshot, then tails
+ * the topic from the recorded offsets, so nothing published during the snapshot is
+ * missed. Every value is applied only if its version is newer than the one held, which
+ * makes the overlap between snapshot and tail, and any redelivery, harmless. A deletion
+ * leaves a marker with the newest version it covers, the header's or the removed
+ * value's, so a stale value arriving after its tombstone is discarded too. The replica
+ * assigns all partitions itself and commits no offsets: every instance holds the full
+ * state and re-bootstraps on restart or after losing the broker, reporting itself not
+ * ready meanwhile so callers can fall back to the owning service.
+ *
+ * @param <V>
+ *            The replicated value type.
+ */
+@Slf4j
+public class CompactedTopicReplica<V> implements SmartLifecycle {
+
+    // Header of a tombstone holding the version the entity was deleted at
+    public static final String VERSION_HEADER = "version";
+
+    private static final Duration POLL_TIMEOUT = Duration.ofSeconds(1);
+    private static final Duration RETRY_BACKOFF = Duration.ofSeconds(5);
+
+    private final String topic;
+    private final Supplier<org.apache.kafka.clients.consumer.Consumer<String, String>> consumerFactory;
+    private final Duration retryBackoff;
+    private final Function<String, V> parser;
+    private final Function<V, String> keyOf;
+    private final ToLongFunction<V> versionOf;
+    private final Consumer<Consumer<V>> snapshotLoader;
+    private final Map<String, V> entries = new ConcurrentHashMap<>();
+    // Version each deleted key was deleted at; IDs are never reused, so there is one per deletion
+    private final Map<String, Long> deletedVersions = new ConcurrentHashMap<>();
+
+    private volatile boolean running;
+    private volatile boolean ready;
+    private volatile org.apache.kafka.clients.consumer.Consumer<String, String> consumer;
+    private Thread thread;
+
+    /**
+     * @param topic
+     *            The compacted topic to replicate.
+     * @param consumerProperties
+     *            Kafka consumer properties; group and commit settings are overridden.
+     * @param parser
+     *            Parses a JSON event value.
+     * @param keyOf
+     *            The record key of a value, as found in the topic.
+     * @param versionOf
+     *            The version of a value; higher is newer.
+     * @param snapshotLoader
+     *            Feeds every value of a snapshot of the current state to the given sink.
+     */
+    public CompactedTopicReplica(String topic, Map<String, Object> consumerProperties,
+            Function<String, V> parser, Function<V, String> keyOf, ToLongFunction<V> versionOf,
+            Consumer<Consumer<V>> snapshotLoader) {
+        this(topic, kafkaConsumerFactory(consumerProperties), RETRY_BACKOFF, parser, keyOf, versionOf, snapshotLoader);
+    }
+
+    // Takes its consumers from a factory, so tests can drive the replica with a MockConsumer
+    CompactedTopicReplica(String topic,
+            Supplier<org.apache.kafka.clients.consumer.Consumer<String, String>> consumerFactory,
+            Duration retryBackoff, Function<String, V> parser, Function<V, String> keyOf,
+            ToLongFunction<V> versionOf, Consumer<Consumer<V>> snapshotLoader) {
+        this.topic = topic;
+        this.consumerFactory = consumerFactory;
+        this.retryBackoff = retryBackoff;
+        this.parser = parser;
+        this.keyOf = keyOf;
+        this.versionOf = versionOf;
+        this.snapshotLoader = snapshotLoader;
+    }
+
+    /**
+     * Looks up a value. Empty both when the key is unknown and while the replica is not
+     * ready, in which case callers should ask the owning service instead.
+     */
+    public Optional<V> get(String key) {
+        return ready ? Optional.ofNullable(entries.get(key)) : Optional.empty();
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        thread = new Thread(this::run, "replica-" + topic);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        org.apache.kafka.clients.consumer.Consumer<String, String> current = consumer;
+        if (current != null) {
+            current.wakeup();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void run() {
+        while (running) {
+            try (org.apache.kafka.clients.consumer.Consumer<String, String> kafkaConsumer = consumerFactory.get()) {
+                consumer = kafkaConsumer;
+                bootstrapAndTail(kafkaConsumer);
+            } catch (WakeupException e) {
+                // Stopping
+            } catch (Exception e) {
+                ready = false;
+                log.warn("Replica of {} lost, re-bootstrapping in {}: {}", topic, retryBackoff, e.getMessage());
+                sleep(retryBackoff);
+            } finally {
+                consumer = null;
+            }
+        }
+        ready = false;
+    }
+
+    private void bootstrapAndTail(org.apache.kafka.clients.consumer.Consumer<String, String> kafkaConsumer) {
+        List<PartitionInfo> partitionInfos = kafkaConsumer.partitionsFor(topic);
+        if (partitionInfos == null || partitionInfos.isEmpty()) {
+            throw new IllegalStateException("Topic " + topic + " does not exist yet");
+        }
+        List<TopicPartition> partitions = partitionInfos.stream()
+                .map(info -> new TopicPartition(info.topic(), info.partition()))
+                .toList();
+        kafkaConsumer.assign(partitions);
+
+        // Anything published after these offsets is replayed on top of the snapshot
+        Map<TopicPartition, Long> endOffsets = kafkaConsumer.endOffsets(partitions);
+        Set<String> snapshotKeys = new HashSet<>();
+        snapshotLoader.accept(value -> snapshotKeys.add(apply(value)));
+
+        // Entries held from before a re-bootstrap whose deletion may have been compacted away
+        entries.keySet().retainAll(snapshotKeys);
+        endOffsets.forEach(kafkaConsumer::seek);
+        ready = true;
+        log.info("Replica of {} bootstrapped with {} entries", topic, entries.size());
+
+        while (running) {
+            for (ConsumerRecord<String, String> record : kafkaConsumer.poll(POLL_TIMEOUT)) {
+                if (record.value() == null) {
+                    delete(record.key(), deletedVersion(record));
+                } else {
+                    apply(parser.apply(record.value()));
+                }
+            }
+        }
+    }
+
+    private String apply(V value) {
+        String key = keyOf.apply(value);
+        long version = versionOf.applyAsLong(value);
+        Long deletedVersion = deletedVersions.get(key);
+        if (deletedVersion != null && version <= deletedVersion) {
+            return key;
+        }
+        entries.merge(key, value,
+                (current, candidate) -> versionOf.applyAsLong(current) >= version ? current : candidate);
+        return key;
+    }
+
+    private void delete(String key, long version) {
+        V removed = entries.remove(key);
+        long deletedVersion = removed == null ? version : Math.max(version, versionOf.applyAsLong(removed));
+        deletedVersions.merge(key, deletedVersion, Math::max);
+    }
+
+    // Tombstones without a version header only cover what is held
+    private static long deletedVersion(ConsumerRecord<String, String> record) {
+        Header header = record.headers().lastHeader(VERSION_HEADER);
+        return header == null ? Long.MIN_VALUE : Long.parseLong(new String(header.value(), StandardCharsets.UTF_8));
+    }
+
+    private static Supplier<org.apache.kafka.clients.consumer.Consumer<String, String>> kafkaConsumerFactory(
+            Map<String, Object> consumerProperties) {
+        Map<String, Object> properties = new HashMap<>(consumerProperties);
+        properties.remove(ConsumerConfig.GROUP_ID_CONFIG);
+        properties.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        return () -> new KafkaConsumer<>(properties, new StringDeserializer(), new StringDeserializer());
+    }
+
+    private void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
@@ -13,5 +13,7 @@ public class RestaurantDTO {
     private String address;
     private String contactNumber;
     private Double rating;
+    // Restaurant version, used by the catalogue replica to discard stale events
+    private Long version;
 
 }
\ No newline at end of file
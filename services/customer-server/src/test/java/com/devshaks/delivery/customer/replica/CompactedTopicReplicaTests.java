@@ -0,0 +1,205 @@
+package com.devshaks.delivery.customer.replica;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.record.TimestampType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Drives the replica with MockConsumers on one partition: the snapshot is whatever
+ * {@code snapshot} holds when the replica bootstraps, and records are appended after the
+ * end offset it records, as if published while or after the snapshot was read.
+ */
+class CompactedTopicReplicaTests {
+
+    private static final String TOPIC = "restaurant-catalogue";
+    private static final TopicPartition PARTITION = new TopicPartition(TOPIC, 0);
+    private static final long END_OFFSET = 10;
+
+    private final List<MockConsumer<String, String>> consumers = new CopyOnWriteArrayList<>();
+    private final AtomicLong nextOffset = new AtomicLong(END_OFFSET);
+    private final List<Boolean> readyWhileBootstrapping = new CopyOnWriteArrayList<>();
+    private volatile List<String> snapshot = List.of();
+    private volatile Consumer<MockConsumer<String, String>> whileBootstrapping = consumer -> { };
+
+    private final CompactedTopicReplica<Entry> replica = new CompactedTopicReplica<>(TOPIC, this::newConsumer,
+            Duration.ofMillis(10), Entry::parse, Entry::key, Entry::version, sink -> {
+                readyWhileBootstrapping.add(replicaReady());
+                whileBootstrapping.accept(currentConsumer());
+                snapshot.forEach(value -> sink.accept(Entry.parse(value)));
+            });
+
+    @AfterEach
+    void stop() {
+        replica.stop();
+    }
+
+    @Test
+    void tailReplaysWhatWasPublishedWhileTheSnapshotWasRead() {
+        snapshot = List.of("1:2:New menu");
+        whileBootstrapping = consumer -> {
+            // Already in the snapshot, which read a newer version
+            consumer.addRecord(value("1:1:Old menu"));
+            consumer.addRecord(value("2:1:Sushi Bar"));
+        };
+
+        startAndAwait(() -> replica.get("2").isPresent());
+
+        assertThat(name("1")).contains("New menu");
+        assertThat(name("2")).contains("Sushi Bar");
+        assertThat(replica.size()).isEqualTo(2);
+    }
+
+    @Test
+    void newerVersionsWinWhateverTheOrderTheyArriveIn() {
+        startAndAwait(replica::isReady);
+
+        append(value("1:3:Third"), value("1:2:Second"), value("1:3:Third again"));
+        awaitApplied();
+
+        assertThat(name("1")).contains("Third");
+    }
+
+    @Test
+    void tombstonesDeleteEntries() {
+        snapshot = List.of("1:1:Pizzeria", "2:1:Ramen");
+        startAndAwait(replica::isReady);
+
+        append(tombstone("1", null));
+        awaitApplied();
+
+        assertThat(replica.get("1")).isEmpty();
+        assertThat(name("2")).contains("Ramen");
+        // Restaurant 2 and the marker
+        assertThat(replica.size()).isEqualTo(2);
+    }
+
+    @Test
+    void staleValuesArrivingAfterATombstoneDoNotResurrectTheEntry() {
+        snapshot = List.of("1:1:Pizzeria", "2:4:Ramen");
+        startAndAwait(replica::isReady);
+
+        // Deleted at version 2, then version 2 sent late by another instance
+        append(tombstone("1", 2L), value("1:2:Pizzeria renamed"));
+        // No version header: the deletion covers the version that was held
+        append(tombstone("2", null), value("2:4:Ramen"), value("2:3:Ramen"));
+        awaitApplied();
+
+        assertThat(replica.get("1")).isEmpty();
+        assertThat(replica.get("2")).isEmpty();
+        // Only the marker
+        assertThat(replica.size()).isEqualTo(1);
+    }
+
+    @Test
+    void reBootstrapDropsEntriesWhoseTombstonesWereCompactedAway() {
+        snapshot = List.of("1:1:Pizzeria", "2:1:Ramen");
+        startAndAwait(replica::isReady);
+
+        // Restaurant 2 is deleted while the replica is cut off from the broker
+        snapshot = List.of("1:1:Pizzeria");
+        currentConsumer().setPollException(new KafkaException("Broker connection lost"));
+        await(() -> consumers.size() == 2 && replica.isReady());
+
+        assertThat(readyWhileBootstrapping).containsExactly(false, false);
+        assertThat(name("1")).contains("Pizzeria");
+        assertThat(replica.get("2")).isEmpty();
+        assertThat(replica.size()).isEqualTo(1);
+    }
+
+    private MockConsumer<String, String> newConsumer() {
+        MockConsumer<String, String> consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+        consumer.updatePartitions(TOPIC, List.of(new PartitionInfo(TOPIC, 0, null, null, null)));
+        consumer.updateEndOffsets(Map.of(PARTITION, nextOffset.get()));
+        consumers.add(consumer);
+        return consumer;
+    }
+
+    private MockConsumer<String, String> currentConsumer() {
+        return consumers.get(consumers.size() - 1);
+    }
+
+    private boolean replicaReady() {
+        return replica.isReady();
+    }
+
+    private void startAndAwait(BooleanSupplier condition) {
+        replica.start();
+        await(condition);
+    }
+
+    @SafeVarargs
+    private void append(ConsumerRecord<String, String>... records) {
+        for (ConsumerRecord<String, String> record : records) {
+            currentConsumer().addRecord(record);
+        }
+    }
+
+    // Appends a marker entry and waits for it, so everything appended before it has been applied
+    private void awaitApplied() {
+        String marker = "marker-" + nextOffset.get();
+        append(value(marker + ":1:Marker"));
+        await(() -> replica.get(marker).isPresent());
+    }
+
+    private Optional<String> name(String key) {
+        return replica.get(key).map(Entry::name);
+    }
+
+    private ConsumerRecord<String, String> value(String value) {
+        return record(Entry.parse(value).key(), value, new RecordHeaders());
+    }
+
+    private ConsumerRecord<String, String> tombstone(String key, Long deletedVersion) {
+        RecordHeaders headers = new RecordHeaders();
+        if (deletedVersion != null) {
+            headers.add(CompactedTopicReplica.VERSION_HEADER, deletedVersion.toString().getBytes(StandardCharsets.UTF_8));
+        }
+        return record(key, null, headers);
+    }
+
+    private ConsumerRecord<String, String> record(String key, String value, RecordHeaders headers) {
+        return new ConsumerRecord<>(TOPIC, 0, nextOffset.getAndIncrement(), 0L, TimestampType.CREATE_TIME, -1, -1,
+                key, value, headers, Optional.empty());
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("Timed out waiting for the replica").isLessThan(deadline);
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    // Values are "key:version:name"
+    private record Entry(String key, long version, String name) {
+
+        static Entry parse(String value) {
+            String[] parts = value.split(":", 3);
+            return new Entry(parts[0], Long.parseLong(parts[1]), parts[2]);
+        }
+    }
+}
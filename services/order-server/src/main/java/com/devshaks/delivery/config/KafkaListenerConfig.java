@@ -6,6 +6,8 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.annotation.EnableKafka;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.util.backoff.FixedBackOff;
 
 @Configuration
 @EnableKafka
@@ -17,6 +19,9 @@ public class KafkaListenerConfig {
         var factory = new ConcurrentKafkaListenerContainerFactory<String, PaymentEvent>();
         factory.setConsumerFactory(consumerFactory);
         factory.setConcurrency(3);
+        // Redelivers a batch from the record the listener reports as failed, twice, then logs and skips
+        // that record; records that could not be deserialised are skipped at once
+        factory.setCommonErrorHandler(new DefaultErrorHandler(new FixedBackOff(1000L, 2)));
         return factory;
     }
 }
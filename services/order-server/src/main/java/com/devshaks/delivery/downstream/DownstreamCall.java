@@ -0,0 +1,75 @@
+package com.devshaks.delivery.downstream;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * A remote call started on the downstream pool by {@link DownstreamCalls}. Whether the
+ * call's result is used or compensated is decided by whichever completes its future
+ * first, the call or an abort, so a result that arrives after a timeout or another
+ * call's failure is compensated exactly once.
+ *
+ * @param <T>
+ *            The result type of the call.
+ */
+@Slf4j
+public final class DownstreamCall<T> {
+
+    private final CompletableFuture<T> result = new CompletableFuture<>();
+    private final Consumer<? super T> compensation;
+
+    DownstreamCall(Consumer<? super T> compensation) {
+        this.compensation = compensation;
+    }
+
+    /**
+     * Gets the result of a call awaited successfully by {@link DownstreamCalls#awaitAll}.
+     *
+     * @return The result of the call.
+     */
+    public T get() {
+        return result.join();
+    }
+
+    CompletableFuture<T> result() {
+        return result;
+    }
+
+    void run(Supplier<T> call) {
+        // Aborted before it reached the front of the queue
+        if (result.isDone()) {
+            return;
+        }
+        T value;
+        try {
+            value = call.get();
+        } catch (Throwable e) {
+            result.completeExceptionally(e);
+            return;
+        }
+        if (!result.complete(value)) {
+            compensate(value);
+        }
+    }
+
+    void abort() {
+        // A call that already succeeded is compensated here, one still running when it returns
+        if (!result.cancel(false) && !result.isCompletedExceptionally()) {
+            compensate(result.join());
+        }
+    }
+
+    private void compensate(T value) {
+        if (compensation == null) {
+            return;
+        }
+        try {
+            compensation.accept(value);
+        } catch (RuntimeException e) {
+            log.warn("Could not compensate downstream call: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.devshaks.delivery.downstream;
+
+import com.devshaks.delivery.exceptions.BusinessException;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.support.ContextPropagatingTaskDecorator;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Issues independent calls to other services concurrently on a dedicated, bounded pool,
+ * so a request waits for the slowest call rather than the sum of them. The pool is owned
+ * here rather than exposed as an Executor bean, which would replace Spring Boot's
+ * application task executor. Tasks carry the caller's tracing context, so the calls stay
+ * in the caller's trace.
+ * <p>
+ * Every call is bounded by the configured timeout, and the first call to fail or time
+ * out aborts the rest: calls still queued never start, and calls already in flight,
+ * which cannot be interrupted, have their results handed to their compensation.
+ */
+@Component
+public class DownstreamCalls implements DisposableBean {
+
+    private final ThreadPoolTaskExecutor executor;
+    private final Duration timeout;
+
+    public DownstreamCalls(@Value("${application.downstream.pool-size:32}") int poolSize,
+            @Value("${application.downstream.queue-capacity:256}") int queueCapacity,
+            @Value("${application.downstream.timeout:PT10S}") Duration timeout) {
+        this.timeout = timeout;
+        this.executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("downstream-");
+        executor.setTaskDecorator(new ContextPropagatingTaskDecorator());
+        // When saturated the caller makes the call itself, which degrades to sequential calls
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+    }
+
+    /**
+     * Starts a call with nothing to undo if its result is abandoned.
+     *
+     * @param call
+     *            The remote call.
+     * @return The started call.
+     */
+    public <T> DownstreamCall<T> start(Supplier<T> call) {
+        return start(call, null);
+    }
+
+    /**
+     * Starts a call whose side effects must be undone if its result is abandoned.
+     *
+     * @param call
+     *            The remote call.
+     * @param compensation
+     *            Undoes the call given its result, if the call succeeds but is aborted.
+     * @return The started call.
+     */
+    public <T> DownstreamCall<T> start(Supplier<T> call, Consumer<? super T> compensation) {
+        DownstreamCall<T> downstreamCall = new DownstreamCall<>(compensation);
+        downstreamCall.result().orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        executor.execute(() -> downstreamCall.run(call));
+        return downstreamCall;
+    }
+
+    /**
+     * Waits for every call to succeed. As soon as one fails or times out, the others are
+     * aborted and its failure is thrown: the call's own exception as is, or a
+     * BusinessException for a timeout.
+     *
+     * @param calls
+     *            The calls to wait for.
+     */
+    public void awaitAll(DownstreamCall<?>... calls) {
+        CompletableFuture<?>[] results = new CompletableFuture<?>[calls.length];
+        CompletableFuture<Object> firstFailure = new CompletableFuture<>();
+        for (int i = 0; i < calls.length; i++) {
+            results[i] = calls[i].result();
+            results[i].whenComplete((value, error) -> {
+                if (error != null) {
+                    firstFailure.completeExceptionally(error);
+                }
+            });
+        }
+
+        try {
+            CompletableFuture.anyOf(CompletableFuture.allOf(results), firstFailure).join();
+        } catch (CompletionException | CancellationException e) {
+            for (DownstreamCall<?> call : calls) {
+                call.abort();
+            }
+            throw unwrap(e);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+
+    private RuntimeException unwrap(RuntimeException e) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        if (cause instanceof TimeoutException) {
+            return new BusinessException("Downstream call timed out after " + timeout.toMillis() + " ms");
+        }
+        if (cause instanceof RuntimeException runtimeException) {
+            return runtimeException;
+        }
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        return new IllegalStateException("Downstream call failed", cause);
+    }
+}
@@ -9,6 +9,7 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
 import com.devshaks.delivery.exceptions.BusinessException;
+import com.devshaks.delivery.exceptions.IdempotencyKeyReusedException;
 
 import java.util.HashMap;
 
@@ -22,6 +23,13 @@ public class GlobalExceptionHandler {
                 .body(e.getMsg());
     }
 
+    @ExceptionHandler(IdempotencyKeyReusedException.class)
+    public ResponseEntity<String> handleException(IdempotencyKeyReusedException e) {
+        return ResponseEntity
+                .status(HttpStatus.UNPROCESSABLE_ENTITY)
+                .body(e.getMessage());
+    }
+
     @ExceptionHandler(EntityNotFoundException.class)
     public ResponseEntity<String> handleException(EntityNotFoundException e) {
         return ResponseEntity
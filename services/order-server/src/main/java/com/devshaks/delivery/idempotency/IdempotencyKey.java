@@ -0,0 +1,10 @@
+package com.devshaks.delivery.idempotency;
+
+/**
+ * An Idempotency-Key and the fingerprint of the request it was first sent with.
+ */
+public record IdempotencyKey(
+        String key,
+        String fingerprint
+) {
+}
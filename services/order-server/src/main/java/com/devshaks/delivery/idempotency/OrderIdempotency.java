@@ -0,0 +1,143 @@
+package com.devshaks.delivery.idempotency;
+
+import com.devshaks.delivery.exceptions.BusinessException;
+import com.devshaks.delivery.exceptions.IdempotencyKeyReusedException;
+import com.devshaks.delivery.order.OrderRepository;
+import com.devshaks.delivery.order.OrderRequest;
+import com.devshaks.delivery.order.OrderService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Creates at most one order per Idempotency-Key, so a client retrying after a lost
+ * response gets the order it already placed instead of a second order and charge.
+ * <p>
+ * Executions are held in a bounded in-memory cache: a duplicate of an order in flight
+ * waits for it and shares its outcome, and a completed one is replayed without calling
+ * any other service. Orders store their key under a unique constraint, which covers
+ * duplicates the cache does not see, after eviction, a restart, or on another instance:
+ * a stored order is replayed, and a concurrent duplicate fails when its order is
+ * flushed, before payment, and replays the order that won. Failures are not
+ * remembered, so a retry after one places the order afresh. A key sent again with a
+ * different request is rejected.
+ */
+@Slf4j
+@Component
+public class OrderIdempotency {
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final OrderService orderService;
+    private final OrderRepository orderRepository;
+    private final ObjectMapper objectMapper;
+    private final Cache<String, Execution> executions;
+
+    public OrderIdempotency(OrderService orderService,
+            OrderRepository orderRepository,
+            ObjectMapper objectMapper,
+            @Value("${application.idempotency.cache-size:10000}") long cacheSize,
+            @Value("${application.idempotency.cache-ttl:PT10M}") Duration cacheTtl) {
+        this.orderService = orderService;
+        this.orderRepository = orderRepository;
+        this.objectMapper = objectMapper;
+        this.executions = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(cacheTtl)
+                .build();
+    }
+
+    /**
+     * Creates the order of a request, unless its key already created one.
+     *
+     * @param key
+     *            The Idempotency-Key sent with the request.
+     * @param orderRequest
+     *            The order request.
+     * @return The ID of the order created for the key.
+     */
+    public Integer createOrderPurchase(String key, OrderRequest orderRequest) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new BusinessException("Idempotency-Key must be between 1 and " + MAX_KEY_LENGTH + " characters.");
+        }
+        String fingerprint = fingerprint(orderRequest);
+
+        Execution execution = new Execution(fingerprint, new CompletableFuture<>());
+        Execution existing = executions.asMap().putIfAbsent(key, execution);
+        if (existing != null) {
+            checkFingerprint(key, existing.fingerprint(), fingerprint);
+            log.info("Coalescing order request with Idempotency-Key {}", key);
+            return await(existing.orderId());
+        }
+
+        try {
+            Integer orderId = findStored(key, fingerprint)
+                    .orElseGet(() -> create(key, fingerprint, orderRequest));
+            execution.orderId().complete(orderId);
+            return orderId;
+        } catch (RuntimeException e) {
+            executions.asMap().remove(key, execution);
+            execution.orderId().completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private Integer create(String key, String fingerprint, OrderRequest orderRequest) {
+        try {
+            return orderService.createOrderPurchase(orderRequest, new IdempotencyKey(key, fingerprint));
+        } catch (RuntimeException e) {
+            // A duplicate elsewhere committed first, and the unique key rolled this one back
+            return findStored(key, fingerprint).orElseThrow(() -> e);
+        }
+    }
+
+    private Optional<Integer> findStored(String key, String fingerprint) {
+        return orderRepository.findByIdempotencyKey(key)
+                .map(order -> {
+                    checkFingerprint(key, order.getIdempotencyFingerprint(), fingerprint);
+                    log.info("Replaying order {} for Idempotency-Key {}", order.getId(), key);
+                    return order.getId();
+                });
+    }
+
+    private static void checkFingerprint(String key, String expected, String actual) {
+        if (!expected.equals(actual)) {
+            throw new IdempotencyKeyReusedException("Idempotency-Key " + key + " was already used for a different order request");
+        }
+    }
+
+    private static Integer await(CompletableFuture<Integer> orderId) {
+        try {
+            return orderId.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private String fingerprint(OrderRequest orderRequest) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(orderRequest));
+            return HexFormat.of().formatHex(digest);
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Order request cannot be fingerprinted", e);
+        }
+    }
+
+    private record Execution(String fingerprint, CompletableFuture<Integer> orderId) {
+    }
+}
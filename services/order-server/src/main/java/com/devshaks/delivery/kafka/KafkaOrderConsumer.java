@@ -1,36 +1,118 @@
 package com.devshaks.delivery.kafka;
 
-import com.devshaks.delivery.order.Order;
 import com.devshaks.delivery.order.OrderRepository;
 import com.devshaks.delivery.order.OrderStatus;
+import com.devshaks.delivery.saga.OrderSagaOrchestrator;
+import com.devshaks.delivery.saga.OrderSagaRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.core.log.LogAccessor;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.support.serializer.DeserializationException;
+import org.springframework.kafka.support.serializer.SerializationUtils;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class KafkaOrderConsumer {
+    private static final LogAccessor LOG_ACCESSOR = new LogAccessor(KafkaOrderConsumer.class);
+
     private final OrderRepository orderRepository;
+    private final OrderSagaRepository orderSagaRepository;
+    private final OrderSagaOrchestrator orderSagaOrchestrator;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Applies a poll's worth of payment events. Orders accepted asynchronously, found
+     * with one IN query, are handed to their saga one event at a time; every other
+     * order's status is set without reading it, by one conditional UPDATE per status, in
+     * a single transaction. A record that cannot be deserialised or whose saga update
+     * fails is reported by its index, so the container's error handler commits the
+     * records before it and redelivers from it; records after it that were applied are
+     * applied again, which is safe as applying an event twice changes nothing.
+     *
+     * @param records
+     *            The payment event records of one poll.
+     * @throws BatchListenerFailedException
+     *             With the index of the first record that could not be applied.
+     */
+    @KafkaListener(topics = "payment-topic", groupId = "orderGroup", batch = "true")
+    public void handlePaymentEvents(List<ConsumerRecord<String, PaymentEvent>> records) {
+        log.debug("Received {} Payment Events", records.size());
+
+        // A null value is a record the ErrorHandlingDeserializer could not read
+        int readable = 0;
+        while (readable < records.size() && records.get(readable).value() != null) {
+            readable++;
+        }
+        List<PaymentEvent> paymentEvents = records.subList(0, readable).stream().map(ConsumerRecord::value).toList();
 
-    @KafkaListener(topics = "payment-topic", groupId = "orderGroup")
-    public void handlePaymentEvent(PaymentEvent paymentEvent) {
-        log.info("Received Payment Event: {}", paymentEvent);
-        try {
-            Order order = orderRepository.findByOrderReference(paymentEvent.orderReference())
-                    .orElseThrow(() -> new RuntimeException("Order not found"));
-            if (OrderStatus.CONFIRMED.equals(paymentEvent.orderStatus())) {
-                order.setOrderStatus(OrderStatus.CONFIRMED);
-                orderRepository.save(order);
-                log.info("Order status updated: {}", order);
-            } else {
-                log.warn("Payment failed for Order Reference: {}", paymentEvent.orderReference());
-                order.setOrderStatus(OrderStatus.FAILED);
-                orderRepository.save(order);
+        List<UUID> orderReferences = paymentEvents.stream().map(PaymentEvent::orderReference).toList();
+        Set<UUID> sagaOrderReferences = orderReferences.isEmpty()
+                ? Set.of()
+                : new HashSet<>(orderSagaRepository.findOrderReferencesIn(orderReferences));
+
+        // The last event of an order in the batch wins, as when applied one at a time
+        Map<UUID, OrderStatus> statuses = new LinkedHashMap<>();
+        for (PaymentEvent paymentEvent : paymentEvents) {
+            if (!sagaOrderReferences.contains(paymentEvent.orderReference())) {
+                statuses.put(paymentEvent.orderReference(),
+                        OrderStatus.CONFIRMED.equals(paymentEvent.orderStatus()) ? OrderStatus.CONFIRMED : OrderStatus.FAILED);
             }
-        } catch (Exception e) {
-            log.error("Error processing payment event: {}", e.getMessage());
         }
+        if (!statuses.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status -> updateStatuses(statuses));
+        }
+
+        for (int i = 0; i < paymentEvents.size(); i++) {
+            PaymentEvent paymentEvent = paymentEvents.get(i);
+            if (!sagaOrderReferences.contains(paymentEvent.orderReference())) {
+                continue;
+            }
+            try {
+                orderSagaOrchestrator.onPaymentEvent(paymentEvent);
+            } catch (RuntimeException e) {
+                throw new BatchListenerFailedException(
+                        "Payment event for order " + paymentEvent.orderReference() + " could not be applied", e,
+                        records.get(i));
+            }
+        }
+
+        if (readable < records.size()) {
+            ConsumerRecord<String, PaymentEvent> unreadable = records.get(readable);
+            DeserializationException cause = SerializationUtils.getExceptionFromHeader(unreadable,
+                    SerializationUtils.VALUE_DESERIALIZER_EXCEPTION_HEADER, LOG_ACCESSOR);
+            throw new BatchListenerFailedException("Payment event at offset " + unreadable.offset() + " of partition "
+                    + unreadable.partition() + " could not be deserialised", cause, unreadable);
+        }
+    }
+
+    private void updateStatuses(Map<UUID, OrderStatus> statuses) {
+        Map<OrderStatus, List<UUID>> referencesByStatus = new EnumMap<>(OrderStatus.class);
+        statuses.forEach((orderReference, status) ->
+                referencesByStatus.computeIfAbsent(status, s -> new ArrayList<>()).add(orderReference));
+
+        LocalDateTime now = LocalDateTime.now();
+        referencesByStatus.forEach((status, references) -> {
+            int updated = orderRepository.updateStatusByOrderReferenceIn(status, now, references);
+            if (status == OrderStatus.FAILED) {
+                log.warn("Payment failed for {} orders", references.size());
+            }
+            log.debug("Order status {} set on {} of {} orders", status, updated, references.size());
+        });
     }
 }
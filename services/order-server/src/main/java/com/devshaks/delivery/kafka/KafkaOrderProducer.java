@@ -1,26 +1,19 @@
 package com.devshaks.delivery.kafka;
 
+import com.devshaks.delivery.outbox.Outbox;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.kafka.core.KafkaTemplate;
-import org.springframework.kafka.support.KafkaHeaders;
-import org.springframework.messaging.Message;
-import org.springframework.messaging.support.MessageBuilder;
 import org.springframework.stereotype.Service;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class KafkaOrderProducer {
-    private final KafkaTemplate<String, OrderConfirmation> kafkaTemplate;
+    private final Outbox outbox;
 
+    // Queued in the caller's transaction; the OutboxRelay publishes it once committed
     public void sendOrderConfirmation(OrderConfirmation orderConfirmation) {
-        log.info("Sending Order Confirmation to Notification Service: {}", orderConfirmation);
-        Message<OrderConfirmation> message = MessageBuilder
-                .withPayload(orderConfirmation)
-                .setHeader(KafkaHeaders.TOPIC, "order-topic")
-                .build();
-        kafkaTemplate.send(message);
+        log.info("Queueing Order Confirmation for Notification Service: {}", orderConfirmation);
+        outbox.append("order-topic", null, orderConfirmation);
     }
 }
-
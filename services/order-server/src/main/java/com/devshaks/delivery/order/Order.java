@@ -1,5 +1,6 @@
 package com.devshaks.delivery.order;
 
+import com.devshaks.delivery.money.Money;
 import com.devshaks.delivery.orderline.OrderLines;
 import jakarta.persistence.*;
 import lombok.*;
@@ -7,7 +8,6 @@ import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
@@ -30,7 +30,7 @@ public class Order {
     private UUID orderReference;
 
     @Column(nullable = false, precision = 10, scale = 2)
-    private BigDecimal orderAmount;
+    private Money orderAmount;
 
     @Enumerated(EnumType.STRING)
     private PaymentMethod paymentMethod;
@@ -40,6 +40,12 @@ public class Order {
 
     private Integer customerId;
 
+    // Set when created with an Idempotency-Key; unique, so a key creates at most one order
+    @Column(unique = true)
+    private String idempotencyKey;
+
+    private String idempotencyFingerprint;
+
     @CreatedDate
     @Column(updatable = false, nullable = false)
     private LocalDateTime orderDate;
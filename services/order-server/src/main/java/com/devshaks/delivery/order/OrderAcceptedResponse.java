@@ -0,0 +1,10 @@
+package com.devshaks.delivery.order;
+
+import java.util.UUID;
+
+public record OrderAcceptedResponse(
+        Integer orderId,
+        UUID orderReference,
+        OrderStatus orderStatus
+) {
+}
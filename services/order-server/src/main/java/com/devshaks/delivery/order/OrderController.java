@@ -1,11 +1,16 @@
 package com.devshaks.delivery.order;
 
+import java.net.URI;
 import java.util.List;
 import java.util.UUID;
 
+import com.devshaks.delivery.idempotency.OrderIdempotency;
+import com.devshaks.delivery.saga.OrderSagaOrchestrator;
+
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -20,10 +25,32 @@ import org.springframework.web.bind.annotation.PathVariable;
 @RequiredArgsConstructor
 public class OrderController {
     private final OrderService orderService;
+    private final OrderSagaOrchestrator orderSagaOrchestrator;
+    private final OrderIdempotency orderIdempotency;
 
+    // Retries sending the same Idempotency-Key get the order created by the first request
     @PostMapping
-    public ResponseEntity<Integer> createOrderPurchase(@RequestBody @Valid OrderRequest orderRequest) {
-        return ResponseEntity.ok(orderService.createOrderPurchase(orderRequest));
+    public ResponseEntity<Integer> createOrderPurchase(@RequestBody @Valid OrderRequest orderRequest,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return ResponseEntity.ok(orderService.createOrderPurchase(orderRequest));
+        }
+        return ResponseEntity.ok(orderIdempotency.createOrderPurchase(idempotencyKey, orderRequest));
+    }
+
+    // Returns as soon as the order is stored; the saga places it and the client polls its status
+    @PostMapping("/async")
+    public ResponseEntity<OrderAcceptedResponse> acceptOrder(@RequestBody @Valid OrderRequest orderRequest) {
+        OrderAcceptedResponse accepted = orderSagaOrchestrator.accept(orderRequest);
+        return ResponseEntity
+                .accepted()
+                .location(URI.create("/api/v1/orders/reference/" + accepted.orderReference() + "/status"))
+                .body(accepted);
+    }
+
+    @GetMapping("/reference/{orderReference}/status")
+    public ResponseEntity<OrderStatusResponse> findStatus(@PathVariable("orderReference") UUID orderReference) {
+        return ResponseEntity.ok(orderSagaOrchestrator.findStatus(orderReference));
     }
 
     // Event Driven Approach Handler
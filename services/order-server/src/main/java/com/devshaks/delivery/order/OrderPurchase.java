@@ -0,0 +1,12 @@
+package com.devshaks.delivery.order;
+
+import com.devshaks.delivery.customer.CustomerResponse;
+import com.devshaks.delivery.restaurant.RestaurantPurchaseResponse;
+
+import java.util.List;
+
+public record OrderPurchase(
+        CustomerResponse customer,
+        List<RestaurantPurchaseResponse> purchases
+) {
+}
@@ -1,10 +1,22 @@
 package com.devshaks.delivery.order;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.Optional;
 import java.util.UUID;
 
 public interface OrderRepository extends JpaRepository<Order, Integer> {
     Optional<Order> findByOrderReference(UUID reference);
+
+    Optional<Order> findByIdempotencyKey(String idempotencyKey);
+
+    // Skips orders already at the status, so a redelivered event writes nothing
+    @Modifying
+    @Query("update Order o set o.orderStatus = :status, o.lastModifiedOrderDate = :modifiedAt "
+            + "where o.orderReference in :orderReferences and o.orderStatus <> :status")
+    int updateStatusByOrderReferenceIn(OrderStatus status, LocalDateTime modifiedAt, Collection<UUID> orderReferences);
 }
@@ -1,11 +1,16 @@
 package com.devshaks.delivery.order;
 
 import com.devshaks.delivery.customer.CustomerResponse;
+import com.devshaks.delivery.downstream.DownstreamCall;
+import com.devshaks.delivery.downstream.DownstreamCalls;
+import com.devshaks.delivery.idempotency.IdempotencyKey;
 import com.devshaks.delivery.kafka.KafkaOrderProducer;
 import com.devshaks.delivery.kafka.OrderConfirmation;
+import com.devshaks.delivery.money.Money;
 import com.devshaks.delivery.orderline.OrderLines;
 import com.devshaks.delivery.payments.PaymentFeignClient;
 import com.devshaks.delivery.payments.PaymentRequest;
+import com.devshaks.delivery.restaurant.CuisinePurchaseRequest;
 import com.devshaks.delivery.restaurant.RestaurantFeignClient;
 import com.devshaks.delivery.restaurant.RestaurantPurchaseRequest;
 import com.devshaks.delivery.restaurant.RestaurantPurchaseResponse;
@@ -17,8 +22,11 @@ import com.devshaks.delivery.customer.CustomerFeignClient;
 import com.devshaks.delivery.exceptions.BusinessException;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
-import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -31,79 +39,45 @@ public class OrderService {
     private final OrderMapper orderMapper;
     private final PaymentFeignClient paymentFeignClient;
     private final KafkaOrderProducer kafkaOrderProducer;
+    private final DownstreamCalls downstreamCalls;
 
     @Transactional
     public Integer createOrderPurchase(@Valid OrderRequest orderRequest) {
+        return createOrderPurchase(orderRequest, null);
+    }
+
+    /**
+     * Creates an order, recording the Idempotency-Key it was created with, if any.
+     *
+     * @param orderRequest
+     *            The order request.
+     * @param idempotencyKey
+     *            The key and request fingerprint, or null.
+     * @return The ID of the order.
+     */
+    @Transactional
+    public Integer createOrderPurchase(@Valid OrderRequest orderRequest, IdempotencyKey idempotencyKey) {
+        List<RestaurantPurchaseResponse> purchasedProducts = List.of();
         try {
-            if (orderRequest.customerId() == null) {
-                throw new BusinessException("Customer ID is required.");
-            }
+            List<RestaurantPurchaseRequest> purchaseRequests = toPurchaseRequests(orderRequest);
 
-            log.info("Fetching customer with ID: {}", orderRequest.customerId());
-            var customer = this.customerFeignClient.findCustomerById(orderRequest.customerId())
-                    .orElseThrow(() -> new BusinessException("Customer Was Not Found with ID: " + orderRequest.customerId()));
+            OrderPurchase orderPurchase = purchase(orderRequest, purchaseRequests);
+            var customer = orderPurchase.customer();
+            purchasedProducts = orderPurchase.purchases();
             log.info("Processing order for customer: {}", customer);
-
-            if (orderRequest.restaurantProducts() == null || orderRequest.restaurantProducts().isEmpty()) {
-                throw new BusinessException("No restaurant products provided for the order.");
-            }
-
-            // Fetch restaurant ID from the first item in the list
-            var restaurantProduct = orderRequest.restaurantProducts().get(0);
-            Integer restaurantId = restaurantProduct.restaurantId();
-            log.info("Attempting to purchase delivery from restaurant ID: {}", restaurantId);
-            log.debug("Purchase request details: {}", orderRequest.restaurantProducts());
-
-            boolean isSingleRestaurant = orderRequest.restaurantProducts()
-                    .stream()
-                    .allMatch(product -> product.restaurantId().equals(restaurantId));
-
-            if (!isSingleRestaurant) {
-                throw new BusinessException("Order contains products from multiple restaurants.");
-            }
-
-            // send a single restaraunt purchase request to restaruant microservice
-            RestaurantPurchaseRequest purchaseRequest = new RestaurantPurchaseRequest(
-                    restaurantId,
-                    restaurantProduct.items()
-            );
-
-            RestaurantPurchaseResponse purchasedProducts = this.restaurantFeignClient.purchaseDelivery(restaurantId, purchaseRequest);
-            log.info("Successfully purchased products from restaurant");
+            log.info("Successfully purchased products from {} restaurants", purchasedProducts.size());
 
             // Map order request to Order entity and set status to PENDING
             var order = orderMapper.mapToOrder(orderRequest);
             order.setOrderStatus(OrderStatus.PENDING);
-
-            // Create OrderLines and calculate total amount
-            List<OrderLines> items = purchasedProducts.items()
-                    .stream()
-                    .map(item -> {
-                        OrderLines orderLines = new OrderLines();
-                        orderLines.setCuisineId(item.cuisineId());
-                        orderLines.setCuisineName(item.name());
-                        orderLines.setQuantity(item.quantity());
-                        orderLines.setPrice(item.price());
-                        orderLines.setTotalPrice(item.price().multiply(BigDecimal.valueOf(item.quantity())));
-                        orderLines.setOrder(order);
-                        return orderLines;
-                    })
-                    .collect(Collectors.toList());
-
-            order.setOrderLines(items);
-
-            BigDecimal totalOrderAmount = items.stream()
-                    .map(OrderLines::getTotalPrice)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
-            order.setOrderAmount(totalOrderAmount);
-
-            if (totalOrderAmount == null || totalOrderAmount.compareTo(BigDecimal.ZERO) <= 0) {
-                log.error("Order amount is invalid: {}", totalOrderAmount);
-                throw new BusinessException("Order amount is invalid: " + totalOrderAmount);
+            if (idempotencyKey != null) {
+                order.setIdempotencyKey(idempotencyKey.key());
+                order.setIdempotencyFingerprint(idempotencyKey.fingerprint());
             }
+            Money totalOrderAmount = applyPurchases(order, purchasedProducts);
 
-            // Save Order
-            var savedOrder = orderRepository.save(order);
+            // Save Order, flushed so a duplicate Idempotency-Key fails here rather than after payment
+            var savedOrder = orderRepository.saveAndFlush(order);
 
             // Prepare and send payment request
             var paymentRequest = new PaymentRequest(
@@ -122,13 +96,18 @@ public class OrderService {
                 throw new BusinessException("Error Processing Payment: " + e.getMessage());
             }
 
+            // Turn the stock held for limited dishes into a sale now the order is paid for
+            confirmReservations(purchasedProducts);
+
             // Send order confirmation event to Kafka
             try {
                 kafkaOrderProducer.sendOrderConfirmation(new OrderConfirmation(
+                        savedOrder.getId(),
+                        savedOrder.getOrderReference(),
                         totalOrderAmount,
                         orderRequest.paymentMethod(),
                         customer,
-                       List.of(purchasedProducts)));
+                        purchasedProducts));
             } catch (Exception kafkaError) {
                 log.error("Error sending order confirmation: ", kafkaError);
                 throw new BusinessException("Error Sending Order Confirmation: " + kafkaError.getMessage());
@@ -138,8 +117,141 @@ public class OrderService {
 
         } catch (Exception error) {
             log.error("Error creating order: ", error);
+            releaseReservations(purchasedProducts);
             throw new BusinessException("Error Creating Order: " + error.getMessage());
         }
     }
 
+    /**
+     * Validates an order request and splits it into one purchase per restaurant, merging
+     * the items of every product entry for the same restaurant.
+     *
+     * @param orderRequest
+     *            The order request.
+     * @return The restaurant purchase requests, in the order restaurants first appear.
+     */
+    public List<RestaurantPurchaseRequest> toPurchaseRequests(OrderRequest orderRequest) {
+        if (orderRequest.customerId() == null) {
+            throw new BusinessException("Customer ID is required.");
+        }
+
+        if (orderRequest.restaurantProducts() == null || orderRequest.restaurantProducts().isEmpty()) {
+            throw new BusinessException("No restaurant products provided for the order.");
+        }
+        log.debug("Purchase request details: {}", orderRequest.restaurantProducts());
+
+        Map<Integer, List<CuisinePurchaseRequest>> itemsByRestaurant = new LinkedHashMap<>();
+        for (RestaurantPurchaseRequest restaurantProduct : orderRequest.restaurantProducts()) {
+            if (restaurantProduct.restaurantId() == null || restaurantProduct.items() == null
+                    || restaurantProduct.items().isEmpty()) {
+                throw new BusinessException("Every restaurant product needs a restaurant and items.");
+            }
+            itemsByRestaurant.computeIfAbsent(restaurantProduct.restaurantId(), id -> new ArrayList<>())
+                    .addAll(restaurantProduct.items());
+        }
+
+        return itemsByRestaurant.entrySet()
+                .stream()
+                .map(entry -> new RestaurantPurchaseRequest(entry.getKey(), entry.getValue()))
+                .toList();
+    }
+
+    /**
+     * Looks up the customer and purchases from every restaurant concurrently, so the
+     * order waits for the slowest call rather than the sum of them. If any call fails or
+     * times out, the purchases already made, or made later by calls still in flight, are
+     * released.
+     *
+     * @param orderRequest
+     *            The order request.
+     * @param purchaseRequests
+     *            The purchases built from it by toPurchaseRequests.
+     * @return The customer and the purchases, in the order of the purchase requests.
+     */
+    public OrderPurchase purchase(OrderRequest orderRequest, List<RestaurantPurchaseRequest> purchaseRequests) {
+        log.info("Fetching customer with ID: {} and purchasing from restaurant IDs: {}", orderRequest.customerId(),
+                purchaseRequests.stream().map(RestaurantPurchaseRequest::restaurantId).toList());
+        DownstreamCall<CustomerResponse> customerCall = downstreamCalls.start(
+                () -> customerFeignClient.findCustomerById(orderRequest.customerId())
+                        .orElseThrow(() -> new BusinessException("Customer Was Not Found with ID: " + orderRequest.customerId())));
+        List<DownstreamCall<RestaurantPurchaseResponse>> purchaseCalls = purchaseRequests.stream()
+                .map(purchaseRequest -> downstreamCalls.start(
+                        () -> restaurantFeignClient.purchaseDelivery(purchaseRequest.restaurantId(), purchaseRequest),
+                        abandoned -> releaseReservation(abandoned.reservationId())))
+                .toList();
+
+        DownstreamCall<?>[] calls = new DownstreamCall<?>[purchaseCalls.size() + 1];
+        calls[0] = customerCall;
+        for (int i = 0; i < purchaseCalls.size(); i++) {
+            calls[i + 1] = purchaseCalls.get(i);
+        }
+        downstreamCalls.awaitAll(calls);
+        return new OrderPurchase(customerCall.get(), purchaseCalls.stream().map(DownstreamCall::get).toList());
+    }
+
+    /**
+     * Sets the order lines and amount of an order from what its restaurants sold, with
+     * the lines grouped by restaurant.
+     *
+     * @param order
+     *            The order.
+     * @param purchasedProducts
+     *            The purchase response of every restaurant.
+     * @return The order amount.
+     */
+    public Money applyPurchases(Order order, List<RestaurantPurchaseResponse> purchasedProducts) {
+        // Create OrderLines and calculate total amount
+        List<OrderLines> items = purchasedProducts.stream()
+                .flatMap(purchase -> purchase.items()
+                        .stream()
+                        .map(item -> {
+                            OrderLines orderLines = new OrderLines();
+                            orderLines.setRestaurantId(purchase.restaurantId());
+                            orderLines.setCuisineId(item.cuisineId());
+                            orderLines.setCuisineName(item.name());
+                            orderLines.setQuantity(item.quantity());
+                            orderLines.setPrice(item.price());
+                            orderLines.setTotalPrice(item.price().times(item.quantity()));
+                            orderLines.setOrder(order);
+                            return orderLines;
+                        }))
+                .collect(Collectors.toList());
+
+        order.setOrderLines(items);
+
+        Money totalOrderAmount = items.stream()
+                .map(OrderLines::getTotalPrice)
+                .reduce(Money.ZERO, Money::plus);
+        order.setOrderAmount(totalOrderAmount);
+
+        if (totalOrderAmount == null || !totalOrderAmount.isPositive()) {
+            log.error("Order amount is invalid: {}", totalOrderAmount);
+            throw new BusinessException("Order amount is invalid: " + totalOrderAmount);
+        }
+        return totalOrderAmount;
+    }
+
+    public void confirmReservations(List<RestaurantPurchaseResponse> purchasedProducts) {
+        for (RestaurantPurchaseResponse purchase : purchasedProducts) {
+            if (purchase.reservationId() != null) {
+                restaurantFeignClient.confirmReservation(purchase.reservationId());
+            }
+        }
+    }
+
+    public void releaseReservations(List<RestaurantPurchaseResponse> purchasedProducts) {
+        purchasedProducts.forEach(purchase -> releaseReservation(purchase.reservationId()));
+    }
+
+    // Best effort: a reservation that cannot be released here still expires on the restaurant side
+    public void releaseReservation(UUID reservationId) {
+        if (reservationId == null) {
+            return;
+        }
+        try {
+            restaurantFeignClient.releaseReservation(reservationId);
+        } catch (FeignException e) {
+            log.warn("Could not release reservation {}: Status: {}", reservationId, e.status());
+        }
+    }
 }
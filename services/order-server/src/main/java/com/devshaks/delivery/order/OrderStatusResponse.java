@@ -0,0 +1,11 @@
+package com.devshaks.delivery.order;
+
+import java.util.UUID;
+
+public record OrderStatusResponse(
+        Integer orderId,
+        UUID orderReference,
+        OrderStatus orderStatus,
+        String failureReason
+) {
+}
@@ -1,12 +1,11 @@
 package com.devshaks.delivery.orderline;
 
+import com.devshaks.delivery.money.Money;
 import com.devshaks.delivery.order.Order;
 import jakarta.persistence.*;
 import lombok.*;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
-import java.math.BigDecimal;
-
 @Entity
 @Getter
 @Setter
@@ -19,13 +18,14 @@ public class OrderLines {
     @GeneratedValue
     private Integer id;
 
+    private Integer restaurantId;
     private Integer cuisineId;
     private String cuisineName;
     private int quantity;
-    private BigDecimal price;
+    private Money price;
 
     @Column(precision = 10, scale = 2)
-    private BigDecimal totalPrice;
+    private Money totalPrice;
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "order_id")
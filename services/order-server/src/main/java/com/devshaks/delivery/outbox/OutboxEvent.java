@@ -0,0 +1,49 @@
+package com.devshaks.delivery.outbox;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * An event waiting in the outbox to be published to Kafka, written in the same
+ * transaction as the state change it announces.
+ */
+@Builder
+@Getter
+@Setter
+@Entity
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "outbox_events", indexes = @Index(name = "idx_outbox_events_sent_at", columnList = "sent_at, parked_at, id"))
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String topic;
+
+    private String messageKey;
+
+    // Class the payload is read back into, so it is sent with the same type header as before
+    @Column(nullable = false)
+    private String payloadType;
+
+    @Column(nullable = false, columnDefinition = "text")
+    private String payload;
+
+    @Column(nullable = false, updatable = false)
+    private Instant createdAt;
+
+    @Column(name = "sent_at")
+    private Instant sentAt;
+
+    private int attempts;
+
+    // Set when the event can never be sent, e.g. its payload no longer reads back; parked
+    // events are left for inspection and are neither retried nor purged
+    @Column(name = "parked_at")
+    private Instant parkedAt;
+}
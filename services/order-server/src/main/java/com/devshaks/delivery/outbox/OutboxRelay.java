@@ -0,0 +1,175 @@
+package com.devshaks.delivery.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.errors.ApiException;
+import org.apache.kafka.common.errors.RetriableException;
+import org.apache.kafka.common.errors.SerializationException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Publishes committed outbox events to Kafka in batches. Each batch is claimed with SKIP
+ * LOCKED, every event of it is handed to the producer before any acknowledgement is
+ * awaited, so the producer can group them per partition within its linger, and the
+ * acknowledged events are marked sent in the claiming transaction. Events that fail to
+ * send stay pending and are retried on the next poll, so delivery is at least once.
+ * <p>
+ * The claimed rows stay locked until the batch is settled, so the relay stops handing
+ * events to the producer as soon as one send fails without reaching the broker, such as
+ * when no metadata arrives within max.block.ms, instead of blocking once per event.
+ * Events that can never be sent, because their payload no longer reads back or the
+ * broker rejects them for good, are parked rather than retried.
+ */
+@Slf4j
+@Component
+public class OutboxRelay {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+    private final Duration sendTimeout;
+    private final Duration retention;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+            KafkaTemplate<String, Object> kafkaTemplate,
+            TransactionTemplate transactionTemplate,
+            ObjectMapper objectMapper,
+            @Value("${application.outbox.batch-size:500}") int batchSize,
+            @Value("${application.outbox.send-timeout:PT10S}") Duration sendTimeout,
+            @Value("${application.outbox.retention:P1D}") Duration retention) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.kafkaTemplate = kafkaTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+        this.sendTimeout = sendTimeout;
+        this.retention = retention;
+    }
+
+    /**
+     * Publishes every pending event, one batch per transaction, until a batch comes back
+     * short or with failures.
+     *
+     * @return The number of events published.
+     */
+    @Scheduled(fixedDelayString = "${application.outbox.poll-interval:PT0.5S}")
+    public int relayPendingEvents() {
+        int published = 0;
+        Batch batch;
+        do {
+            batch = transactionTemplate.execute(status -> relayBatch());
+            published += batch.sent();
+        } while (batch.claimed() == batchSize && batch.sent() + batch.parked() == batch.claimed());
+
+        if (published > 0) {
+            log.debug("Published {} outbox events", published);
+        }
+        return published;
+    }
+
+    @Scheduled(fixedDelayString = "${application.outbox.purge-interval:PT1H}")
+    public void purgeSentEvents() {
+        Integer purged = transactionTemplate.execute(
+                status -> outboxEventRepository.deleteSentBefore(Instant.now().minus(retention)));
+        log.debug("Purged {} sent outbox events", purged);
+    }
+
+    private Batch relayBatch() {
+        List<OutboxEvent> events = outboxEventRepository.findAllBySentAtIsNullAndParkedAtIsNullOrderById(
+                Limit.of(batchSize));
+        Instant now = Instant.now();
+        List<Send> sends = new ArrayList<>(events.size());
+        int parked = 0;
+        for (OutboxEvent event : events) {
+            Object payload;
+            try {
+                payload = objectMapper.readValue(event.getPayload(), Class.forName(event.getPayloadType()));
+            } catch (Exception e) {
+                park(event, e, now);
+                parked++;
+                continue;
+            }
+            CompletableFuture<?> result = send(event, payload);
+            sends.add(new Send(event, result));
+            if (result.isCompletedExceptionally()) {
+                // The producer could not take the record; the rest of the batch would fail the same way
+                break;
+            }
+        }
+
+        long deadline = System.nanoTime() + sendTimeout.toNanos();
+        int sent = 0;
+        for (Send send : sends) {
+            OutboxEvent event = send.event();
+            try {
+                send.result().get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                event.setSentAt(now);
+                sent++;
+            } catch (ExecutionException | TimeoutException e) {
+                Throwable cause = e instanceof ExecutionException ? e.getCause() : e;
+                if (isUnsendable(cause)) {
+                    park(event, cause, now);
+                    parked++;
+                    continue;
+                }
+                event.setAttempts(event.getAttempts() + 1);
+                log.warn("Could not publish outbox event {} to {} (attempt {}): {}",
+                        event.getId(), event.getTopic(), event.getAttempts(), cause.toString());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return new Batch(events.size(), sent, parked);
+    }
+
+    private CompletableFuture<?> send(OutboxEvent event, Object payload) {
+        try {
+            return kafkaTemplate.send(event.getTopic(), event.getMessageKey(), payload);
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private static void park(OutboxEvent event, Throwable cause, Instant now) {
+        event.setAttempts(event.getAttempts() + 1);
+        event.setParkedAt(now);
+        log.error("Parked outbox event {} to {}, it cannot be sent: {}", event.getId(), event.getTopic(),
+                cause.toString());
+    }
+
+    // A record the serializer or the broker rejects for good, as opposed to a broker that is unavailable
+    private static boolean isUnsendable(Throwable throwable) {
+        for (Throwable cause = throwable; cause != null; cause = cause.getCause()) {
+            if (cause instanceof RetriableException) {
+                return false;
+            }
+            if (cause instanceof SerializationException || cause instanceof ApiException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private record Send(OutboxEvent event, CompletableFuture<?> result) {
+    }
+
+    private record Batch(int claimed, int sent, int parked) {
+    }
+}
@@ -1,12 +1,12 @@
 package com.devshaks.delivery.restaurant;
 
-import java.math.BigDecimal;
+import com.devshaks.delivery.money.Money;
 
 public record PurchasedItems(
         Integer cuisineId,
         String name,
         int quantity,
-        BigDecimal price,
-        BigDecimal totalPrice
+        Money price,
+        Money totalPrice
 ) {
 }
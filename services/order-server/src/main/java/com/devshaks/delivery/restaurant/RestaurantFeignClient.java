@@ -7,6 +7,7 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 
 import java.util.List;
+import java.util.UUID;
 
 // use Resilience4j
 
@@ -16,5 +17,12 @@ public interface RestaurantFeignClient {
    RestaurantPurchaseResponse purchaseDelivery(
            @PathVariable("restaurantId") Integer restaurantId,
            @RequestBody RestaurantPurchaseRequest restaurantPurchaseRequests);
+
+    // Stock held by a purchase of limited dishes must be confirmed once the order is placed, or released
+    @PostMapping("/reservations/{reservationId}/confirm")
+    void confirmReservation(@PathVariable("reservationId") UUID reservationId);
+
+    @PostMapping("/reservations/{reservationId}/release")
+    void releaseReservation(@PathVariable("reservationId") UUID reservationId);
 }
 
@@ -1,16 +1,17 @@
 package com.devshaks.delivery.restaurant;
 
+import com.devshaks.delivery.money.Money;
 import com.devshaks.delivery.order.OrderStatus;
 
-import java.math.BigDecimal;
 import java.util.List;
-
+import java.util.UUID;
 
 public record RestaurantPurchaseResponse(
         Integer restaurantId,
         String restaurantName,
         List<PurchasedItems> items,
-        BigDecimal orderAmount,
-        OrderStatus orderStatus
+        Money orderAmount,
+        OrderStatus orderStatus,
+        UUID reservationId
 ) {
 }
@@ -0,0 +1,57 @@
+package com.devshaks.delivery.saga;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Progress of an order accepted asynchronously. Holds what later steps need from earlier
+ * ones, as JSON, and when the saga is next due: a retry of the current step, or the
+ * deadline of a wait. Terminal sagas are never due.
+ */
+@Builder
+@Getter
+@Setter
+@Entity
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "order_sagas", indexes = @Index(name = "idx_order_sagas_next_attempt_at", columnList = "next_attempt_at"))
+public class OrderSaga {
+
+    @Id
+    @GeneratedValue
+    private Integer id;
+
+    @Column(nullable = false, unique = true)
+    private Integer orderId;
+
+    @Column(nullable = false, unique = true)
+    private UUID orderReference;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private SagaStep step;
+
+    @Column(nullable = false, columnDefinition = "text")
+    private String request;
+
+    @Column(columnDefinition = "text")
+    private String customer;
+
+    @Column(columnDefinition = "text")
+    private String purchase;
+
+    private int attempts;
+
+    @Column(name = "next_attempt_at")
+    private Instant nextAttemptAt;
+
+    private String failureReason;
+
+    @Column(nullable = false, updatable = false)
+    private Instant createdAt;
+
+    private Instant updatedAt;
+}
@@ -0,0 +1,491 @@
+package com.devshaks.delivery.saga;
+
+import com.devshaks.delivery.customer.CustomerResponse;
+import com.devshaks.delivery.exceptions.BusinessException;
+import com.devshaks.delivery.kafka.KafkaOrderProducer;
+import com.devshaks.delivery.kafka.OrderConfirmation;
+import com.devshaks.delivery.kafka.PaymentEvent;
+import com.devshaks.delivery.money.Money;
+import com.devshaks.delivery.order.Order;
+import com.devshaks.delivery.order.OrderAcceptedResponse;
+import com.devshaks.delivery.order.OrderMapper;
+import com.devshaks.delivery.order.OrderPurchase;
+import com.devshaks.delivery.order.OrderRepository;
+import com.devshaks.delivery.order.OrderRequest;
+import com.devshaks.delivery.order.OrderService;
+import com.devshaks.delivery.order.OrderStatus;
+import com.devshaks.delivery.order.OrderStatusResponse;
+import com.devshaks.delivery.payments.PaymentFeignClient;
+import com.devshaks.delivery.payments.PaymentRequest;
+import com.devshaks.delivery.restaurant.RestaurantPurchaseResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import feign.FeignException;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.function.Consumer;
+
+/**
+ * Orchestrates orders accepted asynchronously. Accepting an order only validates it and
+ * stores it as PENDING with its saga, so the client gets the order reference at once
+ * and polls for the outcome. The saga table is the work queue, and the payment step is
+ * completed by the payment event from Kafka or failed by the payment timeout.
+ * <p>
+ * Each round claims a batch of due sagas with SKIP LOCKED in one short transaction,
+ * leasing them by moving their next attempt past the step lease. Their steps then run
+ * concurrently on a dedicated pool, making their remote calls outside any transaction,
+ * and each outcome is applied in a transaction of its own only if the saga is still at
+ * the claimed step; a payment event may have moved it on. A failing step is recorded
+ * against its own saga, as a retry or a failure, so one bad saga never holds up the
+ * others.
+ * <p>
+ * Until the payment is taken, a failure releases the reservation and fails the order;
+ * once it is taken, the confirmation is retried with backoff. A confirmation that fails
+ * with a 4xx or a business error, such as an expired reservation, or that runs out of
+ * attempts leaves the saga at REFUND_REQUIRED for a refund or manual action, as does a
+ * payment confirmed after the order already failed. Other steps failing with a 4xx or a
+ * business error are not retried either. Restaurants must hold reservations for longer
+ * than the payment timeout plus the confirmation retries.
+ */
+@Slf4j
+@Component
+public class OrderSagaOrchestrator implements DisposableBean {
+
+    private static final int MAX_BACKOFF_DOUBLINGS = 6;
+    private static final int MAX_ROUNDS_PER_POLL = 10;
+
+    private final OrderSagaRepository sagaRepository;
+    private final OrderRepository orderRepository;
+    private final OrderMapper orderMapper;
+    private final OrderService orderService;
+    private final PaymentFeignClient paymentFeignClient;
+    private final KafkaOrderProducer kafkaOrderProducer;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final int confirmationMaxAttempts;
+    private final Duration retryBackoff;
+    private final Duration paymentTimeout;
+    private final Duration stepLease;
+    private final ThreadPoolTaskExecutor executor;
+
+    public OrderSagaOrchestrator(OrderSagaRepository sagaRepository,
+            OrderRepository orderRepository,
+            OrderMapper orderMapper,
+            OrderService orderService,
+            PaymentFeignClient paymentFeignClient,
+            KafkaOrderProducer kafkaOrderProducer,
+            TransactionTemplate transactionTemplate,
+            ObjectMapper objectMapper,
+            @Value("${application.saga.batch-size:100}") int batchSize,
+            @Value("${application.saga.max-attempts:5}") int maxAttempts,
+            @Value("${application.saga.confirmation-max-attempts:10}") int confirmationMaxAttempts,
+            @Value("${application.saga.retry-backoff:PT1S}") Duration retryBackoff,
+            @Value("${application.saga.payment-timeout:PT5M}") Duration paymentTimeout,
+            @Value("${application.saga.concurrency:8}") int concurrency,
+            @Value("${application.saga.step-lease:PT2M}") Duration stepLease) {
+        this.sagaRepository = sagaRepository;
+        this.orderRepository = orderRepository;
+        this.orderMapper = orderMapper;
+        this.orderService = orderService;
+        this.paymentFeignClient = paymentFeignClient;
+        this.kafkaOrderProducer = kafkaOrderProducer;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.confirmationMaxAttempts = confirmationMaxAttempts;
+        this.retryBackoff = retryBackoff;
+        this.paymentTimeout = paymentTimeout;
+        this.stepLease = stepLease;
+        this.executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(concurrency);
+        executor.setMaxPoolSize(concurrency);
+        executor.setQueueCapacity(batchSize);
+        executor.setThreadNamePrefix("order-saga-");
+        // Steps are bounded by the batch size, so this only guards against a smaller queue
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+    }
+
+    /**
+     * Validates an order and stores it as PENDING with a saga due at once.
+     *
+     * @param orderRequest
+     *            The order request.
+     * @return The ID, reference and status of the accepted order.
+     */
+    @Transactional
+    public OrderAcceptedResponse accept(OrderRequest orderRequest) {
+        orderService.toPurchaseRequests(orderRequest);
+
+        Order order = orderMapper.mapToOrder(orderRequest);
+        order.setOrderStatus(OrderStatus.PENDING);
+        // Priced by the restaurant in the purchase step
+        order.setOrderAmount(Money.ZERO);
+        orderRepository.save(order);
+
+        Instant now = Instant.now();
+        sagaRepository.save(OrderSaga.builder()
+                .orderId(order.getId())
+                .orderReference(order.getOrderReference())
+                .step(SagaStep.PURCHASE)
+                .request(write(orderRequest))
+                .nextAttemptAt(now)
+                .createdAt(now)
+                .updatedAt(now)
+                .build());
+        log.info("Accepted order {} for customer {}", order.getOrderReference(), orderRequest.customerId());
+        return new OrderAcceptedResponse(order.getId(), order.getOrderReference(), order.getOrderStatus());
+    }
+
+    @Transactional
+    public OrderStatusResponse findStatus(UUID orderReference) {
+        Order order = orderRepository.findByOrderReference(orderReference)
+                .orElseThrow(() -> new EntityNotFoundException("Order not found with reference: " + orderReference));
+        String failureReason = sagaRepository.findByOrderReference(orderReference)
+                .map(OrderSaga::getFailureReason)
+                .orElse(null);
+        return new OrderStatusResponse(order.getId(), order.getOrderReference(), order.getOrderStatus(), failureReason);
+    }
+
+    /**
+     * Applies a payment event to the saga of its order.
+     *
+     * @param paymentEvent
+     *            The payment event.
+     * @return Whether the order has a saga; orders placed synchronously do not.
+     */
+    @Transactional
+    public boolean onPaymentEvent(PaymentEvent paymentEvent) {
+        OrderSaga saga = sagaRepository.findForUpdateByOrderReference(paymentEvent.orderReference()).orElse(null);
+        if (saga == null) {
+            return false;
+        }
+        boolean paid = OrderStatus.CONFIRMED.equals(paymentEvent.orderStatus());
+        // The event can overtake the payment step recording that the payment was requested
+        if (saga.getStep() != SagaStep.AWAITING_PAYMENT && saga.getStep() != SagaStep.PAYMENT) {
+            if (paid && (saga.getStep() == SagaStep.COMPENSATION || saga.getStep() == SagaStep.FAILED)) {
+                // Taken after the order was given up on; a pending release no longer applies, and
+                // the reservations it would have released expire at the restaurant
+                requireRefund(saga, "Payment confirmed after the order failed: " + saga.getFailureReason());
+            } else {
+                log.warn("Ignoring payment event for order {} at step {}", saga.getOrderReference(), saga.getStep());
+            }
+            return true;
+        }
+
+        if (paid) {
+            moveTo(saga, SagaStep.CONFIRMATION, Instant.now());
+        } else {
+            compensate(saga, "Payment failed");
+        }
+        return true;
+    }
+
+    /**
+     * Advances every due saga by one step, in rounds: each round claims a batch of due
+     * sagas and runs their steps concurrently. A saga whose step completes is due again
+     * at once, so its next step runs in the next round rather than the next poll.
+     *
+     * @return The number of steps taken.
+     */
+    @Scheduled(fixedDelayString = "${application.saga.poll-interval:PT0.2S}")
+    public int advanceDueSagas() {
+        int advanced = 0;
+        try {
+            for (int round = 0; round < MAX_ROUNDS_PER_POLL; round++) {
+                List<Claim> claims = transactionTemplate.execute(status -> claimDueSagas());
+                if (claims == null || claims.isEmpty()) {
+                    break;
+                }
+                // Steps record their own failures, so none of these futures fails
+                CompletableFuture.allOf(claims.stream()
+                        .map(claim -> CompletableFuture.runAsync(() -> advance(claim), executor))
+                        .toArray(CompletableFuture[]::new))
+                        .join();
+                advanced += claims.size();
+            }
+        } catch (RuntimeException e) {
+            log.error("Could not claim due order sagas: {}", e.getMessage());
+        }
+        return advanced;
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+
+    // Leases the sagas due longest, so no other poll or instance claims them while their steps run
+    private List<Claim> claimDueSagas() {
+        Instant now = Instant.now();
+        // Millisecond precision survives the round trip through any timestamp column
+        Instant leasedUntil = now.plus(stepLease).truncatedTo(ChronoUnit.MILLIS);
+        List<OrderSaga> due = sagaRepository.findAllByNextAttemptAtLessThanEqualOrderByNextAttemptAt(
+                now, Limit.of(batchSize));
+        List<Claim> claims = new ArrayList<>(due.size());
+        for (OrderSaga saga : due) {
+            saga.setNextAttemptAt(leasedUntil);
+            claims.add(new Claim(saga.getId(), saga.getStep(), leasedUntil));
+        }
+        return claims;
+    }
+
+    private void advance(Claim claim) {
+        try {
+            switch (claim.step()) {
+                case PURCHASE -> purchase(claim);
+                case PAYMENT -> requestPayment(claim);
+                case AWAITING_PAYMENT -> apply(claim,
+                        saga -> compensate(saga, "Payment not confirmed within " + paymentTimeout));
+                case CONFIRMATION -> confirm(claim);
+                case COMPENSATION -> release(claim);
+                default -> apply(claim, saga -> saga.setNextAttemptAt(null));
+            }
+        } catch (RuntimeException e) {
+            recordFailure(claim, e);
+        }
+    }
+
+    private void purchase(Claim claim) {
+        OrderRequest orderRequest = read(findSaga(claim).getRequest(), OrderRequest.class);
+        OrderPurchase orderPurchase = orderService.purchase(orderRequest, orderService.toPurchaseRequests(orderRequest));
+        boolean applied;
+        try {
+            applied = apply(claim, saga -> {
+                saga.setCustomer(write(orderPurchase.customer()));
+                saga.setPurchase(write(orderPurchase.purchases()));
+                orderService.applyPurchases(findOrder(saga), orderPurchase.purchases());
+                moveTo(saga, SagaStep.PAYMENT, Instant.now());
+            });
+        } catch (RuntimeException e) {
+            // Nothing records the purchase, so a retry purchases afresh
+            orderService.releaseReservations(orderPurchase.purchases());
+            throw e;
+        }
+        if (!applied) {
+            orderService.releaseReservations(orderPurchase.purchases());
+        }
+    }
+
+    private void requestPayment(Claim claim) {
+        OrderSaga snapshot = findSaga(claim);
+        Order order = findOrder(snapshot);
+        paymentFeignClient.requestPayment(new PaymentRequest(
+                order.getOrderAmount(),
+                order.getPaymentMethod(),
+                order.getOrderReference(),
+                order.getId(),
+                read(snapshot.getCustomer(), CustomerResponse.class)));
+        // Not applied when the payment event overtook this step and moved the saga on
+        apply(claim, saga -> moveTo(saga, SagaStep.AWAITING_PAYMENT, Instant.now().plus(paymentTimeout)));
+    }
+
+    private void confirm(Claim claim) {
+        List<RestaurantPurchaseResponse> purchases = purchases(findSaga(claim));
+        orderService.confirmReservations(purchases);
+        apply(claim, saga -> {
+            Order order = findOrder(saga);
+            kafkaOrderProducer.sendOrderConfirmation(new OrderConfirmation(
+                    order.getId(),
+                    order.getOrderReference(),
+                    order.getOrderAmount(),
+                    order.getPaymentMethod(),
+                    read(saga.getCustomer(), CustomerResponse.class),
+                    purchases));
+            order.setOrderStatus(OrderStatus.CONFIRMED);
+            moveTo(saga, SagaStep.COMPLETED, null);
+            log.info("Order {} confirmed", order.getOrderReference());
+        });
+    }
+
+    private void release(Claim claim) {
+        orderService.releaseReservations(purchases(findSaga(claim)));
+        apply(claim, this::fail);
+    }
+
+    /**
+     * Applies the outcome of a step, with the saga locked, unless the saga moved on from
+     * the step claimed while the step ran.
+     *
+     * @param claim
+     *            The claim the step ran under.
+     * @param outcome
+     *            Updates the locked saga and its order.
+     * @return Whether the outcome was applied.
+     */
+    private boolean apply(Claim claim, Consumer<OrderSaga> outcome) {
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            OrderSaga saga = sagaRepository.findForUpdateById(claim.sagaId()).orElse(null);
+            if (saga == null || !claim.holds(saga)) {
+                log.debug("Order saga {} moved on from step {}", claim.sagaId(), claim.step());
+                return false;
+            }
+            outcome.accept(saga);
+            saga.setUpdatedAt(Instant.now());
+            return true;
+        }));
+    }
+
+    // In a transaction of its own, so a step that rolled back still has its failure recorded
+    private void recordFailure(Claim claim, RuntimeException e) {
+        try {
+            apply(claim, saga -> onStepFailure(saga, e));
+        } catch (RuntimeException failure) {
+            // The saga stays leased, and is retried once the lease runs out
+            log.error("Could not record failure of order saga {} at step {}: {}",
+                    claim.sagaId(), claim.step(), failure.getMessage());
+        }
+    }
+
+    private void onStepFailure(OrderSaga saga, RuntimeException e) {
+        String reason = e instanceof BusinessException businessException ? businessException.getMsg() : e.getMessage();
+        log.warn("Order saga {} failed at step {} (attempt {}): {}",
+                saga.getOrderReference(), saga.getStep(), saga.getAttempts() + 1, reason);
+        boolean retryable = isRetryable(e) && saga.getAttempts() + 1 < maxAttempts;
+
+        switch (saga.getStep()) {
+            // Past the pivot: the payment is taken, so only moving forward is possible
+            case CONFIRMATION -> {
+                if (isRetryable(e) && saga.getAttempts() + 1 < confirmationMaxAttempts) {
+                    retry(saga);
+                } else {
+                    requireRefund(saga, reason);
+                }
+            }
+            // Retrying could take the payment twice
+            case PAYMENT -> compensate(saga, reason);
+            case COMPENSATION -> {
+                if (retryable) {
+                    retry(saga);
+                } else {
+                    // The reservations still expire on the restaurant side
+                    fail(saga);
+                }
+            }
+            default -> {
+                if (retryable) {
+                    retry(saga);
+                } else {
+                    compensate(saga, reason);
+                }
+            }
+        }
+    }
+
+    private void requireRefund(OrderSaga saga, String reason) {
+        saga.setFailureReason(reason);
+        orderRepository.findById(saga.getOrderId()).ifPresent(order -> order.setOrderStatus(OrderStatus.FAILED));
+        moveTo(saga, SagaStep.REFUND_REQUIRED, null);
+        log.error("Order {} was paid but cannot be confirmed, it needs refunding: {}", saga.getOrderReference(), reason);
+    }
+
+    private void fail(OrderSaga saga) {
+        // The order may be what the saga failed on, so its absence does not stop the saga
+        orderRepository.findById(saga.getOrderId()).ifPresent(order -> order.setOrderStatus(OrderStatus.FAILED));
+        moveTo(saga, SagaStep.FAILED, null);
+        log.warn("Order {} failed: {}", saga.getOrderReference(), saga.getFailureReason());
+    }
+
+    private void compensate(OrderSaga saga, String reason) {
+        saga.setFailureReason(reason);
+        moveTo(saga, SagaStep.COMPENSATION, Instant.now());
+    }
+
+    private void retry(OrderSaga saga) {
+        int attempts = saga.getAttempts() + 1;
+        saga.setAttempts(attempts);
+        Duration backoff = retryBackoff.multipliedBy(1L << Math.min(attempts - 1, MAX_BACKOFF_DOUBLINGS));
+        saga.setNextAttemptAt(Instant.now().plus(backoff));
+    }
+
+    private static void moveTo(OrderSaga saga, SagaStep step, Instant nextAttemptAt) {
+        saga.setStep(step);
+        saga.setAttempts(0);
+        saga.setNextAttemptAt(nextAttemptAt);
+    }
+
+    private static boolean isRetryable(RuntimeException e) {
+        if (e instanceof FeignException feignException) {
+            return feignException.status() < 400 || feignException.status() >= 500;
+        }
+        return !(e instanceof BusinessException);
+    }
+
+    private OrderSaga findSaga(Claim claim) {
+        return sagaRepository.findById(claim.sagaId())
+                .orElseThrow(() -> new EntityNotFoundException("Order saga not found with ID: " + claim.sagaId()));
+    }
+
+    private Order findOrder(OrderSaga saga) {
+        return orderRepository.findById(saga.getOrderId())
+                .orElseThrow(() -> new EntityNotFoundException("Order not found with ID: " + saga.getOrderId()));
+    }
+
+    // Nothing was purchased when the purchase step failed before every restaurant sold
+    private List<RestaurantPurchaseResponse> purchases(OrderSaga saga) {
+        if (saga.getPurchase() == null) {
+            return List.of();
+        }
+        try {
+            return objectMapper.readValue(saga.getPurchase(), new TypeReference<List<RestaurantPurchaseResponse>>() {
+            });
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Saga purchases cannot be read", e);
+        }
+    }
+
+    private String write(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Saga state cannot be serialised: " + value.getClass().getName(), e);
+        }
+    }
+
+    private <T> T read(String json, Class<T> type) {
+        try {
+            return objectMapper.readValue(json, type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Saga state cannot be read as " + type.getName(), e);
+        }
+    }
+
+    /**
+     * A saga leased to run a step until the lease runs out.
+     *
+     * @param sagaId
+     *            The ID of the saga.
+     * @param step
+     *            The step claimed.
+     * @param leasedUntil
+     *            The next attempt the saga was leased with.
+     */
+    private record Claim(Integer sagaId, SagaStep step, Instant leasedUntil) {
+
+        // Any other step or next attempt means a payment event, or a later claim, moved the saga on
+        boolean holds(OrderSaga saga) {
+            return saga.getStep() == step && leasedUntil.equals(saga.getNextAttemptAt());
+        }
+    }
+}
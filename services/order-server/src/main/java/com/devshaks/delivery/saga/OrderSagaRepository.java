@@ -0,0 +1,36 @@
+package com.devshaks.delivery.saga;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface OrderSagaRepository extends JpaRepository<OrderSaga, Integer> {
+
+    // Claims the sagas due longest; a lock timeout of -2 is SKIP LOCKED, so orchestrators
+    // on several instances advance different sagas instead of waiting
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    List<OrderSaga> findAllByNextAttemptAtLessThanEqualOrderByNextAttemptAt(Instant now, Limit limit);
+
+    // Waits for an orchestrator advancing the saga, so an event is applied to the step it commits
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<OrderSaga> findForUpdateByOrderReference(UUID orderReference);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<OrderSaga> findForUpdateById(Integer id);
+
+    Optional<OrderSaga> findByOrderReference(UUID orderReference);
+
+    @Query("select s.orderReference from OrderSaga s where s.orderReference in :orderReferences")
+    List<UUID> findOrderReferencesIn(Collection<UUID> orderReferences);
+}
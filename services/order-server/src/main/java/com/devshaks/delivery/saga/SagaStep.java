@@ -0,0 +1,22 @@
+package com.devshaks.delivery.saga;
+
+/**
+ * The step an order saga is at. Payment is the pivot: before it a failure compensates,
+ * after it the saga only moves forward.
+ */
+public enum SagaStep {
+    // Look up the customer and purchase from the restaurant
+    PURCHASE,
+    // Ask the payment service to take the payment
+    PAYMENT,
+    // Wait for the payment event, until the payment timeout
+    AWAITING_PAYMENT,
+    // Confirm the reservation and publish the order confirmation
+    CONFIRMATION,
+    // Release the reservation and fail the order
+    COMPENSATION,
+    COMPLETED,
+    FAILED,
+    // Paid, but the confirmation failed for good: the payment needs refunding or manual action
+    REFUND_REQUIRED
+}
@@ -0,0 +1,130 @@
+package com.devshaks.delivery.idempotency;
+
+import com.devshaks.delivery.exceptions.BusinessException;
+import com.devshaks.delivery.exceptions.IdempotencyKeyReusedException;
+import com.devshaks.delivery.order.Order;
+import com.devshaks.delivery.order.OrderRepository;
+import com.devshaks.delivery.order.OrderRequest;
+import com.devshaks.delivery.order.OrderService;
+import com.devshaks.delivery.order.PaymentMethod;
+import com.devshaks.delivery.restaurant.CuisinePurchaseRequest;
+import com.devshaks.delivery.restaurant.RestaurantPurchaseRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OrderIdempotencyTests {
+
+    private final OrderService orderService = mock(OrderService.class);
+    private final OrderRepository orderRepository = mock(OrderRepository.class);
+    private final OrderIdempotency orderIdempotency = new OrderIdempotency(orderService, orderRepository,
+            new ObjectMapper(), 100, Duration.ofMinutes(10));
+
+    @Test
+    void replaysTheOrderCreatedForTheKey() {
+        when(orderRepository.findByIdempotencyKey(anyString())).thenReturn(Optional.empty());
+        when(orderService.createOrderPurchase(any(), any(IdempotencyKey.class))).thenReturn(42);
+
+        assertThat(orderIdempotency.createOrderPurchase("key-1", orderRequest(2))).isEqualTo(42);
+        assertThat(orderIdempotency.createOrderPurchase("key-1", orderRequest(2))).isEqualTo(42);
+
+        verify(orderService, times(1)).createOrderPurchase(any(), any(IdempotencyKey.class));
+    }
+
+    @Test
+    void coalescesConcurrentDuplicates() throws Exception {
+        when(orderRepository.findByIdempotencyKey(anyString())).thenReturn(Optional.empty());
+        when(orderService.createOrderPurchase(any(), any(IdempotencyKey.class))).thenAnswer(invocation -> {
+            Thread.sleep(200);
+            return 42;
+        });
+
+        ExecutorService clients = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Integer>> orderIds = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                orderIds.add(clients.submit(() -> orderIdempotency.createOrderPurchase("key-1", orderRequest(2))));
+            }
+            for (Future<Integer> orderId : orderIds) {
+                assertThat(orderId.get()).isEqualTo(42);
+            }
+        } finally {
+            clients.shutdown();
+        }
+        verify(orderService, times(1)).createOrderPurchase(any(), any(IdempotencyKey.class));
+    }
+
+    @Test
+    void replaysAStoredOrderWithoutCreatingOne() {
+        OrderRequest orderRequest = orderRequest(2);
+        IdempotencyKey idempotencyKey = captureKey("key-1", orderRequest);
+        Order stored = Order.builder()
+                .id(42)
+                .idempotencyKey("key-1")
+                .idempotencyFingerprint(idempotencyKey.fingerprint())
+                .build();
+        when(orderRepository.findByIdempotencyKey("key-1")).thenReturn(Optional.of(stored));
+
+        OrderIdempotency restarted = new OrderIdempotency(orderService, orderRepository,
+                new ObjectMapper(), 100, Duration.ofMinutes(10));
+        assertThat(restarted.createOrderPurchase("key-1", orderRequest)).isEqualTo(42);
+
+        verify(orderService, times(1)).createOrderPurchase(any(), any(IdempotencyKey.class));
+    }
+
+    @Test
+    void rejectsAKeyReusedForADifferentRequest() {
+        when(orderRepository.findByIdempotencyKey(anyString())).thenReturn(Optional.empty());
+        when(orderService.createOrderPurchase(any(), any(IdempotencyKey.class))).thenReturn(42);
+
+        orderIdempotency.createOrderPurchase("key-1", orderRequest(2));
+
+        assertThatThrownBy(() -> orderIdempotency.createOrderPurchase("key-1", orderRequest(3)))
+                .isInstanceOf(IdempotencyKeyReusedException.class);
+    }
+
+    @Test
+    void retriesAFailedOrder() {
+        when(orderRepository.findByIdempotencyKey(anyString())).thenReturn(Optional.empty());
+        when(orderService.createOrderPurchase(any(), any(IdempotencyKey.class)))
+                .thenThrow(new BusinessException("Error Creating Order"))
+                .thenReturn(42);
+
+        assertThatThrownBy(() -> orderIdempotency.createOrderPurchase("key-1", orderRequest(2)))
+                .isInstanceOf(BusinessException.class);
+        assertThat(orderIdempotency.createOrderPurchase("key-1", orderRequest(2))).isEqualTo(42);
+    }
+
+    // Places an order through a fresh instance to learn the fingerprint it stores
+    private IdempotencyKey captureKey(String key, OrderRequest orderRequest) {
+        when(orderRepository.findByIdempotencyKey(key)).thenReturn(Optional.empty());
+        IdempotencyKey[] captured = new IdempotencyKey[1];
+        when(orderService.createOrderPurchase(any(), any(IdempotencyKey.class))).thenAnswer(invocation -> {
+            captured[0] = invocation.getArgument(1);
+            return 42;
+        });
+        orderIdempotency.createOrderPurchase(key, orderRequest);
+        return captured[0];
+    }
+
+    private static OrderRequest orderRequest(int quantity) {
+        return new OrderRequest(null, PaymentMethod.values()[0], 1,
+                List.of(new RestaurantPurchaseRequest(3, List.of(new CuisinePurchaseRequest(7, quantity)))));
+    }
+}
@@ -0,0 +1,84 @@
+package com.devshaks.delivery.kafka;
+
+import com.devshaks.delivery.money.Money;
+import com.devshaks.delivery.order.OrderRepository;
+import com.devshaks.delivery.order.OrderStatus;
+import com.devshaks.delivery.order.PaymentMethod;
+import com.devshaks.delivery.saga.OrderSagaOrchestrator;
+import com.devshaks.delivery.saga.OrderSagaRepository;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class KafkaOrderConsumerTests {
+
+    private final OrderRepository orderRepository = mock(OrderRepository.class);
+    private final OrderSagaRepository orderSagaRepository = mock(OrderSagaRepository.class);
+    private final OrderSagaOrchestrator orderSagaOrchestrator = mock(OrderSagaOrchestrator.class);
+    private final KafkaOrderConsumer kafkaOrderConsumer = new KafkaOrderConsumer(orderRepository, orderSagaRepository,
+            orderSagaOrchestrator, new TransactionTemplate(mock(PlatformTransactionManager.class)));
+
+    @Test
+    void failingSagaEventIsReportedAsTheFailedRecord() {
+        PaymentEvent plain = paymentEvent();
+        PaymentEvent failing = paymentEvent();
+        PaymentEvent later = paymentEvent();
+        when(orderSagaRepository.findOrderReferencesIn(anyCollection()))
+                .thenReturn(List.of(failing.orderReference(), later.orderReference()));
+        when(orderSagaOrchestrator.onPaymentEvent(failing)).thenThrow(new IllegalStateException("Deadlock"));
+        List<ConsumerRecord<String, PaymentEvent>> records = records(plain, failing, later);
+
+        assertThatThrownBy(() -> kafkaOrderConsumer.handlePaymentEvents(records))
+                .isInstanceOfSatisfying(BatchListenerFailedException.class,
+                        e -> assertThat(e.getRecord()).isSameAs(records.get(1)));
+
+        verify(orderRepository).updateStatusByOrderReferenceIn(eq(OrderStatus.CONFIRMED), any(),
+                eq(List.of(plain.orderReference())));
+        verify(orderSagaOrchestrator, never()).onPaymentEvent(later);
+    }
+
+    @Test
+    void unreadableRecordIsReportedAfterTheRecordsBeforeItAreApplied() {
+        PaymentEvent before = paymentEvent();
+        PaymentEvent after = paymentEvent();
+        when(orderSagaRepository.findOrderReferencesIn(anyCollection())).thenReturn(List.of());
+        List<ConsumerRecord<String, PaymentEvent>> records = records(before, null, after);
+
+        assertThatThrownBy(() -> kafkaOrderConsumer.handlePaymentEvents(records))
+                .isInstanceOfSatisfying(BatchListenerFailedException.class,
+                        e -> assertThat(e.getRecord()).isSameAs(records.get(1)));
+
+        verify(orderRepository).updateStatusByOrderReferenceIn(eq(OrderStatus.CONFIRMED), any(),
+                eq(List.of(before.orderReference())));
+    }
+
+    private static PaymentEvent paymentEvent() {
+        return new PaymentEvent(1, Money.ofMinor(1700), UUID.randomUUID(), PaymentMethod.values()[0],
+                OrderStatus.CONFIRMED);
+    }
+
+    private static List<ConsumerRecord<String, PaymentEvent>> records(PaymentEvent... paymentEvents) {
+        List<ConsumerRecord<String, PaymentEvent>> records = new ArrayList<>(paymentEvents.length);
+        for (int i = 0; i < paymentEvents.length; i++) {
+            // A null event stands for a record the ErrorHandlingDeserializer could not read
+            records.add(new ConsumerRecord<>("payment-topic", 0, i, null, paymentEvents[i]));
+        }
+        return records;
+    }
+}
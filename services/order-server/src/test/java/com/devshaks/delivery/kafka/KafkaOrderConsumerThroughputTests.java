@@ -0,0 +1,146 @@
+package com.devshaks.delivery.kafka;
+
+import com.devshaks.delivery.config.KafkaListenerConfig;
+import com.devshaks.delivery.money.Money;
+import com.devshaks.delivery.order.OrderStatus;
+import com.devshaks.delivery.order.PaymentMethod;
+import com.devshaks.delivery.saga.OrderSagaOrchestrator;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Feeds payment events through an embedded broker at 10k events/s into the payment
+ * listener, against orders in H2, and reports how far behind the last event the last
+ * order status lands.
+ */
+@Slf4j
+@DataJpaTest(showSql = false, properties = {
+        "spring.cloud.config.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@EmbeddedKafka(topics = "payment-topic", partitions = 3, kraft = true)
+@Import({ KafkaOrderConsumer.class, KafkaListenerConfig.class, KafkaOrderConsumerThroughputTests.KafkaClients.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class KafkaOrderConsumerThroughputTests {
+
+    private static final int EVENTS_PER_SECOND = 10_000;
+    private static final int EVENTS = 3 * EVENTS_PER_SECOND;
+
+    @MockBean
+    private OrderSagaOrchestrator orderSagaOrchestrator;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private KafkaTemplate<String, PaymentEvent> kafkaTemplate;
+
+    @Test
+    void keepsUpWithTenThousandEventsPerSecond() throws InterruptedException {
+        List<UUID> orderReferences = insertPendingOrders();
+
+        long start = System.nanoTime();
+        for (int i = 0; i < EVENTS; i++) {
+            OrderStatus status = i % 10 == 0 ? OrderStatus.FAILED : OrderStatus.CONFIRMED;
+            kafkaTemplate.send("payment-topic", new PaymentEvent(i, Money.ofMinor(1700), orderReferences.get(i),
+                    PaymentMethod.values()[0], status));
+            // Paced to the target rate
+            if (i % 1000 == 999) {
+                long aheadNanos = (i + 1) * 1_000_000_000L / EVENTS_PER_SECOND - (System.nanoTime() - start);
+                if (aheadNanos > 0) {
+                    Thread.sleep(aheadNanos / 1_000_000);
+                }
+            }
+        }
+        kafkaTemplate.flush();
+        long sentNanos = System.nanoTime() - start;
+
+        long deadline = System.nanoTime() + 60_000_000_000L;
+        int applied = 0;
+        while (applied < EVENTS && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+            applied = jdbcTemplate.queryForObject(
+                    "select count(*) from customer_orders where order_status <> 'PENDING'", Integer.class);
+        }
+        long appliedNanos = System.nanoTime() - start;
+
+        log.info("{} payment events sent in {} ms ({} events/s); {} applied after {} ms ({} events/s), "
+                        + "{} ms after the last send",
+                EVENTS, sentNanos / 1_000_000, EVENTS * 1_000_000_000L / sentNanos,
+                applied, appliedNanos / 1_000_000, applied * 1_000_000_000L / appliedNanos,
+                (appliedNanos - sentNanos) / 1_000_000);
+
+        assertThat(applied).isEqualTo(EVENTS);
+        assertThat(jdbcTemplate.queryForObject(
+                "select count(*) from customer_orders where order_status = 'FAILED'", Integer.class))
+                .isEqualTo(EVENTS / 10);
+    }
+
+    private List<UUID> insertPendingOrders() {
+        List<UUID> orderReferences = new ArrayList<>(EVENTS);
+        List<Object[]> rows = new ArrayList<>(EVENTS);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        for (int i = 0; i < EVENTS; i++) {
+            UUID orderReference = UUID.randomUUID();
+            orderReferences.add(orderReference);
+            rows.add(new Object[] { i + 1, orderReference, 17, PaymentMethod.values()[0].name(), 1, now });
+        }
+        jdbcTemplate.batchUpdate("insert into customer_orders (id, order_reference, order_amount, payment_method, "
+                + "order_status, customer_id, order_date) values (?, ?, ?, ?, 'PENDING', ?, ?)", rows);
+        return orderReferences;
+    }
+
+    @TestConfiguration
+    static class KafkaClients {
+
+        @Bean
+        ConsumerFactory<String, PaymentEvent> consumerFactory(@Value("${spring.embedded.kafka.brokers}") String brokers) {
+            return new DefaultKafkaConsumerFactory<>(Map.of(
+                    ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, brokers,
+                    ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest",
+                    ConsumerConfig.MAX_POLL_RECORDS_CONFIG, 500),
+                    new StringDeserializer(),
+                    new ErrorHandlingDeserializer<>(new JsonDeserializer<>(PaymentEvent.class, false)));
+        }
+
+        @Bean
+        KafkaTemplate<String, PaymentEvent> kafkaTemplate(@Value("${spring.embedded.kafka.brokers}") String brokers) {
+            return new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(Map.of(
+                    ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, brokers,
+                    ProducerConfig.LINGER_MS_CONFIG, 5),
+                    new StringSerializer(),
+                    new JsonSerializer<PaymentEvent>().noTypeInfo()));
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package com.devshaks.delivery.order;
+
+import com.devshaks.delivery.customer.CustomerFeignClient;
+import com.devshaks.delivery.customer.CustomerResponse;
+import com.devshaks.delivery.downstream.DownstreamCalls;
+import com.devshaks.delivery.exceptions.BusinessException;
+import com.devshaks.delivery.kafka.KafkaOrderProducer;
+import com.devshaks.delivery.money.Money;
+import com.devshaks.delivery.orderline.OrderLines;
+import com.devshaks.delivery.payments.PaymentFeignClient;
+import com.devshaks.delivery.restaurant.CuisinePurchaseRequest;
+import com.devshaks.delivery.restaurant.PurchasedItems;
+import com.devshaks.delivery.restaurant.RestaurantFeignClient;
+import com.devshaks.delivery.restaurant.RestaurantPurchaseRequest;
+import com.devshaks.delivery.restaurant.RestaurantPurchaseResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Order creation against stubbed downstream services with injected delays: the customer
+ * lookup and the purchase overlap, the first failure or timeout ends the request, and a
+ * purchase abandoned that way has its reservation released.
+ */
+@Slf4j
+class OrderServiceFanOutTests {
+
+    private static final long CUSTOMER_DELAY_MILLIS = 40;
+    private static final long PURCHASE_DELAY_MILLIS = 60;
+    private static final UUID RESERVATION_ID = UUID.randomUUID();
+
+    private final CustomerFeignClient customerFeignClient = mock(CustomerFeignClient.class);
+    private final RestaurantFeignClient restaurantFeignClient = mock(RestaurantFeignClient.class);
+    private final OrderRepository orderRepository = mock(OrderRepository.class);
+    private final PaymentFeignClient paymentFeignClient = mock(PaymentFeignClient.class);
+    private DownstreamCalls downstreamCalls;
+
+    @AfterEach
+    void shutDown() {
+        downstreamCalls.destroy();
+    }
+
+    @Test
+    void waitsForTheSlowestCallRatherThanTheSum() {
+        OrderService orderService = orderService(Duration.ofSeconds(5));
+        stubCustomer(CUSTOMER_DELAY_MILLIS, true);
+        stubPurchase(PURCHASE_DELAY_MILLIS);
+
+        long[] sequential = latencies(() -> {
+            customerFeignClient.findCustomerById(1);
+            restaurantFeignClient.purchaseDelivery(3, null);
+        });
+        long[] fanOut = latencies(() -> orderService.createOrderPurchase(orderRequest()));
+        log.info("Order creation with {} ms customer and {} ms purchase delays: "
+                        + "calls in sequence p50 {} ms, p99 {} ms; order fan-out p50 {} ms, p99 {} ms",
+                CUSTOMER_DELAY_MILLIS, PURCHASE_DELAY_MILLIS,
+                percentile(sequential, 0.5), percentile(sequential, 0.99),
+                percentile(fanOut, 0.5), percentile(fanOut, 0.99));
+
+        assertThat(percentile(fanOut, 0.5)).isLessThan(CUSTOMER_DELAY_MILLIS + PURCHASE_DELAY_MILLIS);
+    }
+
+    @Test
+    void multiRestaurantOrderWaitsForTheSlowestRestaurant() {
+        OrderService orderService = orderService(Duration.ofSeconds(5));
+        stubCustomer(CUSTOMER_DELAY_MILLIS, true);
+        Map<Integer, Long> delays = Map.of(3, 60L, 4, 40L, 5, 50L);
+        delays.forEach(this::stubRestaurant);
+        OrderRequest orderRequest = multiRestaurantOrderRequest();
+
+        long[] fanOut = latencies(() -> orderService.createOrderPurchase(orderRequest));
+        long sequentialMillis = CUSTOMER_DELAY_MILLIS + delays.values().stream().mapToLong(Long::longValue).sum();
+        log.info("Order from restaurants with {} ms delays: calls in sequence would take {} ms; "
+                        + "order fan-out p50 {} ms, p99 {} ms",
+                delays.values(), sequentialMillis, percentile(fanOut, 0.5), percentile(fanOut, 0.99));
+
+        assertThat(percentile(fanOut, 0.5)).isLessThan(sequentialMillis / 2);
+        ArgumentCaptor<Order> saved = ArgumentCaptor.forClass(Order.class);
+        verify(orderRepository, atLeastOnce()).saveAndFlush(saved.capture());
+        assertThat(saved.getValue().getOrderLines())
+                .extracting(OrderLines::getRestaurantId)
+                .containsExactly(3, 3, 4, 5);
+        assertThat(saved.getValue().getOrderAmount()).isEqualTo(Money.ofMinor(4 * 1700));
+    }
+
+    @Test
+    void failedRestaurantReleasesTheOtherRestaurants() {
+        OrderService orderService = orderService(Duration.ofSeconds(5));
+        stubCustomer(10, true);
+        stubRestaurant(3, 10L);
+        stubRestaurant(5, 10L);
+        when(restaurantFeignClient.purchaseDelivery(eq(4), any())).thenAnswer(invocation -> {
+            Thread.sleep(50);
+            throw new IllegalStateException("Kitchen closed");
+        });
+
+        assertThatThrownBy(() -> orderService.createOrderPurchase(multiRestaurantOrderRequest()))
+                .isInstanceOf(BusinessException.class);
+
+        verify(restaurantFeignClient, timeout(1000)).releaseReservation(reservationId(3));
+        verify(restaurantFeignClient, timeout(1000)).releaseReservation(reservationId(5));
+        verify(paymentFeignClient, never()).requestPayment(any());
+    }
+
+    @Test
+    void unknownCustomerReleasesTheConcurrentPurchase() {
+        OrderService orderService = orderService(Duration.ofSeconds(5));
+        stubCustomer(10, false);
+        stubPurchase(PURCHASE_DELAY_MILLIS);
+
+        assertThatThrownBy(() -> orderService.createOrderPurchase(orderRequest()))
+                .isInstanceOf(BusinessException.class);
+
+        verify(restaurantFeignClient, timeout(1000)).releaseReservation(RESERVATION_ID);
+        verify(paymentFeignClient, never()).requestPayment(any());
+    }
+
+    @Test
+    void failedPurchaseDoesNotWaitForTheCustomer() {
+        OrderService orderService = orderService(Duration.ofSeconds(5));
+        stubCustomer(3000, true);
+        when(restaurantFeignClient.purchaseDelivery(anyInt(), any())).thenAnswer(invocation -> {
+            Thread.sleep(10);
+            throw new IllegalStateException("Kitchen closed");
+        });
+
+        long start = System.nanoTime();
+        assertThatThrownBy(() -> orderService.createOrderPurchase(orderRequest()))
+                .isInstanceOf(BusinessException.class);
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofMillis(2000));
+    }
+
+    @Test
+    void timedOutPurchaseIsReleasedWhenItCompletes() {
+        OrderService orderService = orderService(Duration.ofMillis(100));
+        stubCustomer(10, true);
+        stubPurchase(300);
+
+        assertThatThrownBy(() -> orderService.createOrderPurchase(orderRequest()))
+                .isInstanceOf(BusinessException.class);
+
+        verify(restaurantFeignClient, timeout(1000)).releaseReservation(RESERVATION_ID);
+        verify(paymentFeignClient, never()).requestPayment(any());
+    }
+
+    // Milliseconds per run, after unmeasured warm-up runs
+    private static long[] latencies(Runnable run) {
+        for (int i = 0; i < 20; i++) {
+            run.run();
+        }
+        long[] latencies = new long[100];
+        for (int i = 0; i < latencies.length; i++) {
+            long start = System.nanoTime();
+            run.run();
+            latencies[i] = (System.nanoTime() - start) / 1_000_000;
+        }
+        Arrays.sort(latencies);
+        return latencies;
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        return sorted[(int) Math.ceil(sorted.length * percentile) - 1];
+    }
+
+    private OrderService orderService(Duration timeout) {
+        downstreamCalls = new DownstreamCalls(4, 16, timeout);
+        when(orderRepository.saveAndFlush(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        return new OrderService(customerFeignClient, restaurantFeignClient, orderRepository, new OrderMapper(),
+                paymentFeignClient, mock(KafkaOrderProducer.class), downstreamCalls);
+    }
+
+    private void stubCustomer(long delayMillis, boolean found) {
+        CustomerResponse customer = new CustomerResponse(1, "Ada", "Lovelace", "ada@example.com");
+        when(customerFeignClient.findCustomerById(1)).thenAnswer(invocation -> {
+            Thread.sleep(delayMillis);
+            return found ? Optional.of(customer) : Optional.empty();
+        });
+    }
+
+    private void stubPurchase(long delayMillis) {
+        PurchasedItems item = new PurchasedItems(7, "Jollof Rice", 2, Money.ofMinor(850), Money.ofMinor(1700));
+        RestaurantPurchaseResponse response = new RestaurantPurchaseResponse(3, "Mama's Kitchen", List.of(item),
+                Money.ofMinor(1700), OrderStatus.PENDING, RESERVATION_ID);
+        when(restaurantFeignClient.purchaseDelivery(anyInt(), any())).thenAnswer(invocation -> {
+            Thread.sleep(delayMillis);
+            return response;
+        });
+    }
+
+    private void stubRestaurant(Integer restaurantId, Long delayMillis) {
+        when(restaurantFeignClient.purchaseDelivery(eq(restaurantId), any())).thenAnswer(invocation -> {
+            Thread.sleep(delayMillis);
+            RestaurantPurchaseRequest request = invocation.getArgument(1);
+            List<PurchasedItems> items = request.items().stream()
+                    .map(item -> new PurchasedItems(item.cuisineId(), "Dish " + item.cuisineId(), item.quantity(),
+                            Money.ofMinor(850), Money.ofMinor(850).times(item.quantity())))
+                    .toList();
+            Money total = items.stream().map(PurchasedItems::totalPrice).reduce(Money.ZERO, Money::plus);
+            return new RestaurantPurchaseResponse(restaurantId, "Restaurant " + restaurantId, items, total,
+                    OrderStatus.PENDING, reservationId(restaurantId));
+        });
+    }
+
+    private static UUID reservationId(int restaurantId) {
+        return new UUID(0, restaurantId);
+    }
+
+    // Two entries for restaurant 3, which are merged into one purchase
+    private static OrderRequest multiRestaurantOrderRequest() {
+        return new OrderRequest(null, PaymentMethod.values()[0], 1, List.of(
+                new RestaurantPurchaseRequest(3, List.of(new CuisinePurchaseRequest(7, 2))),
+                new RestaurantPurchaseRequest(4, List.of(new CuisinePurchaseRequest(8, 2))),
+                new RestaurantPurchaseRequest(3, List.of(new CuisinePurchaseRequest(9, 2))),
+                new RestaurantPurchaseRequest(5, List.of(new CuisinePurchaseRequest(10, 2)))));
+    }
+
+    private static OrderRequest orderRequest() {
+        return new OrderRequest(null, PaymentMethod.values()[0], 1,
+                List.of(new RestaurantPurchaseRequest(3, List.of(new CuisinePurchaseRequest(7, 2)))));
+    }
+}
@@ -0,0 +1,188 @@
+package com.devshaks.delivery.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.common.errors.NetworkException;
+import org.apache.kafka.common.errors.RecordTooLargeException;
+import org.apache.kafka.common.errors.TimeoutException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Relays outbox rows from H2 to a stubbed producer: only committed events are sent,
+ * acknowledged ones are marked sent, failed ones stay pending for the next poll and
+ * events that can never be sent are parked.
+ */
+@DataJpaTest(showSql = false, properties = {
+        "spring.cloud.config.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@Import({ Outbox.class, OutboxRelay.class, OutboxRelayTests.Json.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OutboxRelayTests {
+
+    private static final String TOPIC = "order-topic";
+
+    @MockBean
+    private KafkaTemplate<String, Object> kafkaTemplate;
+
+    @Autowired
+    private Outbox outbox;
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @AfterEach
+    void tearDown() {
+        outboxEventRepository.deleteAll();
+    }
+
+    @Test
+    void sendsCommittedEventsAndMarksThemSent() {
+        when(kafkaTemplate.send(anyString(), any(), any())).thenReturn(acknowledged());
+        append(new Shipped("A"), new Shipped("B"));
+
+        assertThat(outboxRelay.relayPendingEvents()).isEqualTo(2);
+
+        verify(kafkaTemplate).send(TOPIC, "A", new Shipped("A"));
+        verify(kafkaTemplate).send(TOPIC, "B", new Shipped("B"));
+        assertThat(outboxEventRepository.findAll()).allSatisfy(event -> assertThat(event.getSentAt()).isNotNull());
+        assertThat(outboxRelay.relayPendingEvents()).isZero();
+    }
+
+    @Test
+    void doesNotSendEventsOfARolledBackTransaction() {
+        transactionTemplate.executeWithoutResult(status -> {
+            outbox.append(TOPIC, "A", new Shipped("A"));
+            status.setRollbackOnly();
+        });
+
+        assertThat(outboxRelay.relayPendingEvents()).isZero();
+
+        verify(kafkaTemplate, never()).send(anyString(), any(), any());
+        assertThat(outboxEventRepository.count()).isZero();
+    }
+
+    @Test
+    void retriesAFailedSendOnTheNextPoll() {
+        when(kafkaTemplate.send(anyString(), any(), any()))
+                .thenReturn(failed(new NetworkException("Broker disconnected")))
+                .thenReturn(acknowledged());
+        append(new Shipped("A"));
+
+        assertThat(outboxRelay.relayPendingEvents()).isZero();
+        assertThat(onlyEvent().getAttempts()).isEqualTo(1);
+        assertThat(onlyEvent().getSentAt()).isNull();
+
+        assertThat(outboxRelay.relayPendingEvents()).isEqualTo(1);
+        assertThat(onlyEvent().getSentAt()).isNotNull();
+    }
+
+    @Test
+    void stopsTheBatchAtTheFirstSendThatCannotReachTheBroker() {
+        when(kafkaTemplate.send(anyString(), any(), any()))
+                .thenReturn(failed(new TimeoutException("Topic order-topic not present in metadata after 5000 ms.")));
+        append(new Shipped("A"), new Shipped("B"), new Shipped("C"));
+
+        assertThat(outboxRelay.relayPendingEvents()).isZero();
+
+        verify(kafkaTemplate, times(1)).send(anyString(), any(), any());
+        assertThat(outboxEventRepository.findAll()).extracting(OutboxEvent::getAttempts).containsExactlyInAnyOrder(1, 0, 0);
+    }
+
+    @Test
+    void parksAnEventWhosePayloadCannotBeRead() {
+        when(kafkaTemplate.send(anyString(), any(), any())).thenReturn(acknowledged());
+        outboxEventRepository.save(OutboxEvent.builder()
+                .topic(TOPIC)
+                .payloadType("com.devshaks.delivery.kafka.RemovedEvent")
+                .payload("{}")
+                .createdAt(Instant.now())
+                .build());
+        append(new Shipped("A"));
+
+        assertThat(outboxRelay.relayPendingEvents()).isEqualTo(1);
+        assertThat(outboxRelay.relayPendingEvents()).isZero();
+
+        verify(kafkaTemplate, times(1)).send(anyString(), any(), any());
+        assertThat(outboxEventRepository.findAll())
+                .filteredOn(event -> event.getSentAt() == null)
+                .singleElement()
+                .satisfies(event -> assertThat(event.getParkedAt()).isNotNull());
+    }
+
+    @Test
+    void parksAnEventTheBrokerRejects() {
+        when(kafkaTemplate.send(anyString(), any(), any()))
+                .thenReturn(failed(new RecordTooLargeException("The message is 2000000 bytes")));
+        append(new Shipped("A"));
+
+        assertThat(outboxRelay.relayPendingEvents()).isZero();
+        assertThat(outboxRelay.relayPendingEvents()).isZero();
+
+        verify(kafkaTemplate, times(1)).send(anyString(), any(), any());
+        assertThat(onlyEvent().getParkedAt()).isNotNull();
+    }
+
+    private void append(Shipped... events) {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (Shipped event : events) {
+                outbox.append(TOPIC, event.orderReference(), event);
+            }
+        });
+    }
+
+    private OutboxEvent onlyEvent() {
+        List<OutboxEvent> events = outboxEventRepository.findAll();
+        assertThat(events).hasSize(1);
+        return events.get(0);
+    }
+
+    private static CompletableFuture<SendResult<String, Object>> acknowledged() {
+        return CompletableFuture.completedFuture(null);
+    }
+
+    private static CompletableFuture<SendResult<String, Object>> failed(Exception cause) {
+        return CompletableFuture.failedFuture(cause);
+    }
+
+    public record Shipped(String orderReference) {
+    }
+
+    @TestConfiguration
+    static class Json {
+
+        @Bean
+        ObjectMapper objectMapper() {
+            return new ObjectMapper();
+        }
+    }
+}
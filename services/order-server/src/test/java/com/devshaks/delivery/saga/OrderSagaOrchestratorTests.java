@@ -0,0 +1,338 @@
+package com.devshaks.delivery.saga;
+
+import com.devshaks.delivery.customer.CustomerFeignClient;
+import com.devshaks.delivery.customer.CustomerResponse;
+import com.devshaks.delivery.downstream.DownstreamCalls;
+import com.devshaks.delivery.kafka.KafkaOrderProducer;
+import com.devshaks.delivery.kafka.PaymentEvent;
+import com.devshaks.delivery.money.Money;
+import com.devshaks.delivery.order.Order;
+import com.devshaks.delivery.order.OrderMapper;
+import com.devshaks.delivery.order.OrderRepository;
+import com.devshaks.delivery.order.OrderRequest;
+import com.devshaks.delivery.order.OrderService;
+import com.devshaks.delivery.order.OrderStatus;
+import com.devshaks.delivery.order.PaymentMethod;
+import com.devshaks.delivery.payments.PaymentFeignClient;
+import com.devshaks.delivery.restaurant.CuisinePurchaseRequest;
+import com.devshaks.delivery.restaurant.PurchasedItems;
+import com.devshaks.delivery.restaurant.RestaurantFeignClient;
+import com.devshaks.delivery.restaurant.RestaurantPurchaseRequest;
+import com.devshaks.delivery.restaurant.RestaurantPurchaseResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import feign.FeignException;
+import feign.Request;
+import feign.Response;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Drives order sagas through their steps against stubbed downstream services, with the
+ * saga and order tables replaced by maps of the sagas and orders accepted.
+ */
+class OrderSagaOrchestratorTests {
+
+    private static final UUID RESERVATION_ID = UUID.randomUUID();
+
+    private final OrderSagaRepository sagaRepository = mock(OrderSagaRepository.class);
+    private final OrderRepository orderRepository = mock(OrderRepository.class);
+    private final CustomerFeignClient customerFeignClient = mock(CustomerFeignClient.class);
+    private final RestaurantFeignClient restaurantFeignClient = mock(RestaurantFeignClient.class);
+    private final PaymentFeignClient paymentFeignClient = mock(PaymentFeignClient.class);
+    private final KafkaOrderProducer kafkaOrderProducer = mock(KafkaOrderProducer.class);
+    private final DownstreamCalls downstreamCalls = new DownstreamCalls(4, 16, Duration.ofSeconds(5));
+    private final Map<Integer, Order> orders = new ConcurrentHashMap<>();
+    private final Map<Integer, OrderSaga> sagas = new ConcurrentHashMap<>();
+    private OrderSagaOrchestrator orchestrator;
+    // The order and saga accepted last
+    private Order order;
+    private OrderSaga saga;
+
+    @AfterEach
+    void shutDown() {
+        downstreamCalls.destroy();
+        orchestrator.destroy();
+    }
+
+    @Test
+    void acceptedOrderIsConfirmedOncePaid() {
+        orchestrator(Duration.ofMinutes(5));
+        stubDownstreams(true);
+
+        orchestrator.accept(orderRequest());
+        assertThat(order.getOrderStatus()).isEqualTo(OrderStatus.PENDING);
+
+        orchestrator.advanceDueSagas();
+        assertThat(saga.getStep()).isEqualTo(SagaStep.AWAITING_PAYMENT);
+        assertThat(order.getOrderAmount()).isEqualTo(Money.ofMinor(1700));
+        verify(paymentFeignClient).requestPayment(any());
+
+        orchestrator.onPaymentEvent(paymentEvent(OrderStatus.CONFIRMED));
+        orchestrator.advanceDueSagas();
+
+        assertThat(saga.getStep()).isEqualTo(SagaStep.COMPLETED);
+        assertThat(order.getOrderStatus()).isEqualTo(OrderStatus.CONFIRMED);
+        verify(restaurantFeignClient).confirmReservation(RESERVATION_ID);
+        verify(kafkaOrderProducer).sendOrderConfirmation(any());
+    }
+
+    @Test
+    void paymentTimeoutReleasesTheReservation() {
+        orchestrator(Duration.ZERO);
+        stubDownstreams(true);
+
+        orchestrator.accept(orderRequest());
+        orchestrator.advanceDueSagas();
+
+        assertThat(saga.getStep()).isEqualTo(SagaStep.FAILED);
+        assertThat(saga.getFailureReason()).startsWith("Payment not confirmed");
+        assertThat(order.getOrderStatus()).isEqualTo(OrderStatus.FAILED);
+        verify(restaurantFeignClient).releaseReservation(RESERVATION_ID);
+        verify(kafkaOrderProducer, never()).sendOrderConfirmation(any());
+    }
+
+    @Test
+    void unknownCustomerFailsTheOrderWithoutPayment() {
+        orchestrator(Duration.ofMinutes(5));
+        stubDownstreams(false);
+
+        orchestrator.accept(orderRequest());
+        orchestrator.advanceDueSagas();
+
+        assertThat(saga.getStep()).isEqualTo(SagaStep.FAILED);
+        assertThat(saga.getFailureReason()).startsWith("Customer Was Not Found");
+        assertThat(order.getOrderStatus()).isEqualTo(OrderStatus.FAILED);
+        verify(paymentFeignClient, never()).requestPayment(any());
+        verify(restaurantFeignClient, never()).confirmReservation(any());
+    }
+
+    @Test
+    void expiredReservationLeavesThePaidOrderForRefund() {
+        orchestrator(Duration.ofMinutes(5));
+        stubDownstreams(true);
+        doThrow(feignException(409)).when(restaurantFeignClient).confirmReservation(RESERVATION_ID);
+
+        orchestrator.accept(orderRequest());
+        orchestrator.advanceDueSagas();
+        orchestrator.onPaymentEvent(paymentEvent(OrderStatus.CONFIRMED));
+        orchestrator.advanceDueSagas();
+
+        assertThat(saga.getStep()).isEqualTo(SagaStep.REFUND_REQUIRED);
+        assertThat(saga.getNextAttemptAt()).isNull();
+        assertThat(order.getOrderStatus()).isEqualTo(OrderStatus.FAILED);
+        verify(restaurantFeignClient, times(1)).confirmReservation(RESERVATION_ID);
+        verify(kafkaOrderProducer, never()).sendOrderConfirmation(any());
+    }
+
+    @Test
+    void paymentConfirmedAfterTheOrderFailedLeavesItForRefund() {
+        orchestrator(Duration.ZERO);
+        stubDownstreams(true);
+
+        orchestrator.accept(orderRequest());
+        orchestrator.advanceDueSagas();
+        assertThat(saga.getStep()).isEqualTo(SagaStep.FAILED);
+
+        orchestrator.onPaymentEvent(paymentEvent(OrderStatus.CONFIRMED));
+        orchestrator.advanceDueSagas();
+
+        assertThat(saga.getStep()).isEqualTo(SagaStep.REFUND_REQUIRED);
+        assertThat(saga.getNextAttemptAt()).isNull();
+        assertThat(saga.getFailureReason()).startsWith("Payment confirmed after the order failed");
+        assertThat(order.getOrderStatus()).isEqualTo(OrderStatus.FAILED);
+        verify(restaurantFeignClient, never()).confirmReservation(any());
+        verify(kafkaOrderProducer, never()).sendOrderConfirmation(any());
+    }
+
+    @Test
+    void paymentConfirmedDuringCompensationLeavesTheOrderForRefund() {
+        orchestrator(Duration.ofMinutes(5));
+        stubDownstreams(true);
+
+        orchestrator.accept(orderRequest());
+        orchestrator.advanceDueSagas();
+        orchestrator.onPaymentEvent(paymentEvent(OrderStatus.FAILED));
+        assertThat(saga.getStep()).isEqualTo(SagaStep.COMPENSATION);
+
+        orchestrator.onPaymentEvent(paymentEvent(OrderStatus.CONFIRMED));
+        orchestrator.advanceDueSagas();
+
+        assertThat(saga.getStep()).isEqualTo(SagaStep.REFUND_REQUIRED);
+        assertThat(order.getOrderStatus()).isEqualTo(OrderStatus.FAILED);
+        verify(kafkaOrderProducer, never()).sendOrderConfirmation(any());
+    }
+
+    @Test
+    void unavailableRestaurantIsRetriedUntilTheConfirmationAttemptsRunOut() throws InterruptedException {
+        orchestrator(Duration.ofMinutes(5));
+        stubDownstreams(true);
+        doThrow(feignException(503)).when(restaurantFeignClient).confirmReservation(RESERVATION_ID);
+
+        orchestrator.accept(orderRequest());
+        orchestrator.advanceDueSagas();
+        orchestrator.onPaymentEvent(paymentEvent(OrderStatus.CONFIRMED));
+        for (int i = 0; i < 5 && saga.getStep() != SagaStep.REFUND_REQUIRED; i++) {
+            orchestrator.advanceDueSagas();
+            Thread.sleep(50);
+        }
+
+        assertThat(saga.getStep()).isEqualTo(SagaStep.REFUND_REQUIRED);
+        verify(restaurantFeignClient, times(3)).confirmReservation(RESERVATION_ID);
+        verify(kafkaOrderProducer, never()).sendOrderConfirmation(any());
+    }
+
+    @Test
+    void failingSagaDoesNotHoldUpTheOthers() throws InterruptedException {
+        orchestrator(Duration.ofMinutes(5));
+        stubDownstreams(true);
+
+        orchestrator.accept(orderRequest());
+        OrderSaga unreadable = saga;
+        Order unreadableOrder = order;
+        unreadable.setRequest("{not json");
+        orchestrator.accept(orderRequest());
+
+        orchestrator.advanceDueSagas();
+        assertThat(saga.getStep()).isEqualTo(SagaStep.AWAITING_PAYMENT);
+
+        // Retried with backoff until the attempts run out, then failed
+        for (int i = 0; i < 5 && unreadable.getStep() != SagaStep.FAILED; i++) {
+            Thread.sleep(50);
+            orchestrator.advanceDueSagas();
+        }
+        assertThat(unreadable.getStep()).isEqualTo(SagaStep.FAILED);
+        assertThat(unreadable.getFailureReason()).startsWith("Saga state cannot be read");
+        assertThat(unreadableOrder.getOrderStatus()).isEqualTo(OrderStatus.FAILED);
+        assertThat(saga.getStep()).isEqualTo(SagaStep.AWAITING_PAYMENT);
+    }
+
+    @Test
+    void stepsOfDueSagasRunConcurrently() {
+        orchestrator(Duration.ofMinutes(5));
+        stubDownstreams(true);
+        doAnswer(invocation -> {
+            Thread.sleep(200);
+            return null;
+        }).when(paymentFeignClient).requestPayment(any());
+        for (int i = 0; i < 4; i++) {
+            orchestrator.accept(orderRequest());
+        }
+
+        long start = System.nanoTime();
+        orchestrator.advanceDueSagas();
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofMillis(4 * 200));
+        assertThat(sagas.values()).extracting(OrderSaga::getStep).containsOnly(SagaStep.AWAITING_PAYMENT);
+    }
+
+    @Test
+    void paymentEventOvertakingThePaymentStepIsApplied() {
+        orchestrator(Duration.ofMinutes(5));
+        stubDownstreams(true);
+        // The payment service publishes its event before the payment step commits
+        doAnswer(invocation -> {
+            orchestrator.onPaymentEvent(paymentEvent(OrderStatus.CONFIRMED));
+            return null;
+        }).when(paymentFeignClient).requestPayment(any());
+
+        orchestrator.accept(orderRequest());
+        orchestrator.advanceDueSagas();
+
+        assertThat(saga.getStep()).isEqualTo(SagaStep.COMPLETED);
+        assertThat(order.getOrderStatus()).isEqualTo(OrderStatus.CONFIRMED);
+        verify(restaurantFeignClient).confirmReservation(RESERVATION_ID);
+    }
+
+    private void orchestrator(Duration paymentTimeout) {
+        when(orderRepository.save(any())).thenAnswer(invocation -> {
+            order = invocation.getArgument(0);
+            order.setId(orders.size() + 1);
+            order.setOrderReference(UUID.randomUUID());
+            orders.put(order.getId(), order);
+            return order;
+        });
+        when(orderRepository.findById(anyInt())).thenAnswer(invocation ->
+                Optional.ofNullable(orders.get(invocation.<Integer>getArgument(0))));
+        when(sagaRepository.save(any())).thenAnswer(invocation -> {
+            saga = invocation.getArgument(0);
+            saga.setId(sagas.size() + 1);
+            sagas.put(saga.getId(), saga);
+            return saga;
+        });
+        when(sagaRepository.findById(anyInt())).thenAnswer(invocation ->
+                Optional.ofNullable(sagas.get(invocation.<Integer>getArgument(0))));
+        when(sagaRepository.findForUpdateById(anyInt())).thenAnswer(invocation ->
+                Optional.ofNullable(sagas.get(invocation.<Integer>getArgument(0))));
+        when(sagaRepository.findForUpdateByOrderReference(any())).thenAnswer(invocation -> sagas.values().stream()
+                .filter(candidate -> candidate.getOrderReference().equals(invocation.getArgument(0)))
+                .findFirst());
+        when(sagaRepository.findAllByNextAttemptAtLessThanEqualOrderByNextAttemptAt(any(), any())).thenAnswer(invocation -> {
+            Instant now = invocation.getArgument(0);
+            return sagas.values().stream()
+                    .filter(candidate -> candidate.getNextAttemptAt() != null && !candidate.getNextAttemptAt().isAfter(now))
+                    .sorted(Comparator.comparing(OrderSaga::getNextAttemptAt))
+                    .toList();
+        });
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        OrderMapper orderMapper = new OrderMapper();
+        OrderService orderService = new OrderService(customerFeignClient, restaurantFeignClient, orderRepository,
+                orderMapper, paymentFeignClient, kafkaOrderProducer, downstreamCalls);
+        orchestrator = new OrderSagaOrchestrator(sagaRepository, orderRepository, orderMapper, orderService,
+                paymentFeignClient, kafkaOrderProducer,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), objectMapper,
+                100, 3, 3, Duration.ofMillis(10), paymentTimeout, 4, Duration.ofMinutes(1));
+    }
+
+    private void stubDownstreams(boolean customerFound) {
+        CustomerResponse customer = new CustomerResponse(1, "Ada", "Lovelace", "ada@example.com");
+        when(customerFeignClient.findCustomerById(1))
+                .thenReturn(customerFound ? Optional.of(customer) : Optional.empty());
+        PurchasedItems item = new PurchasedItems(7, "Jollof Rice", 2, Money.ofMinor(850), Money.ofMinor(1700));
+        when(restaurantFeignClient.purchaseDelivery(anyInt(), any())).thenReturn(new RestaurantPurchaseResponse(
+                3, "Mama's Kitchen", List.of(item), Money.ofMinor(1700), OrderStatus.PENDING, RESERVATION_ID));
+    }
+
+    private static FeignException feignException(int status) {
+        Request request = Request.create(Request.HttpMethod.POST, "/api/v1/restaurants/reservations",
+                Map.of(), null, StandardCharsets.UTF_8, null);
+        return FeignException.errorStatus("confirmReservation", Response.builder()
+                .status(status)
+                .reason("Status " + status)
+                .request(request)
+                .headers(Map.of())
+                .build());
+    }
+
+    private PaymentEvent paymentEvent(OrderStatus orderStatus) {
+        return new PaymentEvent(10, order.getOrderAmount(), order.getOrderReference(), PaymentMethod.values()[0], orderStatus);
+    }
+
+    private static OrderRequest orderRequest() {
+        return new OrderRequest(null, PaymentMethod.values()[0], 1,
+                List.of(new RestaurantPurchaseRequest(3, List.of(new CuisinePurchaseRequest(7, 2)))));
+    }
+}
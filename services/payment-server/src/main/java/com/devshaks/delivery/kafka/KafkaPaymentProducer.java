@@ -1,24 +1,19 @@
 package com.devshaks.delivery.kafka;
 
+import com.devshaks.delivery.outbox.Outbox;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.kafka.core.KafkaTemplate;
-import org.springframework.kafka.support.KafkaHeaders;
-import org.springframework.messaging.Message;
-import org.springframework.messaging.support.MessageBuilder;
 import org.springframework.stereotype.Service;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class KafkaPaymentProducer {
-    private final KafkaTemplate<String, PaymentEvent> kafkaTemplate;
+    private final Outbox outbox;
+
+    // Queued in the caller's transaction, keyed by order; the OutboxRelay publishes it once committed
     public void sendPaymentEvent(PaymentEvent event) {
-        log.info("Sending Payment Event to Order Service: {}", event);
-        Message<PaymentEvent> message = MessageBuilder
-                .withPayload(event)
-                .setHeader(KafkaHeaders.TOPIC, "payment-topic")
-                .build();
-        kafkaTemplate.send(message);
+        log.info("Queueing Payment Event for Order Service: {}", event);
+        outbox.append("payment-topic", String.valueOf(event.orderReference()), event);
     }
-}
\ No newline at end of file
+}
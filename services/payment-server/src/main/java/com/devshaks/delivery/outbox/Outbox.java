@@ -0,0 +1,50 @@
+package com.devshaks.delivery.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+/**
+ * Transactional outbox: events are stored in the caller's transaction and published by
+ * the OutboxRelay once committed, so an event is sent if and only if the change it
+ * announces commits, and the request never waits on the broker.
+ */
+@Component
+@RequiredArgsConstructor
+public class Outbox {
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Stores an event for publication. Must be called within the transaction of the
+     * change the event announces.
+     *
+     * @param topic
+     *            The topic to publish to.
+     * @param key
+     *            The record key, or null to let the producer spread records.
+     * @param event
+     *            The event, serialised as JSON.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(String topic, String key, Object event) {
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Event cannot be serialised: " + event.getClass().getName(), e);
+        }
+        outboxEventRepository.save(OutboxEvent.builder()
+                .topic(topic)
+                .messageKey(key)
+                .payloadType(event.getClass().getName())
+                .payload(payload)
+                .createdAt(Instant.now())
+                .build());
+    }
+}
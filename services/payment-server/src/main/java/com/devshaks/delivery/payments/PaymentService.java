@@ -2,6 +2,7 @@ package com.devshaks.delivery.payments;
 
 import com.devshaks.delivery.kafka.KafkaPaymentProducer;
 import com.devshaks.delivery.kafka.PaymentEvent;
+import com.devshaks.delivery.money.Money;
 import com.stripe.exception.StripeException;
 import com.stripe.model.PaymentIntent;
 
@@ -9,12 +10,13 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
-import java.math.BigDecimal;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 @RequiredArgsConstructor
@@ -25,21 +27,17 @@ public class PaymentService {
     private final KafkaPaymentProducer kafkaPaymentProducer;
 
     // include stripe
+    @Transactional
     public Integer createPayment(@Valid PaymentRequest paymentRequest) {
         var payments = paymentRepository.save(paymentMapper.mapToPayments(paymentRequest));
 
-        // Kafka Event
-        try {
-            kafkaPaymentProducer.sendPaymentEvent(new PaymentEvent(
-                    payments.getId(),
-                    payments.getAmount(),
-                    payments.getOrderReference(),
-                    payments.getPaymentMethod(),
-                    OrderStatus.CONFIRMED));
-        } catch (Exception e) {
-            log.error("Error sending payment event to order service: {}", e.getMessage());
-            throw new RuntimeException("Error sending payment event to order service");
-        }
+        // Kafka Event, committed with the payment through the outbox
+        kafkaPaymentProducer.sendPaymentEvent(new PaymentEvent(
+                payments.getId(),
+                payments.getAmount(),
+                payments.getOrderReference(),
+                payments.getPaymentMethod(),
+                OrderStatus.CONFIRMED));
 
         return payments.getId();
     }
@@ -47,8 +45,9 @@ public class PaymentService {
     public StripePaymentResponse createStripePayment(@Valid PaymentRequest paymentRequest) {
         try {
             Map<String, Object> params = new HashMap<>();
-            params.put("amount", paymentRequest.orderAmount().multiply(BigDecimal.valueOf(100)).intValue());
-            params.put("currency", "gbp");
+            // Stripe takes the amount in the currency's minor units, which is how Money holds it
+            params.put("amount", paymentRequest.orderAmount().minorUnits());
+            params.put("currency", paymentRequest.orderAmount().currency().getCurrencyCode().toLowerCase(Locale.ROOT));
             params.put("payment_method_types", List.of("card"));
             params.put("description", "Payment for Order " + paymentRequest.orderReference());
 
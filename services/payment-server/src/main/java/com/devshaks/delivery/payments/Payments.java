@@ -1,5 +1,6 @@
 package com.devshaks.delivery.payments;
 
+import com.devshaks.delivery.money.Money;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -7,7 +8,6 @@ import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
@@ -30,7 +30,7 @@ public class Payments {
     private String stripePaymentId;
 
     @Column(nullable = false, precision = 10, scale = 2)
-    private BigDecimal amount;
+    private Money amount;
 
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
@@ -0,0 +1,107 @@
+package com.devshaks.delivery.capacity;
+
+import com.devshaks.delivery.exceptions.KitchenAtCapacityException;
+import com.devshaks.delivery.restaurant.RestaurantCapacity;
+import com.devshaks.delivery.restaurant.RestaurantRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Cost of the admission check at the start of every purchase: a restaurant without a
+ * limit, a rejection once a limited kitchen is full, and one bucket hammered by four
+ * threads, where the CAS retry loop is contended.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class KitchenCapacityLimiterBenchmark {
+
+    private static final int RESTAURANTS = 10_000;
+    private static final int UNLIMITED_RESTAURANT_ID = RESTAURANTS + 1;
+    private static final int FULL_RESTAURANT_ID = 1;
+
+    private KitchenCapacityLimiter limiter;
+    private KitchenCapacityLimiter.Bucket hotBucket;
+
+    @Setup
+    public void setUp() {
+        List<RestaurantCapacity> capacities = new ArrayList<>(RESTAURANTS);
+        for (int id = 1; id <= RESTAURANTS; id++) {
+            capacities.add(capacity(id, id == FULL_RESTAURANT_ID ? 1 : 60));
+        }
+        RestaurantRepository restaurantRepository = mock(RestaurantRepository.class, withSettings().stubOnly());
+        when(restaurantRepository.findAllCapacities()).thenReturn(capacities);
+
+        limiter = new KitchenCapacityLimiter(restaurantRepository, 5);
+        limiter.load();
+        admitUntilFull(FULL_RESTAURANT_ID);
+
+        // Far above what the threads can reach, so every acquire succeeds after its CAS
+        hotBucket = new KitchenCapacityLimiter.Bucket(Integer.MAX_VALUE, 5);
+    }
+
+    @Benchmark
+    public void admitUnlimited() {
+        limiter.admit(UNLIMITED_RESTAURANT_ID);
+    }
+
+    @Benchmark
+    public KitchenAtCapacityException rejectFull() {
+        try {
+            limiter.admit(FULL_RESTAURANT_ID);
+            return null;
+        } catch (KitchenAtCapacityException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long acquireContended() {
+        return hotBucket.tryAcquire(System.nanoTime());
+    }
+
+    private void admitUntilFull(int restaurantId) {
+        try {
+            while (true) {
+                limiter.admit(restaurantId);
+            }
+        } catch (KitchenAtCapacityException e) {
+            // Full for the next minute
+        }
+    }
+
+    private static RestaurantCapacity capacity(int id, int ordersPerMinute) {
+        return new RestaurantCapacity() {
+            @Override
+            public Integer getId() {
+                return id;
+            }
+
+            @Override
+            public Integer getOrdersPerMinute() {
+                return ordersPerMinute;
+            }
+        };
+    }
+}
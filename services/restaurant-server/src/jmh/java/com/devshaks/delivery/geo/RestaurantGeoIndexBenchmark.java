@@ -0,0 +1,177 @@
+package com.devshaks.delivery.geo;
+
+import com.devshaks.delivery.restaurant.RestaurantLocation;
+import com.devshaks.delivery.restaurant.RestaurantRepository;
+import com.devshaks.delivery.schedule.RestaurantScheduleIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Nearby search through the grid index against the SQL it replaces: a bounding-box
+ * pre-filter on an indexed latitude column plus an exact haversine filter and ORDER BY,
+ * run on an in-memory H2 database so the comparison is not dominated by network round
+ * trips. Restaurants are spread over a 40 km square around central London.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RestaurantGeoIndexBenchmark {
+
+    private static final double ORIGIN_LATITUDE = 51.5074;
+    private static final double ORIGIN_LONGITUDE = -0.1278;
+    private static final double RADIUS_KM = 3.0;
+    private static final int LIMIT = 20;
+
+    private static final String NEAREST_SQL = """
+            SELECT id, name, latitude, longitude, distance_km FROM (
+                SELECT id, name, latitude, longitude,
+                       2 * 6371.0088 * ASIN(SQRT(
+                           POWER(SIN(RADIANS(latitude - ?) / 2), 2)
+                           + COS(RADIANS(?)) * COS(RADIANS(latitude)) * POWER(SIN(RADIANS(longitude - ?) / 2), 2)
+                       )) AS distance_km
+                FROM restaurant
+                WHERE is_open AND latitude BETWEEN ? AND ? AND longitude BETWEEN ? AND ?
+            ) nearby
+            WHERE distance_km <= ?
+            ORDER BY distance_km
+            LIMIT ?
+            """;
+
+    @Param({ "10000", "100000" })
+    int restaurants;
+
+    private RestaurantGeoIndex geoIndex;
+    private Connection connection;
+    private PreparedStatement nearestStatement;
+
+    @Setup
+    public void setUp() throws SQLException {
+        Random random = new Random(42);
+        List<RestaurantLocation> locations = new ArrayList<>(restaurants);
+        for (int id = 1; id <= restaurants; id++) {
+            locations.add(location(id,
+                    ORIGIN_LATITUDE + (random.nextDouble() - 0.5) * 0.36,
+                    ORIGIN_LONGITUDE + (random.nextDouble() - 0.5) * 0.58));
+        }
+
+        RestaurantRepository restaurantRepository = mock(RestaurantRepository.class, withSettings().stubOnly());
+        when(restaurantRepository.findAllLocations()).thenReturn(locations);
+        geoIndex = new RestaurantGeoIndex(restaurantRepository,
+                new RestaurantScheduleIndex(restaurantRepository, "Europe/London"), 0.05);
+        geoIndex.load();
+
+        connection = DriverManager.getConnection("jdbc:h2:mem:geo-benchmark;OPTIMIZE_REUSE_RESULTS=FALSE");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE restaurant (id INTEGER PRIMARY KEY, name VARCHAR(255), "
+                    + "latitude DOUBLE PRECISION, longitude DOUBLE PRECISION, is_open BOOLEAN)");
+            statement.execute("CREATE INDEX restaurant_latitude_idx ON restaurant (latitude)");
+        }
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO restaurant VALUES (?, ?, ?, ?, TRUE)")) {
+            for (RestaurantLocation location : locations) {
+                insert.setInt(1, location.getId());
+                insert.setString(2, location.getName());
+                insert.setDouble(3, location.getLatitude());
+                insert.setDouble(4, location.getLongitude());
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+        nearestStatement = connection.prepareStatement(NEAREST_SQL);
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public List<NearbyRestaurantResponse> gridIndex() {
+        return geoIndex.findNearest(ORIGIN_LATITUDE, ORIGIN_LONGITUDE, RADIUS_KM, LIMIT);
+    }
+
+    @Benchmark
+    public List<NearbyRestaurantResponse> sqlBoundingBox() throws SQLException {
+        double latitudeSpan = RADIUS_KM / 111.32;
+        double longitudeSpan = RADIUS_KM / (111.32 * Math.cos(Math.toRadians(ORIGIN_LATITUDE)));
+        nearestStatement.setDouble(1, ORIGIN_LATITUDE);
+        nearestStatement.setDouble(2, ORIGIN_LATITUDE);
+        nearestStatement.setDouble(3, ORIGIN_LONGITUDE);
+        nearestStatement.setDouble(4, ORIGIN_LATITUDE - latitudeSpan);
+        nearestStatement.setDouble(5, ORIGIN_LATITUDE + latitudeSpan);
+        nearestStatement.setDouble(6, ORIGIN_LONGITUDE - longitudeSpan);
+        nearestStatement.setDouble(7, ORIGIN_LONGITUDE + longitudeSpan);
+        nearestStatement.setDouble(8, RADIUS_KM);
+        nearestStatement.setInt(9, LIMIT);
+
+        List<NearbyRestaurantResponse> nearest = new ArrayList<>(LIMIT);
+        try (ResultSet resultSet = nearestStatement.executeQuery()) {
+            while (resultSet.next()) {
+                nearest.add(new NearbyRestaurantResponse(resultSet.getInt(1), resultSet.getString(2),
+                        resultSet.getDouble(3), resultSet.getDouble(4), resultSet.getDouble(5)));
+            }
+        }
+        return nearest;
+    }
+
+    private static RestaurantLocation location(int id, double latitude, double longitude) {
+        return new RestaurantLocation() {
+            @Override
+            public Integer getId() {
+                return id;
+            }
+
+            @Override
+            public String getName() {
+                return "Restaurant " + id;
+            }
+
+            @Override
+            public Double getLatitude() {
+                return latitude;
+            }
+
+            @Override
+            public Double getLongitude() {
+                return longitude;
+            }
+
+            @Override
+            public Boolean getIsOpen() {
+                return true;
+            }
+
+            @Override
+            public String getOpeningHours() {
+                return "00:00 - 24:00";
+            }
+        };
+    }
+}
@@ -0,0 +1,69 @@
+package com.devshaks.delivery.restaurant;
+
+import com.devshaks.delivery.cuisine.CuisineRequest;
+import com.devshaks.delivery.cuisine.CuisineTypes;
+import com.devshaks.delivery.money.Money;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Realistic restaurants for the benchmarks: menus of the given size with prices like
+ * 7.45, and text fields of the length seen in production data.
+ */
+final class BenchmarkRestaurants {
+
+    private BenchmarkRestaurants() {
+    }
+
+    static Restaurant restaurant(int id, int menuSize) {
+        Restaurant restaurant = Restaurant.builder()
+                .id(id)
+                .name("Restaurant " + id)
+                .address(id + " High Street, London")
+                .contactNumber("020-7946-" + String.format("%04d", id % 10_000))
+                .location("Shoreditch")
+                .latitude(51.5 + (id % 100) / 1000.0)
+                .longitude(-0.1 + (id % 100) / 1000.0)
+                .description("Family-run kitchen serving seasonal dishes since 1998")
+                .openingHours("Mon-Fri 11:00 - 23:00; Sat-Sun 12:00 - 22:30")
+                .rating(4.3)
+                .isOpen(true)
+                .priceRange("$$")
+                .version(7L)
+                .build();
+
+        List<CuisineTypes> menu = new ArrayList<>(menuSize);
+        for (int i = 0; i < menuSize; i++) {
+            menu.add(CuisineTypes.builder()
+                    .id(id * 1000 + i)
+                    .name("Dish " + i)
+                    .description("Slow-cooked with garlic, chilli and fresh herbs")
+                    .price(Money.ofMinor(495 + (i * 37) % 1500))
+                    .restaurant(restaurant)
+                    .build());
+        }
+        restaurant.setCuisineTypes(menu);
+        return restaurant;
+    }
+
+    static RestaurantRequest request(Restaurant restaurant) {
+        return new RestaurantRequest(
+                restaurant.getId(),
+                restaurant.getName(),
+                restaurant.getAddress(),
+                restaurant.getContactNumber(),
+                restaurant.getLocation(),
+                restaurant.getLatitude(),
+                restaurant.getLongitude(),
+                restaurant.getDescription(),
+                restaurant.getOpeningHours(),
+                restaurant.getRating(),
+                restaurant.getIsOpen(),
+                restaurant.getPriceRange(),
+                restaurant.getCuisineTypes().stream()
+                        .map(cuisine -> new CuisineRequest(cuisine.getId(), cuisine.getName(),
+                                cuisine.getDescription(), cuisine.getPrice().toBigDecimal()))
+                        .toList());
+    }
+}
@@ -0,0 +1,130 @@
+package com.devshaks.delivery.restaurant;
+
+import com.devshaks.delivery.cuisine.CuisineTypes;
+import com.devshaks.delivery.cuisine.CuisineTypesRepository;
+import com.devshaks.delivery.exceptions.CuisineNotFoundException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceTransactionManagerAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.autoconfigure.transaction.TransactionAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * How the cuisines of a purchase are loaded, against a real in-memory H2 database of
+ * 1000 restaurants with 60 dishes each, at 1, 10 and 50 items: {@code findByIdPerItem}
+ * is the loop processPurchase used to run, one findById per item, and
+ * {@code findAllByRestaurantIdAndIdIn} the single restaurant-scoped query it runs now.
+ * Neither runs in a surrounding transaction, as processPurchase does not. H2 runs in
+ * process, so each findById pays no network round trip and the gap is a lower bound.
+ * The warmup is long because Hibernate's query paths take that long to compile.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 20, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PurchaseCuisineLookupBenchmark {
+
+    private static final int RESTAURANTS = 1000;
+    private static final int MENU_SIZE = 60;
+
+    @Param({ "1", "10", "50" })
+    int items;
+
+    private ConfigurableApplicationContext context;
+    private CuisineTypesRepository cuisineTypesRepository;
+    private Integer restaurantId;
+    private List<Integer> cuisineIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(LookupContext.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.cloud.config.enabled=false",
+                        "spring.config.import=",
+                        "spring.datasource.url=jdbc:h2:mem:cuisine-lookup-benchmark",
+                        "spring.flyway.enabled=false",
+                        "spring.jpa.hibernate.ddl-auto=create-drop",
+                        "spring.jpa.open-in-view=false",
+                        "spring.jpa.properties.hibernate.jdbc.batch_size=50",
+                        "spring.jpa.properties.hibernate.order_inserts=true")
+                .run();
+        cuisineTypesRepository = context.getBean(CuisineTypesRepository.class);
+
+        List<Restaurant> restaurants = new ArrayList<>(RESTAURANTS);
+        for (int id = 1; id <= RESTAURANTS; id++) {
+            Restaurant restaurant = BenchmarkRestaurants.restaurant(id, MENU_SIZE);
+            restaurant.setId(null);
+            restaurant.setVersion(null);
+            restaurant.getCuisineTypes().forEach(cuisine -> cuisine.setId(null));
+            restaurants.add(restaurant);
+        }
+        List<Restaurant> saved = context.getBean(RestaurantRepository.class).saveAll(restaurants);
+
+        // A restaurant from the middle of the table, ordering dishes spread across its menu
+        Restaurant restaurant = saved.get(RESTAURANTS / 2);
+        restaurantId = restaurant.getId();
+        cuisineIds = new ArrayList<>(items);
+        for (int i = 0; i < items; i++) {
+            cuisineIds.add(restaurant.getCuisineTypes().get(i * MENU_SIZE / items).getId());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void closeContext() {
+        context.close();
+    }
+
+    @Benchmark
+    public Map<Integer, CuisineTypes> findByIdPerItem() {
+        Map<Integer, CuisineTypes> cuisinesById = new HashMap<>();
+        for (Integer cuisineId : cuisineIds) {
+            cuisinesById.put(cuisineId, cuisineTypesRepository.findById(cuisineId)
+                    .orElseThrow(() -> new CuisineNotFoundException("Cuisine not found with ID: " + cuisineId)));
+        }
+        return cuisinesById;
+    }
+
+    @Benchmark
+    public Map<Integer, CuisineTypes> findAllByRestaurantIdAndIdIn() {
+        return cuisineTypesRepository.findAllByRestaurantIdAndIdIn(restaurantId, cuisineIds).stream()
+                .collect(Collectors.toMap(CuisineTypes::getId, Function.identity()));
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ImportAutoConfiguration({ DataSourceAutoConfiguration.class, DataSourceTransactionManagerAutoConfiguration.class,
+            HibernateJpaAutoConfiguration.class, TransactionAutoConfiguration.class })
+    @EntityScan("com.devshaks.delivery")
+    @EnableJpaRepositories("com.devshaks.delivery")
+    static class LookupContext {
+    }
+}
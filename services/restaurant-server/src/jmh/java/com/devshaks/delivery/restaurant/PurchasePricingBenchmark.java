@@ -0,0 +1,136 @@
+package com.devshaks.delivery.restaurant;
+
+import com.devshaks.delivery.capacity.KitchenCapacityLimiter;
+import com.devshaks.delivery.cuisine.CuisineTypes;
+import com.devshaks.delivery.cuisine.CuisineTypesRepository;
+import com.devshaks.delivery.geo.RestaurantGeoIndex;
+import com.devshaks.delivery.inventory.InventoryReservationService;
+import com.devshaks.delivery.money.Money;
+import com.devshaks.delivery.popularity.DishPopularitySnapshotRepository;
+import com.devshaks.delivery.popularity.DishPopularityTracker;
+import com.devshaks.delivery.schedule.RestaurantScheduleIndex;
+import com.devshaks.delivery.search.RestaurantSearchIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * The in-memory part of a purchase: processPurchase against repositories stubbed to
+ * return the menu instantly, so only validation, pricing, admission,
+ * popularity counting, stage timers and the response build are measured, at 1, 10 and
+ * 50 items. Add {@code -jvmArgsAppend -Dbenchmark.log.level=INFO} to include the cost of
+ * the application's logging.
+ * {@code moneyTotals} isolates the line and order total arithmetic, and
+ * {@code bigDecimalTotals} the same arithmetic as it was done before Money.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PurchasePricingBenchmark {
+
+    private static final int RESTAURANT_ID = 42;
+    private static final int MENU_SIZE = 60;
+
+    @Param({ "1", "10", "50" })
+    int items;
+
+    private RestaurantService restaurantService;
+    private RestaurantPurchaseRequest purchaseRequest;
+    private Money[] prices;
+    private BigDecimal[] decimalPrices;
+    private int[] quantities;
+
+    @Setup
+    public void setUp() {
+        Restaurant restaurant = BenchmarkRestaurants.restaurant(RESTAURANT_ID, MENU_SIZE);
+        List<CuisineTypes> menu = restaurant.getCuisineTypes();
+
+        List<CuisinePurchaseRequest> lines = new ArrayList<>(items);
+        prices = new Money[items];
+        decimalPrices = new BigDecimal[items];
+        quantities = new int[items];
+        for (int i = 0; i < items; i++) {
+            CuisineTypes cuisine = menu.get(i);
+            lines.add(new CuisinePurchaseRequest(cuisine.getId(), 1 + i % 3));
+            prices[i] = cuisine.getPrice();
+            decimalPrices[i] = cuisine.getPrice().toBigDecimal();
+            quantities[i] = 1 + i % 3;
+        }
+        purchaseRequest = new RestaurantPurchaseRequest(RESTAURANT_ID, lines);
+
+        // Stub-only mocks do not record invocations, so they stay flat over millions of calls
+        RestaurantRepository restaurantRepository = stub(RestaurantRepository.class);
+        when(restaurantRepository.findById(RESTAURANT_ID)).thenReturn(Optional.of(restaurant));
+        CuisineTypesRepository cuisineTypesRepository = stub(CuisineTypesRepository.class);
+        when(cuisineTypesRepository.findAllByRestaurantIdAndIdIn(anyInt(), anyCollection()))
+                .thenReturn(menu.subList(0, items));
+
+        restaurantService = new RestaurantService(
+                new RestaurantMapper(),
+                restaurantRepository,
+                cuisineTypesRepository,
+                stub(EntityManager.class),
+                stub(RestaurantGeoIndex.class),
+                stub(RestaurantSearchIndex.class),
+                stub(RestaurantScheduleIndex.class),
+                stub(InventoryReservationService.class),
+                new KitchenCapacityLimiter(restaurantRepository, 5),
+                new DishPopularityTracker(stub(DishPopularitySnapshotRepository.class), cuisineTypesRepository, null,
+                        10, 128, 4096),
+                new PurchaseMetrics(new SimpleMeterRegistry()),
+                stub(ApplicationEventPublisher.class));
+    }
+
+    @Benchmark
+    public RestaurantPurchaseResponse processPurchase() {
+        return restaurantService.processPurchase(purchaseRequest, RESTAURANT_ID);
+    }
+
+    @Benchmark
+    public Money moneyTotals() {
+        Money total = Money.ZERO;
+        for (int i = 0; i < prices.length; i++) {
+            total = total.plus(prices[i].times(quantities[i]));
+        }
+        return total;
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimalTotals() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < decimalPrices.length; i++) {
+            total = total.add(decimalPrices[i].multiply(BigDecimal.valueOf(quantities[i])));
+        }
+        return total;
+    }
+
+    private static <T> T stub(Class<T> type) {
+        return mock(type, withSettings().stubOnly());
+    }
+}
@@ -0,0 +1,135 @@
+package com.devshaks.delivery.restaurant;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceTransactionManagerAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.autoconfigure.transaction.TransactionAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The two ways of answering /search/by-ids, through JPA against a real in-memory H2
+ * database of 5000 restaurants with 20 dishes each, at 10, 100 and 1000 IDs:
+ * {@code findAllByIdWithMapper} is what findRestaurantByIds used to run, managed
+ * entities from findAllById mapped one by one in a read-write transaction, and
+ * {@code findFavouriteResponsesByIdIn} the id/name projection it runs now, in IN lists
+ * of at most 500 IDs and a read-only transaction. Menus are lazy, so neither reads them.
+ * The warmup is long because Hibernate's query paths take that long to compile.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 20, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RestaurantByIdsBenchmark {
+
+    private static final int RESTAURANTS = 5000;
+    private static final int MENU_SIZE = 20;
+    private static final int CHUNK_SIZE = 500;
+
+    @Param({ "10", "100", "1000" })
+    int ids;
+
+    private ConfigurableApplicationContext context;
+    private RestaurantRepository restaurantRepository;
+    private RestaurantMapper restaurantMapper;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+    private List<Integer> requestedIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(ByIdsContext.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.cloud.config.enabled=false",
+                        "spring.config.import=",
+                        "spring.datasource.url=jdbc:h2:mem:by-ids-benchmark",
+                        "spring.flyway.enabled=false",
+                        "spring.jpa.hibernate.ddl-auto=create-drop",
+                        "spring.jpa.open-in-view=false",
+                        "spring.jpa.properties.hibernate.jdbc.batch_size=50",
+                        "spring.jpa.properties.hibernate.order_inserts=true")
+                .run();
+        restaurantRepository = context.getBean(RestaurantRepository.class);
+        restaurantMapper = new RestaurantMapper();
+        PlatformTransactionManager transactionManager = context.getBean(PlatformTransactionManager.class);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        List<Integer> allIds = new ArrayList<>(RESTAURANTS);
+        for (int from = 1; from <= RESTAURANTS; from += 1000) {
+            List<Restaurant> restaurants = new ArrayList<>(1000);
+            for (int id = from; id < from + 1000; id++) {
+                Restaurant restaurant = BenchmarkRestaurants.restaurant(id, MENU_SIZE);
+                restaurant.setId(null);
+                restaurant.setVersion(null);
+                restaurant.getCuisineTypes().forEach(cuisine -> cuisine.setId(null));
+                restaurants.add(restaurant);
+            }
+            restaurantRepository.saveAll(restaurants).forEach(restaurant -> allIds.add(restaurant.getId()));
+        }
+        Collections.shuffle(allIds, new Random(42));
+        requestedIds = List.copyOf(allIds.subList(0, ids));
+    }
+
+    @TearDown(Level.Trial)
+    public void closeContext() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<RestaurantFavouriteResponse> findAllByIdWithMapper() {
+        return readWrite.execute(status -> restaurantRepository.findAllById(requestedIds).stream()
+                .map(restaurantMapper::toFavouriteRestaurantResponse)
+                .toList());
+    }
+
+    @Benchmark
+    public List<RestaurantFavouriteResponse> findFavouriteResponsesByIdIn() {
+        return readOnly.execute(status -> {
+            List<RestaurantFavouriteResponse> found = new ArrayList<>(requestedIds.size());
+            for (int from = 0; from < requestedIds.size(); from += CHUNK_SIZE) {
+                found.addAll(restaurantRepository.findFavouriteResponsesByIdIn(
+                        requestedIds.subList(from, Math.min(from + CHUNK_SIZE, requestedIds.size()))));
+            }
+            return found;
+        });
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ImportAutoConfiguration({ DataSourceAutoConfiguration.class, DataSourceTransactionManagerAutoConfiguration.class,
+            HibernateJpaAutoConfiguration.class, TransactionAutoConfiguration.class })
+    @EntityScan("com.devshaks.delivery")
+    @EnableJpaRepositories("com.devshaks.delivery")
+    static class ByIdsContext {
+    }
+}
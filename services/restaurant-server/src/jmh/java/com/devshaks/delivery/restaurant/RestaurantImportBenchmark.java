@@ -0,0 +1,157 @@
+package com.devshaks.delivery.restaurant;
+
+import com.devshaks.delivery.capacity.KitchenCapacityLimiter;
+import com.devshaks.delivery.catalogue.CatalogueEventPublisher;
+import com.devshaks.delivery.catalogue.RestaurantCatalogueEvent;
+import com.devshaks.delivery.geo.RestaurantGeoIndex;
+import com.devshaks.delivery.inventory.InventoryReservationService;
+import com.devshaks.delivery.popularity.DishPopularityTracker;
+import com.devshaks.delivery.schedule.RestaurantScheduleIndex;
+import com.devshaks.delivery.search.RestaurantSearchIndex;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceTransactionManagerAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.autoconfigure.transaction.TransactionAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Loading 10k and 100k restaurants into an in-memory H2 database with every after-commit
+ * listener in place: one NDJSON upload through RestaurantImportService, against one
+ * createRestaurant call per restaurant, each its own transaction and event, as the
+ * per-request endpoint does it. Every iteration starts from a fresh context and an empty
+ * database; only the load itself is timed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(1)
+public class RestaurantImportBenchmark {
+
+    private static final int MENU_SIZE = 5;
+
+    @Param({ "10000", "100000" })
+    int restaurants;
+
+    private byte[] upload;
+    private List<RestaurantRequest> requests;
+    private ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void createRows() throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        StringBuilder ndjson = new StringBuilder();
+        requests = new ArrayList<>(restaurants);
+        for (int id = 1; id <= restaurants; id++) {
+            // New restaurants, as a client creating them would send: without IDs
+            Restaurant restaurant = BenchmarkRestaurants.restaurant(id, MENU_SIZE);
+            restaurant.setId(null);
+            restaurant.getCuisineTypes().forEach(cuisine -> cuisine.setId(null));
+            RestaurantRequest request = BenchmarkRestaurants.request(restaurant);
+            requests.add(request);
+            ndjson.append(objectMapper.writeValueAsString(request)).append('\n');
+        }
+        upload = ndjson.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Setup(Level.Iteration)
+    public void startContext() {
+        context = new SpringApplicationBuilder(ImportContext.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.cloud.config.enabled=false",
+                        "spring.config.import=",
+                        "spring.datasource.url=jdbc:h2:mem:import-benchmark",
+                        "spring.flyway.enabled=false",
+                        "spring.jpa.hibernate.ddl-auto=create-drop",
+                        "spring.jpa.open-in-view=false",
+                        "spring.jpa.properties.hibernate.jdbc.batch_size=50",
+                        "spring.jpa.properties.hibernate.order_inserts=true")
+                .run();
+    }
+
+    @TearDown(Level.Iteration)
+    public void closeContext() {
+        context.close();
+    }
+
+    @Benchmark
+    public RestaurantImportResponse importUpload() throws IOException {
+        return context.getBean(RestaurantImportService.class).importRestaurants(new ByteArrayInputStream(upload));
+    }
+
+    @Benchmark
+    public int createOneByOne() {
+        RestaurantService restaurantService = context.getBean(RestaurantService.class);
+        int created = 0;
+        for (RestaurantRequest request : requests) {
+            restaurantService.createRestaurant(request);
+            created++;
+        }
+        return created;
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ImportAutoConfiguration({ DataSourceAutoConfiguration.class, DataSourceTransactionManagerAutoConfiguration.class,
+            HibernateJpaAutoConfiguration.class, TransactionAutoConfiguration.class, JacksonAutoConfiguration.class,
+            ValidationAutoConfiguration.class })
+    @EntityScan("com.devshaks.delivery")
+    @EnableJpaRepositories("com.devshaks.delivery")
+    @Import({ RestaurantImportService.class, RestaurantService.class, RestaurantMapper.class, RestaurantETags.class,
+            RestaurantGeoIndex.class, RestaurantSearchIndex.class, RestaurantScheduleIndex.class,
+            CatalogueEventPublisher.class, InventoryReservationService.class, KitchenCapacityLimiter.class,
+            DishPopularityTracker.class, PurchaseMetrics.class, SimpleMeterRegistry.class })
+    static class ImportContext {
+
+        // The broker is out of scope: sends complete at once
+        @Bean
+        @SuppressWarnings("unchecked")
+        KafkaTemplate<String, RestaurantCatalogueEvent> kafkaTemplate() {
+            KafkaTemplate<String, RestaurantCatalogueEvent> kafkaTemplate = mock(KafkaTemplate.class,
+                    withSettings().stubOnly());
+            when(kafkaTemplate.send(anyString(), anyString(), any())).thenReturn(CompletableFuture.completedFuture(null));
+            return kafkaTemplate;
+        }
+    }
+}
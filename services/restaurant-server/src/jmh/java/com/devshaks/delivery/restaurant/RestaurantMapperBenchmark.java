@@ -0,0 +1,70 @@
+package com.devshaks.delivery.restaurant;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mapping between restaurants, their requests and their responses, and serialising the
+ * response as the controllers do, at small, typical and large menu sizes. Run with the
+ * gc profiler (the default jmh.args) to see the allocation per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RestaurantMapperBenchmark {
+
+    @Param({ "5", "40", "200" })
+    int menuSize;
+
+    private final RestaurantMapper restaurantMapper = new RestaurantMapper();
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+
+    private Restaurant restaurant;
+    private RestaurantRequest request;
+    private RestaurantResponse response;
+
+    @Setup
+    public void setUp() {
+        restaurant = BenchmarkRestaurants.restaurant(42, menuSize);
+        request = BenchmarkRestaurants.request(restaurant);
+        response = restaurantMapper.toRestaurantResponse(restaurant);
+    }
+
+    @Benchmark
+    public RestaurantResponse toRestaurantResponse() {
+        return restaurantMapper.toRestaurantResponse(restaurant);
+    }
+
+    @Benchmark
+    public Restaurant mapRestaurantToRequest() {
+        return restaurantMapper.mapRestaurantToRequest(request);
+    }
+
+    @Benchmark
+    public byte[] serialiseResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(response);
+    }
+
+    // Cache misses pay for both, as the response is built and then written
+    @Benchmark
+    public byte[] mapAndSerialise() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(restaurantMapper.toRestaurantResponse(restaurant));
+    }
+}
@@ -0,0 +1,107 @@
+package com.devshaks.delivery.search;
+
+import com.devshaks.delivery.cuisine.CuisineTypes;
+import com.devshaks.delivery.money.Money;
+import com.devshaks.delivery.restaurant.Restaurant;
+import com.devshaks.delivery.restaurant.RestaurantRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Search latency over a catalogue of 1M dishes, 100k restaurants of ten dishes each,
+ * named from a menu vocabulary with a long tail of rare words. Sampled, so the output
+ * carries the p99 that the 5 ms target is set against. The queries cover a common
+ * full word, a two-word query, a rare word, a single letter and the shortest prefixes
+ * that are expanded, alone and after a word.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class RestaurantSearchIndexBenchmark {
+
+    private static final int DISHES_PER_RESTAURANT = 10;
+    private static final int PAGE_SIZE = 20;
+
+    private static final String[] STYLES = { "spicy", "grilled", "crispy", "smoked", "sweet", "sour", "fried",
+            "roasted", "steamed", "braised", "garlic", "lemon", "honey", "chilli", "creamy", "wood-fired" };
+    private static final String[] MAINS = { "chicken", "beef", "pork", "lamb", "tofu", "salmon", "tuna", "prawn",
+            "duck", "paneer", "mushroom", "aubergine", "halloumi", "squid", "falafel", "noodles", "rice",
+            "pizza", "burger", "salad", "soup", "curry", "ramen", "tacos", "burrito", "risotto", "pasta" };
+    private static final String[] SIDES = { "chips", "slaw", "naan", "fries", "greens", "dumplings", "bread",
+            "pickles", "kimchi", "raita", "salsa", "hummus" };
+
+    @Param({ "1000000" })
+    int dishes;
+
+    @Param({ "chicken", "spicy chicken", "kimchi", "s", "sal", "spicy ch" })
+    String query;
+
+    private RestaurantSearchIndex searchIndex;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        int restaurantCount = dishes / DISHES_PER_RESTAURANT;
+        List<Restaurant> restaurants = new ArrayList<>(restaurantCount);
+        for (int id = 1; id <= restaurantCount; id++) {
+            Restaurant restaurant = Restaurant.builder()
+                    .id(id)
+                    .name("Kitchen " + id)
+                    .description("Family-run " + pick(random, MAINS) + " and " + pick(random, SIDES) + " house")
+                    .build();
+            List<CuisineTypes> menu = new ArrayList<>(DISHES_PER_RESTAURANT);
+            for (int i = 0; i < DISHES_PER_RESTAURANT; i++) {
+                menu.add(CuisineTypes.builder()
+                        .id(id * DISHES_PER_RESTAURANT + i)
+                        .name(pick(random, STYLES) + " " + pick(random, MAINS) + " " + rareWord(random))
+                        .description("Served with " + pick(random, SIDES) + " and " + pick(random, SIDES))
+                        .price(Money.ofMinor(495 + random.nextInt(1500)))
+                        .restaurant(restaurant)
+                        .build());
+            }
+            restaurant.setCuisineTypes(menu);
+            restaurants.add(restaurant);
+        }
+
+        RestaurantRepository restaurantRepository = mock(RestaurantRepository.class, withSettings().stubOnly());
+        when(restaurantRepository.findAllWithCuisineTypes()).thenReturn(restaurants);
+        searchIndex = new RestaurantSearchIndex(restaurantRepository);
+        searchIndex.load();
+    }
+
+    @Benchmark
+    public SearchPageResponse search() {
+        return searchIndex.search(query, 0, PAGE_SIZE);
+    }
+
+    private static String pick(Random random, String[] words) {
+        return words[random.nextInt(words.length)];
+    }
+
+    // Zipf-like: a handful of words on many dishes, tens of thousands on one or two
+    private static String rareWord(Random random) {
+        int rank = (int) Math.pow(50_000, random.nextDouble());
+        return "s" + Integer.toString(rank, 36);
+    }
+}
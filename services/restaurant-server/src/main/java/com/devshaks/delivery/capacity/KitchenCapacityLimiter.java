@@ -0,0 +1,160 @@
+package com.devshaks.delivery.capacity;
+
+import com.devshaks.delivery.exceptions.KitchenAtCapacityException;
+import com.devshaks.delivery.restaurant.RestaurantCapacity;
+import com.devshaks.delivery.restaurant.RestaurantChangedEvent;
+import com.devshaks.delivery.restaurant.RestaurantRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory admission control for purchases, keyed by restaurant ID. Each restaurant
+ * with an orders-per-minute limit gets a token bucket, implemented as a generic cell
+ * rate algorithm: a single AtomicLong holding the theoretical arrival time of the next
+ * order, advanced with a CAS. Admission is a map lookup plus one CAS, takes no lock and
+ * computes the retry-after hint of a rejection for free. An admitted order that is then
+ * rejected for another reason gives its slot back. Limits are loaded on startup
+ * and kept in sync from RestaurantChangedEvents after each commit; they apply per
+ * instance.
+ */
+@Slf4j
+@Component
+public class KitchenCapacityLimiter {
+
+    private static final long NANOS_PER_MINUTE = TimeUnit.MINUTES.toNanos(1);
+
+    private final RestaurantRepository restaurantRepository;
+    private final int burst;
+    private final Map<Integer, Bucket> buckets = new ConcurrentHashMap<>();
+
+    public KitchenCapacityLimiter(RestaurantRepository restaurantRepository,
+            @Value("${application.capacity.burst:5}") int burst) {
+        this.restaurantRepository = restaurantRepository;
+        this.burst = burst;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        List<RestaurantCapacity> capacities = restaurantRepository.findAllCapacities();
+        capacities.forEach(this::put);
+        log.info("Kitchen capacity limits loaded for {} restaurants", capacities.size());
+    }
+
+    @TransactionalEventListener
+    public void onRestaurantChanged(RestaurantChangedEvent event) {
+        if (event.deleted()) {
+            buckets.remove(event.restaurantId());
+            return;
+        }
+        restaurantRepository.findCapacityById(event.restaurantId())
+                .ifPresentOrElse(this::put, () -> buckets.remove(event.restaurantId()));
+    }
+
+    /**
+     * Admits one order for a restaurant, or rejects it if the kitchen is at capacity.
+     * Restaurants without a limit are always admitted.
+     *
+     * @param restaurantId
+     *            The ID of the restaurant being ordered from.
+     * @throws KitchenAtCapacityException
+     *             If the restaurant's limit is reached, with the time until an order
+     *             would next be admitted.
+     */
+    public void admit(Integer restaurantId) {
+        Bucket bucket = buckets.get(restaurantId);
+        if (bucket == null) {
+            return;
+        }
+        long waitNanos = bucket.tryAcquire(System.nanoTime());
+        if (waitNanos > 0) {
+            throw new KitchenAtCapacityException("Restaurant " + restaurantId + " is not accepting more orders right now",
+                    Duration.ofNanos(waitNanos));
+        }
+    }
+
+    /**
+     * Gives back the slot of an order that was admitted but then rejected, so orders that
+     * never reach the kitchen do not count against its capacity.
+     *
+     * @param restaurantId
+     *            The ID of the restaurant the order was admitted for.
+     */
+    public void release(Integer restaurantId) {
+        Bucket bucket = buckets.get(restaurantId);
+        if (bucket != null) {
+            bucket.release(System.nanoTime());
+        }
+    }
+
+    private void put(RestaurantCapacity capacity) {
+        Integer ordersPerMinute = capacity.getOrdersPerMinute();
+        if (ordersPerMinute == null) {
+            buckets.remove(capacity.getId());
+            return;
+        }
+        // Keep the existing bucket, and the orders it has already admitted, if the limit is unchanged
+        buckets.compute(capacity.getId(), (id, existing) -> existing != null && existing.ordersPerMinute == ordersPerMinute
+                ? existing
+                : new Bucket(ordersPerMinute, Math.min(burst, ordersPerMinute)));
+    }
+
+    static final class Bucket {
+        private final int ordersPerMinute;
+        private final long intervalNanos;
+        private final long toleranceNanos;
+        private final AtomicLong theoreticalArrival;
+
+        Bucket(int ordersPerMinute, int burst) {
+            this(ordersPerMinute, burst, System.nanoTime());
+        }
+
+        Bucket(int ordersPerMinute, int burst, long now) {
+            this.ordersPerMinute = ordersPerMinute;
+            this.intervalNanos = NANOS_PER_MINUTE / ordersPerMinute;
+            this.toleranceNanos = intervalNanos * (Math.max(burst, 1) - 1);
+            this.theoreticalArrival = new AtomicLong(now);
+        }
+
+        // Returns 0 if admitted, otherwise how long until an order would be; compares
+        // nanoTime values by difference so the clock wrapping around is harmless
+        long tryAcquire(long now) {
+            while (true) {
+                long arrival = theoreticalArrival.get();
+                long start = arrival - now > 0 ? arrival : now;
+                long waitNanos = start - now - toleranceNanos;
+                if (waitNanos > 0) {
+                    return waitNanos;
+                }
+                if (theoreticalArrival.compareAndSet(arrival, start + intervalNanos)) {
+                    return 0;
+                }
+            }
+        }
+
+        // Moves the next arrival back by one interval, but not into the past, where the
+        // slot has already been refilled
+        void release(long now) {
+            while (true) {
+                long arrival = theoreticalArrival.get();
+                if (arrival - now <= 0) {
+                    return;
+                }
+                long released = arrival - intervalNanos - now > 0 ? arrival - intervalNanos : now;
+                if (theoreticalArrival.compareAndSet(arrival, released)) {
+                    return;
+                }
+            }
+        }
+    }
+}
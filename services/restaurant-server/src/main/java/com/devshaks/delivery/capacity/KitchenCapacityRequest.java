@@ -0,0 +1,10 @@
+package com.devshaks.delivery.capacity;
+
+import jakarta.validation.constraints.Positive;
+
+// A null limit lifts the restaurant's throughput limit
+public record KitchenCapacityRequest(
+        @Positive(message = "Orders per minute must be positive")
+        Integer ordersPerMinute
+) {
+}
@@ -0,0 +1,10 @@
+package com.devshaks.delivery.catalogue;
+
+import com.devshaks.delivery.money.Money;
+
+public record CatalogueCuisine(
+        Integer id,
+        String name,
+        Money price
+) {
+}
@@ -0,0 +1,211 @@
+package com.devshaks.delivery.catalogue;
+
+import com.devshaks.delivery.restaurant.Restaurant;
+import com.devshaks.delivery.restaurant.RestaurantChangedEvent;
+import com.devshaks.delivery.restaurant.RestaurantRepository;
+import com.devshaks.delivery.restaurant.RestaurantsImportedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Publishes the catalogue change feed through a transactional outbox: every
+ * RestaurantChangedEvent or imported chunk adds an outbox entry per restaurant in the
+ * transaction of the change, so a committed change is always published, however long
+ * the broker is away. The relay then sends each claimed restaurant's current state to
+ * the compacted catalogue topic, keyed by restaurant ID, or a tombstone if it was
+ * deleted, and removes its entries only once the broker has acknowledged the send.
+ * <p>
+ * Events carry the restaurant version so replicas can discard anything older than what
+ * they hold; a tombstone carries the version the restaurant was deleted at in its
+ * {@code version} header, so a stale state arriving after it cannot bring the restaurant
+ * back. Each instance relays one batch at a time and waits for it to be acknowledged, so
+ * it never sends an older state after a newer one.
+ */
+@Slf4j
+@Component
+public class CatalogueEventPublisher {
+
+    // Read by the catalogue replicas in other services
+    static final String VERSION_HEADER = "version";
+
+    private final CatalogueOutboxRepository outboxRepository;
+    private final RestaurantRepository restaurantRepository;
+    private final KafkaTemplate<String, RestaurantCatalogueEvent> kafkaTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final String topic;
+    private final int batchSize;
+    private final Duration sendTimeout;
+
+    public CatalogueEventPublisher(CatalogueOutboxRepository outboxRepository,
+            RestaurantRepository restaurantRepository,
+            KafkaTemplate<String, RestaurantCatalogueEvent> kafkaTemplate,
+            TransactionTemplate transactionTemplate,
+            @Value("${application.catalogue.topic:restaurant-catalogue}") String topic,
+            @Value("${application.catalogue.batch-size:500}") int batchSize,
+            @Value("${application.catalogue.send-timeout:PT10S}") Duration sendTimeout) {
+        this.outboxRepository = outboxRepository;
+        this.restaurantRepository = restaurantRepository;
+        this.kafkaTemplate = kafkaTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.topic = topic;
+        this.batchSize = batchSize;
+        this.sendTimeout = sendTimeout;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onRestaurantChanged(RestaurantChangedEvent event) {
+        outboxRepository.save(entry(event.restaurantId(), event.deletedVersion()));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onRestaurantsImported(RestaurantsImportedEvent event) {
+        outboxRepository.saveAll(event.restaurantIds().stream()
+                .map(restaurantId -> entry(restaurantId, null))
+                .toList());
+    }
+
+    /**
+     * Publishes every pending catalogue change, one batch per transaction, until a batch
+     * comes back short or with failures.
+     *
+     * @return The number of restaurants published.
+     */
+    @Scheduled(fixedDelayString = "${application.catalogue.poll-interval:PT0.5S}")
+    public int publishPendingChanges() {
+        int published = 0;
+        Batch batch;
+        do {
+            batch = transactionTemplate.execute(status -> publishBatch());
+            published += batch.published();
+        } while (batch.claimed() == batchSize && batch.failed() == 0);
+
+        if (published > 0) {
+            log.debug("Published catalogue events for {} restaurants", published);
+        }
+        return published;
+    }
+
+    private Batch publishBatch() {
+        List<CatalogueOutboxEntry> entries = outboxRepository.findAllByOrderById(Limit.of(batchSize));
+        if (entries.isEmpty()) {
+            return new Batch(0, 0, 0);
+        }
+
+        Map<Integer, List<CatalogueOutboxEntry>> entriesByRestaurant = entries.stream()
+                .collect(Collectors.groupingBy(CatalogueOutboxEntry::getRestaurantId, LinkedHashMap::new,
+                        Collectors.toList()));
+        Map<Integer, Restaurant> restaurants = restaurantRepository
+                .findAllWithCuisineTypesByIdIn(entriesByRestaurant.keySet()).stream()
+                .collect(Collectors.toMap(Restaurant::getId, Function.identity()));
+
+        List<Send> sends = new ArrayList<>(entriesByRestaurant.size());
+        entriesByRestaurant.forEach((restaurantId, pending) -> {
+            Restaurant restaurant = restaurants.get(restaurantId);
+            // Gone by the time it is read, it gets a tombstone at the version it was deleted at, if known
+            CompletableFuture<?> result = restaurant != null
+                    ? send(new ProducerRecord<>(topic, String.valueOf(restaurantId), toEvent(restaurant)))
+                    : send(tombstone(restaurantId, deletedVersion(pending)));
+            sends.add(new Send(restaurantId, pending, result));
+        });
+
+        long deadline = System.nanoTime() + sendTimeout.toNanos();
+        List<CatalogueOutboxEntry> published = new ArrayList<>(entries.size());
+        int failed = 0;
+        for (Send send : sends) {
+            try {
+                send.result().get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                published.addAll(send.entries());
+            } catch (ExecutionException | TimeoutException e) {
+                Throwable cause = e instanceof ExecutionException ? e.getCause() : e;
+                send.entries().forEach(entry -> entry.setAttempts(entry.getAttempts() + 1));
+                failed++;
+                log.warn("Could not publish catalogue event for restaurant {} (attempt {}): {}",
+                        send.restaurantId(), send.entries().get(0).getAttempts(), cause.toString());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failed++;
+                break;
+            }
+        }
+        outboxRepository.deleteAllInBatch(published);
+        return new Batch(entries.size(), sends.size() - failed, failed);
+    }
+
+    private CompletableFuture<?> send(ProducerRecord<String, RestaurantCatalogueEvent> record) {
+        try {
+            return kafkaTemplate.send(record);
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private ProducerRecord<String, RestaurantCatalogueEvent> tombstone(Integer restaurantId, Long deletedVersion) {
+        ProducerRecord<String, RestaurantCatalogueEvent> tombstone =
+                new ProducerRecord<>(topic, String.valueOf(restaurantId), null);
+        if (deletedVersion != null) {
+            tombstone.headers().add(VERSION_HEADER, deletedVersion.toString().getBytes(StandardCharsets.UTF_8));
+        }
+        return tombstone;
+    }
+
+    private static Long deletedVersion(List<CatalogueOutboxEntry> entries) {
+        return entries.stream()
+                .map(CatalogueOutboxEntry::getDeletedVersion)
+                .filter(Objects::nonNull)
+                .max(Long::compare)
+                .orElse(null);
+    }
+
+    private static CatalogueOutboxEntry entry(Integer restaurantId, Long deletedVersion) {
+        return CatalogueOutboxEntry.builder()
+                .restaurantId(restaurantId)
+                .deletedVersion(deletedVersion)
+                .createdAt(Instant.now())
+                .build();
+    }
+
+    private RestaurantCatalogueEvent toEvent(Restaurant restaurant) {
+        return new RestaurantCatalogueEvent(
+                restaurant.getId(),
+                restaurant.getVersion(),
+                restaurant.getName(),
+                restaurant.getAddress(),
+                restaurant.getContactNumber(),
+                restaurant.getLocation(),
+                restaurant.getRating(),
+                restaurant.getIsOpen(),
+                restaurant.getPriceRange(),
+                restaurant.getCuisineTypes().stream()
+                        .map(cuisine -> new CatalogueCuisine(cuisine.getId(), cuisine.getName(), cuisine.getPrice()))
+                        .toList());
+    }
+
+    private record Send(Integer restaurantId, List<CatalogueOutboxEntry> entries, CompletableFuture<?> result) {
+    }
+
+    private record Batch(int claimed, int published, int failed) {
+    }
+}
@@ -0,0 +1,37 @@
+package com.devshaks.delivery.catalogue;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * A restaurant whose catalogue event is still to be published, written in the same
+ * transaction as the change. The event itself is read when it is published, so several
+ * entries for one restaurant are sent as one event of its latest state.
+ */
+@Entity
+@Table(name = "catalogue_outbox")
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@Builder
+public class CatalogueOutboxEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "catalogue_outbox_seq")
+    @SequenceGenerator(name = "catalogue_outbox_seq", sequenceName = "catalogue_outbox_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false)
+    private Integer restaurantId;
+
+    // Set when the change was a deletion, for the version header of its tombstone
+    private Long deletedVersion;
+
+    private int attempts;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+}
@@ -0,0 +1,19 @@
+package com.devshaks.delivery.catalogue;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.util.List;
+
+public interface CatalogueOutboxRepository extends JpaRepository<CatalogueOutboxEntry, Long> {
+
+    // Claims the oldest entries; a lock timeout of -2 is SKIP LOCKED, so publishers on
+    // several instances take disjoint batches instead of waiting
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    List<CatalogueOutboxEntry> findAllByOrderById(Limit limit);
+}
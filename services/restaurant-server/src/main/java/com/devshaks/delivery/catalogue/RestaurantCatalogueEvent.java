@@ -0,0 +1,23 @@
+package com.devshaks.delivery.catalogue;
+
+import java.util.List;
+
+/**
+ * Latest state of a restaurant and its menu, published to the log-compacted catalogue
+ * topic keyed by restaurant ID. A deletion is a tombstone, a null value for the key.
+ * Field names match RestaurantResponse, so replicas can bootstrap from the NDJSON
+ * catalogue stream with the same reader.
+ */
+public record RestaurantCatalogueEvent(
+        Integer id,
+        Long version,
+        String name,
+        String address,
+        String contactNumber,
+        String location,
+        Double rating,
+        Boolean isOpen,
+        String priceRange,
+        List<CatalogueCuisine> cuisineTypes
+) {
+}
@@ -0,0 +1,21 @@
+package com.devshaks.delivery.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Enables the in-process menu cache. Size, TTL and stats recording are configured
+ * through {@code spring.cache.caffeine.spec} in the restaurant-service configuration.
+ * The cache advice is ordered outside the transaction advice so that evictions run
+ * after commit and a concurrent read cannot re-populate an entry with uncommitted state.
+ */
+@Configuration
+@EnableCaching(order = Ordered.LOWEST_PRECEDENCE - 1)
+public class CacheConfig {
+    // Fully built RestaurantResponse keyed by restaurant ID
+    public static final String RESTAURANTS_CACHE = "restaurants";
+
+    // List of CuisineTypesResponse keyed by restaurant ID
+    public static final String RESTAURANT_CUISINES_CACHE = "restaurantCuisines";
+}
@@ -0,0 +1,20 @@
+package com.devshaks.delivery.config;
+
+import org.apache.kafka.clients.admin.NewTopic;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.TopicBuilder;
+
+@Configuration
+public class KafkaCatalogueTopicConfig {
+    // Compacted, so the topic keeps the latest event of every restaurant indefinitely
+    @Bean
+    public NewTopic catalogueTopic(@Value("${application.catalogue.topic:restaurant-catalogue}") String topic) {
+        return TopicBuilder
+                .name(topic)
+                .partitions(3)
+                .compact()
+                .build();
+    }
+}
@@ -0,0 +1,15 @@
+package com.devshaks.delivery.cuisine;
+
+import java.util.List;
+
+// Outcome of applying a menu update: which cuisines were inserted, updated, deleted or left untouched
+public record CuisineDiffResponse(
+        List<Integer> insertedCuisineIds,
+        List<Integer> updatedCuisineIds,
+        List<Integer> deletedCuisineIds,
+        List<Integer> unchangedCuisineIds) {
+
+    public boolean hasChanges() {
+        return !insertedCuisineIds.isEmpty() || !updatedCuisineIds.isEmpty() || !deletedCuisineIds.isEmpty();
+    }
+}
@@ -1,5 +1,6 @@
 package com.devshaks.delivery.cuisine;
 
+import com.devshaks.delivery.money.Money;
 import lombok.AllArgsConstructor;
 import org.springframework.stereotype.Service;
 
@@ -11,7 +12,7 @@ public class CuisineMapper {
                 .id(cuisineRequest.id())
                 .name(cuisineRequest.name())
                 .description(cuisineRequest.description())
-                .price(cuisineRequest.price())
+                .price(Money.of(cuisineRequest.price()))
                 .build();
     }
 }
@@ -1,5 +1,6 @@
 package com.devshaks.delivery.cuisine;
 
+import jakarta.validation.constraints.Digits;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 
@@ -9,7 +10,9 @@ public record CuisineRequest(
         Integer id,
         @NotBlank(message = "Cuisine Name is Required") String name,
         @NotBlank(message = "Cuisine Description is Required") String description,
-        @NotNull(message = "Cuisine Price is Required") BigDecimal price
+        // Prices are held in pence, so more than two decimals cannot be represented
+        @NotNull(message = "Cuisine Price is Required")
+        @Digits(integer = 8, fraction = 2, message = "Cuisine Price must have at most 2 decimal places") BigDecimal price
 ) {
 
 }
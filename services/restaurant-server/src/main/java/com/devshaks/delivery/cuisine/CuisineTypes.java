@@ -1,11 +1,10 @@
 package com.devshaks.delivery.cuisine;
 
+import com.devshaks.delivery.money.Money;
 import com.devshaks.delivery.restaurant.Restaurant;
 import jakarta.persistence.*;
 import lombok.*;
 
-import java.math.BigDecimal;
-
 @Entity
 @NoArgsConstructor
 @AllArgsConstructor
@@ -14,8 +13,10 @@ import java.math.BigDecimal;
 @Builder
 public class CuisineTypes {
 
+    // Pooled sequence rather than IDENTITY, so Hibernate can batch inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cuisine_types_seq")
+    @SequenceGenerator(name = "cuisine_types_seq", sequenceName = "cuisine_types_seq", allocationSize = 50)
     private Integer id;
 
     @Column(nullable = false)
@@ -25,7 +26,12 @@ public class CuisineTypes {
     private String description;
 
     @Column(nullable = false, columnDefinition = "NUMERIC")
-    private BigDecimal price;
+    private Money price;
+
+    // Remaining sellable portions, null when the dish is not stock-limited. Only ever
+    // written by the conditional updates in CuisineTypesRepository, never by dirty checking
+    @Column(insertable = false, updatable = false)
+    private Integer availableQuantity;
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "restaurant_id", nullable = false)
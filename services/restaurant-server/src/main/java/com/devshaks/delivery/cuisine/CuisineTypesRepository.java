@@ -1,8 +1,36 @@
 package com.devshaks.delivery.cuisine;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Collection;
 import java.util.List;
 
 public interface CuisineTypesRepository extends JpaRepository<CuisineTypes, Integer> {
     List<CuisineTypes> findCuisineTypesByRestaurantId(Integer restaurantId);
+
+    // DTO projection of a restaurant's menu, read from the foreign key without loading the restaurant
+    @Query("SELECT new com.devshaks.delivery.cuisine.CuisineTypesResponse(c.id, c.name, c.description, c.price, c.restaurant.id) "
+            + "FROM CuisineTypes c WHERE c.restaurant.id = :restaurantId ORDER BY c.id")
+    List<CuisineTypesResponse> findCuisineResponsesByRestaurantId(Integer restaurantId);
+
+    // Loads the requested cuisines in a single query, scoped to the owning restaurant
+    List<CuisineTypes> findAllByRestaurantIdAndIdIn(Integer restaurantId, Collection<Integer> cuisineIds);
+
+    // Takes stock only while enough is left; the row lock of the UPDATE is the only lock taken
+    @Modifying
+    @Query("UPDATE CuisineTypes c SET c.availableQuantity = c.availableQuantity - :quantity "
+            + "WHERE c.id = :cuisineId AND c.availableQuantity >= :quantity")
+    int takeStock(Integer cuisineId, int quantity);
+
+    @Modifying
+    @Query("UPDATE CuisineTypes c SET c.availableQuantity = c.availableQuantity + :quantity "
+            + "WHERE c.id = :cuisineId AND c.availableQuantity IS NOT NULL")
+    int returnStock(Integer cuisineId, int quantity);
+
+    @Modifying
+    @Query("UPDATE CuisineTypes c SET c.availableQuantity = :availableQuantity "
+            + "WHERE c.id = :cuisineId AND c.restaurant.id = :restaurantId")
+    int updateStock(Integer restaurantId, Integer cuisineId, Integer availableQuantity);
 }
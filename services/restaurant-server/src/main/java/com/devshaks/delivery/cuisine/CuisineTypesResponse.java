@@ -1,11 +1,11 @@
 package com.devshaks.delivery.cuisine;
 
-import java.math.BigDecimal;
+import com.devshaks.delivery.money.Money;
 
 public record CuisineTypesResponse(
         Integer id,
         String name,
         String description,
-        BigDecimal price,
+        Money price,
         Integer restaurantId) {
 }
@@ -0,0 +1,7 @@
+package com.devshaks.delivery.exceptions;
+
+public class CuisineSoldOutException extends RuntimeException {
+    public CuisineSoldOutException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.devshaks.delivery.exceptions;
+
+public class DuplicateReviewException extends RuntimeException {
+    public DuplicateReviewException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,16 @@
+package com.devshaks.delivery.exceptions;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+@Getter
+public class KitchenAtCapacityException extends RuntimeException {
+    private final Duration retryAfter;
+
+    // Thrown for every shed purchase under load, so it skips the stack trace it would never need
+    public KitchenAtCapacityException(String message, Duration retryAfter) {
+        super(message, null, false, false);
+        this.retryAfter = retryAfter;
+    }
+}
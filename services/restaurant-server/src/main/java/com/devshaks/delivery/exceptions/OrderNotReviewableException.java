@@ -0,0 +1,7 @@
+package com.devshaks.delivery.exceptions;
+
+public class OrderNotReviewableException extends RuntimeException {
+    public OrderNotReviewableException(String message) {
+        super(message);
+    }
+}
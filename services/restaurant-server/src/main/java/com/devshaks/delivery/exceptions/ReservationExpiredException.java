@@ -0,0 +1,7 @@
+package com.devshaks.delivery.exceptions;
+
+public class ReservationExpiredException extends RuntimeException {
+    public ReservationExpiredException(String message) {
+        super(message);
+    }
+}
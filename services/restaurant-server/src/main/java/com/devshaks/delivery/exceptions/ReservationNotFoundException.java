@@ -0,0 +1,7 @@
+package com.devshaks.delivery.exceptions;
+
+public class ReservationNotFoundException extends RuntimeException {
+    public ReservationNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,9 @@
+package com.devshaks.delivery.geo;
+
+public record NearbyRestaurantResponse(
+        Integer restaurantId,
+        String restaurantName,
+        double latitude,
+        double longitude,
+        double distanceKm) {
+}
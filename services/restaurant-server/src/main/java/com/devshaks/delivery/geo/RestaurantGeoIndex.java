@@ -0,0 +1,204 @@
+package com.devshaks.delivery.geo;
+
+import com.devshaks.delivery.restaurant.RestaurantChangedEvent;
+import com.devshaks.delivery.restaurant.RestaurantLocation;
+import com.devshaks.delivery.restaurant.RestaurantRepository;
+import com.devshaks.delivery.restaurant.RestaurantsImportedEvent;
+import com.devshaks.delivery.schedule.OpeningSchedule;
+import com.devshaks.delivery.schedule.RestaurantScheduleIndex;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory grid index over restaurant coordinates for "restaurants near me" lookups.
+ * The world is split into square cells of {@code cellSizeDegrees}; a query only visits
+ * the cells overlapping the search radius and keeps the k nearest matches in a bounded
+ * heap. The index is loaded on startup and kept in sync from RestaurantChangedEvents
+ * and RestaurantsImportedEvents after each commit. Queries crossing the antimeridian
+ * are not wrapped.
+ */
+@Slf4j
+@Component
+public class RestaurantGeoIndex {
+
+    private static final double EARTH_RADIUS_KM = 6371.0088;
+    private static final double KM_PER_DEGREE_LATITUDE = 111.32;
+
+    private final RestaurantRepository restaurantRepository;
+    private final RestaurantScheduleIndex restaurantScheduleIndex;
+    private final double cellSizeDegrees;
+
+    // Every indexed restaurant by ID, and the restaurants in each grid cell
+    private final Map<Integer, GeoPoint> points = new ConcurrentHashMap<>();
+    private final Map<Long, Map<Integer, GeoPoint>> cells = new ConcurrentHashMap<>();
+
+    public RestaurantGeoIndex(RestaurantRepository restaurantRepository,
+            RestaurantScheduleIndex restaurantScheduleIndex,
+            @Value("${application.geo.cell-size-degrees:0.05}") double cellSizeDegrees) {
+        this.restaurantRepository = restaurantRepository;
+        this.restaurantScheduleIndex = restaurantScheduleIndex;
+        this.cellSizeDegrees = cellSizeDegrees;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        List<RestaurantLocation> locations = restaurantRepository.findAllLocations();
+        locations.forEach(this::put);
+        log.info("Geo index loaded with {} restaurants", locations.size());
+    }
+
+    @TransactionalEventListener
+    public void onRestaurantChanged(RestaurantChangedEvent event) {
+        if (event.deleted()) {
+            remove(event.restaurantId());
+            return;
+        }
+        restaurantRepository.findLocationById(event.restaurantId())
+                .ifPresentOrElse(this::put, () -> remove(event.restaurantId()));
+    }
+
+    @TransactionalEventListener
+    public void onRestaurantsImported(RestaurantsImportedEvent event) {
+        restaurantRepository.findLocationsByIdIn(event.restaurantIds()).forEach(this::put);
+    }
+
+    /**
+     * Finds the nearest restaurants within a radius that are open right now, by both
+     * their open flag and their compiled opening hours.
+     *
+     * @param latitude
+     *            Latitude of the search origin.
+     * @param longitude
+     *            Longitude of the search origin.
+     * @param radiusKm
+     *            The search radius in kilometres.
+     * @param limit
+     *            The maximum number of restaurants to return.
+     * @return Up to {@code limit} open restaurants ordered by distance, nearest first.
+     */
+    public List<NearbyRestaurantResponse> findNearest(double latitude, double longitude, double radiusKm, int limit) {
+        int minuteOfWeek = restaurantScheduleIndex.currentMinuteOfWeek();
+        double latitudeSpan = radiusKm / KM_PER_DEGREE_LATITUDE;
+        double longitudeSpan = radiusKm
+                / (KM_PER_DEGREE_LATITUDE * Math.max(Math.cos(Math.toRadians(latitude)), 0.01));
+
+        int minLatCell = cellOf(latitude - latitudeSpan);
+        int maxLatCell = cellOf(latitude + latitudeSpan);
+        int minLonCell = cellOf(longitude - longitudeSpan);
+        int maxLonCell = cellOf(longitude + longitudeSpan);
+
+        // Max-heap on distance, so the farthest of the current k candidates is evicted first
+        PriorityQueue<NearbyRestaurantResponse> nearest = new PriorityQueue<>(limit + 1,
+                Comparator.comparingDouble(NearbyRestaurantResponse::distanceKm).reversed());
+
+        for (int latCell = minLatCell; latCell <= maxLatCell; latCell++) {
+            for (int lonCell = minLonCell; lonCell <= maxLonCell; lonCell++) {
+                Map<Integer, GeoPoint> cell = cells.get(cellKey(latCell, lonCell));
+                if (cell == null) {
+                    continue;
+                }
+                for (GeoPoint point : cell.values()) {
+                    if (!point.open()
+                            || !point.schedule().isOpenAt(minuteOfWeek)
+                            || Math.abs(point.latitude() - latitude) > latitudeSpan
+                            || Math.abs(point.longitude() - longitude) > longitudeSpan) {
+                        continue;
+                    }
+                    double distance = haversineKm(latitude, longitude, point.latitude(), point.longitude());
+                    if (distance > radiusKm
+                            || (nearest.size() == limit && distance >= nearest.peek().distanceKm())) {
+                        continue;
+                    }
+                    nearest.offer(new NearbyRestaurantResponse(
+                            point.restaurantId(), point.name(), point.latitude(), point.longitude(), distance));
+                    if (nearest.size() > limit) {
+                        nearest.poll();
+                    }
+                }
+            }
+        }
+
+        List<NearbyRestaurantResponse> result = new ArrayList<>(nearest);
+        result.sort(Comparator.comparingDouble(NearbyRestaurantResponse::distanceKm));
+        return result;
+    }
+
+    public int size() {
+        return points.size();
+    }
+
+    private void put(RestaurantLocation location) {
+        if (location.getLatitude() == null || location.getLongitude() == null) {
+            remove(location.getId());
+            return;
+        }
+        GeoPoint point = new GeoPoint(location.getId(), location.getName(),
+                location.getLatitude(), location.getLongitude(), Boolean.TRUE.equals(location.getIsOpen()),
+                RestaurantScheduleIndex.compile(location.getId(), location.getOpeningHours()),
+                cellKey(cellOf(location.getLatitude()), cellOf(location.getLongitude())));
+        // The points entry serialises the updates of one restaurant, so a move and a delete
+        // racing each other cannot leave it in two cells or in none
+        points.compute(point.restaurantId(), (id, previous) -> {
+            if (previous != null && previous.cellKey() != point.cellKey()) {
+                removeFromCell(previous);
+            }
+            addToCell(point);
+            return point;
+        });
+    }
+
+    private void remove(Integer restaurantId) {
+        points.computeIfPresent(restaurantId, (id, previous) -> {
+            removeFromCell(previous);
+            return null;
+        });
+    }
+
+    // Inserting inside compute keeps it atomic with removeFromCell dropping the cell once empty
+    private void addToCell(GeoPoint point) {
+        cells.compute(point.cellKey(), (key, cell) -> {
+            Map<Integer, GeoPoint> updated = cell == null ? new ConcurrentHashMap<>() : cell;
+            updated.put(point.restaurantId(), point);
+            return updated;
+        });
+    }
+
+    private void removeFromCell(GeoPoint point) {
+        cells.computeIfPresent(point.cellKey(), (key, cell) -> {
+            cell.remove(point.restaurantId());
+            return cell.isEmpty() ? null : cell;
+        });
+    }
+
+    private int cellOf(double degrees) {
+        return (int) Math.floor(degrees / cellSizeDegrees);
+    }
+
+    private static long cellKey(int latCell, int lonCell) {
+        return ((long) latCell << 32) | (lonCell & 0xFFFFFFFFL);
+    }
+
+    static double haversineKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.sqrt(a));
+    }
+
+    private record GeoPoint(Integer restaurantId, String name, double latitude, double longitude, boolean open,
+            OpeningSchedule schedule, long cellKey) {
+    }
+}
@@ -2,8 +2,16 @@ package com.devshaks.delivery.handlers;
 
 
 import com.devshaks.delivery.exceptions.CuisineNotFoundException;
+import com.devshaks.delivery.exceptions.CuisineSoldOutException;
+import com.devshaks.delivery.exceptions.DuplicateReviewException;
+import com.devshaks.delivery.exceptions.KitchenAtCapacityException;
+import com.devshaks.delivery.exceptions.OrderNotReviewableException;
+import com.devshaks.delivery.exceptions.ReservationExpiredException;
+import com.devshaks.delivery.exceptions.ReservationNotFoundException;
 import com.devshaks.delivery.exceptions.RestaurantPurchaseException;
 import jakarta.persistence.EntityNotFoundException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -29,6 +37,51 @@ public class GlobalExceptionHandler {
                 .body(e.getMessage());
     }
 
+    @ExceptionHandler(CuisineSoldOutException.class)
+    public ResponseEntity<String> handleException(CuisineSoldOutException e) {
+        return ResponseEntity
+                .status(HttpStatus.CONFLICT)
+                .body(e.getMessage());
+    }
+
+    @ExceptionHandler(DuplicateReviewException.class)
+    public ResponseEntity<String> handleException(DuplicateReviewException e) {
+        return ResponseEntity
+                .status(HttpStatus.CONFLICT)
+                .body(e.getMessage());
+    }
+
+    @ExceptionHandler(OrderNotReviewableException.class)
+    public ResponseEntity<String> handleException(OrderNotReviewableException e) {
+        return ResponseEntity
+                .status(HttpStatus.UNPROCESSABLE_ENTITY)
+                .body(e.getMessage());
+    }
+
+    @ExceptionHandler(KitchenAtCapacityException.class)
+    public ResponseEntity<String> handleException(KitchenAtCapacityException e) {
+        // Retry-After is in whole seconds, rounded up so a prompt retry is admitted
+        long retryAfterSeconds = Math.max(1, (e.getRetryAfter().toMillis() + 999) / 1000);
+        return ResponseEntity
+                .status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .body(e.getMessage());
+    }
+
+    @ExceptionHandler(ReservationNotFoundException.class)
+    public ResponseEntity<String> handleException(ReservationNotFoundException e) {
+        return ResponseEntity
+                .status(HttpStatus.NOT_FOUND)
+                .body(e.getMessage());
+    }
+
+    @ExceptionHandler(ReservationExpiredException.class)
+    public ResponseEntity<String> handleException(ReservationExpiredException e) {
+        return ResponseEntity
+                .status(HttpStatus.CONFLICT)
+                .body(e.getMessage());
+    }
+
     @ExceptionHandler(EntityNotFoundException.class)
     public ResponseEntity<String> handleException(EntityNotFoundException e) {
         return ResponseEntity
@@ -36,6 +89,20 @@ public class GlobalExceptionHandler {
                 .body(e.getMessage());
     }
 
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<String> handleException(OptimisticLockingFailureException e) {
+        return ResponseEntity
+                .status(HttpStatus.CONFLICT)
+                .body("Restaurant was modified concurrently, please retry");
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleException(IllegalArgumentException e) {
+        return ResponseEntity
+                .status(HttpStatus.BAD_REQUEST)
+                .body(e.getMessage());
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ErrorResponse> handleException(MethodArgumentNotValidException e) {
         var errors = new HashMap<String, String>();
@@ -0,0 +1,58 @@
+package com.devshaks.delivery.inventory;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * One line of a stock reservation: the portions of a single dish held for a purchase.
+ * Only lines of limited dishes take stock; the others record the rest of the purchase.
+ * All lines of a purchase share a reservationId and expire together.
+ */
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@Builder
+public class CuisineReservation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cuisine_reservation_seq")
+    @SequenceGenerator(name = "cuisine_reservation_seq", sequenceName = "cuisine_reservation_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false)
+    private UUID reservationId;
+
+    @Column(nullable = false)
+    private Integer restaurantId;
+
+    @Column(nullable = false)
+    private Integer cuisineId;
+
+    @Column(nullable = false)
+    private int quantity;
+
+    @Column(nullable = false)
+    private boolean limited;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private ReservationStatus status;
+
+    @Column(nullable = false)
+    private Instant expiresAt;
+
+    @Column(nullable = false, updatable = false)
+    private Instant createdDate;
+
+    @PrePersist
+    private void setCreatedDate() {
+        if (createdDate == null) {
+            createdDate = Instant.now();
+        }
+    }
+}
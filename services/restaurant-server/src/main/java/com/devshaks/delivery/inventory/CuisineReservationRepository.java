@@ -0,0 +1,27 @@
+package com.devshaks.delivery.inventory;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+public interface CuisineReservationRepository extends JpaRepository<CuisineReservation, Long> {
+    List<CuisineReservation> findAllByReservationId(UUID reservationId);
+
+    List<CuisineReservation> findAllByStatusAndExpiresAtBeforeOrderByExpiresAt(ReservationStatus status, Instant before, Limit limit);
+
+    // Moves a line out of HELD; only the caller that wins this update may return its stock
+    @Modifying
+    @Query("UPDATE CuisineReservation r SET r.status = :to WHERE r.id = :id AND r.status = :from")
+    int transition(Long id, ReservationStatus from, ReservationStatus to);
+
+    @Modifying
+    @Query("UPDATE CuisineReservation r SET r.status = com.devshaks.delivery.inventory.ReservationStatus.CONFIRMED "
+            + "WHERE r.reservationId = :reservationId "
+            + "AND r.status = com.devshaks.delivery.inventory.ReservationStatus.HELD AND r.expiresAt > :now")
+    int confirm(UUID reservationId, Instant now);
+}
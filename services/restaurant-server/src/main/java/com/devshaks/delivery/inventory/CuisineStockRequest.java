@@ -0,0 +1,10 @@
+package com.devshaks.delivery.inventory;
+
+import jakarta.validation.constraints.PositiveOrZero;
+
+// A null quantity makes the dish unlimited again
+public record CuisineStockRequest(
+        @PositiveOrZero(message = "Available quantity cannot be negative")
+        Integer availableQuantity
+) {
+}
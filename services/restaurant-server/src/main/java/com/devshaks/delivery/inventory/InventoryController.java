@@ -0,0 +1,63 @@
+package com.devshaks.delivery.inventory;
+
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/v1/restaurants")
+@RequiredArgsConstructor
+public class InventoryController {
+    private final InventoryReservationService inventoryReservationService;
+
+    /**
+     * Endpoint to set the remaining stock of a dish.
+     *
+     * @param restaurantId
+     *            The ID of the restaurant owning the dish.
+     * @param cuisineId
+     *            The ID of the dish.
+     * @param stockRequest
+     *            The portions left to sell, or a null quantity for unlimited.
+     * @return A ResponseEntity with a 204 NO CONTENT status.
+     */
+    @PutMapping("/{restaurantId}/cuisine/{cuisineId}/stock")
+    public ResponseEntity<Void> updateStock(@PathVariable("restaurantId") Integer restaurantId,
+            @PathVariable("cuisineId") Integer cuisineId,
+            @RequestBody @Valid CuisineStockRequest stockRequest) {
+        inventoryReservationService.updateStock(restaurantId, cuisineId, stockRequest.availableQuantity());
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Endpoint to confirm a reservation returned by a purchase once the order is placed.
+     *
+     * @param reservationId
+     *            The reservation to confirm.
+     * @return A ResponseEntity containing the confirmed reservation and a 200 OK status.
+     */
+    @PostMapping("/reservations/{reservationId}/confirm")
+    public ResponseEntity<ReservationResponse> confirmReservation(@PathVariable("reservationId") UUID reservationId) {
+        return ResponseEntity.ok(inventoryReservationService.confirm(reservationId));
+    }
+
+    /**
+     * Endpoint to release a reservation, returning its stock.
+     *
+     * @param reservationId
+     *            The reservation to release.
+     * @return A ResponseEntity containing the released reservation and a 200 OK status.
+     */
+    @PostMapping("/reservations/{reservationId}/release")
+    public ResponseEntity<ReservationResponse> releaseReservation(@PathVariable("reservationId") UUID reservationId) {
+        return ResponseEntity.ok(inventoryReservationService.release(reservationId));
+    }
+}
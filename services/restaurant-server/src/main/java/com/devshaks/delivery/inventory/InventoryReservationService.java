@@ -0,0 +1,267 @@
+package com.devshaks.delivery.inventory;
+
+import com.devshaks.delivery.cuisine.CuisineTypesRepository;
+import com.devshaks.delivery.exceptions.CuisineNotFoundException;
+import com.devshaks.delivery.exceptions.CuisineSoldOutException;
+import com.devshaks.delivery.exceptions.ReservationExpiredException;
+import com.devshaks.delivery.exceptions.ReservationNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Reserves portions of stock-limited dishes for purchases. Stock is taken with a
+ * conditional UPDATE that only succeeds while enough is left, so the database row is
+ * the single source of truth and no instance can oversell, whatever the number of
+ * replicas. Within an instance, purchases of the same dish are serialised on a striped
+ * lock held across the whole reserve transaction, so a lunch rush on one hot dish queues
+ * in memory instead of piling up row-lock waits and connections in the database.
+ * <p>
+ * Reservations are HELD until the order service confirms or releases them; any left
+ * HELD past their expiry are swept and their stock returned. A reservation also keeps
+ * the purchase's unlimited dishes, so a ReservationConfirmedEvent carries all of it. The expiry must outlast the
+ * order service's payment timeout and confirmation retries, or a paid order finds its
+ * reservation gone.
+ */
+@Slf4j
+@Service
+@Transactional
+public class InventoryReservationService {
+
+    // Power of two so a stripe is picked with a mask
+    private static final int LOCK_STRIPES = 64;
+
+    // Expired reservation lines released per sweep transaction
+    private static final int SWEEP_BATCH_SIZE = 500;
+
+    private final CuisineTypesRepository cuisineTypesRepository;
+    private final CuisineReservationRepository reservationRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Duration reservationTtl;
+    private final ReentrantLock[] stripes = new ReentrantLock[LOCK_STRIPES];
+
+    public InventoryReservationService(CuisineTypesRepository cuisineTypesRepository,
+            CuisineReservationRepository reservationRepository,
+            TransactionTemplate transactionTemplate,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${application.inventory.reservation-ttl:15m}") Duration reservationTtl) {
+        this.cuisineTypesRepository = cuisineTypesRepository;
+        this.reservationRepository = reservationRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.reservationTtl = reservationTtl;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Takes stock for every limited dish of a purchase, all or nothing. The stock and
+     * reservation lines are committed before the stripe locks are released, so callers
+     * must not invoke this inside a surrounding transaction.
+     *
+     * @param restaurantId
+     *            The ID of the restaurant the dishes belong to.
+     * @param limitedQuantities
+     *            Portions to reserve by cuisine ID, for limited dishes.
+     * @param unlimitedQuantities
+     *            Portions of the purchase's other dishes by cuisine ID, held alongside
+     *            without taking stock.
+     * @return The HELD reservation, or null if no limited dish needed reserving.
+     * @throws CuisineSoldOutException
+     *             If any dish does not have enough stock left; nothing is reserved.
+     * @throws IllegalArgumentException
+     *             If any quantity is not positive; nothing is reserved.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ReservationResponse reserve(Integer restaurantId, SortedMap<Integer, Integer> limitedQuantities,
+            Map<Integer, Integer> unlimitedQuantities) {
+        // Taking a negative quantity would put stock back instead
+        requirePositive(limitedQuantities);
+        requirePositive(unlimitedQuantities);
+        if (limitedQuantities.isEmpty()) {
+            return null;
+        }
+
+        UUID reservationId = UUID.randomUUID();
+        Instant expiresAt = Instant.now().plus(reservationTtl);
+        List<ReentrantLock> locks = lockStripes(limitedQuantities.keySet());
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                List<CuisineReservation> lines = new ArrayList<>(limitedQuantities.size() + unlimitedQuantities.size());
+                limitedQuantities.forEach((cuisineId, quantity) -> {
+                    if (cuisineTypesRepository.takeStock(cuisineId, quantity) == 0) {
+                        throw new CuisineSoldOutException("Not enough stock left for cuisine " + cuisineId);
+                    }
+                    lines.add(line(reservationId, restaurantId, cuisineId, quantity, true, expiresAt));
+                });
+                unlimitedQuantities.forEach((cuisineId, quantity) ->
+                        lines.add(line(reservationId, restaurantId, cuisineId, quantity, false, expiresAt)));
+                reservationRepository.saveAll(lines);
+            });
+        } finally {
+            locks.forEach(ReentrantLock::unlock);
+        }
+        log.debug("Reserved {} for restaurant {} as {}", limitedQuantities, restaurantId, reservationId);
+        return new ReservationResponse(reservationId, ReservationStatus.HELD, expiresAt);
+    }
+
+    /**
+     * Confirms a HELD reservation, turning its stock into a sale, and publishes a
+     * ReservationConfirmedEvent. Confirming twice is a no-op.
+     *
+     * @param reservationId
+     *            The reservation to confirm.
+     * @return The confirmed reservation.
+     * @throws ReservationExpiredException
+     *             If the reservation expired or was released before it was confirmed.
+     */
+    public ReservationResponse confirm(UUID reservationId) {
+        List<CuisineReservation> lines = findLines(reservationId);
+        Instant expiresAt = lines.get(0).getExpiresAt();
+        if (lines.stream().allMatch(line -> line.getStatus() == ReservationStatus.CONFIRMED)) {
+            return new ReservationResponse(reservationId, ReservationStatus.CONFIRMED, expiresAt);
+        }
+
+        // All lines are confirmed by one statement; a partial count means the sweeper won
+        // a line first, and rolling back leaves the rest to expire with it
+        if (reservationRepository.confirm(reservationId, Instant.now()) != lines.size()) {
+            throw new ReservationExpiredException("Reservation " + reservationId + " is no longer held");
+        }
+        eventPublisher.publishEvent(new ReservationConfirmedEvent(reservationId, lines.get(0).getRestaurantId(),
+                lines.stream().collect(Collectors.toMap(CuisineReservation::getCuisineId, CuisineReservation::getQuantity))));
+        return new ReservationResponse(reservationId, ReservationStatus.CONFIRMED, expiresAt);
+    }
+
+    /**
+     * Releases a reservation and returns its stock, whether it is still HELD or was
+     * already CONFIRMED (an order cancelled after the fact). Releasing twice is a no-op.
+     *
+     * @param reservationId
+     *            The reservation to release.
+     * @return The released reservation.
+     */
+    public ReservationResponse release(UUID reservationId) {
+        List<CuisineReservation> lines = findLines(reservationId);
+        for (CuisineReservation line : lines) {
+            if (line.getStatus() == ReservationStatus.HELD || line.getStatus() == ReservationStatus.CONFIRMED) {
+                releaseLine(line, line.getStatus(), ReservationStatus.RELEASED);
+            }
+        }
+        return new ReservationResponse(reservationId, ReservationStatus.RELEASED, lines.get(0).getExpiresAt());
+    }
+
+    /**
+     * Sets the remaining stock of a dish, or makes it unlimited when the quantity is null.
+     *
+     * @param restaurantId
+     *            The ID of the restaurant owning the dish.
+     * @param cuisineId
+     *            The ID of the dish.
+     * @param availableQuantity
+     *            The portions left to sell, or null for unlimited.
+     * @throws CuisineNotFoundException
+     *             If the dish is not on the restaurant's menu.
+     */
+    public void updateStock(Integer restaurantId, Integer cuisineId, Integer availableQuantity) {
+        if (cuisineTypesRepository.updateStock(restaurantId, cuisineId, availableQuantity) == 0) {
+            throw new CuisineNotFoundException("Cuisine " + cuisineId + " not found for restaurant " + restaurantId);
+        }
+    }
+
+    /**
+     * Returns the stock of reservations left HELD past their expiry. Safe to run on every
+     * instance at once, since each line can only be moved out of HELD once.
+     *
+     * @return The number of reservation lines expired.
+     */
+    @Scheduled(fixedDelayString = "${application.inventory.sweep-interval:PT30S}")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public int expireReservations() {
+        int expired = 0;
+        int batch;
+        do {
+            batch = transactionTemplate.execute(status -> {
+                List<CuisineReservation> lines = reservationRepository.findAllByStatusAndExpiresAtBeforeOrderByExpiresAt(
+                        ReservationStatus.HELD, Instant.now(), Limit.of(SWEEP_BATCH_SIZE));
+                lines.forEach(line -> releaseLine(line, ReservationStatus.HELD, ReservationStatus.EXPIRED));
+                return lines.size();
+            });
+            expired += batch;
+        } while (batch == SWEEP_BATCH_SIZE);
+
+        if (expired > 0) {
+            log.info("Expired {} unconfirmed reservation lines", expired);
+        }
+        return expired;
+    }
+
+    private List<CuisineReservation> findLines(UUID reservationId) {
+        List<CuisineReservation> lines = reservationRepository.findAllByReservationId(reservationId);
+        if (lines.isEmpty()) {
+            throw new ReservationNotFoundException("Reservation not found with ID: " + reservationId);
+        }
+        return lines;
+    }
+
+    private static void requirePositive(Map<Integer, Integer> quantities) {
+        quantities.forEach((cuisineId, quantity) -> {
+            if (quantity == null || quantity <= 0) {
+                throw new IllegalArgumentException("Quantity must be positive for cuisine " + cuisineId);
+            }
+        });
+    }
+
+    private static CuisineReservation line(UUID reservationId, Integer restaurantId, Integer cuisineId, int quantity,
+            boolean limited, Instant expiresAt) {
+        return CuisineReservation.builder()
+                .reservationId(reservationId)
+                .restaurantId(restaurantId)
+                .cuisineId(cuisineId)
+                .quantity(quantity)
+                .limited(limited)
+                .status(ReservationStatus.HELD)
+                .expiresAt(expiresAt)
+                .build();
+    }
+
+    // Only the caller that moves the line out of its current status returns the stock
+    private void releaseLine(CuisineReservation line, ReservationStatus from, ReservationStatus to) {
+        if (reservationRepository.transition(line.getId(), from, to) == 1 && line.isLimited()) {
+            cuisineTypesRepository.returnStock(line.getCuisineId(), line.getQuantity());
+        }
+    }
+
+    // Acquires each distinct stripe once, in ascending order so multi-dish purchases cannot deadlock
+    private List<ReentrantLock> lockStripes(Iterable<Integer> cuisineIds) {
+        TreeSet<Integer> stripeIndexes = new TreeSet<>();
+        for (Integer cuisineId : cuisineIds) {
+            int hash = cuisineId.hashCode();
+            stripeIndexes.add((hash ^ (hash >>> 16)) & (LOCK_STRIPES - 1));
+        }
+        List<ReentrantLock> locks = new ArrayList<>(stripeIndexes.size());
+        for (int index : stripeIndexes) {
+            stripes[index].lock();
+            locks.add(stripes[index]);
+        }
+        return locks;
+    }
+}
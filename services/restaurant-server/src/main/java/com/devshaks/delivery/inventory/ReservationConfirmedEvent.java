@@ -0,0 +1,14 @@
+package com.devshaks.delivery.inventory;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Published by InventoryReservationService when a HELD reservation is confirmed, with
+ * every dish of the purchase it was held for, limited or not.
+ */
+public record ReservationConfirmedEvent(
+        UUID reservationId,
+        Integer restaurantId,
+        Map<Integer, Integer> quantitiesByCuisine) {
+}
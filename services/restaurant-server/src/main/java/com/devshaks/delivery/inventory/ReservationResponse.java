@@ -0,0 +1,11 @@
+package com.devshaks.delivery.inventory;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public record ReservationResponse(
+        UUID reservationId,
+        ReservationStatus status,
+        Instant expiresAt
+) {
+}
@@ -0,0 +1,5 @@
+package com.devshaks.delivery.inventory;
+
+public enum ReservationStatus {
+    HELD, CONFIRMED, RELEASED, EXPIRED
+}
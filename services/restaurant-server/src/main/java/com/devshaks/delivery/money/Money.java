@@ -0,0 +1,98 @@
+package com.devshaks.delivery.money;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.math.BigDecimal;
+import java.util.Currency;
+import java.util.Objects;
+
+/**
+ * An exact amount of money held as a long count of the currency's minor units, e.g.
+ * pence. Arithmetic is long arithmetic with overflow checks, so pricing an order
+ * allocates at most the result and never goes through BigDecimal. Amounts only become
+ * BigDecimals at the edges: columns are still NUMERIC, through MoneyConverter, and JSON
+ * is still a plain decimal number such as {@code 12.50}, so the wire format shared
+ * with the other services is unchanged. Amounts read without a currency are in
+ * {@link #DEFAULT_CURRENCY}.
+ * <p>
+ * The same type is kept in restaurant-, order- and payment-server, as DTOs are.
+ *
+ * @param minorUnits
+ *            The amount in minor units of the currency.
+ * @param currency
+ *            The currency of the amount.
+ */
+public record Money(long minorUnits, Currency currency) implements Comparable<Money> {
+
+    public static final Currency DEFAULT_CURRENCY = Currency.getInstance("GBP");
+
+    public static final Money ZERO = new Money(0, DEFAULT_CURRENCY);
+
+    public Money {
+        Objects.requireNonNull(currency, "Currency is required");
+    }
+
+    public static Money ofMinor(long minorUnits) {
+        return new Money(minorUnits, DEFAULT_CURRENCY);
+    }
+
+    /**
+     * Converts a decimal amount in the default currency.
+     *
+     * @param amount
+     *            The amount, e.g. 12.50.
+     * @return The amount in minor units.
+     * @throws ArithmeticException
+     *             If the amount has more decimals than the currency has minor units, or
+     *             does not fit in a long.
+     */
+    @JsonCreator(mode = JsonCreator.Mode.DELEGATING)
+    public static Money of(BigDecimal amount) {
+        return of(amount, DEFAULT_CURRENCY);
+    }
+
+    public static Money of(BigDecimal amount, Currency currency) {
+        return new Money(amount.movePointRight(currency.getDefaultFractionDigits()).longValueExact(), currency);
+    }
+
+    public Money plus(Money other) {
+        checkCurrency(other);
+        return new Money(Math.addExact(minorUnits, other.minorUnits), currency);
+    }
+
+    public Money minus(Money other) {
+        checkCurrency(other);
+        return new Money(Math.subtractExact(minorUnits, other.minorUnits), currency);
+    }
+
+    public Money times(long quantity) {
+        return new Money(Math.multiplyExact(minorUnits, quantity), currency);
+    }
+
+    public boolean isPositive() {
+        return minorUnits > 0;
+    }
+
+    @JsonValue
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, currency.getDefaultFractionDigits());
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        checkCurrency(other);
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    @Override
+    public String toString() {
+        return currency.getCurrencyCode() + " " + toBigDecimal().toPlainString();
+    }
+
+    private void checkCurrency(Money other) {
+        if (currency != other.currency) {
+            throw new IllegalArgumentException("Cannot combine " + currency + " and " + other.currency);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.devshaks.delivery.popularity;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Count-Min sketch over integer keys: {@code depth} rows of {@code width} counters, each
+ * row indexed by its own hash. Estimates never undercount and overcount by at most
+ * about {@code e / width} of the total added, with probability {@code 1 - e^-depth}.
+ * Memory is fixed whatever the number of distinct keys. Not thread-safe; callers guard
+ * it.
+ */
+final class CountMinSketch {
+
+    private final int width;
+    private final int depth;
+    private final long[] counters;
+
+    CountMinSketch(int width, int depth) {
+        if (Integer.bitCount(width) != 1 || depth < 1) {
+            throw new IllegalArgumentException("Sketch width must be a power of two and depth positive");
+        }
+        this.width = width;
+        this.depth = depth;
+        this.counters = new long[width * depth];
+    }
+
+    int width() {
+        return width;
+    }
+
+    int depth() {
+        return depth;
+    }
+
+    void add(int key, long count) {
+        for (int row = 0; row < depth; row++) {
+            counters[row * width + index(key, row)] += count;
+        }
+    }
+
+    long estimate(int key) {
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters[row * width + index(key, row)]);
+        }
+        return estimate;
+    }
+
+    // Sketches of the same shape merge by adding their counters
+    void merge(CountMinSketch other) {
+        if (other.width != width || other.depth != depth) {
+            throw new IllegalArgumentException("Cannot merge sketches of different shapes");
+        }
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] += other.counters[i];
+        }
+    }
+
+    boolean isEmpty() {
+        for (long counter : counters) {
+            if (counter != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    int serializedSize() {
+        return 2 * Integer.BYTES + counters.length * Long.BYTES;
+    }
+
+    void writeTo(ByteBuffer buffer) {
+        buffer.putInt(width).putInt(depth);
+        for (long counter : counters) {
+            buffer.putLong(counter);
+        }
+    }
+
+    static CountMinSketch readFrom(ByteBuffer buffer) {
+        CountMinSketch sketch = new CountMinSketch(buffer.getInt(), buffer.getInt());
+        for (int i = 0; i < sketch.counters.length; i++) {
+            sketch.counters[i] = buffer.getLong();
+        }
+        return sketch;
+    }
+
+    // A different 64-bit mix of the key per row, masked to the power-of-two width
+    private int index(int key, int row) {
+        long hash = (key + 1L) * 0x9E3779B97F4A7C15L + row * 0xC2B2AE3D27D4EB4FL;
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        return (int) hash & (width - 1);
+    }
+}
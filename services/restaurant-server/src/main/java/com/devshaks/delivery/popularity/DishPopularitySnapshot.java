@@ -0,0 +1,28 @@
+package com.devshaks.delivery.popularity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * Serialized PopularityCounter of one scope: a restaurant ID, or 0 for the whole
+ * catalogue. Deltas from every instance are merged into it.
+ */
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@Builder
+public class DishPopularitySnapshot {
+
+    @Id
+    private Integer scopeId;
+
+    @Column(nullable = false, length = 1_000_000)
+    private byte[] counts;
+
+    @Column(nullable = false)
+    private Instant updatedAt;
+}
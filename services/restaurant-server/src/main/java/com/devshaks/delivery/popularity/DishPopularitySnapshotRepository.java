@@ -0,0 +1,16 @@
+package com.devshaks.delivery.popularity;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Optional;
+
+public interface DishPopularitySnapshotRepository extends JpaRepository<DishPopularitySnapshot, Integer> {
+
+    // Locks the stored counts while a delta is merged in, so concurrent instances do not lose each other's
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM DishPopularitySnapshot s WHERE s.scopeId = :scopeId")
+    Optional<DishPopularitySnapshot> findForUpdate(Integer scopeId);
+}
@@ -0,0 +1,217 @@
+package com.devshaks.delivery.popularity;
+
+import com.devshaks.delivery.cuisine.CuisineTypes;
+import com.devshaks.delivery.cuisine.CuisineTypesRepository;
+import com.devshaks.delivery.inventory.ReservationConfirmedEvent;
+import com.devshaks.delivery.restaurant.PurchasedItems;
+import com.devshaks.delivery.restaurant.RestaurantChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Most ordered dishes per restaurant and across the catalogue, counted in memory from
+ * confirmed purchases instead of grouping over order history. A purchase holding stock
+ * is only counted once its reservation is confirmed, so released and expired ones never
+ * are. Each scope is a PopularityCounter
+ * with a fixed-size Count-Min sketch and at most {@code top-k} heavy-hitter candidates,
+ * so memory per restaurant is bounded whatever the size of its menu or order volume.
+ * <p>
+ * Counts are snapshotted periodically and on shutdown: the increments since the last
+ * snapshot are merged into the stored counts under a row lock, and the merged counts are
+ * adopted back, so counts survive restarts and converge across instances.
+ */
+@Slf4j
+@Component
+public class DishPopularityTracker {
+
+    // Scope ID of the catalogue-wide counts; restaurant IDs start at 1
+    static final int GLOBAL_SCOPE = 0;
+
+    private static final int SKETCH_DEPTH = 4;
+
+    private final DishPopularitySnapshotRepository snapshotRepository;
+    private final CuisineTypesRepository cuisineTypesRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int topK;
+    private final int restaurantSketchWidth;
+    private final int globalSketchWidth;
+    private final Map<Integer, PopularityCounter> counters = new ConcurrentHashMap<>();
+
+    public DishPopularityTracker(DishPopularitySnapshotRepository snapshotRepository,
+            CuisineTypesRepository cuisineTypesRepository,
+            TransactionTemplate transactionTemplate,
+            @Value("${application.popularity.top-k:10}") int topK,
+            @Value("${application.popularity.restaurant-sketch-width:128}") int restaurantSketchWidth,
+            @Value("${application.popularity.global-sketch-width:4096}") int globalSketchWidth) {
+        this.snapshotRepository = snapshotRepository;
+        this.cuisineTypesRepository = cuisineTypesRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.topK = topK;
+        this.restaurantSketchWidth = restaurantSketchWidth;
+        this.globalSketchWidth = globalSketchWidth;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        List<DishPopularitySnapshot> snapshots = snapshotRepository.findAll();
+        for (DishPopularitySnapshot snapshot : snapshots) {
+            PopularityCounter stored = decode(snapshot);
+            if (stored != null) {
+                counter(snapshot.getScopeId()).replaceTotal(stored);
+            }
+        }
+        log.info("Dish popularity loaded for {} scopes", snapshots.size());
+    }
+
+    @TransactionalEventListener
+    public void onRestaurantChanged(RestaurantChangedEvent event) {
+        if (event.deleted()) {
+            counters.remove(event.restaurantId());
+            counter(GLOBAL_SCOPE).removeRestaurant(event.restaurantId());
+        }
+    }
+
+    @TransactionalEventListener
+    public void onReservationConfirmed(ReservationConfirmedEvent event) {
+        for (CuisineTypes cuisine : cuisineTypesRepository.findAllById(event.quantitiesByCuisine().keySet())) {
+            record(event.restaurantId(), cuisine.getId(), cuisine.getName(),
+                    event.quantitiesByCuisine().get(cuisine.getId()));
+        }
+    }
+
+    /**
+     * Deletes the stored counts of a restaurant in the caller's transaction, so they go
+     * with the restaurant itself. Its in-memory counts are dropped once that commits.
+     *
+     * @param restaurantId
+     *            The ID of the deleted restaurant.
+     */
+    public void deleteSnapshot(Integer restaurantId) {
+        snapshotRepository.deleteById(restaurantId);
+    }
+
+    /**
+     * Counts the portions of each dish of a confirmed purchase, for its restaurant and
+     * globally.
+     *
+     * @param restaurantId
+     *            The ID of the restaurant purchased from.
+     * @param items
+     *            The purchased items.
+     */
+    public void recordPurchase(Integer restaurantId, List<PurchasedItems> items) {
+        for (PurchasedItems item : items) {
+            record(restaurantId, item.cuisineId(), item.name(), item.quantity());
+        }
+    }
+
+    /**
+     * Finds the most ordered dishes of a restaurant.
+     *
+     * @param restaurantId
+     *            The ID of the restaurant.
+     * @param limit
+     *            The maximum number of dishes, capped at the configured top-K.
+     * @return The dishes, most ordered first.
+     */
+    public List<PopularDishResponse> findPopularDishes(Integer restaurantId, int limit) {
+        PopularityCounter counter = counters.get(restaurantId);
+        return counter == null ? List.of() : counter.top(Math.min(limit, topK));
+    }
+
+    /**
+     * Finds the most ordered dishes across every restaurant.
+     *
+     * @param limit
+     *            The maximum number of dishes, capped at the configured top-K.
+     * @return The dishes, most ordered first.
+     */
+    public List<PopularDishResponse> findPopularDishes(int limit) {
+        return counter(GLOBAL_SCOPE).top(Math.min(limit, topK));
+    }
+
+    /**
+     * Merges the counts recorded since the last snapshot into the stored snapshots, one
+     * transaction per scope.
+     *
+     * @return The number of scopes written.
+     */
+    @Scheduled(fixedDelayString = "${application.popularity.snapshot-interval:PT5M}")
+    public int snapshot() {
+        int written = 0;
+        for (Map.Entry<Integer, PopularityCounter> entry : counters.entrySet()) {
+            PopularityCounter.Delta delta = entry.getValue().drainPending();
+            if (delta == null) {
+                continue;
+            }
+            try {
+                PopularityCounter stored = transactionTemplate.execute(status -> merge(entry.getKey(), delta));
+                entry.getValue().replaceTotal(stored);
+                written++;
+            } catch (RuntimeException e) {
+                entry.getValue().restorePending(delta);
+                log.warn("Could not snapshot dish popularity of scope {}: {}", entry.getKey(), e.getMessage());
+            }
+        }
+        return written;
+    }
+
+    @EventListener(ContextClosedEvent.class)
+    public void snapshotOnShutdown() {
+        int written = snapshot();
+        log.info("Dish popularity snapshotted for {} scopes on shutdown", written);
+    }
+
+    private PopularityCounter merge(Integer scopeId, PopularityCounter.Delta delta) {
+        DishPopularitySnapshot snapshot = snapshotRepository.findForUpdate(scopeId)
+                .orElseGet(() -> DishPopularitySnapshot.builder().scopeId(scopeId).build());
+        PopularityCounter stored = snapshot.getCounts() == null ? null : decode(snapshot);
+        if (stored == null) {
+            stored = newCounter(scopeId);
+        }
+        stored.absorb(delta);
+        snapshot.setCounts(stored.toBytes());
+        snapshot.setUpdatedAt(Instant.now());
+        snapshotRepository.save(snapshot);
+        return stored;
+    }
+
+    // Snapshots of a different sketch shape, after a configuration change, are discarded
+    private PopularityCounter decode(DishPopularitySnapshot snapshot) {
+        PopularityCounter stored = PopularityCounter.fromBytes(snapshot.getCounts(), topK);
+        if (!stored.hasShape(sketchWidth(snapshot.getScopeId()), SKETCH_DEPTH)) {
+            log.warn("Discarding dish popularity snapshot of scope {} with a different sketch shape", snapshot.getScopeId());
+            return null;
+        }
+        return stored;
+    }
+
+    private void record(Integer restaurantId, Integer cuisineId, String name, int quantity) {
+        counter(restaurantId).record(cuisineId, restaurantId, name, quantity);
+        counter(GLOBAL_SCOPE).record(cuisineId, restaurantId, name, quantity);
+    }
+
+    private PopularityCounter counter(Integer scopeId) {
+        return counters.computeIfAbsent(scopeId, this::newCounter);
+    }
+
+    private PopularityCounter newCounter(Integer scopeId) {
+        return new PopularityCounter(sketchWidth(scopeId), SKETCH_DEPTH, topK);
+    }
+
+    private int sketchWidth(Integer scopeId) {
+        return scopeId == GLOBAL_SCOPE ? globalSketchWidth : restaurantSketchWidth;
+    }
+}
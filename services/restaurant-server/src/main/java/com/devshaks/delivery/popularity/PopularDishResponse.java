@@ -0,0 +1,10 @@
+package com.devshaks.delivery.popularity;
+
+public record PopularDishResponse(
+        Integer cuisineId,
+        Integer restaurantId,
+        String name,
+        // Count-Min estimate of portions ordered, never below the true count
+        long estimatedOrders
+) {
+}
@@ -0,0 +1,48 @@
+package com.devshaks.delivery.popularity;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/restaurants")
+@RequiredArgsConstructor
+public class PopularityController {
+    private final DishPopularityTracker dishPopularityTracker;
+
+    /**
+     * Endpoint to retrieve the most ordered dishes across every restaurant.
+     *
+     * @param limit
+     *            The maximum number of dishes to return.
+     * @return A ResponseEntity containing the dishes, most ordered first, and a 200 OK
+     *         status.
+     */
+    @GetMapping("/popular-dishes")
+    public ResponseEntity<List<PopularDishResponse>> findPopularDishes(
+            @RequestParam(value = "limit", defaultValue = "10") int limit) {
+        return ResponseEntity.ok(dishPopularityTracker.findPopularDishes(limit));
+    }
+
+    /**
+     * Endpoint to retrieve the most ordered dishes of a restaurant.
+     *
+     * @param restaurantId
+     *            The ID of the restaurant.
+     * @param limit
+     *            The maximum number of dishes to return.
+     * @return A ResponseEntity containing the dishes, most ordered first, and a 200 OK
+     *         status.
+     */
+    @GetMapping("/{restaurantId}/popular-dishes")
+    public ResponseEntity<List<PopularDishResponse>> findPopularDishes(@PathVariable("restaurantId") Integer restaurantId,
+            @RequestParam(value = "limit", defaultValue = "10") int limit) {
+        return ResponseEntity.ok(dishPopularityTracker.findPopularDishes(restaurantId, limit));
+    }
+}
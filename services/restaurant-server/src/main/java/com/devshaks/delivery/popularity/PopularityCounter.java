@@ -0,0 +1,167 @@
+package com.devshaks.delivery.popularity;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dish order counts of one scope, a restaurant or the whole catalogue: a Count-Min
+ * sketch for the counts and a bounded set of heavy-hitter candidates for the top-K.
+ * The candidates are re-ranked from the sketch when read, since their estimates keep
+ * moving; a dish not yet tracked replaces the weakest candidate once it overtakes it.
+ * Increments since the last snapshot are also kept in a pending sketch, so that
+ * snapshots can merge deltas from several instances into the stored counts.
+ */
+final class PopularityCounter {
+
+    private record Dish(Integer cuisineId, Integer restaurantId, String name) {
+    }
+
+    // The drained increments and candidates of one snapshot
+    record Delta(CountMinSketch sketch, List<Dish> candidates) {
+    }
+
+    private final int width;
+    private final int depth;
+    private final int capacity;
+    private CountMinSketch total;
+    private CountMinSketch pending;
+    private final Map<Integer, Dish> candidates = new HashMap<>();
+
+    PopularityCounter(int width, int depth, int capacity) {
+        this.width = width;
+        this.depth = depth;
+        this.capacity = capacity;
+        this.total = new CountMinSketch(width, depth);
+        this.pending = new CountMinSketch(width, depth);
+    }
+
+    boolean hasShape(int width, int depth) {
+        return this.width == width && this.depth == depth;
+    }
+
+    synchronized void record(Integer cuisineId, Integer restaurantId, String name, int quantity) {
+        total.add(cuisineId, quantity);
+        pending.add(cuisineId, quantity);
+        offer(new Dish(cuisineId, restaurantId, name));
+    }
+
+    synchronized List<PopularDishResponse> top(int limit) {
+        return candidates.values().stream()
+                .map(dish -> new PopularDishResponse(dish.cuisineId(), dish.restaurantId(), dish.name(),
+                        total.estimate(dish.cuisineId())))
+                .sorted(Comparator.comparingLong(PopularDishResponse::estimatedOrders).reversed()
+                        .thenComparing(PopularDishResponse::cuisineId))
+                .limit(limit)
+                .toList();
+    }
+
+    synchronized void removeRestaurant(Integer restaurantId) {
+        candidates.values().removeIf(dish -> dish.restaurantId().equals(restaurantId));
+    }
+
+    // Takes the increments since the last snapshot, or null if there are none
+    synchronized Delta drainPending() {
+        if (pending.isEmpty()) {
+            return null;
+        }
+        Delta delta = new Delta(pending, List.copyOf(candidates.values()));
+        pending = new CountMinSketch(width, depth);
+        return delta;
+    }
+
+    // Puts back the increments of a snapshot that failed to be written
+    synchronized void restorePending(Delta delta) {
+        pending.merge(delta.sketch());
+    }
+
+    // Folds a drained delta, possibly from another instance, into stored counts
+    synchronized void absorb(Delta delta) {
+        total.merge(delta.sketch());
+        delta.candidates().forEach(this::offer);
+    }
+
+    // Adopts the merged stored counts, keeping the increments recorded since they were drained
+    synchronized void replaceTotal(PopularityCounter stored) {
+        CountMinSketch merged = new CountMinSketch(width, depth);
+        synchronized (stored) {
+            merged.merge(stored.total);
+            stored.candidates.values().forEach(candidate -> candidates.putIfAbsent(candidate.cuisineId(), candidate));
+        }
+        merged.merge(pending);
+        total = merged;
+        trim();
+    }
+
+    synchronized byte[] toBytes() {
+        byte[][] names = new byte[candidates.size()][];
+        int size = total.serializedSize() + Integer.BYTES;
+        int i = 0;
+        for (Dish dish : candidates.values()) {
+            names[i] = dish.name().getBytes(StandardCharsets.UTF_8);
+            size += 3 * Integer.BYTES + names[i++].length;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        total.writeTo(buffer);
+        buffer.putInt(candidates.size());
+        i = 0;
+        for (Dish dish : candidates.values()) {
+            buffer.putInt(dish.cuisineId()).putInt(dish.restaurantId()).putInt(names[i].length).put(names[i++]);
+        }
+        return buffer.array();
+    }
+
+    static PopularityCounter fromBytes(byte[] bytes, int capacity) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        CountMinSketch sketch = CountMinSketch.readFrom(buffer);
+        PopularityCounter counter = new PopularityCounter(sketch.width(), sketch.depth(), capacity);
+        counter.total = sketch;
+        int candidates = buffer.getInt();
+        for (int i = 0; i < candidates; i++) {
+            Integer cuisineId = buffer.getInt();
+            Integer restaurantId = buffer.getInt();
+            byte[] name = new byte[buffer.getInt()];
+            buffer.get(name);
+            counter.candidates.put(cuisineId, new Dish(cuisineId, restaurantId, new String(name, StandardCharsets.UTF_8)));
+        }
+        counter.trim();
+        return counter;
+    }
+
+    private void offer(Dish dish) {
+        if (candidates.containsKey(dish.cuisineId())) {
+            return;
+        }
+        if (candidates.size() < capacity) {
+            candidates.put(dish.cuisineId(), dish);
+            return;
+        }
+        Dish weakest = null;
+        long weakestEstimate = Long.MAX_VALUE;
+        for (Dish candidate : candidates.values()) {
+            long estimate = total.estimate(candidate.cuisineId());
+            if (estimate < weakestEstimate) {
+                weakest = candidate;
+                weakestEstimate = estimate;
+            }
+        }
+        if (total.estimate(dish.cuisineId()) > weakestEstimate) {
+            candidates.remove(weakest.cuisineId());
+            candidates.put(dish.cuisineId(), dish);
+        }
+    }
+
+    private void trim() {
+        if (candidates.size() <= capacity) {
+            return;
+        }
+        List<Dish> ranked = candidates.values().stream()
+                .sorted(Comparator.comparingLong((Dish dish) -> total.estimate(dish.cuisineId())).reversed())
+                .toList();
+        ranked.subList(capacity, ranked.size()).forEach(dish -> candidates.remove(dish.cuisineId()));
+    }
+}
@@ -0,0 +1,73 @@
+package com.devshaks.delivery.restaurant;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of each stage of a purchase, as one {@code restaurant.purchase.stage} timer
+ * tagged by stage, with p50/p95/p99 and a percentile histogram so the percentiles can
+ * also be aggregated across instances. Stages are timed with System.nanoTime deltas
+ * rather than Timer.Sample, so the purchase allocates nothing for them.
+ */
+@Component
+public class PurchaseMetrics {
+
+    private static final String STAGE_TIMER = "restaurant.purchase.stage";
+
+    private final Timer validation;
+    private final Timer pricing;
+    private final Timer reservation;
+    private final Timer response;
+
+    public PurchaseMetrics(MeterRegistry meterRegistry) {
+        this.validation = stageTimer(meterRegistry, "validation",
+                "Admission control and loading the restaurant");
+        this.pricing = stageTimer(meterRegistry, "pricing",
+                "Loading the purchased cuisines and pricing every item");
+        this.reservation = stageTimer(meterRegistry, "reservation",
+                "Reserving stock of limited dishes and counting popularity");
+        this.response = stageTimer(meterRegistry, "response",
+                "Building the purchase response");
+    }
+
+    /**
+     * Records the validation stage.
+     *
+     * @param startNanos
+     *            System.nanoTime at the start of the stage.
+     * @return System.nanoTime now, the start of the next stage.
+     */
+    public long validated(long startNanos) {
+        return record(validation, startNanos);
+    }
+
+    public long priced(long startNanos) {
+        return record(pricing, startNanos);
+    }
+
+    public long reserved(long startNanos) {
+        return record(reservation, startNanos);
+    }
+
+    public long responded(long startNanos) {
+        return record(response, startNanos);
+    }
+
+    private static long record(Timer timer, long startNanos) {
+        long now = System.nanoTime();
+        timer.record(now - startNanos, TimeUnit.NANOSECONDS);
+        return now;
+    }
+
+    private static Timer stageTimer(MeterRegistry meterRegistry, String stage, String description) {
+        return Timer.builder(STAGE_TIMER)
+                .description(description)
+                .tag("stage", stage)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
@@ -3,7 +3,9 @@ package com.devshaks.delivery.restaurant;
 import com.devshaks.delivery.cuisine.CuisineTypes;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
 
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -15,8 +17,10 @@ import java.util.List;
 @Builder
 public class Restaurant {
 
+    // Pooled sequence rather than IDENTITY, so Hibernate can batch inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "restaurant_seq")
+    @SequenceGenerator(name = "restaurant_seq", sequenceName = "restaurant_seq", allocationSize = 50)
     private Integer id;
 
     @Column(nullable = false)
@@ -31,22 +35,56 @@ public class Restaurant {
     @Column(nullable = false)
     private String location;
 
+    // WGS84 coordinates, used by the nearby search; null for restaurants not yet geocoded
+    private Double latitude;
+
+    private Double longitude;
+
     @Column(nullable = false)
     private String description;
 
     @Column(nullable = false)
     private String openingHours; // Time format: e.g., "09:00 - 21:00"
 
+    // Seeded on creation, then the running average of reviews once RestaurantRatingAggregator folds any in
     @Column(nullable = false)
     private Double rating;
 
+    // Running aggregates of reviews, maintained incrementally by RestaurantRatingAggregator
+    @Column(nullable = false)
+    private long ratingCount;
+
+    @Column(nullable = false)
+    private long ratingSum;
+
+    // Exponentially time-decayed sum and weight of review ratings, as of ratingDecayedAt
+    @Column(nullable = false)
+    private double decayedRatingSum;
+
+    @Column(nullable = false)
+    private double decayedRatingWeight;
+
+    private Instant ratingDecayedAt;
+
     @Column(nullable = false)
     private Boolean isOpen;
 
     @Column(nullable = false)
     private String priceRange;
 
-    // One-to-many relationship with CuisineTypes
+    // Kitchen throughput limit enforced by KitchenCapacityLimiter, null when unlimited.
+    // Only written through RestaurantRepository.updateOrdersPerMinute, never by dirty checking
+    @Column(insertable = false, updatable = false)
+    private Integer ordersPerMinute;
+
+    // Bumped on every change to the restaurant or its menu; backs optimistic locking and ETags
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
+    // One-to-many relationship with CuisineTypes, batch-fetched for paged reads
+    // where a fetch join cannot be combined with a row limit
     @OneToMany(mappedBy = "restaurant", cascade = CascadeType.ALL)
+    @BatchSize(size = 100)
     private List<CuisineTypes> cuisineTypes = new ArrayList<>();
 }
@@ -0,0 +1,8 @@
+package com.devshaks.delivery.restaurant;
+
+// Projection of the kitchen throughput limit used by the admission buckets
+public interface RestaurantCapacity {
+    Integer getId();
+
+    Integer getOrdersPerMinute();
+}
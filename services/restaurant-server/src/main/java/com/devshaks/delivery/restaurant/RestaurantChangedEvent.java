@@ -0,0 +1,16 @@
+package com.devshaks.delivery.restaurant;
+
+/**
+ * Published by RestaurantService whenever a restaurant or its menu is created, updated
+ * or deleted. Listeners bound to the commit phase use it to keep in-memory views in sync.
+ * A deletion carries the version the restaurant was deleted at, if it existed.
+ */
+public record RestaurantChangedEvent(
+        Integer restaurantId,
+        boolean deleted,
+        Long deletedVersion) {
+
+    public RestaurantChangedEvent(Integer restaurantId, boolean deleted) {
+        this(restaurantId, deleted, null);
+    }
+}
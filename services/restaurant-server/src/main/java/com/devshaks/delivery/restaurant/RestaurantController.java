@@ -1,15 +1,31 @@
 package com.devshaks.delivery.restaurant;
 
+import com.devshaks.delivery.capacity.KitchenCapacityRequest;
+import com.devshaks.delivery.cuisine.CuisineDiffResponse;
 import com.devshaks.delivery.cuisine.CuisineTypes;
 import com.devshaks.delivery.cuisine.CuisineTypesResponse;
+import com.devshaks.delivery.geo.NearbyRestaurantResponse;
+import com.devshaks.delivery.search.SearchPageResponse;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Slf4j
@@ -20,6 +36,9 @@ public class RestaurantController {
 
     // Injects the RestaurantService to handle business logic
     private final RestaurantService restaurantService;
+    private final RestaurantImportService restaurantImportService;
+    private final RestaurantETags restaurantETags;
+    private final ObjectMapper objectMapper;
 
     /**
      * Endpoint to create a new restaurant.
@@ -43,18 +62,45 @@ public class RestaurantController {
         return ResponseEntity.created(location).build();
     }
 
+    /**
+     * Endpoint to bulk import restaurants with their menus.
+     *
+     * @param inputStream
+     *            A newline-delimited JSON upload, one RestaurantRequest per line.
+     * @return A ResponseEntity containing a RestaurantImportResponse with per-row
+     *         errors and a 200 OK status.
+     * @throws IOException
+     *             if the upload cannot be read.
+     */
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<RestaurantImportResponse> importRestaurants(InputStream inputStream) throws IOException {
+        return ResponseEntity.ok(restaurantImportService.importRestaurants(inputStream));
+    }
+
     /**
      * Endpoint to fetch all cuisines of a restaurant.
      * 
      * @param restaurantId
      *            The ID of the restaurant to retrieve cuisines from.
-     * @return A ResponseEntity containing a list of CuisineTypesResponse objects
-     *         and a 200 OK status.
+     * @param ifNoneMatch
+     *            Optional ETag of a previously fetched menu.
+     * @return A ResponseEntity containing a list of CuisineTypesResponse objects,
+     *         an ETag and a 200 OK status, or a 304 NOT MODIFIED status if the
+     *         ETag still matches.
      */
     @GetMapping("/{restaurantId}/cuisine")
     public ResponseEntity<List<CuisineTypesResponse>> findCuisineByRestaurantId(
-            @PathVariable("restaurantId") Integer restaurantId) {
-        return ResponseEntity.ok(restaurantService.findCuisineByRestaurantId(restaurantId));
+            @PathVariable("restaurantId") Integer restaurantId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        Long version = restaurantETags.knownVersion(restaurantId);
+        if (version == null) {
+            version = restaurantService.findRestaurantById(restaurantId).version();
+        }
+        if (RestaurantETags.matches(ifNoneMatch, version)) {
+            return restaurantETags.notModified(restaurantId, RestaurantETags.Representation.MENU, version);
+        }
+        return restaurantETags.ok(restaurantId, RestaurantETags.Representation.MENU, version,
+                restaurantService.findCuisineByRestaurantId(restaurantId));
     }
 
     /**
@@ -95,13 +141,13 @@ public class RestaurantController {
      * @param restaurantRequest
      *            A valid RestaurantRequest object containing the updated details of
      *            the restaurant.
-     * @return A ResponseEntity with a 204 NO CONTENT status.
+     * @return A ResponseEntity containing the CuisineDiffResponse of the menu update
+     *         and a 200 OK status.
      */
     @PutMapping("/update/{restaurantId}")
-    public ResponseEntity<Void> updateRestaurantDetails(@PathVariable("restaurantId") Integer restaurantId,
+    public ResponseEntity<CuisineDiffResponse> updateRestaurantDetails(@PathVariable("restaurantId") Integer restaurantId,
             @RequestBody @Valid RestaurantRequest restaurantRequest) {
-        restaurantService.updateRestaurantDetails(restaurantId, restaurantRequest);
-        return ResponseEntity.noContent().build();
+        return ResponseEntity.ok(restaurantService.updateRestaurantDetails(restaurantId, restaurantRequest));
     }
 
     /**
@@ -109,13 +155,28 @@ public class RestaurantController {
      *
      * @param restaurantId
      *            The ID of the restaurant to retrieve.
-     * @return A ResponseEntity containing the RestaurantResponse object and a 200
-     *         OK status if the restaurant is found.
+     * @param ifNoneMatch
+     *            Optional ETag of a previously fetched representation.
+     * @return A ResponseEntity containing the RestaurantResponse object, an ETag
+     *         and a 200 OK status if the restaurant is found, or a 304 NOT
+     *         MODIFIED status if the ETag still matches. The known version is
+     *         held in memory, so a matching ETag does not reach the database.
      *         Returns a 404 Not Found status if the restaurant does not exist.
      */
     @GetMapping("/{restaurantId}")
-    public ResponseEntity<RestaurantResponse> findRestaurantById(@PathVariable("restaurantId") Integer restaurantId) {
-        return ResponseEntity.ok(restaurantService.findRestaurantById(restaurantId));
+    public ResponseEntity<RestaurantResponse> findRestaurantById(@PathVariable("restaurantId") Integer restaurantId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        Long knownVersion = restaurantETags.knownVersion(restaurantId);
+        if (RestaurantETags.matches(ifNoneMatch, knownVersion)) {
+            return restaurantETags.notModified(restaurantId, RestaurantETags.Representation.DETAILS, knownVersion);
+        }
+
+        RestaurantResponse restaurant = restaurantService.findRestaurantById(restaurantId);
+        if (RestaurantETags.matches(ifNoneMatch, restaurant.version())) {
+            restaurantETags.record(restaurantId, restaurant.version());
+            return restaurantETags.notModified(restaurantId, RestaurantETags.Representation.DETAILS, restaurant.version());
+        }
+        return restaurantETags.ok(restaurantId, RestaurantETags.Representation.DETAILS, restaurant.version(), restaurant);
     }
 
     /**
@@ -131,6 +192,104 @@ public class RestaurantController {
 
     }
 
+    /**
+     * Endpoint to fetch one keyset-paginated page of restaurants.
+     *
+     * @param cursor
+     *            The nextCursor of the previous page; omitted for the first page.
+     * @param size
+     *            The maximum number of restaurants in the page (capped at 100).
+     * @return A ResponseEntity containing a RestaurantPageResponse and a 200 OK
+     *         status.
+     */
+    @GetMapping("/page")
+    public ResponseEntity<RestaurantPageResponse> findRestaurantPage(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", defaultValue = "20") int size) {
+        return ResponseEntity.ok(restaurantService.findRestaurantPage(cursor, size));
+    }
+
+    /**
+     * Endpoint to list the restaurants open at a given time.
+     *
+     * @param at
+     *            The restaurants' local date and time (ISO-8601); defaults to now.
+     * @return A ResponseEntity containing a list of RestaurantFavouriteResponse
+     *         objects and a 200 OK status.
+     */
+    @GetMapping("/open")
+    public ResponseEntity<List<RestaurantFavouriteResponse>> findOpenRestaurants(
+            @RequestParam(value = "at", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at) {
+        return ResponseEntity.ok(restaurantService.findOpenRestaurants(at));
+    }
+
+    /**
+     * Endpoint to search restaurants and dishes by name and description.
+     *
+     * @param query
+     *            The search text, e.g. "spicy tuna".
+     * @param page
+     *            Zero-based page number.
+     * @param size
+     *            Number of results per page.
+     * @return A ResponseEntity containing a SearchPageResponse and a 200 OK status.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<SearchPageResponse> searchRestaurants(
+            @RequestParam("q") String query,
+            @RequestParam(value = "page", defaultValue = "0") int page,
+            @RequestParam(value = "size", defaultValue = "20") int size) {
+        return ResponseEntity.ok(restaurantService.searchRestaurants(query, page, size));
+    }
+
+    /**
+     * Endpoint to find the nearest open restaurants to a point.
+     *
+     * @param latitude
+     *            Latitude of the search origin.
+     * @param longitude
+     *            Longitude of the search origin.
+     * @param radius
+     *            The search radius in kilometres.
+     * @param limit
+     *            The maximum number of restaurants to return.
+     * @return A ResponseEntity containing a list of NearbyRestaurantResponse objects
+     *         ordered by distance and a 200 OK status.
+     */
+    @GetMapping("/nearby")
+    public ResponseEntity<List<NearbyRestaurantResponse>> findNearbyRestaurants(
+            @RequestParam("lat") double latitude,
+            @RequestParam("lon") double longitude,
+            @RequestParam(value = "radius", defaultValue = "5") double radius,
+            @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        return ResponseEntity.ok(restaurantService.findNearbyRestaurants(latitude, longitude, radius, limit));
+    }
+
+    /**
+     * Endpoint to stream all restaurants as newline-delimited JSON, one restaurant
+     * per line, without building the full list in memory.
+     *
+     * @return A ResponseEntity with a streaming NDJSON body and a 200 OK status.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllRestaurants() {
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                restaurantService.streamAllRestaurants(restaurant -> {
+                    try {
+                        writer.writeValue(generator, restaurant);
+                        generator.writeRaw('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
     /**
      * Endpoint to search for restaurants by their IDs.
      *
@@ -166,6 +325,22 @@ public class RestaurantController {
     }
 
 
+    /**
+     * Endpoint to set how many orders per minute a restaurant's kitchen admits.
+     *
+     * @param restaurantId
+     *            The ID of the restaurant.
+     * @param capacityRequest
+     *            The orders-per-minute limit, or a null limit to lift it.
+     * @return A ResponseEntity with a 204 NO CONTENT status.
+     */
+    @PutMapping("/{restaurantId}/capacity")
+    public ResponseEntity<Void> updateKitchenCapacity(@PathVariable("restaurantId") Integer restaurantId,
+            @RequestBody @Valid KitchenCapacityRequest capacityRequest) {
+        restaurantService.updateKitchenCapacity(restaurantId, capacityRequest.ordersPerMinute());
+        return ResponseEntity.noContent().build();
+    }
+
     @PostMapping("/{restaurantId}/purchase")
     public ResponseEntity<RestaurantPurchaseResponse> processPurchase(
             @PathVariable("restaurantId") Integer restaurantId,
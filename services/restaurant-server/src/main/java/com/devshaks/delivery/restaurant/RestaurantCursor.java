@@ -0,0 +1,27 @@
+package com.devshaks.delivery.restaurant;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// Opaque cursor token for keyset pagination, wrapping the last restaurant ID of a page
+final class RestaurantCursor {
+
+    private RestaurantCursor() {
+    }
+
+    static String encode(Integer lastRestaurantId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(lastRestaurantId.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    static Integer decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0;
+        }
+        try {
+            return Integer.valueOf(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid restaurant cursor: " + cursor);
+        }
+    }
+}
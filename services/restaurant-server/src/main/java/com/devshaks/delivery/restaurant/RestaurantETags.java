@@ -0,0 +1,192 @@
+package com.devshaks.delivery.restaurant;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Strong ETags for restaurant resources, derived from the restaurant version.
+ * The latest known version of each restaurant is held in memory, so a matching
+ * If-None-Match is answered with 304 without reaching the service or the database.
+ * Versions are refreshed from RestaurantChangedEvents after each local commit and from
+ * the catalogue topic for commits on other instances. As a send to the topic can be
+ * delayed or missed, a version is only trusted for a short TTL after it was last
+ * confirmed; past it, the next conditional request is checked against the database.
+ */
+@Slf4j
+@Component
+public class RestaurantETags {
+
+    public enum Representation {
+        DETAILS, MENU
+    }
+
+    private final RestaurantRepository restaurantRepository;
+    private final ObjectMapper objectMapper;
+    private final Map<Integer, KnownVersion> versions;
+
+    private final Counter notModifiedResponses;
+    private final Counter fullResponses;
+    private final Counter bytesSaved;
+
+    public RestaurantETags(RestaurantRepository restaurantRepository, ObjectMapper objectMapper,
+            MeterRegistry meterRegistry, @Value("${application.etags.version-ttl:30s}") Duration versionTtl) {
+        this.restaurantRepository = restaurantRepository;
+        this.objectMapper = objectMapper;
+        this.versions = Caffeine.newBuilder()
+                .expireAfterWrite(versionTtl)
+                .<Integer, KnownVersion>build()
+                .asMap();
+        this.notModifiedResponses = Counter.builder("restaurant.conditional.requests")
+                .description("Conditional restaurant GETs by outcome")
+                .tag("outcome", "not_modified")
+                .register(meterRegistry);
+        this.fullResponses = Counter.builder("restaurant.conditional.requests")
+                .description("Conditional restaurant GETs by outcome")
+                .tag("outcome", "full")
+                .register(meterRegistry);
+        this.bytesSaved = Counter.builder("restaurant.conditional.bytes.saved")
+                .description("Response body bytes not sent thanks to 304 Not Modified")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        meterRegistry.gauge("restaurant.conditional.not.modified.ratio", this, RestaurantETags::notModifiedRatio);
+    }
+
+    @TransactionalEventListener
+    public void onRestaurantChanged(RestaurantChangedEvent event) {
+        if (event.deleted()) {
+            versions.remove(event.restaurantId());
+            return;
+        }
+        restaurantRepository.findVersionById(event.restaurantId())
+                .ifPresentOrElse(version -> record(event.restaurantId(), version),
+                        () -> versions.remove(event.restaurantId()));
+    }
+
+    // Every instance reads the topic in a group of its own, from the latest offset, and
+    // only needs the key and the version of each event
+    @KafkaListener(topics = "${application.catalogue.topic:restaurant-catalogue}",
+            groupId = "restaurant-etags-#{T(java.util.UUID).randomUUID()}",
+            properties = {
+                    "auto.offset.reset=latest",
+                    "key.deserializer=org.apache.kafka.common.serialization.StringDeserializer",
+                    "value.deserializer=org.apache.kafka.common.serialization.StringDeserializer" })
+    public void onCatalogueEvent(ConsumerRecord<String, String> record) {
+        Integer restaurantId = Integer.valueOf(record.key());
+        if (record.value() == null) {
+            versions.remove(restaurantId);
+            return;
+        }
+        try {
+            JsonNode version = objectMapper.readTree(record.value()).get("version");
+            if (version != null && version.canConvertToLong()) {
+                record(restaurantId, version.asLong());
+                return;
+            }
+        } catch (JsonProcessingException e) {
+            log.warn("Unreadable catalogue event for restaurant {}: {}", restaurantId, e.getMessage());
+        }
+        // Without a version, the next conditional request is checked against the database
+        versions.remove(restaurantId);
+    }
+
+    // Latest version known in memory, or null if it has not been confirmed within the TTL
+    public Long knownVersion(Integer restaurantId) {
+        KnownVersion known = versions.get(restaurantId);
+        return known == null ? null : known.version();
+    }
+
+    public static String eTag(long version) {
+        return "\"" + version + "\"";
+    }
+
+    // If-None-Match uses the weak comparison, so W/ prefixes are ignored
+    public static boolean matches(String ifNoneMatch, Long version) {
+        if (ifNoneMatch == null || version == null) {
+            return false;
+        }
+        String eTag = eTag(version);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String trimmed = candidate.trim();
+            if (trimmed.startsWith("W/")) {
+                trimmed = trimmed.substring(2);
+            }
+            if (trimmed.equals("*") || trimmed.equals(eTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public <T> ResponseEntity<T> notModified(Integer restaurantId, Representation representation, long version) {
+        notModifiedResponses.increment();
+        KnownVersion known = versions.get(restaurantId);
+        if (known != null && known.version() == version) {
+            bytesSaved.increment(known.size(representation));
+        }
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag(version)).build();
+    }
+
+    public <T> ResponseEntity<T> ok(Integer restaurantId, Representation representation, long version, T body) {
+        fullResponses.increment();
+        record(restaurantId, version);
+        // The body size is measured once per version and representation, for the bytes-saved metric
+        versions.computeIfPresent(restaurantId, (id, known) -> known.version() == version
+                && known.size(representation) < 0 ? known.withSize(representation, sizeOf(body)) : known);
+        return ResponseEntity.ok().eTag(eTag(version)).body(body);
+    }
+
+    public void record(Integer restaurantId, long version) {
+        // The current version confirmed again is replaced by a copy, so its TTL restarts
+        versions.merge(restaurantId, new KnownVersion(version, -1, -1), (current, candidate) -> {
+            if (candidate.version() > current.version()) {
+                return candidate;
+            }
+            return candidate.version() == current.version() ? current.copy() : current;
+        });
+    }
+
+    private int sizeOf(Object body) {
+        try {
+            return objectMapper.writeValueAsBytes(body).length;
+        } catch (JsonProcessingException e) {
+            log.warn("Could not measure response size: {}", e.getMessage());
+            return 0;
+        }
+    }
+
+    private double notModifiedRatio() {
+        double total = notModifiedResponses.count() + fullResponses.count();
+        return total == 0 ? 0 : notModifiedResponses.count() / total;
+    }
+
+    private record KnownVersion(long version, int detailsSize, int menuSize) {
+        int size(Representation representation) {
+            return representation == Representation.DETAILS ? detailsSize : menuSize;
+        }
+
+        KnownVersion copy() {
+            return new KnownVersion(version, detailsSize, menuSize);
+        }
+
+        KnownVersion withSize(Representation representation, int size) {
+            return representation == Representation.DETAILS
+                    ? new KnownVersion(version, size, menuSize)
+                    : new KnownVersion(version, detailsSize, size);
+        }
+    }
+}
@@ -0,0 +1,6 @@
+package com.devshaks.delivery.restaurant;
+
+public record RestaurantImportError(
+        long line,
+        String message) {
+}
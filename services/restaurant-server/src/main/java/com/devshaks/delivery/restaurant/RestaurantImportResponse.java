@@ -0,0 +1,9 @@
+package com.devshaks.delivery.restaurant;
+
+import java.util.List;
+
+public record RestaurantImportResponse(
+        int imported,
+        int failed,
+        List<RestaurantImportError> errors) {
+}
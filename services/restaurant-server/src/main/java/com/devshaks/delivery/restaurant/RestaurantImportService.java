@@ -0,0 +1,173 @@
+package com.devshaks.delivery.restaurant;
+
+import com.devshaks.delivery.schedule.OpeningSchedule;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RestaurantImportService {
+
+    // Rows written per transaction; a multiple of the Hibernate JDBC batch size
+    private static final int CHUNK_SIZE = 500;
+
+    // Upper bound on the per-row errors returned, so a bad upload cannot exhaust memory
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    private final RestaurantMapper restaurantMapper;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Imports restaurants with their menus from a newline-delimited JSON stream, one
+     * RestaurantRequest per line. Rows are parsed and validated as they are read and
+     * written in chunked transactions using batched inserts; a row that fails does not
+     * stop the import.
+     *
+     * @param inputStream
+     *            The NDJSON upload.
+     * @return A RestaurantImportResponse with the number of imported and failed rows
+     *         and the error of each failed row.
+     * @throws IOException
+     *             if the upload cannot be read.
+     */
+    public RestaurantImportResponse importRestaurants(InputStream inputStream) throws IOException {
+        ImportResult result = new ImportResult();
+        List<ImportRow> chunk = new ArrayList<>(CHUNK_SIZE);
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+            String line;
+            long lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                ImportRow row = parse(line, lineNumber, result);
+                if (row != null) {
+                    chunk.add(row);
+                }
+                if (chunk.size() == CHUNK_SIZE) {
+                    writeChunk(chunk, result);
+                    chunk.clear();
+                }
+            }
+        }
+        if (!chunk.isEmpty()) {
+            writeChunk(chunk, result);
+        }
+
+        log.info("Restaurant import finished: {} imported, {} failed", result.imported, result.failed);
+        return new RestaurantImportResponse(result.imported, result.failed, result.errors);
+    }
+
+    private ImportRow parse(String line, long lineNumber, ImportResult result) {
+        RestaurantRequest request;
+        try {
+            request = objectMapper.readValue(line, RestaurantRequest.class);
+        } catch (JsonProcessingException e) {
+            result.fail(lineNumber, "Malformed JSON: " + e.getOriginalMessage());
+            return null;
+        }
+
+        Set<ConstraintViolation<RestaurantRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            result.fail(lineNumber, violations.stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+            return null;
+        }
+        if (request.cuisineTypes().isEmpty()) {
+            result.fail(lineNumber, "At least one cuisine type is required");
+            return null;
+        }
+        try {
+            OpeningSchedule.parse(request.openingHours());
+        } catch (IllegalArgumentException e) {
+            result.fail(lineNumber, e.getMessage());
+            return null;
+        }
+        return new ImportRow(lineNumber, request);
+    }
+
+    // Writes the chunk in one transaction; if it fails, retries row by row to isolate the bad rows
+    private void writeChunk(List<ImportRow> chunk, ImportResult result) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> persist(chunk));
+            result.imported += chunk.size();
+        } catch (RuntimeException chunkFailure) {
+            log.warn("Import chunk starting at line {} failed, retrying row by row", chunk.get(0).lineNumber());
+            for (ImportRow row : chunk) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> persist(List.of(row)));
+                    result.imported++;
+                } catch (RuntimeException rowFailure) {
+                    result.fail(row.lineNumber(), rootMessage(rowFailure));
+                }
+            }
+        }
+    }
+
+    private void persist(List<ImportRow> rows) {
+        List<Integer> restaurantIds = new ArrayList<>(rows.size());
+        for (ImportRow row : rows) {
+            Restaurant restaurant = restaurantMapper.mapRestaurantToRequest(row.request());
+            // Imported rows are always new; client-supplied IDs are ignored
+            restaurant.setId(null);
+            restaurant.getCuisineTypes().forEach(cuisine -> cuisine.setId(null));
+            entityManager.persist(restaurant);
+            restaurantIds.add(restaurant.getId());
+        }
+        entityManager.flush();
+        entityManager.clear();
+        // One event per chunk: the after-commit listeners load the chunk with one query each
+        eventPublisher.publishEvent(new RestaurantsImportedEvent(restaurantIds));
+    }
+
+    private static String rootMessage(Throwable throwable) {
+        Throwable root = throwable;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        return root.getMessage();
+    }
+
+    private record ImportRow(long lineNumber, RestaurantRequest request) {
+    }
+
+    private static final class ImportResult {
+        private int imported;
+        private int failed;
+        private final List<RestaurantImportError> errors = new ArrayList<>();
+
+        private void fail(long lineNumber, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new RestaurantImportError(lineNumber, message));
+            }
+        }
+    }
+}
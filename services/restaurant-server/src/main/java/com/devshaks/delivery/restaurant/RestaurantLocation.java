@@ -0,0 +1,16 @@
+package com.devshaks.delivery.restaurant;
+
+// Projection of the columns needed to place a restaurant in the geo index
+public interface RestaurantLocation {
+    Integer getId();
+
+    String getName();
+
+    Double getLatitude();
+
+    Double getLongitude();
+
+    Boolean getIsOpen();
+
+    String getOpeningHours();
+}
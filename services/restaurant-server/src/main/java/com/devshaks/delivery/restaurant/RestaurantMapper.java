@@ -4,6 +4,7 @@ import com.devshaks.delivery.cuisine.CuisineRequest;
 import com.devshaks.delivery.cuisine.CuisineTypes;
 import com.devshaks.delivery.cuisine.CuisineTypesRepository;
 import com.devshaks.delivery.cuisine.CuisineTypesResponse;
+import com.devshaks.delivery.money.Money;
 import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -23,6 +24,8 @@ public class RestaurantMapper {
                 .address(restaurantRequest.address())
                 .contactNumber(restaurantRequest.contactNumber())
                 .location(restaurantRequest.location())
+                .latitude(restaurantRequest.latitude())
+                .longitude(restaurantRequest.longitude())
                 .description(restaurantRequest.description())
                 .openingHours(restaurantRequest.openingHours())
                 .rating(restaurantRequest.rating())
@@ -45,7 +48,7 @@ public class RestaurantMapper {
                         .id(cuisineRequest.id()) // Map cuisine ID
                         .name(cuisineRequest.name()) // Map cuisine name
                         .description(cuisineRequest.description()) // Map cuisine description
-                        .price(cuisineRequest.price()) // Map cuisine price
+                        .price(Money.of(cuisineRequest.price())) // Map cuisine price
                         .restaurant(restaurant) // Associate the restaurant with the cuisine type (important for
                                                 // bidirectional mapping)
                         .build())
@@ -60,6 +63,8 @@ public class RestaurantMapper {
                 restaurant.getAddress(), // Map restaurant address
                 restaurant.getContactNumber(), // Map restaurant contact number
                 restaurant.getLocation(), // Map restaurant location
+                restaurant.getLatitude(), // Map restaurant latitude
+                restaurant.getLongitude(), // Map restaurant longitude
                 restaurant.getDescription(), // Map restaurant description
                 restaurant.getOpeningHours(), // Map restaurant opening hours
                 restaurant.getRating(), // Map restaurant rating
@@ -71,8 +76,9 @@ public class RestaurantMapper {
                                 cuisineTypes.getName(), // Map cuisine type name
                                 cuisineTypes.getDescription(), // Map cuisine type description
                                 cuisineTypes.getPrice(), // Map cuisine type price
-                                cuisineTypes.getRestaurant().getId())) // Map associated restaurant ID
-                        .collect(Collectors.toList())); // Collect the mapped cuisine types into a list
+                                restaurant.getId())) // Owning restaurant ID, without touching the back-reference
+                        .toList(), // Collect into an unmodifiable list, as responses may be cached
+                restaurant.getVersion()); // Map restaurant version
     }
 
     // Method to map a Restaurant entity and a CuisineTypes entity to a
@@ -0,0 +1,12 @@
+package com.devshaks.delivery.restaurant;
+
+// Projection of the columns needed to place a restaurant in the schedule index
+public interface RestaurantOpeningHours {
+    Integer getId();
+
+    String getName();
+
+    String getOpeningHours();
+
+    Boolean getIsOpen();
+}
@@ -0,0 +1,8 @@
+package com.devshaks.delivery.restaurant;
+
+import java.util.List;
+
+public record RestaurantPageResponse(
+        List<RestaurantResponse> restaurants,
+        String nextCursor) {
+}
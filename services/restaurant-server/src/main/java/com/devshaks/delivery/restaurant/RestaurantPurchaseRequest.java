@@ -1,6 +1,7 @@
 package com.devshaks.delivery.restaurant;
 
 import com.devshaks.delivery.cuisine.CuisineRequest;
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 import org.springframework.validation.annotation.Validated;
 
@@ -11,6 +12,6 @@ public record RestaurantPurchaseRequest(
         @NotNull(message = "Restaurant ID is required")
         Integer restaurantId,
         @NotNull(message = "Cuisine is required")
-        List<CuisinePurchaseRequest> items
+        List<@Valid CuisinePurchaseRequest> items
 ) {
 }
@@ -0,0 +1,14 @@
+package com.devshaks.delivery.restaurant;
+
+// Projection of the review aggregates of a restaurant, one row read per rating lookup
+public interface RestaurantRating {
+    Integer getId();
+
+    Double getRating();
+
+    long getRatingCount();
+
+    double getDecayedRatingSum();
+
+    double getDecayedRatingWeight();
+}
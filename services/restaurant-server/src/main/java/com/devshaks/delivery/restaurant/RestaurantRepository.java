@@ -1,6 +1,78 @@
 package com.devshaks.delivery.restaurant;
 
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 public interface RestaurantRepository extends JpaRepository<Restaurant, Integer> {
+
+    // Loads a restaurant together with its menu in a single joined query
+    @EntityGraph(attributePaths = "cuisineTypes")
+    Optional<Restaurant> findWithCuisineTypesById(Integer id);
+
+    // Loads every restaurant together with its menu in a single joined query
+    @EntityGraph(attributePaths = "cuisineTypes")
+    @Query("SELECT r FROM Restaurant r ORDER BY r.id")
+    List<Restaurant> findAllWithCuisineTypes();
+
+    // Loads the given restaurants together with their menus in a single joined query
+    @EntityGraph(attributePaths = "cuisineTypes")
+    @Query("SELECT r FROM Restaurant r WHERE r.id IN :ids ORDER BY r.id")
+    List<Restaurant> findAllWithCuisineTypesByIdIn(Collection<Integer> ids);
+
+    // Coordinates and open flag of every geocoded restaurant, used to build the geo index
+    @Query("SELECT r.id AS id, r.name AS name, r.latitude AS latitude, r.longitude AS longitude, r.isOpen AS isOpen, "
+            + "r.openingHours AS openingHours FROM Restaurant r WHERE r.latitude IS NOT NULL AND r.longitude IS NOT NULL")
+    List<RestaurantLocation> findAllLocations();
+
+    Optional<RestaurantLocation> findLocationById(Integer id);
+
+    @Query("SELECT r.id AS id, r.name AS name, r.latitude AS latitude, r.longitude AS longitude, r.isOpen AS isOpen, "
+            + "r.openingHours AS openingHours FROM Restaurant r "
+            + "WHERE r.id IN :ids AND r.latitude IS NOT NULL AND r.longitude IS NOT NULL")
+    List<RestaurantLocation> findLocationsByIdIn(Collection<Integer> ids);
+
+    @Query("SELECT r.version FROM Restaurant r WHERE r.id = :id")
+    Optional<Long> findVersionById(Integer id);
+
+    // Opening hours and open flag of every restaurant, used to build the schedule index
+    @Query("SELECT r.id AS id, r.name AS name, r.openingHours AS openingHours, r.isOpen AS isOpen FROM Restaurant r")
+    List<RestaurantOpeningHours> findAllOpeningHours();
+
+    Optional<RestaurantOpeningHours> findOpeningHoursById(Integer id);
+
+    @Query("SELECT r.id AS id, r.name AS name, r.openingHours AS openingHours, r.isOpen AS isOpen "
+            + "FROM Restaurant r WHERE r.id IN :ids")
+    List<RestaurantOpeningHours> findOpeningHoursByIdIn(Collection<Integer> ids);
+
+    // Id/name DTO projection: selects two columns and creates no managed entities
+    @Query("SELECT new com.devshaks.delivery.restaurant.RestaurantFavouriteResponse(r.id, r.name) "
+            + "FROM Restaurant r WHERE r.id IN :ids")
+    List<RestaurantFavouriteResponse> findFavouriteResponsesByIdIn(Collection<Integer> ids);
+
+    // Keyset (seek) page: the next restaurants after the given ID, served from the primary key index
+    List<Restaurant> findByIdGreaterThanOrderByIdAsc(Integer afterId, Limit limit);
+
+    // Keyset chunk of restaurant IDs after the given ID, read from the primary key index
+    @Query("SELECT r.id FROM Restaurant r WHERE r.id > :afterId ORDER BY r.id")
+    List<Integer> findIdsAfter(Integer afterId, Limit limit);
+
+    // Throughput limit of every capacity-limited restaurant, used to build the admission buckets
+    @Query("SELECT r.id AS id, r.ordersPerMinute AS ordersPerMinute FROM Restaurant r WHERE r.ordersPerMinute IS NOT NULL")
+    List<RestaurantCapacity> findAllCapacities();
+
+    Optional<RestaurantCapacity> findCapacityById(Integer id);
+
+    // Leaves the version alone: the limit is not part of the restaurant representation
+    @Modifying
+    @Query("UPDATE Restaurant r SET r.ordersPerMinute = :ordersPerMinute WHERE r.id = :id")
+    int updateOrdersPerMinute(Integer id, Integer ordersPerMinute);
+
+    Optional<RestaurantRating> findRatingById(Integer id);
 }
@@ -1,9 +1,13 @@
 package com.devshaks.delivery.restaurant;
 
 import com.devshaks.delivery.cuisine.CuisineRequest;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
 
 import java.util.List;
 
@@ -22,10 +26,19 @@ public record RestaurantRequest(
         @NotBlank(message = "Restaurant location is required")
         String location,
 
+        @DecimalMin(value = "-90.0", message = "Restaurant latitude must be between -90 and 90")
+        @DecimalMax(value = "90.0", message = "Restaurant latitude must be between -90 and 90")
+        Double latitude,
+
+        @DecimalMin(value = "-180.0", message = "Restaurant longitude must be between -180 and 180")
+        @DecimalMax(value = "180.0", message = "Restaurant longitude must be between -180 and 180")
+        Double longitude,
+
         @NotBlank(message = "Restaurant description is required")
         String description,
 
         @NotBlank(message = "Restaurant opening hours is required")
+        @Size(max = 255, message = "Restaurant opening hours must be at most 255 characters")
         String openingHours,
 
         @NotNull(message = "Restaurant rating is required")
@@ -37,6 +50,7 @@ public record RestaurantRequest(
         @NotBlank(message = "Restaurant price range is required")
         String priceRange,
 
+        // Validated element by element, so each cuisine's price is checked before it reaches Money
         @NotNull(message = "Restaurant cuisine types is required")
-        List<CuisineRequest> cuisineTypes) {
+        List<@Valid CuisineRequest> cuisineTypes) {
 }
@@ -11,12 +11,15 @@ public record RestaurantResponse(
         String address,
         String contactNumber,
         String location,
+        Double latitude,
+        Double longitude,
         String description,
         String openingHours,
         Double rating,
         Boolean isOpen,
         String priceRange,
-        List<CuisineTypesResponse> cuisineTypes
+        List<CuisineTypesResponse> cuisineTypes,
+        Long version
 
         ) {
 }
@@ -1,23 +1,53 @@
 package com.devshaks.delivery.restaurant;
 
+import com.devshaks.delivery.capacity.KitchenCapacityLimiter;
+import com.devshaks.delivery.config.CacheConfig;
+import com.devshaks.delivery.cuisine.CuisineDiffResponse;
 import com.devshaks.delivery.cuisine.CuisineRequest;
 import com.devshaks.delivery.cuisine.CuisineTypes;
 import com.devshaks.delivery.cuisine.CuisineTypesRepository;
 import com.devshaks.delivery.cuisine.CuisineTypesResponse;
 import com.devshaks.delivery.exceptions.CuisineNotFoundException;
+import com.devshaks.delivery.exceptions.CuisineSoldOutException;
+import com.devshaks.delivery.exceptions.KitchenAtCapacityException;
 import com.devshaks.delivery.exceptions.RestaurantNotFoundException;
+import com.devshaks.delivery.exceptions.RestaurantPurchaseException;
+import com.devshaks.delivery.geo.NearbyRestaurantResponse;
+import com.devshaks.delivery.geo.RestaurantGeoIndex;
+import com.devshaks.delivery.inventory.InventoryReservationService;
+import com.devshaks.delivery.money.Money;
+import com.devshaks.delivery.popularity.DishPopularityTracker;
+import com.devshaks.delivery.schedule.OpeningSchedule;
+import com.devshaks.delivery.schedule.RestaurantScheduleIndex;
+import com.devshaks.delivery.search.RestaurantSearchIndex;
+import com.devshaks.delivery.search.SearchPageResponse;
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.persistence.LockModeType;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -31,6 +61,27 @@ public class RestaurantService {
     private final RestaurantMapper restaurantMapper;
     private final RestaurantRepository restaurantRepository;
     private final CuisineTypesRepository cuisineTypesRepository;
+    private final EntityManager entityManager;
+    private final RestaurantGeoIndex restaurantGeoIndex;
+    private final RestaurantSearchIndex restaurantSearchIndex;
+    private final RestaurantScheduleIndex restaurantScheduleIndex;
+    private final InventoryReservationService inventoryReservationService;
+    private final KitchenCapacityLimiter kitchenCapacityLimiter;
+    private final DishPopularityTracker dishPopularityTracker;
+    private final PurchaseMetrics purchaseMetrics;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // Upper bound on the page size of keyset-paginated listings
+    private static final int MAX_PAGE_SIZE = 100;
+
+    // Upper bound on the radius of nearby searches, which bounds the grid cells visited
+    private static final double MAX_NEARBY_RADIUS_KM = 50.0;
+
+    // Upper bound on how deep search results can be paged, which bounds the ranking heap
+    private static final int MAX_SEARCH_RESULTS = 1000;
+
+    // Maximum number of IDs bound into a single IN list
+    private static final int ID_LOOKUP_CHUNK_SIZE = 500;
 
     /**
      * Creates a new restaurant entity in the system based on the provided request.
@@ -43,12 +94,14 @@ public class RestaurantService {
         if (restaurantRequest.cuisineTypes() == null || restaurantRequest.cuisineTypes().isEmpty()) {
             throw new IllegalArgumentException("At least one cuisine type is required");
         }
+        OpeningSchedule.parse(restaurantRequest.openingHours()); // Rejects opening hours that cannot be compiled
 
         Restaurant restaurant = restaurantMapper.mapRestaurantToRequest(restaurantRequest);
         Restaurant savedRestaurant = restaurantRepository.save(restaurant);
 
         // Saves the cuisine types to the repository
         cuisineTypesRepository.saveAll(restaurant.getCuisineTypes());
+        eventPublisher.publishEvent(new RestaurantChangedEvent(savedRestaurant.getId(), false));
         return savedRestaurant.getId();
     }
 
@@ -62,8 +115,10 @@ public class RestaurantService {
      * @throws EntityNotFoundException
      *             if the restaurant is not found.
      */
+    @Cacheable(cacheNames = CacheConfig.RESTAURANTS_CACHE, key = "#restaurantId")
+    @Transactional(readOnly = true)
     public RestaurantResponse findRestaurantById(Integer restaurantId) {
-        return restaurantRepository.findById(restaurantId)
+        return restaurantRepository.findWithCuisineTypesById(restaurantId)
                 .map(restaurantMapper::toRestaurantResponse)
                 .orElseThrow(() -> new EntityNotFoundException("Restaurant not found"));
     }
@@ -75,26 +130,155 @@ public class RestaurantService {
      * @return A list of RestaurantResponse objects containing the details of all
      *         restaurants.
      */
+    @Transactional(readOnly = true)
     public List<RestaurantResponse> findAllRestaurants() {
-        return restaurantRepository.findAll().stream().map(restaurantMapper::toRestaurantResponse)
+        return restaurantRepository.findAllWithCuisineTypes().stream().map(restaurantMapper::toRestaurantResponse)
                 .collect(Collectors.toList());
 
     }
 
 
+    /**
+     * Fetches one keyset page of restaurants, ordered by ID.
+     *
+     * @param cursor
+     *            The cursor returned with the previous page, or null for the first page.
+     * @param size
+     *            The maximum number of restaurants to return.
+     * @return A RestaurantPageResponse holding the page and the cursor for the next one,
+     *         which is null once the last page has been reached.
+     */
+    @Transactional(readOnly = true)
+    public RestaurantPageResponse findRestaurantPage(String cursor, int size) {
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        List<RestaurantResponse> restaurants = restaurantRepository
+                .findByIdGreaterThanOrderByIdAsc(RestaurantCursor.decode(cursor), Limit.of(pageSize)).stream()
+                .map(restaurantMapper::toRestaurantResponse)
+                .toList();
+
+        String nextCursor = restaurants.size() < pageSize
+                ? null
+                : RestaurantCursor.encode(restaurants.get(restaurants.size() - 1).id());
+        return new RestaurantPageResponse(restaurants, nextCursor);
+    }
+
+
+    /**
+     * Streams all restaurants in keyset chunks, handing each one to the consumer as its
+     * chunk is read. A chunk takes two statements, one for its IDs and one for its
+     * restaurants joined with their menus, and the persistence context is cleared after
+     * each, so memory stays flat regardless of catalogue size.
+     *
+     * @param consumer
+     *            Receives each RestaurantResponse in ID order.
+     */
+    @Transactional(readOnly = true)
+    public void streamAllRestaurants(Consumer<RestaurantResponse> consumer) {
+        int afterId = 0;
+        List<Integer> chunk;
+        do {
+            chunk = restaurantRepository.findIdsAfter(afterId, Limit.of(ID_LOOKUP_CHUNK_SIZE));
+            if (chunk.isEmpty()) {
+                return;
+            }
+            restaurantRepository.findAllWithCuisineTypesByIdIn(chunk)
+                    .forEach(restaurant -> consumer.accept(restaurantMapper.toRestaurantResponse(restaurant)));
+            entityManager.clear();
+            afterId = chunk.get(chunk.size() - 1);
+        } while (chunk.size() == ID_LOOKUP_CHUNK_SIZE);
+    }
+
+
+    /**
+     * Finds the nearest open restaurants to a point, served from the in-memory geo index.
+     *
+     * @param latitude
+     *            Latitude of the search origin.
+     * @param longitude
+     *            Longitude of the search origin.
+     * @param radiusKm
+     *            The search radius in kilometres (capped at 50).
+     * @param limit
+     *            The maximum number of restaurants to return (capped at 100).
+     * @return A list of NearbyRestaurantResponse objects ordered by distance.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<NearbyRestaurantResponse> findNearbyRestaurants(double latitude, double longitude, double radiusKm, int limit) {
+        if (latitude < -90 || latitude > 90 || longitude < -180 || longitude > 180) {
+            throw new IllegalArgumentException("Latitude must be between -90 and 90 and longitude between -180 and 180");
+        }
+        if (radiusKm <= 0) {
+            throw new IllegalArgumentException("Radius must be positive");
+        }
+        return restaurantGeoIndex.findNearest(latitude, longitude, Math.min(radiusKm, MAX_NEARBY_RADIUS_KM),
+                Math.min(Math.max(limit, 1), MAX_PAGE_SIZE));
+    }
+
+
+    /**
+     * Lists the restaurants open at a point in time, served from the compiled schedules.
+     *
+     * @param dateTime
+     *            The restaurants' local date and time, or null for now.
+     * @return A list of RestaurantFavouriteResponse objects for the open restaurants.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<RestaurantFavouriteResponse> findOpenRestaurants(LocalDateTime dateTime) {
+        return restaurantScheduleIndex.findOpenAt(dateTime);
+    }
+
+
+    /**
+     * Full-text search over restaurant and dish names and descriptions, served from the
+     * in-memory inverted index.
+     *
+     * @param query
+     *            The search text; the last word also matches as a prefix.
+     * @param page
+     *            Zero-based page number.
+     * @param size
+     *            Number of results per page (capped at 100).
+     * @return A SearchPageResponse with the ranked page of matches.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public SearchPageResponse searchRestaurants(String query, int page, int size) {
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        if (page < 0 || (page + 1) * pageSize > MAX_SEARCH_RESULTS) {
+            throw new IllegalArgumentException("Search results are limited to the first " + MAX_SEARCH_RESULTS + " matches");
+        }
+        return restaurantSearchIndex.search(query, page, pageSize);
+    }
+
+
     /**
      * Searches for restaurants by their IDs.
      *
      * @param restaurantIds
      *            A list of restaurant IDs to search for.
      * @return A list of RestaurantFavouriteResponse objects containing the details of
-     *         the found restaurants.
+     *         the found restaurants, in the order the IDs were given. Unknown IDs are
+     *         skipped and repeated IDs are returned once.
      */
+    @Transactional(readOnly = true)
     public List<RestaurantFavouriteResponse> findRestaurantByIds(List<Integer> restaurantIds) {
-        List<Restaurant> restaurants = restaurantRepository.findAllById(restaurantIds);
-        return restaurants.stream()
-                .map(restaurantMapper::toFavouriteRestaurantResponse)
-                .collect(Collectors.toList());
+        List<Integer> distinctIds = restaurantIds.stream().filter(Objects::nonNull).distinct().toList();
+        Map<Integer, RestaurantFavouriteResponse> found = new HashMap<>(distinctIds.size() * 2);
+
+        // Bounded IN lists keep each statement and its bind parameters small
+        for (int from = 0; from < distinctIds.size(); from += ID_LOOKUP_CHUNK_SIZE) {
+            List<Integer> chunk = distinctIds.subList(from, Math.min(from + ID_LOOKUP_CHUNK_SIZE, distinctIds.size()));
+            restaurantRepository.findFavouriteResponsesByIdIn(chunk)
+                    .forEach(restaurant -> found.put(restaurant.restaurantId(), restaurant));
+        }
+
+        List<RestaurantFavouriteResponse> restaurants = new ArrayList<>(found.size());
+        for (Integer restaurantId : distinctIds) {
+            RestaurantFavouriteResponse restaurant = found.get(restaurantId);
+            if (restaurant != null) {
+                restaurants.add(restaurant);
+            }
+        }
+        return restaurants;
     }
 
 
@@ -109,6 +293,10 @@ public class RestaurantService {
      * @throws RestaurantNotFoundException
      *             if the specified restaurant is not found.
      */
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.RESTAURANTS_CACHE, key = "#restaurantId"),
+            @CacheEvict(cacheNames = CacheConfig.RESTAURANT_CUISINES_CACHE, key = "#restaurantId")
+    })
     public CuisineTypes addCuisineToRestaurant(Integer restaurantId, CuisineTypesResponse cuisine) {
         Restaurant restaurant = restaurantRepository.findById(restaurantId)
                 .orElseThrow(() -> new RestaurantNotFoundException("Restaurant not found"));
@@ -120,7 +308,10 @@ public class RestaurantService {
                 .restaurant(restaurant)
                 .build();
 
-        return cuisineTypesRepository.save(newCuisine);
+        CuisineTypes savedCuisine = cuisineTypesRepository.save(newCuisine);
+        entityManager.lock(restaurant, LockModeType.OPTIMISTIC_FORCE_INCREMENT); // Menu change bumps the version
+        eventPublisher.publishEvent(new RestaurantChangedEvent(restaurantId, false));
+        return savedCuisine;
     }
 
 
@@ -129,10 +320,11 @@ public class RestaurantService {
      * @param restaurantId The ID of the restaurant to fetch cuisine types for.
      * @return A list of CuisineTypesResponse objects containing the details of the cuisine types.
      */
+    @Cacheable(cacheNames = CacheConfig.RESTAURANT_CUISINES_CACHE, key = "#restaurantId")
+    @Transactional(readOnly = true)
     public List<CuisineTypesResponse> findCuisineByRestaurantId(Integer restaurantId) {
-        return cuisineTypesRepository.findCuisineTypesByRestaurantId(restaurantId).stream()
-                .map(restaurantMapper::toCuisineResponse)
-                .collect(Collectors.toList());
+        // Unmodifiable, as the list is shared between callers once cached
+        return List.copyOf(cuisineTypesRepository.findCuisineResponsesByRestaurantId(restaurantId));
 
     }
     
@@ -142,8 +334,33 @@ public class RestaurantService {
      * @param restaurantId The ID of the restaurant to delete.
      * @throws RestaurantNotFoundException if the restaurant is not found.
      */
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.RESTAURANTS_CACHE, key = "#restaurantId"),
+            @CacheEvict(cacheNames = CacheConfig.RESTAURANT_CUISINES_CACHE, key = "#restaurantId")
+    })
     public void deleteRestaurant(Integer restaurantId) {
-        restaurantRepository.deleteById(restaurantId);
+        Long deletedVersion = restaurantRepository.findById(restaurantId)
+                .map(restaurant -> {
+                    restaurantRepository.delete(restaurant);
+                    return restaurant.getVersion();
+                })
+                .orElse(null);
+        dishPopularityTracker.deleteSnapshot(restaurantId);
+        eventPublisher.publishEvent(new RestaurantChangedEvent(restaurantId, true, deletedVersion));
+    }
+
+
+    /**
+     * Sets how many orders per minute a restaurant's kitchen admits.
+     * @param restaurantId The ID of the restaurant.
+     * @param ordersPerMinute The limit, or null to lift it.
+     * @throws RestaurantNotFoundException if the restaurant is not found.
+     */
+    public void updateKitchenCapacity(Integer restaurantId, Integer ordersPerMinute) {
+        if (restaurantRepository.updateOrdersPerMinute(restaurantId, ordersPerMinute) == 0) {
+            throw new RestaurantNotFoundException("Restaurant not found with ID: " + restaurantId);
+        }
+        eventPublisher.publishEvent(new RestaurantChangedEvent(restaurantId, false));
     }
 
 
@@ -154,6 +371,10 @@ public class RestaurantService {
      * @throws RestaurantNotFoundException if the restaurant is not found.
      * @throws CuisineNotFoundException if the cuisine is not found.
      */
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.RESTAURANTS_CACHE, key = "#restaurantId"),
+            @CacheEvict(cacheNames = CacheConfig.RESTAURANT_CUISINES_CACHE, key = "#restaurantId")
+    })
     public void deleteCuisineFromRestaurant(Integer restaurantId, Integer cuisineId) {
         Restaurant restaurant = restaurantRepository.findById(restaurantId)
                 .orElseThrow(() -> new RestaurantNotFoundException("Restaurant not found"));
@@ -163,17 +384,25 @@ public class RestaurantService {
 
         restaurant.getCuisineTypes().remove(cuisine);
         cuisineTypesRepository.delete(cuisine);
+        entityManager.lock(restaurant, LockModeType.OPTIMISTIC_FORCE_INCREMENT); // Menu change bumps the version
+        eventPublisher.publishEvent(new RestaurantChangedEvent(restaurantId, false));
     }
 
     /**
-     * Updates the details of a restaurant.
+     * Updates the details of a restaurant and applies its menu as a diff.
      * @param restaurantId The ID of the restaurant to update.
      * @param restaurantRequest The updated details of the restaurant.
+     * @return The menu diff that was applied.
      * @throws RestaurantNotFoundException if the restaurant is not found.
      */
-    public void updateRestaurantDetails(Integer restaurantId, RestaurantRequest restaurantRequest) {
-        Restaurant restaurant = restaurantRepository.findById(restaurantId)
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.RESTAURANTS_CACHE, key = "#restaurantId"),
+            @CacheEvict(cacheNames = CacheConfig.RESTAURANT_CUISINES_CACHE, key = "#restaurantId")
+    })
+    public CuisineDiffResponse updateRestaurantDetails(Integer restaurantId, RestaurantRequest restaurantRequest) {
+        Restaurant restaurant = restaurantRepository.findWithCuisineTypesById(restaurantId)
                 .orElseThrow(() -> new RestaurantNotFoundException("Restaurant not found with ID: " + restaurantId));
+        OpeningSchedule.parse(restaurantRequest.openingHours()); // Rejects opening hours that cannot be compiled
 
         if (!restaurant.getName().equals(restaurantRequest.name())) {
             restaurant.setName(restaurantRequest.name());
@@ -196,11 +425,20 @@ public class RestaurantService {
             restaurant.setDescription(restaurantRequest.description());
         }
 
+        if (!Objects.equals(restaurant.getLatitude(), restaurantRequest.latitude())) {
+            restaurant.setLatitude(restaurantRequest.latitude());
+        }
+
+        if (!Objects.equals(restaurant.getLongitude(), restaurantRequest.longitude())) {
+            restaurant.setLongitude(restaurantRequest.longitude());
+        }
+
         if (!restaurant.getOpeningHours().equals(restaurantRequest.openingHours())) {
             restaurant.setOpeningHours(restaurantRequest.openingHours());
         }
 
-        if (!restaurant.getRating().equals(restaurantRequest.rating())) {
+        // Once reviews have been folded in, the rating is derived from them
+        if (restaurant.getRatingCount() == 0 && !restaurant.getRating().equals(restaurantRequest.rating())) {
             restaurant.setRating(restaurantRequest.rating());
         }
 
@@ -213,78 +451,158 @@ public class RestaurantService {
 
         }
 
-        updateRestaurantCuisines(restaurant, restaurantRequest.cuisineTypes());
-        restaurantRepository.save(restaurant);
+        // The restaurant is managed, so changed details are flushed by dirty checking without an explicit save
+        CuisineDiffResponse cuisineDiff = updateRestaurantCuisines(restaurant, restaurantRequest.cuisineTypes());
+        if (cuisineDiff.hasChanges()) {
+            entityManager.lock(restaurant, LockModeType.OPTIMISTIC_FORCE_INCREMENT); // Menu change bumps the version
+        }
+        eventPublisher.publishEvent(new RestaurantChangedEvent(restaurantId, false));
+        return cuisineDiff;
     }
 
-    private void updateRestaurantCuisines(Restaurant restaurant, List<CuisineRequest> cuisineRequests) {
-        Set<CuisineTypes> currentCuisines = new HashSet<>(restaurant.getCuisineTypes());
-        Set<CuisineTypes> updatedCuisines = new HashSet<>();
+    /**
+     * Applies a menu update as a diff against the restaurant's current menu, which must
+     * already be loaded. Only inserted, changed and removed cuisines are written: inserts
+     * and updates are flushed as JDBC batches and removals as one bulk delete.
+     * @param restaurant The restaurant whose menu is being replaced.
+     * @param cuisineRequests The complete new menu; entries without an ID are new cuisines.
+     * @return The diff that was applied.
+     * @throws IllegalArgumentException if a cuisine ID is repeated or not on this restaurant's menu.
+     */
+    private CuisineDiffResponse updateRestaurantCuisines(Restaurant restaurant, List<CuisineRequest> cuisineRequests) {
+        Map<Integer, CuisineTypes> currentCuisines = restaurant.getCuisineTypes().stream()
+                .collect(Collectors.toMap(CuisineTypes::getId, Function.identity()));
+        List<CuisineTypes> updatedMenu = new ArrayList<>(cuisineRequests.size());
+        List<CuisineTypes> insertedCuisines = new ArrayList<>();
+        List<Integer> updatedIds = new ArrayList<>();
+        List<Integer> unchangedIds = new ArrayList<>();
 
         for (CuisineRequest cuisineRequest : cuisineRequests) {
-            CuisineTypes cuisine;
+            if (cuisineRequest.id() == null) {
+                CuisineTypes cuisine = CuisineTypes.builder()
+                        .name(cuisineRequest.name())
+                        .description(cuisineRequest.description())
+                        .price(Money.of(cuisineRequest.price()))
+                        .restaurant(restaurant)
+                        .build();
+                insertedCuisines.add(cuisine);
+                updatedMenu.add(cuisine);
+                continue;
+            }
 
-            // Check if the ID is null, meaning this is a new cuisine to be created
-            if (cuisineRequest.id() != null) {
-                // If the ID is not null, try to fetch the existing cuisine
-                cuisine = cuisineTypesRepository.findById(cuisineRequest.id())
-                        .orElseThrow(() -> new IllegalArgumentException("Cuisine not found with ID: " + cuisineRequest.id()));
+            // Removing as we go leaves only the cuisines to delete, and catches repeated IDs
+            CuisineTypes cuisine = currentCuisines.remove(cuisineRequest.id());
+            if (cuisine == null) {
+                throw new IllegalArgumentException("Cuisine not found with ID: " + cuisineRequest.id()
+                        + " on Restaurant ID: " + restaurant.getId());
+            }
+            if (cuisine.getName().equals(cuisineRequest.name())
+                    && cuisine.getDescription().equals(cuisineRequest.description())
+                    && cuisine.getPrice().equals(Money.of(cuisineRequest.price()))) {
+                unchangedIds.add(cuisine.getId());
             } else {
-                // If the ID is null, create a new cuisine
-                cuisine = new CuisineTypes();
-                cuisine.setRestaurant(restaurant);  // Set the restaurant
+                // Managed entity: the change is flushed by dirty checking as a batched UPDATE
+                cuisine.setName(cuisineRequest.name());
+                cuisine.setDescription(cuisineRequest.description());
+                cuisine.setPrice(Money.of(cuisineRequest.price()));
+                updatedIds.add(cuisine.getId());
             }
-
-            // Now set the cuisine details from the request (whether new or existing)
-            cuisine.setName(cuisineRequest.name());
-            cuisine.setDescription(cuisineRequest.description());
-            cuisine.setPrice(cuisineRequest.price());
-
-            // Save the new/updated cuisine to the repository
-            updatedCuisines.add(cuisineTypesRepository.save(cuisine));
+            updatedMenu.add(cuisine);
         }
 
-        // Handle removal of old cuisines
-        currentCuisines.removeAll(updatedCuisines);
-        cuisineTypesRepository.deleteAll(currentCuisines);
-
-        restaurant.setCuisineTypes(new ArrayList<>(updatedCuisines));
+        Collection<CuisineTypes> removedCuisines = currentCuisines.values();
+        if (!removedCuisines.isEmpty()) {
+            cuisineTypesRepository.deleteAllInBatch(removedCuisines);
+            removedCuisines.forEach(entityManager::detach);
+        }
+        if (!insertedCuisines.isEmpty()) {
+            cuisineTypesRepository.saveAll(insertedCuisines);
+        }
+        restaurant.getCuisineTypes().clear();
+        restaurant.getCuisineTypes().addAll(updatedMenu);
+
+        return new CuisineDiffResponse(
+                insertedCuisines.stream().map(CuisineTypes::getId).toList(),
+                updatedIds,
+                removedCuisines.stream().map(CuisineTypes::getId).toList(),
+                unchangedIds);
     }
 
 
+    /**
+     * Prices a purchase against a restaurant's menu.
+     * All requested cuisines are loaded in one query scoped to the restaurant, so items
+     * belonging to another restaurant are rejected. Stock-limited dishes are reserved,
+     * in which case the purchase is PENDING until the returned reservation is confirmed.
+     * Runs outside a transaction so the reservation commits before its stripe locks drop.
+     * Each stage is timed by PurchaseMetrics; per-item detail is only logged at DEBUG.
+     * @param purchaseRequest The items to purchase.
+     * @param restaurantId The ID of the restaurant being purchased from.
+     * @return A RestaurantPurchaseResponse with the priced items and order total.
+     * @throws KitchenAtCapacityException if the restaurant is not admitting more orders right now.
+     * @throws RestaurantNotFoundException if the restaurant is not found.
+     * @throws RestaurantPurchaseException if any item is not on the restaurant's menu.
+     * @throws CuisineSoldOutException if a limited dish does not have enough stock left.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public RestaurantPurchaseResponse processPurchase(@Valid RestaurantPurchaseRequest purchaseRequest, Integer restaurantId) {
-        log.info("Starting purchase processing for Restaurant ID: {}", restaurantId);
+        long stageStart = System.nanoTime();
 
         // Step 1: Validate restaurant
-        log.info("Validating restaurant with ID: {}", restaurantId);
-        var restaurant = restaurantRepository.findById(restaurantId)
-                .orElseThrow(() -> new RestaurantNotFoundException("Restaurant not found with ID: " + restaurantId));
-        log.debug("Restaurant details: {}", restaurant);
-
-        if (!restaurant.getId().equals(purchaseRequest.restaurantId())) {
+        if (!restaurantId.equals(purchaseRequest.restaurantId())) {
             log.error("Mismatch between path restaurant ID: {} and request restaurant ID: {}", restaurantId, purchaseRequest.restaurantId());
             throw new IllegalArgumentException("Restaurant ID does not match the purchase request");
         }
-        log.info("Restaurant validation successful");
 
-        // Step 2: Process purchase items
-        log.info("Processing purchase items for Restaurant ID: {}", restaurantId);
-        List<PurchasedItems> purchasedItems = new ArrayList<>();
-        BigDecimal totalAmount = BigDecimal.ZERO;
+        // Shed load before touching the database when the kitchen is at capacity
+        kitchenCapacityLimiter.admit(restaurantId);
+        try {
+            return processAdmittedPurchase(purchaseRequest, restaurantId, stageStart);
+        } catch (RuntimeException e) {
+            // A rejected or failed order never reaches the kitchen, so it gives back the slot it was admitted into
+            kitchenCapacityLimiter.release(restaurantId);
+            throw e;
+        }
+    }
 
-        for (CuisinePurchaseRequest item : purchaseRequest.items()) {
-            log.debug("Processing item: {}", item);
+    private RestaurantPurchaseResponse processAdmittedPurchase(RestaurantPurchaseRequest purchaseRequest, Integer restaurantId,
+            long stageStart) {
+        var restaurant = restaurantRepository.findById(restaurantId)
+                .orElseThrow(() -> new RestaurantNotFoundException("Restaurant not found with ID: " + restaurantId));
+        stageStart = purchaseMetrics.validated(stageStart);
+
+        // Step 2: Load every requested cuisine for this restaurant in one query
+        Set<Integer> cuisineIds = purchaseRequest.items().stream()
+                .map(CuisinePurchaseRequest::cuisineId)
+                .collect(Collectors.toSet());
+        Map<Integer, CuisineTypes> cuisinesById = cuisineTypesRepository
+                .findAllByRestaurantIdAndIdIn(restaurantId, cuisineIds).stream()
+                .collect(Collectors.toMap(CuisineTypes::getId, Function.identity()));
+
+        if (cuisinesById.size() != cuisineIds.size()) {
+            cuisineIds.removeAll(cuisinesById.keySet());
+            log.error("Cuisines {} are not on the menu of Restaurant ID: {}", cuisineIds, restaurantId);
+            throw new RestaurantPurchaseException("Cuisines not available at Restaurant ID " + restaurantId + ": " + cuisineIds);
+        }
 
-            // Fetch and validate cuisine
-            var cuisine = cuisineTypesRepository.findById(item.cuisineId())
-                    .orElseThrow(() -> new CuisineNotFoundException("Cuisine not found with ID: " + item.cuisineId()));
-            log.debug("Cuisine details: {}", cuisine);
+        // Step 3: Price purchase items
+        List<PurchasedItems> purchasedItems = new ArrayList<>(purchaseRequest.items().size());
+        SortedMap<Integer, Integer> limitedQuantities = new TreeMap<>();
+        Map<Integer, Integer> unlimitedQuantities = new HashMap<>();
+        Money totalAmount = Money.ZERO;
+        // Checked once, so disabled DEBUG logging costs nothing per item, not even an argument array
+        boolean debugEnabled = log.isDebugEnabled();
+
+        for (CuisinePurchaseRequest item : purchaseRequest.items()) {
+            var cuisine = cuisinesById.get(item.cuisineId());
 
             // Calculate total for the item
-            BigDecimal itemTotal = cuisine.getPrice().multiply(BigDecimal.valueOf(item.quantity()));
-            totalAmount = totalAmount.add(itemTotal);
-            log.info("Item processed: {} - Quantity: {}, Unit Price: {}, Total Price: {}",
-                    cuisine.getName(), item.quantity(), cuisine.getPrice(), itemTotal);
+            Money itemTotal = cuisine.getPrice().times(item.quantity());
+            totalAmount = totalAmount.plus(itemTotal);
+            if (debugEnabled) {
+                log.debug("purchase.item restaurantId={} cuisineId={} quantity={} unitPrice={} lineTotal={}",
+                        restaurantId, item.cuisineId(), item.quantity(), cuisine.getPrice(), itemTotal);
+            }
 
             // Add to purchased items
             purchasedItems.add(new PurchasedItems(
@@ -293,26 +611,38 @@ public class RestaurantService {
                     item.quantity(),
                     cuisine.getPrice(),
                     itemTotal));
+
+            if (cuisine.getAvailableQuantity() != null) {
+                limitedQuantities.merge(item.cuisineId(), item.quantity(), Integer::sum);
+            } else {
+                unlimitedQuantities.merge(item.cuisineId(), item.quantity(), Integer::sum);
+            }
         }
-        log.info("All purchase items processed successfully");
+        stageStart = purchaseMetrics.priced(stageStart);
 
-        // Step 3: Save restaurant data (if applicable)
-        log.info("Saving restaurant information (if needed) for Restaurant ID: {}", restaurantId);
-        restaurantRepository.save(restaurant);
-        log.info("Restaurant data saved successfully");
+        // Step 4: Reserve stock of limited dishes, all or nothing
+        var reservation = inventoryReservationService.reserve(restaurantId, limitedQuantities, unlimitedQuantities);
+        // A PENDING purchase is counted when its reservation is confirmed, if ever
+        if (reservation == null) {
+            dishPopularityTracker.recordPurchase(restaurantId, purchasedItems);
+        }
+        stageStart = purchaseMetrics.reserved(stageStart);
 
-        // Step 4: Build response
-        log.info("Building response for purchase");
+        // Step 5: Build response
         var response = new RestaurantPurchaseResponse(
                 restaurant.getId(),
                 restaurant.getName(),
                 purchasedItems,
                 totalAmount,
-                OrderStatus.CONFIRMED
+                reservation == null ? OrderStatus.CONFIRMED : OrderStatus.PENDING,
+                reservation == null ? null : reservation.reservationId()
         );
-        log.debug("Response details: {}", response);
+        purchaseMetrics.responded(stageStart);
 
-        log.info("Purchase processing completed for Restaurant ID: {}", restaurantId);
+        if (debugEnabled) {
+            log.debug("purchase.completed restaurantId={} items={} total={} status={}",
+                    restaurantId, purchasedItems.size(), totalAmount, response.orderStatus());
+        }
         return response;
     }
 
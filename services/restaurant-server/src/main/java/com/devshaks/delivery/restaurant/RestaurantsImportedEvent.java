@@ -0,0 +1,12 @@
+package com.devshaks.delivery.restaurant;
+
+import java.util.List;
+
+/**
+ * Published by RestaurantImportService once per committed import chunk, in place of a
+ * RestaurantChangedEvent per row, so listeners can load the whole chunk in one query.
+ * Imported restaurants are always new.
+ */
+public record RestaurantsImportedEvent(
+        List<Integer> restaurantIds) {
+}
@@ -0,0 +1,41 @@
+package com.devshaks.delivery.review;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * An order the order service confirmed, one row per restaurant it was placed with: what
+ * entitles its customer to review that restaurant.
+ */
+@Entity
+@IdClass(CompletedOrder.Key.class)
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@Builder
+public class CompletedOrder {
+
+    @Id
+    private Integer orderId;
+
+    @Id
+    private Integer restaurantId;
+
+    @Column(nullable = false)
+    private Integer customerId;
+
+    @Column(nullable = false)
+    private Instant completedAt;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Integer orderId;
+        private Integer restaurantId;
+    }
+}
@@ -0,0 +1,45 @@
+package com.devshaks.delivery.review;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Records the orders confirmed by the order service, so a review can be checked against
+ * a local table rather than a call to the order service. Redelivered events overwrite
+ * the same rows.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CompletedOrderListener {
+    private final CompletedOrderRepository completedOrderRepository;
+
+    @Transactional
+    @KafkaListener(topics = "order-topic", groupId = "restaurantGroup")
+    public void onOrderConfirmation(OrderConfirmation orderConfirmation) {
+        if (orderConfirmation.orderId() == null || orderConfirmation.customer() == null
+                || orderConfirmation.purchaseResponse() == null) {
+            log.warn("Ignoring order confirmation without order, customer or purchases: {}", orderConfirmation);
+            return;
+        }
+
+        Instant completedAt = Instant.now();
+        List<CompletedOrder> completedOrders = orderConfirmation.purchaseResponse().stream()
+                .map(OrderConfirmation.Purchase::restaurantId)
+                .distinct()
+                .map(restaurantId -> CompletedOrder.builder()
+                        .orderId(orderConfirmation.orderId())
+                        .restaurantId(restaurantId)
+                        .customerId(orderConfirmation.customer().id())
+                        .completedAt(completedAt)
+                        .build())
+                .toList();
+        completedOrderRepository.saveAll(completedOrders);
+    }
+}
@@ -0,0 +1,7 @@
+package com.devshaks.delivery.review;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface CompletedOrderRepository extends JpaRepository<CompletedOrder, CompletedOrder.Key> {
+    boolean existsByOrderIdAndRestaurantIdAndCustomerId(Integer orderId, Integer restaurantId, Integer customerId);
+}
@@ -0,0 +1,19 @@
+package com.devshaks.delivery.review;
+
+import java.util.List;
+
+/**
+ * The parts of the order service's order confirmation event that make an order
+ * reviewable; the rest of the event is ignored.
+ */
+public record OrderConfirmation(
+        Integer orderId,
+        Customer customer,
+        List<Purchase> purchaseResponse
+) {
+    public record Customer(Integer id) {
+    }
+
+    public record Purchase(Integer restaurantId) {
+    }
+}
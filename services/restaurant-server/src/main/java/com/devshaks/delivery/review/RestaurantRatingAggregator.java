@@ -0,0 +1,145 @@
+package com.devshaks.delivery.review;
+
+import com.devshaks.delivery.config.CacheConfig;
+import com.devshaks.delivery.restaurant.Restaurant;
+import com.devshaks.delivery.restaurant.RestaurantChangedEvent;
+import com.devshaks.delivery.restaurant.RestaurantRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Folds new reviews into each restaurant's rating aggregates in batches. Pending reviews
+ * are claimed with SKIP LOCKED, grouped by restaurant, and applied to a running sum and
+ * count plus an exponentially time-decayed sum and weight, so each restaurant row is
+ * written once per batch and the rating is never recomputed from all reviews. The
+ * claim, the aggregates and the aggregated flags commit together, so a crash simply
+ * leaves the batch pending for the next run.
+ */
+@Slf4j
+@Component
+public class RestaurantRatingAggregator {
+
+    private final RestaurantReviewRepository reviewRepository;
+    private final RestaurantRepository restaurantRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CacheManager cacheManager;
+    private final int batchSize;
+    private final double halfLifeMillis;
+
+    public RestaurantRatingAggregator(RestaurantReviewRepository reviewRepository,
+            RestaurantRepository restaurantRepository,
+            TransactionTemplate transactionTemplate,
+            ApplicationEventPublisher eventPublisher,
+            CacheManager cacheManager,
+            @Value("${application.reviews.batch-size:500}") int batchSize,
+            @Value("${application.reviews.rating-half-life:30d}") Duration ratingHalfLife) {
+        this.reviewRepository = reviewRepository;
+        this.restaurantRepository = restaurantRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.cacheManager = cacheManager;
+        this.batchSize = batchSize;
+        this.halfLifeMillis = ratingHalfLife.toMillis();
+    }
+
+    /**
+     * Folds every pending review into its restaurant's aggregates, one batch per
+     * transaction.
+     *
+     * @return The number of reviews folded in.
+     */
+    @Scheduled(fixedDelayString = "${application.reviews.aggregation-interval:PT5S}")
+    public int aggregatePendingReviews() {
+        int aggregated = 0;
+        int batch;
+        do {
+            batch = aggregateBatch();
+            aggregated += batch;
+        } while (batch == batchSize);
+
+        if (aggregated > 0) {
+            log.debug("Folded {} reviews into restaurant ratings", aggregated);
+        }
+        return aggregated;
+    }
+
+    private int aggregateBatch() {
+        Batch batch = transactionTemplate.execute(status -> {
+            List<RestaurantReview> reviews = reviewRepository.findAllByAggregatedFalseOrderById(Limit.of(batchSize));
+            if (reviews.isEmpty()) {
+                return new Batch(0, Set.of());
+            }
+
+            Map<Integer, List<RestaurantReview>> reviewsByRestaurant = reviews.stream()
+                    .collect(Collectors.groupingBy(RestaurantReview::getRestaurantId));
+            Instant now = Instant.now();
+            for (Restaurant restaurant : restaurantRepository.findAllById(reviewsByRestaurant.keySet())) {
+                fold(restaurant, reviewsByRestaurant.get(restaurant.getId()), now);
+                eventPublisher.publishEvent(new RestaurantChangedEvent(restaurant.getId(), false));
+            }
+
+            // Reviews of restaurants deleted since are marked too, so they are not claimed again
+            reviews.forEach(review -> review.setAggregated(true));
+            return new Batch(reviews.size(), reviewsByRestaurant.keySet());
+        });
+
+        // The cached representation carries the rating and version; evict only once committed
+        Cache restaurants = cacheManager.getCache(CacheConfig.RESTAURANTS_CACHE);
+        if (restaurants != null) {
+            batch.restaurantIds().forEach(restaurants::evict);
+        }
+        return batch.reviews();
+    }
+
+    private void fold(Restaurant restaurant, List<RestaurantReview> reviews, Instant now) {
+        long ratingSum = restaurant.getRatingSum();
+        long ratingCount = restaurant.getRatingCount();
+        double decayedSum = restaurant.getDecayedRatingSum();
+        double decayedWeight = restaurant.getDecayedRatingWeight();
+
+        // Age the existing decayed aggregates to now, then add each review at its own age
+        if (restaurant.getRatingDecayedAt() != null) {
+            double factor = decayFactor(restaurant.getRatingDecayedAt(), now);
+            decayedSum *= factor;
+            decayedWeight *= factor;
+        }
+        for (RestaurantReview review : reviews) {
+            double weight = decayFactor(review.getCreatedDate(), now);
+            ratingSum += review.getRating();
+            ratingCount++;
+            decayedSum += weight * review.getRating();
+            decayedWeight += weight;
+        }
+
+        restaurant.setRatingSum(ratingSum);
+        restaurant.setRatingCount(ratingCount);
+        restaurant.setRating((double) ratingSum / ratingCount);
+        restaurant.setDecayedRatingSum(decayedSum);
+        restaurant.setDecayedRatingWeight(decayedWeight);
+        restaurant.setRatingDecayedAt(now);
+    }
+
+    // Half of a review's weight is lost every half-life
+    private double decayFactor(Instant since, Instant now) {
+        long ageMillis = Math.max(0, Duration.between(since, now).toMillis());
+        return Math.pow(0.5, ageMillis / halfLifeMillis);
+    }
+
+    private record Batch(int reviews, Set<Integer> restaurantIds) {
+    }
+}
@@ -0,0 +1,10 @@
+package com.devshaks.delivery.review;
+
+public record RestaurantRatingResponse(
+        Integer restaurantId,
+        Double rating,
+        long ratingCount,
+        // Average weighting recent reviews more heavily, null until a review is folded in
+        Double decayedRating
+) {
+}
@@ -0,0 +1,52 @@
+package com.devshaks.delivery.review;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+@Entity
+// One review per restaurant of an order
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_restaurant_review_order_restaurant",
+        columnNames = { "order_id", "restaurant_id" }))
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@Builder
+public class RestaurantReview {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "restaurant_review_seq")
+    @SequenceGenerator(name = "restaurant_review_seq", sequenceName = "restaurant_review_seq", allocationSize = 50)
+    private Integer id;
+
+    @Column(nullable = false)
+    private Integer restaurantId;
+
+    @Column(nullable = false)
+    private Integer orderId;
+
+    @Column(nullable = false)
+    private Integer customerId;
+
+    @Column(nullable = false)
+    private int rating;
+
+    @Column(length = 1000)
+    private String comment;
+
+    // Set once RestaurantRatingAggregator has folded the review into the restaurant's aggregates
+    @Column(nullable = false)
+    private boolean aggregated;
+
+    @Column(nullable = false, updatable = false)
+    private Instant createdDate;
+
+    @PrePersist
+    private void setCreatedDate() {
+        if (createdDate == null) {
+            createdDate = Instant.now();
+        }
+    }
+}
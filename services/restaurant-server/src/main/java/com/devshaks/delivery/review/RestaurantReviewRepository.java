@@ -0,0 +1,20 @@
+package com.devshaks.delivery.review;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.util.List;
+
+public interface RestaurantReviewRepository extends JpaRepository<RestaurantReview, Integer> {
+    boolean existsByOrderIdAndRestaurantId(Integer orderId, Integer restaurantId);
+
+    // Claims the oldest pending reviews; a lock timeout of -2 is SKIP LOCKED, so
+    // aggregators on several instances take disjoint batches instead of waiting
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    List<RestaurantReview> findAllByAggregatedFalseOrderById(Limit limit);
+}
@@ -0,0 +1,47 @@
+package com.devshaks.delivery.review;
+
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/restaurants")
+@RequiredArgsConstructor
+public class ReviewController {
+    private final ReviewService reviewService;
+
+    /**
+     * Endpoint to review a completed order.
+     *
+     * @param restaurantId
+     *            The ID of the restaurant being reviewed.
+     * @param reviewRequest
+     *            A valid ReviewRequest with the order, customer and rating.
+     * @return A ResponseEntity containing the review ID and a 202 ACCEPTED status, as
+     *         the rating is updated shortly after.
+     */
+    @PostMapping("/{restaurantId}/reviews")
+    public ResponseEntity<Integer> submitReview(@PathVariable("restaurantId") Integer restaurantId,
+            @RequestBody @Valid ReviewRequest reviewRequest) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(reviewService.submitReview(restaurantId, reviewRequest));
+    }
+
+    /**
+     * Endpoint to retrieve a restaurant's rating aggregates.
+     *
+     * @param restaurantId
+     *            The ID of the restaurant.
+     * @return A ResponseEntity containing the RestaurantRatingResponse and a 200 OK status.
+     */
+    @GetMapping("/{restaurantId}/rating")
+    public ResponseEntity<RestaurantRatingResponse> findRating(@PathVariable("restaurantId") Integer restaurantId) {
+        return ResponseEntity.ok(reviewService.findRating(restaurantId));
+    }
+}
@@ -0,0 +1,22 @@
+package com.devshaks.delivery.review;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+public record ReviewRequest(
+        @NotNull(message = "Order ID is required")
+        Integer orderId,
+
+        @NotNull(message = "Customer ID is required")
+        Integer customerId,
+
+        @Min(value = 1, message = "Rating must be between 1 and 5")
+        @Max(value = 5, message = "Rating must be between 1 and 5")
+        int rating,
+
+        @Size(max = 1000, message = "Comment cannot exceed 1000 characters")
+        String comment
+) {
+}
@@ -0,0 +1,91 @@
+package com.devshaks.delivery.review;
+
+import com.devshaks.delivery.exceptions.DuplicateReviewException;
+import com.devshaks.delivery.exceptions.OrderNotReviewableException;
+import com.devshaks.delivery.exceptions.RestaurantNotFoundException;
+import com.devshaks.delivery.restaurant.RestaurantRating;
+import com.devshaks.delivery.restaurant.RestaurantRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class ReviewService {
+    private final RestaurantReviewRepository reviewRepository;
+    private final RestaurantRepository restaurantRepository;
+    private final CompletedOrderRepository completedOrderRepository;
+
+    /**
+     * Records a customer's review of an order. Only the customer of an order the order
+     * service confirmed may review it, once for each restaurant it was placed with. The
+     * review is folded into the restaurant's rating asynchronously by
+     * RestaurantRatingAggregator.
+     *
+     * @param restaurantId
+     *            The ID of the restaurant being reviewed.
+     * @param reviewRequest
+     *            The order, customer and rating of the review.
+     * @return The ID of the stored review.
+     * @throws RestaurantNotFoundException
+     *             If the restaurant is not found.
+     * @throws OrderNotReviewableException
+     *             If the order is not a confirmed order of the customer with the restaurant.
+     * @throws DuplicateReviewException
+     *             If the order has already been reviewed for the restaurant.
+     */
+    public Integer submitReview(Integer restaurantId, ReviewRequest reviewRequest) {
+        if (!restaurantRepository.existsById(restaurantId)) {
+            throw new RestaurantNotFoundException("Restaurant not found with ID: " + restaurantId);
+        }
+        if (!completedOrderRepository.existsByOrderIdAndRestaurantIdAndCustomerId(
+                reviewRequest.orderId(), restaurantId, reviewRequest.customerId())) {
+            throw new OrderNotReviewableException("Order " + reviewRequest.orderId()
+                    + " is not a confirmed order of customer " + reviewRequest.customerId()
+                    + " with restaurant " + restaurantId);
+        }
+        if (reviewRepository.existsByOrderIdAndRestaurantId(reviewRequest.orderId(), restaurantId)) {
+            throw new DuplicateReviewException("Order " + reviewRequest.orderId()
+                    + " has already been reviewed for restaurant " + restaurantId);
+        }
+
+        try {
+            return reviewRepository.saveAndFlush(RestaurantReview.builder()
+                    .restaurantId(restaurantId)
+                    .orderId(reviewRequest.orderId())
+                    .customerId(reviewRequest.customerId())
+                    .rating(reviewRequest.rating())
+                    .comment(reviewRequest.comment())
+                    .build())
+                    .getId();
+        } catch (DataIntegrityViolationException e) {
+            // Lost a race with a concurrent review of the same order and restaurant
+            throw new DuplicateReviewException("Order " + reviewRequest.orderId()
+                    + " has already been reviewed for restaurant " + restaurantId);
+        }
+    }
+
+    /**
+     * Reads a restaurant's rating aggregates, a single row lookup however many reviews
+     * it has.
+     *
+     * @param restaurantId
+     *            The ID of the restaurant.
+     * @return The restaurant's average, review count and time-decayed average.
+     * @throws RestaurantNotFoundException
+     *             If the restaurant is not found.
+     */
+    @Transactional(readOnly = true)
+    public RestaurantRatingResponse findRating(Integer restaurantId) {
+        RestaurantRating rating = restaurantRepository.findRatingById(restaurantId)
+                .orElseThrow(() -> new RestaurantNotFoundException("Restaurant not found with ID: " + restaurantId));
+
+        // Decay scales sum and weight alike, so their ratio needs no recomputation at read time
+        Double decayedRating = rating.getDecayedRatingWeight() > 0
+                ? rating.getDecayedRatingSum() / rating.getDecayedRatingWeight()
+                : null;
+        return new RestaurantRatingResponse(rating.getId(), rating.getRating(), rating.getRatingCount(), decayedRating);
+    }
+}
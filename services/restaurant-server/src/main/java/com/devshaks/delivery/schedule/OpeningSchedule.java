@@ -0,0 +1,167 @@
+package com.devshaks.delivery.schedule;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Opening hours compiled into sorted, non-overlapping minute-of-week intervals, so an
+ * "open at" check is a binary search over two int arrays with no allocation.
+ * <p>
+ * Accepted format is one or more segments separated by ';', each an optional day or day
+ * range followed by a time range or "closed", e.g. {@code "09:00 - 21:00"},
+ * {@code "Mon-Fri 09:00-17:00; Sat 10:00-23:30; Sun closed"} or {@code "Fri-Sat 18:00-02:00"}.
+ * A segment without days applies to every day. Segments apply in order: time ranges add
+ * to the hours of their days, and "closed" clears the hours opening on its days so far,
+ * so {@code "09:00-21:00; Sun closed"} is closed on Sunday. A range ending at or before
+ * its start runs overnight into the next day; "24:00" may be used as an end time.
+ */
+public final class OpeningSchedule {
+
+    public static final int MINUTES_PER_DAY = 24 * 60;
+    public static final int MINUTES_PER_WEEK = 7 * MINUTES_PER_DAY;
+
+    // Used for stored hours that predate the format, leaving the isOpen flag in charge
+    public static final OpeningSchedule ALWAYS_OPEN = new OpeningSchedule(new int[] { 0 }, new int[] { MINUTES_PER_WEEK });
+
+    private static final Pattern SEGMENT = Pattern.compile(
+            "(?:(?<from>[a-z]{3})(?:\\s*-\\s*(?<to>[a-z]{3}))?\\s+)?"
+                    + "(?:(?<closed>closed)|(?<open>\\d{1,2}:\\d{2})\\s*-\\s*(?<close>\\d{1,2}:\\d{2}))");
+
+    private final int[] starts;
+    private final int[] ends;
+
+    private OpeningSchedule(int[] starts, int[] ends) {
+        this.starts = starts;
+        this.ends = ends;
+    }
+
+    /**
+     * Parses and compiles an opening hours string.
+     *
+     * @param openingHours
+     *            The opening hours, e.g. "09:00 - 21:00".
+     * @return The compiled schedule.
+     * @throws IllegalArgumentException
+     *             if the string does not follow the accepted format.
+     */
+    public static OpeningSchedule parse(String openingHours) {
+        if (openingHours == null || openingHours.isBlank()) {
+            throw new IllegalArgumentException("Opening hours are required");
+        }
+
+        // Minute-of-day ranges by the day they open on, which a later "closed" clears
+        List<List<int[]>> rangesByDay = new ArrayList<>(7);
+        for (int day = 0; day < 7; day++) {
+            rangesByDay.add(new ArrayList<>());
+        }
+        for (String segment : openingHours.trim().toLowerCase(Locale.ROOT).split("\\s*;\\s*")) {
+            Matcher matcher = SEGMENT.matcher(segment);
+            if (!matcher.matches()) {
+                throw new IllegalArgumentException("Invalid opening hours: " + openingHours);
+            }
+            int[] days = days(matcher.group("from"), matcher.group("to"), openingHours);
+            if (matcher.group("closed") != null) {
+                for (int day : days) {
+                    rangesByDay.get(day).clear();
+                }
+                continue;
+            }
+
+            int open = minuteOfDay(matcher.group("open"), openingHours);
+            int close = minuteOfDay(matcher.group("close"), openingHours);
+            int duration = close > open ? close - open : close + MINUTES_PER_DAY - open;
+            for (int day : days) {
+                rangesByDay.get(day).add(new int[] { open, open + duration });
+            }
+        }
+
+        List<int[]> intervals = new ArrayList<>();
+        for (int day = 0; day < 7; day++) {
+            for (int[] range : rangesByDay.get(day)) {
+                int start = day * MINUTES_PER_DAY + range[0];
+                int end = day * MINUTES_PER_DAY + range[1];
+                if (end <= MINUTES_PER_WEEK) {
+                    intervals.add(new int[] { start, end });
+                } else {
+                    // Sunday overnight ranges wrap to Monday morning
+                    intervals.add(new int[] { start, MINUTES_PER_WEEK });
+                    intervals.add(new int[] { 0, end - MINUTES_PER_WEEK });
+                }
+            }
+        }
+        return compile(intervals);
+    }
+
+    public boolean isOpenAt(int minuteOfWeek) {
+        int index = Arrays.binarySearch(starts, minuteOfWeek);
+        if (index >= 0) {
+            return true;
+        }
+        int candidate = -index - 2; // last interval starting before minuteOfWeek
+        return candidate >= 0 && minuteOfWeek < ends[candidate];
+    }
+
+    public boolean isOpenAt(LocalDateTime dateTime) {
+        return isOpenAt(minuteOfWeek(dateTime));
+    }
+
+    public static int minuteOfWeek(LocalDateTime dateTime) {
+        return (dateTime.getDayOfWeek().getValue() - 1) * MINUTES_PER_DAY
+                + dateTime.getHour() * 60 + dateTime.getMinute();
+    }
+
+    private static OpeningSchedule compile(List<int[]> intervals) {
+        intervals.sort((a, b) -> Integer.compare(a[0], b[0]));
+        int[] starts = new int[intervals.size()];
+        int[] ends = new int[intervals.size()];
+        int count = 0;
+        for (int[] interval : intervals) {
+            if (count > 0 && interval[0] <= ends[count - 1]) {
+                ends[count - 1] = Math.max(ends[count - 1], interval[1]);
+            } else {
+                starts[count] = interval[0];
+                ends[count++] = interval[1];
+            }
+        }
+        return new OpeningSchedule(Arrays.copyOf(starts, count), Arrays.copyOf(ends, count));
+    }
+
+    private static int minuteOfDay(String time, String openingHours) {
+        String[] parts = time.split(":");
+        int hour = Integer.parseInt(parts[0]);
+        int minute = Integer.parseInt(parts[1]);
+        if (hour > 24 || minute > 59 || (hour == 24 && minute != 0)) {
+            throw new IllegalArgumentException("Invalid time '" + time + "' in opening hours: " + openingHours);
+        }
+        return hour * 60 + minute;
+    }
+
+    private static int[] days(String from, String to, String openingHours) {
+        if (from == null) {
+            return new int[] { 0, 1, 2, 3, 4, 5, 6 };
+        }
+        int first = dayIndex(from, openingHours);
+        int last = to == null ? first : dayIndex(to, openingHours);
+        int count = Math.floorMod(last - first, 7) + 1;
+        int[] days = new int[count];
+        for (int i = 0; i < count; i++) {
+            days[i] = (first + i) % 7;
+        }
+        return days;
+    }
+
+    private static int dayIndex(String day, String openingHours) {
+        for (DayOfWeek dayOfWeek : DayOfWeek.values()) {
+            if (dayOfWeek.name().toLowerCase(Locale.ROOT).startsWith(day)) {
+                return dayOfWeek.getValue() - 1;
+            }
+        }
+        throw new IllegalArgumentException("Invalid day '" + day + "' in opening hours: " + openingHours);
+    }
+}
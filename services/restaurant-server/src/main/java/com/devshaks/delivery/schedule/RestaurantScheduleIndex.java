@@ -0,0 +1,106 @@
+package com.devshaks.delivery.schedule;
+
+import com.devshaks.delivery.restaurant.RestaurantChangedEvent;
+import com.devshaks.delivery.restaurant.RestaurantFavouriteResponse;
+import com.devshaks.delivery.restaurant.RestaurantOpeningHours;
+import com.devshaks.delivery.restaurant.RestaurantRepository;
+import com.devshaks.delivery.restaurant.RestaurantsImportedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compiled opening schedules of every restaurant, loaded on startup and kept in sync
+ * from RestaurantChangedEvents and RestaurantsImportedEvents after each commit. Answers
+ * "open at time T" without touching the database or re-parsing opening hours strings.
+ */
+@Slf4j
+@Component
+public class RestaurantScheduleIndex {
+
+    private final RestaurantRepository restaurantRepository;
+    private final ZoneId zoneId;
+    private final Map<Integer, ScheduledRestaurant> restaurants = new ConcurrentHashMap<>();
+
+    public RestaurantScheduleIndex(RestaurantRepository restaurantRepository,
+            @Value("${application.restaurants.time-zone:}") String timeZone) {
+        this.restaurantRepository = restaurantRepository;
+        this.zoneId = timeZone.isBlank() ? ZoneId.systemDefault() : ZoneId.of(timeZone);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        List<RestaurantOpeningHours> openingHours = restaurantRepository.findAllOpeningHours();
+        openingHours.forEach(this::put);
+        log.info("Schedule index loaded with {} restaurants", openingHours.size());
+    }
+
+    @TransactionalEventListener
+    public void onRestaurantChanged(RestaurantChangedEvent event) {
+        if (event.deleted()) {
+            restaurants.remove(event.restaurantId());
+            return;
+        }
+        restaurantRepository.findOpeningHoursById(event.restaurantId())
+                .ifPresentOrElse(this::put, () -> restaurants.remove(event.restaurantId()));
+    }
+
+    @TransactionalEventListener
+    public void onRestaurantsImported(RestaurantsImportedEvent event) {
+        restaurantRepository.findOpeningHoursByIdIn(event.restaurantIds()).forEach(this::put);
+    }
+
+    // The current local time of the restaurants, as a minute of the week
+    public int currentMinuteOfWeek() {
+        return OpeningSchedule.minuteOfWeek(LocalDateTime.now(zoneId));
+    }
+
+    /**
+     * Lists the restaurants open at a point in time: the open flag must be set and the
+     * time must fall within the compiled opening hours.
+     *
+     * @param dateTime
+     *            The local date and time to check, or null for now.
+     * @return A list of RestaurantFavouriteResponse objects for the open restaurants.
+     */
+    public List<RestaurantFavouriteResponse> findOpenAt(LocalDateTime dateTime) {
+        int minuteOfWeek = dateTime == null ? currentMinuteOfWeek() : OpeningSchedule.minuteOfWeek(dateTime);
+        List<RestaurantFavouriteResponse> open = new ArrayList<>();
+        for (ScheduledRestaurant restaurant : restaurants.values()) {
+            if (restaurant.open() && restaurant.schedule().isOpenAt(minuteOfWeek)) {
+                open.add(new RestaurantFavouriteResponse(restaurant.restaurantId(), restaurant.name()));
+            }
+        }
+        return open;
+    }
+
+    // Compiles stored opening hours, falling back to the open flag alone for unparseable legacy values
+    public static OpeningSchedule compile(Integer restaurantId, String openingHours) {
+        try {
+            return OpeningSchedule.parse(openingHours);
+        } catch (IllegalArgumentException e) {
+            log.warn("Restaurant ID {} has unparseable opening hours '{}', relying on its open flag",
+                    restaurantId, openingHours);
+            return OpeningSchedule.ALWAYS_OPEN;
+        }
+    }
+
+    private void put(RestaurantOpeningHours openingHours) {
+        restaurants.put(openingHours.getId(), new ScheduledRestaurant(openingHours.getId(), openingHours.getName(),
+                Boolean.TRUE.equals(openingHours.getIsOpen()),
+                compile(openingHours.getId(), openingHours.getOpeningHours())));
+    }
+
+    private record ScheduledRestaurant(Integer restaurantId, String name, boolean open, OpeningSchedule schedule) {
+    }
+}
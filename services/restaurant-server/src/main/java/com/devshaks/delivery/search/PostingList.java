@@ -0,0 +1,56 @@
+package com.devshaks.delivery.search;
+
+import java.util.Arrays;
+
+/**
+ * Append-only list of ascending document IDs, stored as variable-length encoded gaps.
+ * Dense terms cost close to one byte per posting instead of four.
+ */
+final class PostingList {
+
+    private byte[] bytes = new byte[8];
+    private int length;
+    private int count;
+    private int lastDocId = -1;
+
+    // Document IDs must be appended in strictly ascending order
+    void add(int docId) {
+        if (docId <= lastDocId) {
+            throw new IllegalArgumentException("Posting " + docId + " is not after " + lastDocId);
+        }
+        if (length + 5 > bytes.length) {
+            bytes = Arrays.copyOf(bytes, bytes.length * 2);
+        }
+        int gap = docId - lastDocId - 1;
+        while ((gap & ~0x7F) != 0) {
+            bytes[length++] = (byte) ((gap & 0x7F) | 0x80);
+            gap >>>= 7;
+        }
+        bytes[length++] = (byte) gap;
+        lastDocId = docId;
+        count++;
+    }
+
+    int count() {
+        return count;
+    }
+
+    int[] decode() {
+        int[] docIds = new int[count];
+        int docId = -1;
+        int position = 0;
+        for (int i = 0; i < count; i++) {
+            int gap = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = bytes[position++];
+                gap |= (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            docId += gap + 1;
+            docIds[i] = docId;
+        }
+        return docIds;
+    }
+}
@@ -0,0 +1,424 @@
+package com.devshaks.delivery.search;
+
+import com.devshaks.delivery.cuisine.CuisineTypes;
+import com.devshaks.delivery.money.Money;
+import com.devshaks.delivery.restaurant.Restaurant;
+import com.devshaks.delivery.restaurant.RestaurantChangedEvent;
+import com.devshaks.delivery.restaurant.RestaurantRepository;
+import com.devshaks.delivery.restaurant.RestaurantsImportedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over restaurant and dish names and descriptions.
+ * Text is lower-cased and split on non-alphanumerics; every query token must match
+ * (in either field) and the last token, from three characters on, also matches as a
+ * prefix, expanded to its most frequent completions. Matches are ranked by IDF weighted
+ * by field, names counting double. Menu changes are applied incrementally from
+ * RestaurantChangedEvents and RestaurantsImportedEvents: a restaurant's old documents
+ * are tombstoned and its new ones appended, and the index is compacted once tombstones
+ * reach a quarter of it.
+ */
+@Slf4j
+@Component
+public class RestaurantSearchIndex {
+
+    private static final float NAME_WEIGHT = 2.0f;
+    private static final float DESCRIPTION_WEIGHT = 1.0f;
+
+    // Shorter prefixes such as "s" match most of the index, so they are only matched as words
+    private static final int MIN_PREFIX_LENGTH = 3;
+    // Bounds the work of short prefixes such as "sal" to their most frequent expansions
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+    // Unions of more postings than 1 in this many documents are summed in a dense array
+    private static final int DENSE_UNION_RATIO = 16;
+    private static final int MIN_TOMBSTONES_TO_COMPACT = 1024;
+
+    private final RestaurantRepository restaurantRepository;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final TreeMap<String, PostingList> nameTerms = new TreeMap<>();
+    private final TreeMap<String, PostingList> descriptionTerms = new TreeMap<>();
+    private final List<SearchDocument> documents = new ArrayList<>();
+    private final Map<Integer, int[]> documentsByRestaurant = new HashMap<>();
+    private final BitSet deleted = new BitSet();
+    private int deletedCount;
+
+    public RestaurantSearchIndex(RestaurantRepository restaurantRepository) {
+        this.restaurantRepository = restaurantRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        List<Restaurant> restaurants = restaurantRepository.findAllWithCuisineTypes();
+        lock.writeLock().lock();
+        try {
+            clear();
+            restaurants.forEach(this::addRestaurant);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Search index loaded with {} documents", documents.size());
+    }
+
+    @TransactionalEventListener
+    public void onRestaurantChanged(RestaurantChangedEvent event) {
+        if (event.deleted()) {
+            removeRestaurant(event.restaurantId());
+            return;
+        }
+        restaurantRepository.findWithCuisineTypesById(event.restaurantId())
+                .ifPresentOrElse(this::indexRestaurant, () -> removeRestaurant(event.restaurantId()));
+    }
+
+    @TransactionalEventListener
+    public void onRestaurantsImported(RestaurantsImportedEvent event) {
+        indexRestaurants(restaurantRepository.findAllWithCuisineTypesByIdIn(event.restaurantIds()));
+    }
+
+    // Replaces every document of the restaurant with its current name, description and menu
+    public void indexRestaurant(Restaurant restaurant) {
+        indexRestaurants(List.of(restaurant));
+    }
+
+    // As indexRestaurant, for a batch of restaurants under a single write lock
+    public void indexRestaurants(Collection<Restaurant> restaurants) {
+        lock.writeLock().lock();
+        try {
+            for (Restaurant restaurant : restaurants) {
+                tombstone(restaurant.getId());
+                addRestaurant(restaurant);
+            }
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeRestaurant(Integer restaurantId) {
+        lock.writeLock().lock();
+        try {
+            tombstone(restaurantId);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Searches restaurants and dishes.
+     *
+     * @param query
+     *            Free text, e.g. "spicy tu".
+     * @param page
+     *            Zero-based page number.
+     * @param size
+     *            Number of results per page.
+     * @return The requested page of matches, best first, with the total match count.
+     */
+    public SearchPageResponse search(String query, int page, int size) {
+        List<String> tokens = tokenize(query);
+        if (tokens.isEmpty()) {
+            return new SearchPageResponse(List.of(), page, size, 0);
+        }
+
+        lock.readLock().lock();
+        try {
+            Matches matches = null;
+            for (int i = 0; i < tokens.size() && (matches == null || matches.docIds.length > 0); i++) {
+                Matches tokenMatches = match(tokens.get(i), i == tokens.size() - 1);
+                matches = matches == null ? tokenMatches : intersect(matches, tokenMatches);
+            }
+            return rank(matches, page, size);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private SearchPageResponse rank(Matches matches, int page, int size) {
+        int wanted = (page + 1) * size;
+        // Min-heap on score, so the weakest of the current top results is evicted first
+        PriorityQueue<Integer> top = new PriorityQueue<>(wanted, (a, b) -> outranks(matches, a, b) ? 1 : -1);
+        int total = 0;
+        for (int i = 0; i < matches.docIds.length; i++) {
+            if (deleted.get(matches.docIds[i])) {
+                continue;
+            }
+            total++;
+            if (top.size() < wanted) {
+                top.offer(i);
+            } else if (outranks(matches, i, top.peek())) {
+                // Most matches lose to the weakest kept result and never touch the heap
+                top.poll();
+                top.offer(i);
+            }
+        }
+
+        List<SearchResultResponse> ranked = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            int i = top.poll();
+            SearchDocument document = documents.get(matches.docIds[i]);
+            ranked.add(document.toResponse(matches.scores[i]));
+        }
+        Collections.reverse(ranked);
+
+        int from = Math.min(page * size, ranked.size());
+        return new SearchPageResponse(List.copyOf(ranked.subList(from, ranked.size())), page, size, total);
+    }
+
+    // Higher score first, then the earlier document
+    private static boolean outranks(Matches matches, int a, int b) {
+        float scoreA = matches.scores[a];
+        float scoreB = matches.scores[b];
+        return scoreA != scoreB ? scoreA > scoreB : matches.docIds[a] < matches.docIds[b];
+    }
+
+    // Union of the token's postings across both fields and, for the last token, its prefix expansions
+    private Matches match(String token, boolean prefix) {
+        List<Matches> parts = new ArrayList<>();
+        int liveDocuments = documents.size() - deletedCount;
+        for (PostingList postings : postingsFor(nameTerms, token, prefix)) {
+            parts.add(Matches.of(postings.decode(), NAME_WEIGHT * idf(postings, liveDocuments)));
+        }
+        for (PostingList postings : postingsFor(descriptionTerms, token, prefix)) {
+            parts.add(Matches.of(postings.decode(), DESCRIPTION_WEIGHT * idf(postings, liveDocuments)));
+        }
+        return unionAll(parts, documents.size());
+    }
+
+    private static Collection<PostingList> postingsFor(NavigableMap<String, PostingList> terms, String token,
+            boolean prefix) {
+        if (!prefix || token.length() < MIN_PREFIX_LENGTH) {
+            PostingList postings = terms.get(token);
+            return postings == null ? List.of() : List.of(postings);
+        }
+        Collection<PostingList> expansions = terms.subMap(token, true, token + Character.MAX_VALUE, false).values();
+        if (expansions.size() <= MAX_PREFIX_EXPANSIONS) {
+            return expansions;
+        }
+        // Keeps the most frequent expansions, which hold most of the matches, wherever they sort
+        PriorityQueue<PostingList> mostFrequent = new PriorityQueue<>(MAX_PREFIX_EXPANSIONS + 1,
+                Comparator.comparingInt(PostingList::count));
+        for (PostingList postings : expansions) {
+            mostFrequent.offer(postings);
+            if (mostFrequent.size() > MAX_PREFIX_EXPANSIONS) {
+                mostFrequent.poll();
+            }
+        }
+        // The token itself is always matched, however rare it is
+        PostingList exact = terms.get(token);
+        if (exact != null && !mostFrequent.contains(exact)) {
+            mostFrequent.poll();
+            mostFrequent.offer(exact);
+        }
+        return mostFrequent;
+    }
+
+    private static float idf(PostingList postings, int liveDocuments) {
+        return (float) Math.log(1 + (double) Math.max(liveDocuments, 1) / postings.count());
+    }
+
+    private static Matches unionAll(List<Matches> parts, int documentCount) {
+        if (parts.isEmpty()) {
+            return Matches.EMPTY;
+        }
+        long postings = parts.stream().mapToLong(part -> part.docIds.length).sum();
+        if (parts.size() > 2 && postings * DENSE_UNION_RATIO >= documentCount) {
+            return accumulate(parts, documentCount);
+        }
+        // Merges in pairs, as a merge sort does, so each posting is copied log(n) times rather than n
+        while (parts.size() > 1) {
+            List<Matches> merged = new ArrayList<>((parts.size() + 1) / 2);
+            for (int i = 0; i < parts.size(); i += 2) {
+                merged.add(i + 1 < parts.size() ? union(parts.get(i), parts.get(i + 1)) : parts.get(i));
+            }
+            parts = merged;
+        }
+        return parts.get(0);
+    }
+
+    // Sums the scores in an array over the whole index, for unions that cover a good share of it
+    private static Matches accumulate(List<Matches> parts, int documentCount) {
+        float[] scoresByDocId = new float[documentCount];
+        BitSet matched = new BitSet(documentCount);
+        for (Matches part : parts) {
+            for (int i = 0; i < part.docIds.length; i++) {
+                scoresByDocId[part.docIds[i]] += part.scores[i];
+                matched.set(part.docIds[i]);
+            }
+        }
+        int[] docIds = new int[matched.cardinality()];
+        float[] scores = new float[docIds.length];
+        for (int docId = matched.nextSetBit(0), n = 0; docId >= 0; docId = matched.nextSetBit(docId + 1), n++) {
+            docIds[n] = docId;
+            scores[n] = scoresByDocId[docId];
+        }
+        return new Matches(docIds, scores);
+    }
+
+    private static Matches union(Matches left, Matches right) {
+        int[] docIds = new int[left.docIds.length + right.docIds.length];
+        float[] scores = new float[docIds.length];
+        int a = 0, b = 0, n = 0;
+        while (a < left.docIds.length || b < right.docIds.length) {
+            if (b == right.docIds.length || (a < left.docIds.length && left.docIds[a] < right.docIds[b])) {
+                docIds[n] = left.docIds[a];
+                scores[n++] = left.scores[a++];
+            } else if (a == left.docIds.length || right.docIds[b] < left.docIds[a]) {
+                docIds[n] = right.docIds[b];
+                scores[n++] = right.scores[b++];
+            } else {
+                docIds[n] = left.docIds[a];
+                scores[n++] = left.scores[a++] + right.scores[b++];
+            }
+        }
+        return new Matches(trim(docIds, n), trim(scores, n));
+    }
+
+    private static Matches intersect(Matches left, Matches right) {
+        int[] docIds = new int[Math.min(left.docIds.length, right.docIds.length)];
+        float[] scores = new float[docIds.length];
+        int a = 0, b = 0, n = 0;
+        while (a < left.docIds.length && b < right.docIds.length) {
+            if (left.docIds[a] < right.docIds[b]) {
+                a++;
+            } else if (right.docIds[b] < left.docIds[a]) {
+                b++;
+            } else {
+                docIds[n] = left.docIds[a];
+                scores[n++] = left.scores[a++] + right.scores[b++];
+            }
+        }
+        return new Matches(trim(docIds, n), trim(scores, n));
+    }
+
+    private static int[] trim(int[] values, int length) {
+        return values.length == length ? values : Arrays.copyOf(values, length);
+    }
+
+    private static float[] trim(float[] values, int length) {
+        return values.length == length ? values : Arrays.copyOf(values, length);
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        Set<String> tokens = new LinkedHashSet<>();
+        for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return List.copyOf(tokens);
+    }
+
+    private void addRestaurant(Restaurant restaurant) {
+        List<CuisineTypes> cuisines = restaurant.getCuisineTypes() == null ? List.of() : restaurant.getCuisineTypes();
+        int[] docIds = new int[cuisines.size() + 1];
+        docIds[0] = addDocument(new SearchDocument(SearchResultType.RESTAURANT, restaurant.getId(),
+                restaurant.getName(), null, restaurant.getName(), restaurant.getDescription(), null));
+        for (int i = 0; i < cuisines.size(); i++) {
+            CuisineTypes cuisine = cuisines.get(i);
+            docIds[i + 1] = addDocument(new SearchDocument(SearchResultType.DISH, restaurant.getId(),
+                    restaurant.getName(), cuisine.getId(), cuisine.getName(), cuisine.getDescription(),
+                    cuisine.getPrice()));
+        }
+        documentsByRestaurant.put(restaurant.getId(), docIds);
+    }
+
+    private int addDocument(SearchDocument document) {
+        int docId = documents.size();
+        documents.add(document);
+        for (String term : tokenize(document.name())) {
+            nameTerms.computeIfAbsent(term, key -> new PostingList()).add(docId);
+        }
+        for (String term : tokenize(document.description())) {
+            descriptionTerms.computeIfAbsent(term, key -> new PostingList()).add(docId);
+        }
+        return docId;
+    }
+
+    private void tombstone(Integer restaurantId) {
+        int[] docIds = documentsByRestaurant.remove(restaurantId);
+        if (docIds == null) {
+            return;
+        }
+        for (int docId : docIds) {
+            deleted.set(docId);
+            documents.set(docId, null);
+        }
+        deletedCount += docIds.length;
+    }
+
+    // Rebuilds the postings from the live documents once enough of the index is tombstoned
+    private void compactIfNeeded() {
+        if (deletedCount < MIN_TOMBSTONES_TO_COMPACT || deletedCount * 4 < documents.size()) {
+            return;
+        }
+        List<SearchDocument> live = documents.stream().filter(document -> document != null).toList();
+        Map<Integer, List<Integer>> liveByRestaurant = new HashMap<>();
+        clear();
+        for (SearchDocument document : live) {
+            liveByRestaurant.computeIfAbsent(document.restaurantId(), key -> new ArrayList<>())
+                    .add(addDocument(document));
+        }
+        liveByRestaurant.forEach((restaurantId, docIds) -> documentsByRestaurant.put(restaurantId,
+                docIds.stream().mapToInt(Integer::intValue).toArray()));
+        log.info("Search index compacted to {} documents", documents.size());
+    }
+
+    private void clear() {
+        nameTerms.clear();
+        descriptionTerms.clear();
+        documents.clear();
+        documentsByRestaurant.clear();
+        deleted.clear();
+        deletedCount = 0;
+    }
+
+    private record Matches(int[] docIds, float[] scores) {
+        static final Matches EMPTY = new Matches(new int[0], new float[0]);
+
+        static Matches of(int[] docIds, float weight) {
+            float[] scores = new float[docIds.length];
+            Arrays.fill(scores, weight);
+            return new Matches(docIds, scores);
+        }
+    }
+
+    private record SearchDocument(
+            SearchResultType type,
+            Integer restaurantId,
+            String restaurantName,
+            Integer cuisineId,
+            String name,
+            String description,
+            Money price) {
+
+        SearchResultResponse toResponse(float score) {
+            return new SearchResultResponse(type, restaurantId, restaurantName, cuisineId, name, description, price,
+                    score);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.devshaks.delivery.search;
+
+import java.util.List;
+
+public record SearchPageResponse(
+        List<SearchResultResponse> results,
+        int page,
+        int size,
+        int totalMatches) {
+}
@@ -0,0 +1,14 @@
+package com.devshaks.delivery.search;
+
+import com.devshaks.delivery.money.Money;
+
+public record SearchResultResponse(
+        SearchResultType type,
+        Integer restaurantId,
+        String restaurantName,
+        Integer cuisineId,
+        String name,
+        String description,
+        Money price,
+        float score) {
+}
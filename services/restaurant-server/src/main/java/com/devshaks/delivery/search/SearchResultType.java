@@ -0,0 +1,5 @@
+package com.devshaks.delivery.search;
+
+public enum SearchResultType {
+    RESTAURANT, DISH
+}
@@ -0,0 +1,2 @@
+-- Per-day schedules such as "Mon-Fri 09:00-17:00; Sat 10:00-23:30; Sun closed" outgrow 50 characters
+ALTER TABLE restaurant ALTER COLUMN opening_hours TYPE VARCHAR(255);
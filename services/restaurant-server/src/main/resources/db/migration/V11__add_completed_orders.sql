@@ -0,0 +1,8 @@
+-- Orders confirmed by the order service, one row per restaurant; a review must match one
+CREATE TABLE IF NOT EXISTS completed_order (
+    order_id INTEGER NOT NULL,
+    restaurant_id INTEGER NOT NULL,
+    customer_id INTEGER NOT NULL,
+    completed_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    PRIMARY KEY (order_id, restaurant_id)
+);
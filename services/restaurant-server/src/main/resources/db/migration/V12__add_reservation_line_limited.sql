@@ -0,0 +1,2 @@
+-- Lines of unlimited dishes take no stock; they keep the rest of a pending purchase so it can be counted once confirmed
+ALTER TABLE cuisine_reservation ADD COLUMN IF NOT EXISTS limited BOOLEAN NOT NULL DEFAULT TRUE;
@@ -0,0 +1,3 @@
+-- An order placed with several restaurants can be reviewed once for each of them
+ALTER TABLE restaurant_review DROP CONSTRAINT IF EXISTS uk_restaurant_review_order;
+ALTER TABLE restaurant_review ADD CONSTRAINT uk_restaurant_review_order_restaurant UNIQUE (order_id, restaurant_id);
@@ -0,0 +1,10 @@
+-- Catalogue changes waiting to be published, written in the transaction of the change itself
+CREATE SEQUENCE IF NOT EXISTS catalogue_outbox_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS catalogue_outbox (
+    id BIGINT PRIMARY KEY DEFAULT nextval('catalogue_outbox_seq'),
+    restaurant_id INTEGER NOT NULL,
+    deleted_version BIGINT,
+    attempts INTEGER NOT NULL DEFAULT 0,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL
+);
@@ -0,0 +1,17 @@
+ALTER TABLE restaurant
+    ADD COLUMN IF NOT EXISTS latitude DOUBLE PRECISION,
+    ADD COLUMN IF NOT EXISTS longitude DOUBLE PRECISION;
+
+CREATE INDEX IF NOT EXISTS idx_restaurant_latitude_longitude ON restaurant (latitude, longitude);
+
+-- Geocode the seeded restaurants
+UPDATE restaurant SET latitude = 40.7128, longitude = -74.0060 WHERE name = 'Pizza Palace';
+UPDATE restaurant SET latitude = 40.5749, longitude = -73.9859 WHERE name = 'Sushi World';
+UPDATE restaurant SET latitude = 40.7549, longitude = -73.9840 WHERE name = 'Burger Barn';
+UPDATE restaurant SET latitude = 40.8448, longitude = -73.8648 WHERE name = 'Pasta House';
+UPDATE restaurant SET latitude = 40.7075, longitude = -74.0113 WHERE name = 'Taco Town';
+UPDATE restaurant SET latitude = 40.7505, longitude = -73.9934 WHERE name = 'Steakhouse 101';
+UPDATE restaurant SET latitude = 40.8296, longitude = -73.9262 WHERE name = 'Vegan Delights';
+UPDATE restaurant SET latitude = 40.7158, longitude = -73.9970 WHERE name = 'Dim Sum Dynasty';
+UPDATE restaurant SET latitude = 40.7142, longitude = -74.0087 WHERE name = 'Curry Corner';
+UPDATE restaurant SET latitude = 40.5800, longitude = -73.9680 WHERE name = 'Mediterranean Magic';
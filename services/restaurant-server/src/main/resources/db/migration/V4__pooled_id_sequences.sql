@@ -0,0 +1,9 @@
+-- Switch ID generation to the pooled sequences created in V1 (increment matches the entity allocationSize),
+-- starting them past the existing rows. Column defaults use the same sequences so plain SQL inserts cannot collide.
+ALTER SEQUENCE restaurant_seq INCREMENT BY 50;
+SELECT setval('restaurant_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM restaurant), false);
+ALTER TABLE restaurant ALTER COLUMN id SET DEFAULT nextval('restaurant_seq');
+
+ALTER SEQUENCE cuisine_types_seq INCREMENT BY 50;
+SELECT setval('cuisine_types_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM cuisine_types), false);
+ALTER TABLE cuisine_types ALTER COLUMN id SET DEFAULT nextval('cuisine_types_seq');
@@ -0,0 +1,17 @@
+ALTER TABLE cuisine_types ADD COLUMN IF NOT EXISTS available_quantity INTEGER CHECK (available_quantity >= 0);
+
+CREATE SEQUENCE IF NOT EXISTS cuisine_reservation_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS cuisine_reservation (
+    id BIGINT PRIMARY KEY DEFAULT nextval('cuisine_reservation_seq'),
+    reservation_id UUID NOT NULL,
+    restaurant_id INTEGER NOT NULL,
+    cuisine_id INTEGER NOT NULL,
+    quantity INTEGER NOT NULL CHECK (quantity > 0),
+    status VARCHAR(16) NOT NULL,
+    expires_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    created_date TIMESTAMP WITH TIME ZONE NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_cuisine_reservation_reservation_id ON cuisine_reservation (reservation_id);
+CREATE INDEX IF NOT EXISTS idx_cuisine_reservation_held_expiry ON cuisine_reservation (expires_at) WHERE status = 'HELD';
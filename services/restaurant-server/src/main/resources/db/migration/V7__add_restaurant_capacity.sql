@@ -0,0 +1 @@
+ALTER TABLE restaurant ADD COLUMN IF NOT EXISTS orders_per_minute INTEGER CHECK (orders_per_minute > 0);
@@ -0,0 +1,22 @@
+ALTER TABLE restaurant ADD COLUMN IF NOT EXISTS rating_count BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE restaurant ADD COLUMN IF NOT EXISTS rating_sum BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE restaurant ADD COLUMN IF NOT EXISTS decayed_rating_sum DOUBLE PRECISION NOT NULL DEFAULT 0;
+ALTER TABLE restaurant ADD COLUMN IF NOT EXISTS decayed_rating_weight DOUBLE PRECISION NOT NULL DEFAULT 0;
+ALTER TABLE restaurant ADD COLUMN IF NOT EXISTS rating_decayed_at TIMESTAMP WITH TIME ZONE;
+
+CREATE SEQUENCE IF NOT EXISTS restaurant_review_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS restaurant_review (
+    id INTEGER PRIMARY KEY DEFAULT nextval('restaurant_review_seq'),
+    restaurant_id INTEGER NOT NULL,
+    order_id INTEGER NOT NULL CONSTRAINT uk_restaurant_review_order UNIQUE,
+    customer_id INTEGER NOT NULL,
+    rating INTEGER NOT NULL CHECK (rating BETWEEN 1 AND 5),
+    comment VARCHAR(1000),
+    aggregated BOOLEAN NOT NULL DEFAULT FALSE,
+    created_date TIMESTAMP WITH TIME ZONE NOT NULL
+);
+
+-- Only reviews still waiting to be folded into the restaurant aggregates are indexed
+CREATE INDEX IF NOT EXISTS idx_restaurant_review_pending ON restaurant_review (id) WHERE aggregated = FALSE;
+CREATE INDEX IF NOT EXISTS idx_restaurant_review_restaurant ON restaurant_review (restaurant_id);
@@ -0,0 +1,5 @@
+CREATE TABLE IF NOT EXISTS dish_popularity_snapshot (
+    scope_id INTEGER PRIMARY KEY,
+    counts BYTEA NOT NULL,
+    updated_at TIMESTAMP WITH TIME ZONE NOT NULL
+);
@@ -0,0 +1,170 @@
+package com.devshaks.delivery.capacity;
+
+import com.devshaks.delivery.exceptions.KitchenAtCapacityException;
+import com.devshaks.delivery.restaurant.CuisinePurchaseRequest;
+import com.devshaks.delivery.restaurant.PurchaseMetrics;
+import com.devshaks.delivery.restaurant.RestaurantCapacity;
+import com.devshaks.delivery.restaurant.RestaurantChangedEvent;
+import com.devshaks.delivery.restaurant.RestaurantPurchaseRequest;
+import com.devshaks.delivery.restaurant.RestaurantRepository;
+import com.devshaks.delivery.restaurant.RestaurantService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class KitchenCapacityLimiterTests {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+    private static final int RESTAURANT_ID = 1;
+
+    private final RestaurantRepository restaurantRepository = mock(RestaurantRepository.class);
+    private final KitchenCapacityLimiter limiter = new KitchenCapacityLimiter(restaurantRepository, 5);
+
+    @Test
+    void admitsABurstThenRejectsUntilTheNextOrderIsDue() {
+        // One order a second, five at once
+        long now = 0;
+        KitchenCapacityLimiter.Bucket bucket = new KitchenCapacityLimiter.Bucket(60, 5, now);
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(bucket.tryAcquire(now)).isZero();
+        }
+
+        assertThat(bucket.tryAcquire(now)).isEqualTo(SECOND);
+        assertThat(bucket.tryAcquire(now + SECOND / 4)).isEqualTo(3 * SECOND / 4);
+    }
+
+    @Test
+    void refillsOneOrderPerInterval() {
+        long now = 0;
+        KitchenCapacityLimiter.Bucket bucket = new KitchenCapacityLimiter.Bucket(60, 5, now);
+        for (int i = 0; i < 5; i++) {
+            bucket.tryAcquire(now);
+        }
+
+        now += SECOND;
+        assertThat(bucket.tryAcquire(now)).isZero();
+        assertThat(bucket.tryAcquire(now)).isEqualTo(SECOND);
+
+        // An idle kitchen refills up to the burst, no further
+        now += 60 * SECOND;
+        for (int i = 0; i < 5; i++) {
+            assertThat(bucket.tryAcquire(now)).isZero();
+        }
+        assertThat(bucket.tryAcquire(now)).isPositive();
+    }
+
+    @Test
+    void releasedOrdersGiveTheirSlotBack() {
+        long now = 0;
+        KitchenCapacityLimiter.Bucket bucket = new KitchenCapacityLimiter.Bucket(60, 1, now);
+        assertThat(bucket.tryAcquire(now)).isZero();
+
+        bucket.release(now);
+
+        assertThat(bucket.tryAcquire(now)).isZero();
+        assertThat(bucket.tryAcquire(now)).isEqualTo(SECOND);
+        // Nothing to give back once the slot has refilled by itself
+        bucket.release(now + 2 * SECOND);
+        assertThat(bucket.tryAcquire(now + 2 * SECOND)).isZero();
+        assertThat(bucket.tryAcquire(now + 2 * SECOND)).isPositive();
+    }
+
+    @Test
+    void rejectionsCarryTheTimeUntilTheNextAdmission() {
+        load(capacity(RESTAURANT_ID, 60));
+        admit(5);
+
+        KitchenAtCapacityException rejection = catchThrowableOfType(() -> limiter.admit(RESTAURANT_ID),
+                KitchenAtCapacityException.class);
+
+        assertThat(rejection).isNotNull();
+        assertThat(rejection.getRetryAfter()).isPositive().isLessThanOrEqualTo(Duration.ofSeconds(1));
+    }
+
+    @Test
+    void releasedAdmissionsCanBeTakenAgain() {
+        load(capacity(RESTAURANT_ID, 60));
+        admit(5);
+
+        limiter.release(RESTAURANT_ID);
+
+        admit(1);
+        assertThatThrownBy(() -> limiter.admit(RESTAURANT_ID)).isInstanceOf(KitchenAtCapacityException.class);
+    }
+
+    @Test
+    void purchasesFailingForAnyReasonGiveTheirSlotBack() {
+        load(capacity(RESTAURANT_ID, 60));
+        RestaurantService restaurantService = new RestaurantService(null, restaurantRepository, null, null, null,
+                null, null, null, limiter, null, new PurchaseMetrics(new SimpleMeterRegistry()), null);
+        when(restaurantRepository.findById(RESTAURANT_ID))
+                .thenThrow(new DataAccessResourceFailureException("Database unavailable"));
+        RestaurantPurchaseRequest purchase = new RestaurantPurchaseRequest(RESTAURANT_ID,
+                List.of(new CuisinePurchaseRequest(7, 1)));
+
+        // Far more failures than the burst, none of which should use up the kitchen's capacity
+        for (int i = 0; i < 10; i++) {
+            assertThatThrownBy(() -> restaurantService.processPurchase(purchase, RESTAURANT_ID))
+                    .isInstanceOf(DataAccessResourceFailureException.class);
+        }
+
+        admit(5);
+    }
+
+    @Test
+    void aChangedLimitReplacesTheBucketAndAnUnchangedOneKeepsIt() {
+        load(capacity(RESTAURANT_ID, 60));
+        admit(5);
+
+        when(restaurantRepository.findCapacityById(RESTAURANT_ID)).thenReturn(Optional.of(capacity(RESTAURANT_ID, 60)));
+        limiter.onRestaurantChanged(new RestaurantChangedEvent(RESTAURANT_ID, false));
+        assertThatThrownBy(() -> limiter.admit(RESTAURANT_ID)).isInstanceOf(KitchenAtCapacityException.class);
+
+        when(restaurantRepository.findCapacityById(RESTAURANT_ID)).thenReturn(Optional.of(capacity(RESTAURANT_ID, 120)));
+        limiter.onRestaurantChanged(new RestaurantChangedEvent(RESTAURANT_ID, false));
+        admit(5);
+        assertThatThrownBy(() -> limiter.admit(RESTAURANT_ID)).isInstanceOf(KitchenAtCapacityException.class);
+
+        // Lifting the limit admits everything
+        when(restaurantRepository.findCapacityById(RESTAURANT_ID)).thenReturn(Optional.of(capacity(RESTAURANT_ID, null)));
+        limiter.onRestaurantChanged(new RestaurantChangedEvent(RESTAURANT_ID, false));
+        admit(100);
+    }
+
+    private void load(RestaurantCapacity... capacities) {
+        when(restaurantRepository.findAllCapacities()).thenReturn(List.of(capacities));
+        limiter.load();
+    }
+
+    private void admit(int orders) {
+        for (int i = 0; i < orders; i++) {
+            limiter.admit(RESTAURANT_ID);
+        }
+    }
+
+    private static RestaurantCapacity capacity(Integer id, Integer ordersPerMinute) {
+        return new RestaurantCapacity() {
+            @Override
+            public Integer getId() {
+                return id;
+            }
+
+            @Override
+            public Integer getOrdersPerMinute() {
+                return ordersPerMinute;
+            }
+        };
+    }
+}
@@ -0,0 +1,202 @@
+package com.devshaks.delivery.catalogue;
+
+import com.devshaks.delivery.cuisine.CuisineTypes;
+import com.devshaks.delivery.money.Money;
+import com.devshaks.delivery.restaurant.Restaurant;
+import com.devshaks.delivery.restaurant.RestaurantChangedEvent;
+import com.devshaks.delivery.restaurant.RestaurantRepository;
+import com.devshaks.delivery.restaurant.RestaurantsImportedEvent;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.errors.TimeoutException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Import;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * The catalogue outbox against a real database: entries commit or roll back with the
+ * change, and stay until the broker acknowledges the restaurant's event.
+ */
+@DataJpaTest(properties = {
+        "spring.cloud.config.enabled=false",
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "application.catalogue.poll-interval=PT1H"
+})
+@Import(CatalogueEventPublisher.class)
+// Each change commits for real, as the outbox entries are written just before commit
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CatalogueEventPublisherTests {
+
+    @Autowired
+    private CatalogueEventPublisher publisher;
+
+    @Autowired
+    private CatalogueOutboxRepository outboxRepository;
+
+    @Autowired
+    private RestaurantRepository restaurantRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @MockBean
+    private KafkaTemplate<String, RestaurantCatalogueEvent> kafkaTemplate;
+
+    @BeforeEach
+    void acknowledgeSends() {
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(CompletableFuture.completedFuture(null));
+    }
+
+    @AfterEach
+    void cleanUp() {
+        outboxRepository.deleteAll();
+        restaurantRepository.deleteAll();
+    }
+
+    @Test
+    void committedChangeIsPublishedAndItsEntryRemoved() {
+        Integer restaurantId = transactionTemplate.execute(status -> {
+            Integer id = restaurantRepository.save(restaurant("Mama's Kitchen")).getId();
+            eventPublisher.publishEvent(new RestaurantChangedEvent(id, false));
+            return id;
+        });
+        assertThat(outboxRepository.findAll()).singleElement()
+                .satisfies(entry -> assertThat(entry.getRestaurantId()).isEqualTo(restaurantId));
+
+        assertThat(publisher.publishPendingChanges()).isEqualTo(1);
+
+        ProducerRecord<String, RestaurantCatalogueEvent> record = sent(1).get(0);
+        assertThat(record.key()).isEqualTo(String.valueOf(restaurantId));
+        assertThat(record.value().name()).isEqualTo("Mama's Kitchen");
+        assertThat(record.value().version()).isNotNull();
+        assertThat(record.value().cuisineTypes()).hasSize(1);
+        assertThat(outboxRepository.count()).isZero();
+    }
+
+    @Test
+    void rolledBackChangeIsNeverPublished() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Integer id = restaurantRepository.save(restaurant("Mama's Kitchen")).getId();
+            eventPublisher.publishEvent(new RestaurantChangedEvent(id, false));
+            status.setRollbackOnly();
+        });
+
+        assertThat(outboxRepository.count()).isZero();
+        assertThat(publisher.publishPendingChanges()).isZero();
+        verify(kafkaTemplate, never()).send(any(ProducerRecord.class));
+    }
+
+    @Test
+    void unacknowledgedSendIsRetriedOnTheNextRun() {
+        Integer restaurantId = transactionTemplate.execute(status -> {
+            Integer id = restaurantRepository.save(restaurant("Mama's Kitchen")).getId();
+            eventPublisher.publishEvent(new RestaurantChangedEvent(id, false));
+            return id;
+        });
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
+                .thenReturn(CompletableFuture.failedFuture(new TimeoutException("Broker unavailable")));
+
+        assertThat(publisher.publishPendingChanges()).isZero();
+        assertThat(outboxRepository.findAll()).singleElement()
+                .satisfies(entry -> assertThat(entry.getAttempts()).isEqualTo(1));
+
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(CompletableFuture.completedFuture(null));
+        assertThat(publisher.publishPendingChanges()).isEqualTo(1);
+
+        assertThat(sent(2)).allSatisfy(record -> assertThat(record.key()).isEqualTo(String.valueOf(restaurantId)));
+        assertThat(outboxRepository.count()).isZero();
+    }
+
+    @Test
+    void changesToARestaurantSinceDeletedAreSentAsOneVersionedTombstone() {
+        Integer restaurantId = transactionTemplate.execute(status -> {
+            Integer id = restaurantRepository.save(restaurant("Mama's Kitchen")).getId();
+            eventPublisher.publishEvent(new RestaurantChangedEvent(id, false));
+            return id;
+        });
+        transactionTemplate.executeWithoutResult(status -> {
+            restaurantRepository.deleteById(restaurantId);
+            eventPublisher.publishEvent(new RestaurantChangedEvent(restaurantId, true, 7L));
+        });
+
+        assertThat(publisher.publishPendingChanges()).isEqualTo(1);
+
+        ProducerRecord<String, RestaurantCatalogueEvent> tombstone = sent(1).get(0);
+        assertThat(tombstone.key()).isEqualTo(String.valueOf(restaurantId));
+        assertThat(tombstone.value()).isNull();
+        assertThat(new String(tombstone.headers().lastHeader(CatalogueEventPublisher.VERSION_HEADER).value(),
+                StandardCharsets.UTF_8)).isEqualTo("7");
+        assertThat(outboxRepository.count()).isZero();
+    }
+
+    @Test
+    void importedChunkIsPublishedPerRestaurant() {
+        List<Integer> restaurantIds = transactionTemplate.execute(status -> {
+            List<Integer> ids = restaurantRepository.saveAll(List.of(restaurant("Mama's Kitchen"),
+                    restaurant("Papa's Grill"))).stream().map(Restaurant::getId).toList();
+            eventPublisher.publishEvent(new RestaurantsImportedEvent(ids));
+            return ids;
+        });
+
+        assertThat(publisher.publishPendingChanges()).isEqualTo(2);
+
+        assertThat(sent(2)).extracting(ProducerRecord::key)
+                .containsExactlyInAnyOrderElementsOf(restaurantIds.stream().map(String::valueOf).toList());
+        assertThat(outboxRepository.count()).isZero();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<ProducerRecord<String, RestaurantCatalogueEvent>> sent(int times) {
+        ArgumentCaptor<ProducerRecord<String, RestaurantCatalogueEvent>> records =
+                ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(kafkaTemplate, times(times)).send(records.capture());
+        return records.getAllValues();
+    }
+
+    private static Restaurant restaurant(String name) {
+        Restaurant restaurant = Restaurant.builder()
+                .name(name)
+                .address("1 Main St")
+                .contactNumber("555-000-0000")
+                .location("Downtown")
+                .description("Test restaurant")
+                .openingHours("09:00 - 21:00")
+                .rating(4.0)
+                .isOpen(true)
+                .priceRange("$$")
+                .cuisineTypes(new ArrayList<>())
+                .build();
+        restaurant.getCuisineTypes().add(CuisineTypes.builder()
+                .name("Dal")
+                .description("Slow-cooked lentils")
+                .price(Money.ofMinor(850))
+                .restaurant(restaurant)
+                .build());
+        return restaurant;
+    }
+}
@@ -0,0 +1,186 @@
+package com.devshaks.delivery.geo;
+
+import com.devshaks.delivery.restaurant.RestaurantChangedEvent;
+import com.devshaks.delivery.restaurant.RestaurantLocation;
+import com.devshaks.delivery.restaurant.RestaurantRepository;
+import com.devshaks.delivery.schedule.RestaurantScheduleIndex;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RestaurantGeoIndexTests {
+
+    private static final double ORIGIN_LATITUDE = 51.5074;
+    private static final double ORIGIN_LONGITUDE = -0.1278;
+    // Degrees of latitude per kilometre
+    private static final double KM = 1 / 111.32;
+    private static final String ALWAYS = "00:00-24:00";
+
+    private final RestaurantRepository restaurantRepository = mock(RestaurantRepository.class);
+    private final RestaurantGeoIndex geoIndex = new RestaurantGeoIndex(restaurantRepository,
+            new RestaurantScheduleIndex(restaurantRepository, "UTC"), 0.05);
+
+    @Test
+    void findsRestaurantsWithinTheRadiusNearestFirst() {
+        load(northOfOrigin(1, 2.5), northOfOrigin(2, 0.5), northOfOrigin(3, 1.5), northOfOrigin(4, 10));
+
+        assertThat(nearest(3.0, 10)).extracting(NearbyRestaurantResponse::restaurantId).containsExactly(2, 3, 1);
+        assertThat(nearest(3.0, 10).get(0).distanceKm()).isCloseTo(0.5, offset(0.01));
+    }
+
+    @Test
+    void keepsTheNearestWhenMoreMatchThanTheLimit() {
+        List<RestaurantLocation> locations = new ArrayList<>();
+        // Spread over several grid cells, in no particular order
+        for (int id = 1; id <= 40; id++) {
+            locations.add(northOfOrigin(id, ((id * 17) % 40) * 0.1));
+        }
+        load(locations.toArray(RestaurantLocation[]::new));
+
+        List<NearbyRestaurantResponse> nearest = nearest(5.0, 5);
+
+        assertThat(nearest).extracting(NearbyRestaurantResponse::distanceKm).isSorted();
+        assertThat(nearest).extracting(NearbyRestaurantResponse::restaurantId).containsExactly(40, 33, 26, 19, 12);
+    }
+
+    @Test
+    void movedRestaurantIsOnlyFoundAtItsNewLocation() {
+        load(northOfOrigin(1, 0.5));
+
+        change(northOfOrigin(1, 20));
+
+        assertThat(nearest(3.0, 10)).isEmpty();
+        assertThat(geoIndex.findNearest(ORIGIN_LATITUDE + 20 * KM, ORIGIN_LONGITUDE, 1.0, 10))
+                .extracting(NearbyRestaurantResponse::restaurantId).containsExactly(1);
+        assertThat(geoIndex.size()).isEqualTo(1);
+    }
+
+    @Test
+    void deletedRestaurantsAreRemoved() {
+        load(northOfOrigin(1, 0.5), northOfOrigin(2, 0.6));
+
+        geoIndex.onRestaurantChanged(new RestaurantChangedEvent(1, true));
+        // Gone from the database, or no longer geocoded
+        when(restaurantRepository.findLocationById(2)).thenReturn(Optional.empty());
+        geoIndex.onRestaurantChanged(new RestaurantChangedEvent(2, false));
+
+        assertThat(nearest(3.0, 10)).isEmpty();
+        assertThat(geoIndex.size()).isZero();
+    }
+
+    @Test
+    void closedRestaurantsAreSkipped() {
+        load(location(1, ORIGIN_LATITUDE + 0.5 * KM, ORIGIN_LONGITUDE, false, ALWAYS),
+                location(2, ORIGIN_LATITUDE + 0.6 * KM, ORIGIN_LONGITUDE, true, "Mon-Sun closed"),
+                northOfOrigin(3, 0.7));
+
+        assertThat(nearest(3.0, 10)).extracting(NearbyRestaurantResponse::restaurantId).containsExactly(3);
+    }
+
+    @Test
+    void concurrentMovesLeaveEachRestaurantInOneCell() throws Exception {
+        int restaurants = 4;
+        List<RestaurantLocation> near = new ArrayList<>();
+        List<RestaurantLocation> far = new ArrayList<>();
+        for (int id = 1; id <= restaurants; id++) {
+            near.add(northOfOrigin(id, 0.01 * id));
+            // In the neighbouring cell, so every move empties and refills cells
+            far.add(northOfOrigin(id, 6 + 0.01 * id));
+        }
+        load(near.toArray(RestaurantLocation[]::new));
+        Map<Integer, RestaurantLocation> current = new ConcurrentHashMap<>();
+        when(restaurantRepository.findLocationById(anyInt()))
+                .thenAnswer(invocation -> Optional.ofNullable(current.get(invocation.<Integer>getArgument(0))));
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> movers = new ArrayList<>();
+            for (int thread = 0; thread < 4; thread++) {
+                int offset = thread;
+                movers.add(executor.submit(() -> {
+                    for (int i = 0; i < 20_000; i++) {
+                        int id = (i + offset) % restaurants;
+                        RestaurantLocation location = (i + offset) % 2 == 0 ? far.get(id) : near.get(id);
+                        current.put(location.getId(), location);
+                        geoIndex.onRestaurantChanged(new RestaurantChangedEvent(location.getId(), false));
+                    }
+                }));
+            }
+            for (Future<?> mover : movers) {
+                mover.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        List<NearbyRestaurantResponse> all = nearest(20.0, 100);
+        assertThat(all).extracting(NearbyRestaurantResponse::restaurantId).doesNotHaveDuplicates().hasSize(restaurants);
+        assertThat(geoIndex.size()).isEqualTo(restaurants);
+    }
+
+    private List<NearbyRestaurantResponse> nearest(double radiusKm, int limit) {
+        return geoIndex.findNearest(ORIGIN_LATITUDE, ORIGIN_LONGITUDE, radiusKm, limit);
+    }
+
+    private void load(RestaurantLocation... locations) {
+        when(restaurantRepository.findAllLocations()).thenReturn(List.of(locations));
+        geoIndex.load();
+    }
+
+    private void change(RestaurantLocation location) {
+        when(restaurantRepository.findLocationById(location.getId())).thenReturn(Optional.of(location));
+        geoIndex.onRestaurantChanged(new RestaurantChangedEvent(location.getId(), false));
+    }
+
+    private static RestaurantLocation northOfOrigin(int id, double km) {
+        return location(id, ORIGIN_LATITUDE + km * KM, ORIGIN_LONGITUDE, true, ALWAYS);
+    }
+
+    private static RestaurantLocation location(int id, double latitude, double longitude, boolean open,
+            String openingHours) {
+        return new RestaurantLocation() {
+            @Override
+            public Integer getId() {
+                return id;
+            }
+
+            @Override
+            public String getName() {
+                return "Restaurant " + id;
+            }
+
+            @Override
+            public Double getLatitude() {
+                return latitude;
+            }
+
+            @Override
+            public Double getLongitude() {
+                return longitude;
+            }
+
+            @Override
+            public Boolean getIsOpen() {
+                return open;
+            }
+
+            @Override
+            public String getOpeningHours() {
+                return openingHours;
+            }
+        };
+    }
+}
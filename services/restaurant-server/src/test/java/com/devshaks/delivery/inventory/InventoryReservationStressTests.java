@@ -0,0 +1,244 @@
+package com.devshaks.delivery.inventory;
+
+import com.devshaks.delivery.cuisine.CuisineTypes;
+import com.devshaks.delivery.cuisine.CuisineTypesRepository;
+import com.devshaks.delivery.exceptions.CuisineSoldOutException;
+import com.devshaks.delivery.exceptions.ReservationExpiredException;
+import com.devshaks.delivery.money.Money;
+import com.devshaks.delivery.restaurant.Restaurant;
+import com.devshaks.delivery.restaurant.RestaurantRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Hammers one hot dish with thousands of concurrent purchases and asserts that exactly
+ * its stock is sold. Half the purchases go through a second service instance with its
+ * own lock stripes, as another replica would, so only the conditional UPDATE stands
+ * between them and overselling.
+ */
+@DataJpaTest(properties = {
+        "spring.cloud.config.enabled=false",
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@Import(InventoryReservationService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class InventoryReservationStressTests {
+
+    private static final int STOCK = 150;
+    private static final int PURCHASES = 3000;
+    private static final int THREADS = 64;
+
+    @Autowired
+    private InventoryReservationService inventoryReservationService;
+
+    @Autowired
+    private RestaurantRepository restaurantRepository;
+
+    @Autowired
+    private CuisineTypesRepository cuisineTypesRepository;
+
+    @Autowired
+    private CuisineReservationRepository reservationRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Integer restaurantId;
+    private Integer cuisineId;
+
+    @BeforeEach
+    void createHotDish() {
+        var restaurant = restaurantRepository.save(Restaurant.builder()
+                .name("Hot Dish Kitchen")
+                .address("1 Main St")
+                .contactNumber("555-000-0001")
+                .location("Downtown")
+                .description("Sells out every lunchtime")
+                .openingHours("09:00 - 21:00")
+                .rating(4.0)
+                .isOpen(true)
+                .priceRange("$$")
+                .build());
+        var cuisine = cuisineTypesRepository.save(CuisineTypes.builder()
+                .name("Limited Ramen")
+                .description("Only so many bowls a day")
+                .price(Money.ofMinor(1000))
+                .restaurant(restaurant)
+                .build());
+        restaurantId = restaurant.getId();
+        cuisineId = cuisine.getId();
+        inventoryReservationService.updateStock(restaurantId, cuisineId, STOCK);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        reservationRepository.deleteAllInBatch();
+        cuisineTypesRepository.deleteAllInBatch();
+        restaurantRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void concurrentPurchasesOfOneHotDishNeverOversell() throws Exception {
+        var otherReplica = new InventoryReservationService(cuisineTypesRepository, reservationRepository,
+                transactionTemplate, event -> { }, Duration.ofMinutes(5));
+        var reserved = new AtomicInteger();
+        var soldOut = new AtomicInteger();
+        var start = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> purchases = new ArrayList<>(PURCHASES);
+        for (int i = 0; i < PURCHASES; i++) {
+            var service = i % 2 == 0 ? inventoryReservationService : otherReplica;
+            purchases.add(executor.submit(() -> {
+                start.await();
+                try {
+                    service.reserve(restaurantId, new TreeMap<>(Map.of(cuisineId, 1)), Map.of());
+                    reserved.incrementAndGet();
+                } catch (CuisineSoldOutException e) {
+                    soldOut.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> purchase : purchases) {
+            purchase.get();
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(reserved).hasValue(STOCK);
+        assertThat(soldOut).hasValue(PURCHASES - STOCK);
+        assertThat(availableQuantity()).isZero();
+        assertThat(reservationRepository.count()).isEqualTo(STOCK);
+    }
+
+    @Test
+    void nonPositiveQuantitiesNeverPutStockBack() throws Exception {
+        var reserved = new AtomicInteger();
+        var rejected = new AtomicInteger();
+        var soldOut = new AtomicInteger();
+        var start = new CountDownLatch(1);
+
+        // Every other purchase tries to take a negative or zero quantity while the dish sells out
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> purchases = new ArrayList<>(PURCHASES);
+        for (int i = 0; i < PURCHASES; i++) {
+            int quantity = i % 2 == 0 ? 1 : -(i % 3);
+            purchases.add(executor.submit(() -> {
+                start.await();
+                try {
+                    inventoryReservationService.reserve(restaurantId, new TreeMap<>(Map.of(cuisineId, quantity)),
+                            Map.of());
+                    reserved.incrementAndGet();
+                } catch (IllegalArgumentException e) {
+                    rejected.incrementAndGet();
+                } catch (CuisineSoldOutException e) {
+                    soldOut.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> purchase : purchases) {
+            purchase.get();
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(rejected).hasValue(PURCHASES / 2);
+        assertThat(reserved).hasValue(STOCK);
+        assertThat(soldOut).hasValue(PURCHASES / 2 - STOCK);
+        assertThat(availableQuantity()).isZero();
+
+        // Held alongside, an unlimited dish is checked too
+        assertThatThrownBy(() -> inventoryReservationService.reserve(restaurantId, new TreeMap<>(Map.of(cuisineId, 1)),
+                Map.of(cuisineId + 1, 0))).isInstanceOf(IllegalArgumentException.class);
+        assertThat(reservationRepository.count()).isEqualTo(STOCK);
+    }
+
+    @Test
+    void expiredReservationsReturnTheirStockAndCannotBeConfirmed() {
+        var shortLived = new InventoryReservationService(cuisineTypesRepository, reservationRepository,
+                transactionTemplate, event -> { }, Duration.ofMillis(-1));
+        var reservation = shortLived.reserve(restaurantId, new TreeMap<>(Map.of(cuisineId, 3)), Map.of());
+        assertThat(availableQuantity()).isEqualTo(STOCK - 3);
+
+        assertThat(inventoryReservationService.expireReservations()).isEqualTo(1);
+        assertThat(availableQuantity()).isEqualTo(STOCK);
+        assertThatThrownBy(() -> inventoryReservationService.confirm(reservation.reservationId()))
+                .isInstanceOf(ReservationExpiredException.class);
+
+        // Expiry already returned the stock, so a late release must not return it twice
+        inventoryReservationService.release(reservation.reservationId());
+        assertThat(availableQuantity()).isEqualTo(STOCK);
+    }
+
+    @Test
+    void confirmedReservationsKeepTheirStockUntilReleased() {
+        var reservation = inventoryReservationService.reserve(restaurantId, new TreeMap<>(Map.of(cuisineId, 2)), Map.of());
+        inventoryReservationService.confirm(reservation.reservationId());
+        inventoryReservationService.confirm(reservation.reservationId());
+
+        assertThat(inventoryReservationService.expireReservations()).isZero();
+        assertThat(availableQuantity()).isEqualTo(STOCK - 2);
+
+        inventoryReservationService.release(reservation.reservationId());
+        inventoryReservationService.release(reservation.reservationId());
+        assertThat(availableQuantity()).isEqualTo(STOCK);
+    }
+
+    @Test
+    void unlimitedDishesAreHeldWithoutStockAndConfirmedWithThePurchase() {
+        Integer sideId = cuisineTypesRepository.save(CuisineTypes.builder()
+                .name("Gyoza")
+                .description("Never runs out")
+                .price(Money.ofMinor(450))
+                .restaurant(restaurantRepository.findById(restaurantId).orElseThrow())
+                .build()).getId();
+        List<Object> published = new ArrayList<>();
+        var publishing = new InventoryReservationService(cuisineTypesRepository, reservationRepository,
+                transactionTemplate, published::add, Duration.ofMinutes(5));
+
+        var reservation = publishing.reserve(restaurantId, new TreeMap<>(Map.of(cuisineId, 2)), Map.of(sideId, 3));
+        // Not a Spring proxy, so it runs in a transaction of its own
+        transactionTemplate.executeWithoutResult(status -> publishing.confirm(reservation.reservationId()));
+        transactionTemplate.executeWithoutResult(status -> publishing.confirm(reservation.reservationId()));
+
+        assertThat(published).containsExactly(new ReservationConfirmedEvent(reservation.reservationId(), restaurantId,
+                Map.of(cuisineId, 2, sideId, 3)));
+
+        // Limited since the purchase: the side took no stock, so its release returns none
+        inventoryReservationService.updateStock(restaurantId, sideId, 10);
+        inventoryReservationService.release(reservation.reservationId());
+        assertThat(availableQuantity()).isEqualTo(STOCK);
+        assertThat(cuisineTypesRepository.findById(sideId).orElseThrow().getAvailableQuantity()).isEqualTo(10);
+    }
+
+    private Integer availableQuantity() {
+        return cuisineTypesRepository.findById(cuisineId).orElseThrow().getAvailableQuantity();
+    }
+}
@@ -0,0 +1,48 @@
+package com.devshaks.delivery.money;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Currency;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MoneyTests {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void pricesLinesExactly() {
+        Money total = Money.of(new BigDecimal("0.10")).times(3).plus(Money.of(new BigDecimal("12.5")));
+
+        assertThat(total).isEqualTo(Money.ofMinor(1280));
+        assertThat(total.toBigDecimal()).isEqualByComparingTo("12.80");
+    }
+
+    @Test
+    void rejectsOverflowAndSubMinorAmounts() {
+        assertThatThrownBy(() -> Money.ofMinor(Long.MAX_VALUE).plus(Money.ofMinor(1)))
+                .isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> Money.ofMinor(Long.MAX_VALUE / 2).times(3))
+                .isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> Money.of(new BigDecimal("9.999")))
+                .isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    void rejectsMixedCurrencies() {
+        Money euros = Money.of(BigDecimal.ONE, Currency.getInstance("EUR"));
+
+        assertThatThrownBy(() -> Money.ofMinor(100).plus(euros))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void keepsTheDecimalWireFormat() throws Exception {
+        assertThat(objectMapper.writeValueAsString(Money.ofMinor(1250))).isEqualTo("12.50");
+        assertThat(objectMapper.readValue("12.5", Money.class)).isEqualTo(Money.ofMinor(1250));
+        assertThat(objectMapper.readValue("7", Money.class)).isEqualTo(Money.ofMinor(700));
+    }
+}
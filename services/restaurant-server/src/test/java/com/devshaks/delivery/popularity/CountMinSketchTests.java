@@ -0,0 +1,85 @@
+package com.devshaks.delivery.popularity;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CountMinSketchTests {
+
+    @Test
+    void neverUndercountsAndStaysWithinTheErrorBound() {
+        int width = 256;
+        int depth = 4;
+        CountMinSketch sketch = new CountMinSketch(width, depth);
+        long[] counts = new long[5_000];
+        long total = 0;
+        Random random = new Random(7);
+        for (int i = 0; i < 100_000; i++) {
+            // Skewed, as orders are: a few dishes take most of them
+            int key = (int) (counts.length * Math.pow(random.nextDouble(), 3));
+            sketch.add(key, 1);
+            counts[key]++;
+            total++;
+        }
+
+        double bound = Math.E / width * total;
+        int withinBound = 0;
+        for (int key = 0; key < counts.length; key++) {
+            long estimate = sketch.estimate(key);
+            assertThat(estimate).isGreaterThanOrEqualTo(counts[key]);
+            if (estimate - counts[key] <= bound) {
+                withinBound++;
+            }
+        }
+        // Each estimate is within e/width of the total with probability 1 - e^-depth
+        assertThat((double) withinBound / counts.length).isGreaterThanOrEqualTo(1 - Math.exp(-depth));
+    }
+
+    @Test
+    void mergedSketchesCountAsOne() {
+        CountMinSketch left = new CountMinSketch(64, 4);
+        CountMinSketch right = new CountMinSketch(64, 4);
+        CountMinSketch both = new CountMinSketch(64, 4);
+        for (int key = 0; key < 200; key++) {
+            left.add(key, key);
+            right.add(key, 2L * key);
+            both.add(key, 3L * key);
+        }
+
+        left.merge(right);
+
+        for (int key = 0; key < 200; key++) {
+            assertThat(left.estimate(key)).isEqualTo(both.estimate(key));
+        }
+        assertThatThrownBy(() -> left.merge(new CountMinSketch(128, 4)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void roundTripsThroughBytes() {
+        CountMinSketch sketch = new CountMinSketch(32, 3);
+        sketch.add(11, 5);
+        sketch.add(42, 9);
+        ByteBuffer buffer = ByteBuffer.allocate(sketch.serializedSize());
+        sketch.writeTo(buffer);
+
+        CountMinSketch read = CountMinSketch.readFrom(buffer.flip());
+
+        assertThat(read.width()).isEqualTo(32);
+        assertThat(read.depth()).isEqualTo(3);
+        assertThat(read.estimate(11)).isEqualTo(sketch.estimate(11));
+        assertThat(read.estimate(42)).isEqualTo(sketch.estimate(42));
+        assertThat(new CountMinSketch(32, 3).isEmpty()).isTrue();
+        assertThat(read.isEmpty()).isFalse();
+    }
+
+    @Test
+    void rejectsWidthsThatAreNotPowersOfTwo() {
+        assertThatThrownBy(() -> new CountMinSketch(100, 4)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new CountMinSketch(64, 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
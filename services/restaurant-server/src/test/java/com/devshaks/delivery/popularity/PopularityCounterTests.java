@@ -0,0 +1,106 @@
+package com.devshaks.delivery.popularity;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PopularityCounterTests {
+
+    // Wide enough that a handful of dishes never collide, so estimates are exact
+    private static final int WIDTH = 1024;
+    private static final int DEPTH = 4;
+    private static final int RESTAURANT_ID = 1;
+
+    @Test
+    void ranksTheMostOrderedDishesFirst() {
+        PopularityCounter counter = new PopularityCounter(WIDTH, DEPTH, 3);
+        record(counter, 10, 2);
+        record(counter, 20, 7);
+        record(counter, 30, 4);
+
+        assertThat(counter.top(3)).extracting(PopularDishResponse::cuisineId).containsExactly(20, 30, 10);
+        assertThat(counter.top(3)).extracting(PopularDishResponse::estimatedOrders).containsExactly(7L, 4L, 2L);
+        assertThat(counter.top(1)).extracting(PopularDishResponse::name).containsExactly("Dish 20");
+    }
+
+    @Test
+    void aNewDishEvictsTheWeakestCandidateOnceItOvertakesIt() {
+        PopularityCounter counter = new PopularityCounter(WIDTH, DEPTH, 3);
+        record(counter, 10, 5);
+        record(counter, 20, 4);
+        record(counter, 30, 3);
+
+        record(counter, 40, 3);
+        assertThat(counter.top(3)).extracting(PopularDishResponse::cuisineId).containsExactly(10, 20, 30);
+
+        record(counter, 40, 1);
+        assertThat(counter.top(3)).extracting(PopularDishResponse::cuisineId).containsExactly(10, 20, 40);
+    }
+
+    @Test
+    void deltasMergeIntoStoredCountsWithoutLosingLaterIncrements() {
+        PopularityCounter instance = new PopularityCounter(WIDTH, DEPTH, 3);
+        PopularityCounter otherInstance = new PopularityCounter(WIDTH, DEPTH, 3);
+        PopularityCounter stored = new PopularityCounter(WIDTH, DEPTH, 3);
+        record(instance, 10, 4);
+        record(otherInstance, 10, 2);
+        record(otherInstance, 20, 5);
+
+        stored.absorb(instance.drainPending());
+        stored.absorb(otherInstance.drainPending());
+        assertThat(instance.drainPending()).isNull();
+
+        // Recorded between draining and adopting the merged counts
+        record(instance, 20, 2);
+        instance.replaceTotal(stored);
+
+        assertThat(instance.top(3)).extracting(PopularDishResponse::cuisineId).containsExactly(20, 10);
+        assertThat(instance.top(3)).extracting(PopularDishResponse::estimatedOrders).containsExactly(7L, 6L);
+        // Only the increments since the drain are still pending
+        assertThat(instance.drainPending().sketch().estimate(20)).isEqualTo(2);
+    }
+
+    @Test
+    void aFailedSnapshotPutsItsDeltaBack() {
+        PopularityCounter counter = new PopularityCounter(WIDTH, DEPTH, 3);
+        record(counter, 10, 3);
+
+        PopularityCounter.Delta delta = counter.drainPending();
+        record(counter, 10, 1);
+        counter.restorePending(delta);
+
+        assertThat(counter.drainPending().sketch().estimate(10)).isEqualTo(4);
+    }
+
+    @Test
+    void roundTripsThroughBytesKeepingTheTopK() {
+        PopularityCounter counter = new PopularityCounter(WIDTH, DEPTH, 2);
+        record(counter, 10, 3);
+        record(counter, 20, 5);
+
+        PopularityCounter read = PopularityCounter.fromBytes(counter.toBytes(), 2);
+
+        assertThat(read.hasShape(WIDTH, DEPTH)).isTrue();
+        assertThat(read.top(2)).isEqualTo(counter.top(2));
+        // Reloaded with a smaller top-K, only the strongest candidates are kept
+        assertThat(PopularityCounter.fromBytes(counter.toBytes(), 1).top(2))
+                .extracting(PopularDishResponse::cuisineId).containsExactly(20);
+    }
+
+    @Test
+    void removingARestaurantDropsItsDishes() {
+        PopularityCounter global = new PopularityCounter(WIDTH, DEPTH, 3);
+        global.record(10, 1, "Dish 10", 3);
+        global.record(20, 2, "Dish 20", 5);
+
+        global.removeRestaurant(2);
+
+        assertThat(global.top(3)).extracting(PopularDishResponse::cuisineId).containsExactly(10);
+    }
+
+    private static void record(PopularityCounter counter, int cuisineId, int orders) {
+        for (int i = 0; i < orders; i++) {
+            counter.record(cuisineId, RESTAURANT_ID, "Dish " + cuisineId, 1);
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.devshaks.delivery.restaurant;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The HTTP contract of RestaurantController over a mocked service: request validation,
+ * the status codes it maps to and conditional GETs against the in-memory ETags.
+ */
+@WebMvcTest(controllers = RestaurantController.class, properties = "spring.cloud.config.enabled=false")
+@Import({ RestaurantETags.class, RestaurantControllerTests.MetricsSupport.class })
+class RestaurantControllerTests {
+
+    // The ETags outlive each test, so each conditional GET test reads a restaurant of its own
+    private static final int UNCHANGED_ID = 1;
+    private static final int CHANGED_LOCALLY_ID = 2;
+    private static final int CHANGED_REMOTELY_ID = 3;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private RestaurantService restaurantService;
+
+    @MockBean
+    private RestaurantImportService restaurantImportService;
+
+    @MockBean
+    private RestaurantRepository restaurantRepository;
+
+    @Autowired
+    private RestaurantETags restaurantETags;
+
+    @Test
+    void rejectsCuisinePricesWithMoreThanTwoDecimalsOnCreate() throws Exception {
+        mockMvc.perform(post("/api/v1/restaurants")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(restaurant("12.505")))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors['cuisineTypes[0].price']")
+                        .value("Cuisine Price must have at most 2 decimal places"));
+
+        verifyNoInteractions(restaurantService);
+    }
+
+    @Test
+    void rejectsCuisinePricesWithMoreThanTwoDecimalsOnUpdate() throws Exception {
+        mockMvc.perform(put("/api/v1/restaurants/update/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(restaurant("12.505")))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(restaurantService);
+    }
+
+    @Test
+    void acceptsCuisinePricesInWholePence() throws Exception {
+        when(restaurantService.createRestaurant(any())).thenReturn(1);
+
+        mockMvc.perform(post("/api/v1/restaurants")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(restaurant("12.50")))
+                .andExpect(status().isCreated());
+    }
+
+    @Test
+    void rejectsPurchasesOfNonPositiveQuantities() throws Exception {
+        mockMvc.perform(post("/api/v1/restaurants/1/purchase")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"restaurantId\":1,\"items\":[{\"cuisineId\":7,\"quantity\":-2}]}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors['items[0].quantity']").exists());
+
+        verifyNoInteractions(restaurantService);
+    }
+
+    @Test
+    void answersAKnownVersionWithNotModifiedWithoutReadingTheRestaurant() throws Exception {
+        stubRestaurant(UNCHANGED_ID, 3L);
+        mockMvc.perform(get("/api/v1/restaurants/{id}", UNCHANGED_ID))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""));
+
+        mockMvc.perform(conditionalGet(UNCHANGED_ID, "\"3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""));
+
+        verify(restaurantService, times(1)).findRestaurantById(UNCHANGED_ID);
+    }
+
+    @Test
+    void answersTheNewMenuAfterALocalChange() throws Exception {
+        stubRestaurant(CHANGED_LOCALLY_ID, 3L);
+        mockMvc.perform(get("/api/v1/restaurants/{id}", CHANGED_LOCALLY_ID)).andExpect(status().isOk());
+
+        stubRestaurant(CHANGED_LOCALLY_ID, 4L);
+        when(restaurantRepository.findVersionById(CHANGED_LOCALLY_ID)).thenReturn(Optional.of(4L));
+        restaurantETags.onRestaurantChanged(new RestaurantChangedEvent(CHANGED_LOCALLY_ID, false));
+
+        mockMvc.perform(conditionalGet(CHANGED_LOCALLY_ID, "\"3\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4\""))
+                .andExpect(jsonPath("$.version").value(4));
+    }
+
+    @Test
+    void answersTheNewMenuAfterAChangeOnAnotherInstance() throws Exception {
+        stubRestaurant(CHANGED_REMOTELY_ID, 3L);
+        mockMvc.perform(get("/api/v1/restaurants/{id}", CHANGED_REMOTELY_ID)).andExpect(status().isOk());
+
+        stubRestaurant(CHANGED_REMOTELY_ID, 4L);
+        restaurantETags.onCatalogueEvent(new ConsumerRecord<>("restaurant-catalogue", 0, 0,
+                String.valueOf(CHANGED_REMOTELY_ID), "{\"id\":3,\"version\":4}"));
+
+        mockMvc.perform(conditionalGet(CHANGED_REMOTELY_ID, "\"3\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4\""));
+    }
+
+    private void stubRestaurant(int id, long version) {
+        when(restaurantService.findRestaurantById(id)).thenReturn(new RestaurantResponse(id, "Mama's Kitchen",
+                "1 Main St", "555-000-0000", "Downtown", 51.52, -0.08, "Test restaurant", "09:00-21:00", 4.0, true,
+                "$$", List.of(), version));
+    }
+
+    private static MockHttpServletRequestBuilder conditionalGet(int id, String ifNoneMatch) {
+        return get("/api/v1/restaurants/{id}", id).header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+    }
+
+    private static String restaurant(String price) {
+        return """
+                {"name":"Mama's Kitchen","address":"1 Main St","contactNumber":"555-000-0000","location":"Downtown",\
+                "latitude":51.52,"longitude":-0.08,"description":"Test restaurant","openingHours":"09:00-21:00",\
+                "rating":4.0,"isOpen":true,"priceRange":"$$",\
+                "cuisineTypes":[{"name":"Dal","description":"Slow-cooked lentils","price":%s}]}\
+                """.formatted(price);
+    }
+
+    @TestConfiguration
+    static class MetricsSupport {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.devshaks.delivery.restaurant;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RestaurantETagsTests {
+
+    private static final int RESTAURANT_ID = 1;
+
+    private final RestaurantRepository restaurantRepository = mock(RestaurantRepository.class);
+    private final RestaurantETags restaurantETags = eTags(Duration.ofMinutes(1));
+
+    @Test
+    void matchesStrongWeakWildcardAndListedETags() {
+        assertThat(RestaurantETags.matches("\"3\"", 3L)).isTrue();
+        assertThat(RestaurantETags.matches("W/\"3\"", 3L)).isTrue();
+        assertThat(RestaurantETags.matches("*", 3L)).isTrue();
+        assertThat(RestaurantETags.matches("\"1\", W/\"2\" ,\"3\"", 3L)).isTrue();
+
+        assertThat(RestaurantETags.matches("\"4\"", 3L)).isFalse();
+        assertThat(RestaurantETags.matches("3", 3L)).isFalse();
+        assertThat(RestaurantETags.matches("\"1\", \"2\"", 3L)).isFalse();
+        assertThat(RestaurantETags.matches(null, 3L)).isFalse();
+        assertThat(RestaurantETags.matches("*", null)).isFalse();
+    }
+
+    @Test
+    void keepsTheNewestVersionRecorded() {
+        restaurantETags.record(RESTAURANT_ID, 4);
+        restaurantETags.record(RESTAURANT_ID, 3);
+
+        assertThat(restaurantETags.knownVersion(RESTAURANT_ID)).isEqualTo(4L);
+    }
+
+    @Test
+    void localChangesReplaceOrForgetTheVersion() {
+        restaurantETags.record(RESTAURANT_ID, 3);
+        when(restaurantRepository.findVersionById(RESTAURANT_ID)).thenReturn(Optional.of(4L));
+
+        restaurantETags.onRestaurantChanged(new RestaurantChangedEvent(RESTAURANT_ID, false));
+        assertThat(restaurantETags.knownVersion(RESTAURANT_ID)).isEqualTo(4L);
+
+        restaurantETags.onRestaurantChanged(new RestaurantChangedEvent(RESTAURANT_ID, true));
+        assertThat(restaurantETags.knownVersion(RESTAURANT_ID)).isNull();
+    }
+
+    @Test
+    void changesCommittedOnOtherInstancesArriveThroughTheCatalogueTopic() {
+        restaurantETags.record(RESTAURANT_ID, 3);
+
+        restaurantETags.onCatalogueEvent(catalogueRecord("{\"id\":1,\"version\":4,\"name\":\"Mama's Kitchen\"}"));
+        assertThat(restaurantETags.knownVersion(RESTAURANT_ID)).isEqualTo(4L);
+
+        // A stale event does not roll the version back
+        restaurantETags.onCatalogueEvent(catalogueRecord("{\"id\":1,\"version\":3}"));
+        assertThat(restaurantETags.knownVersion(RESTAURANT_ID)).isEqualTo(4L);
+
+        restaurantETags.onCatalogueEvent(catalogueRecord(null));
+        assertThat(restaurantETags.knownVersion(RESTAURANT_ID)).isNull();
+
+        restaurantETags.record(RESTAURANT_ID, 5);
+        restaurantETags.onCatalogueEvent(catalogueRecord("not json"));
+        assertThat(restaurantETags.knownVersion(RESTAURANT_ID)).isNull();
+    }
+
+    @Test
+    void versionsAreForgottenOnceTheTtlPasses() throws InterruptedException {
+        RestaurantETags shortLived = eTags(Duration.ofMillis(50));
+        shortLived.record(RESTAURANT_ID, 3);
+        assertThat(shortLived.knownVersion(RESTAURANT_ID)).isEqualTo(3L);
+
+        Thread.sleep(150);
+
+        assertThat(shortLived.knownVersion(RESTAURANT_ID)).isNull();
+    }
+
+    private RestaurantETags eTags(Duration versionTtl) {
+        return new RestaurantETags(restaurantRepository, new ObjectMapper(), new SimpleMeterRegistry(), versionTtl);
+    }
+
+    private static ConsumerRecord<String, String> catalogueRecord(String value) {
+        return new ConsumerRecord<>("restaurant-catalogue", 0, 0, String.valueOf(RESTAURANT_ID), value);
+    }
+}
@@ -0,0 +1,217 @@
+package com.devshaks.delivery.restaurant;
+
+import com.devshaks.delivery.catalogue.CatalogueEventPublisher;
+import com.devshaks.delivery.catalogue.RestaurantCatalogueEvent;
+import com.devshaks.delivery.geo.RestaurantGeoIndex;
+import com.devshaks.delivery.schedule.RestaurantScheduleIndex;
+import com.devshaks.delivery.search.RestaurantSearchIndex;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Imports NDJSON uploads against H2 with the after-commit listeners in place: per-row
+ * errors are reported by line, good rows still land, and each committed chunk reaches
+ * the in-memory views as one event loaded with one query per listener, and the catalogue
+ * outbox with an entry per restaurant.
+ */
+@DataJpaTest(showSql = false, properties = {
+        "spring.cloud.config.enabled=false",
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import({ RestaurantImportService.class, RestaurantMapper.class, RestaurantGeoIndex.class,
+        RestaurantScheduleIndex.class, RestaurantSearchIndex.class, CatalogueEventPublisher.class,
+        RestaurantImportServiceTests.ImportSupport.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RestaurantImportServiceTests {
+
+    // Listeners loading the imported chunk: geo, schedule and search; the catalogue only queues it
+    private static final int IMPORT_LISTENERS = 3;
+
+    @MockBean
+    private KafkaTemplate<String, RestaurantCatalogueEvent> kafkaTemplate;
+
+    @Autowired
+    private RestaurantImportService restaurantImportService;
+
+    @Autowired
+    private RestaurantGeoIndex restaurantGeoIndex;
+
+    @Autowired
+    private RestaurantScheduleIndex restaurantScheduleIndex;
+
+    @Autowired
+    private RestaurantSearchIndex restaurantSearchIndex;
+
+    @Autowired
+    private ImportedEvents importedEvents;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private int indexedBefore;
+
+    // The indexes outlive each test's rows, so assertions on them are relative
+    @BeforeEach
+    void setUp() {
+        importedEvents.events.clear();
+        indexedBefore = restaurantGeoIndex.size();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DELETE FROM catalogue_outbox");
+        jdbcTemplate.execute("DELETE FROM cuisine_types");
+        jdbcTemplate.execute("DELETE FROM restaurant");
+    }
+
+    @Test
+    void importsRowsAndIndexesThemAfterCommit() throws IOException {
+        RestaurantImportResponse response = importLines(
+                row("Le Bistro", "Mon-Sun 09:00-21:00"),
+                row("Late Night Noodles", "Mon-Sun 18:00-02:00"));
+
+        assertThat(response).isEqualTo(new RestaurantImportResponse(2, 0, List.of()));
+        assertThat(restaurantGeoIndex.size()).isEqualTo(indexedBefore + 2);
+        assertThat(restaurantScheduleIndex.findOpenAt(LocalDateTime.of(2024, 1, 1, 12, 0)))
+                .extracting(RestaurantFavouriteResponse::restaurantName)
+                .contains("Le Bistro")
+                .doesNotContain("Late Night Noodles");
+        assertThat(restaurantSearchIndex.search("bistro", 0, 10).totalMatches()).isEqualTo(1);
+        assertThat(queuedForCatalogue()).isEqualTo(2);
+    }
+
+    @Test
+    void reportsEachFailedRowAndImportsTheRest() throws IOException {
+        RestaurantImportResponse response = importLines(
+                row("Mama's Kitchen", "09:00-21:00"),
+                "{\"name\": ",
+                row("", "09:00-21:00"),
+                row("Chez Nous", "9am-5pm"),
+                "",
+                // Passes validation but not the name column, so the chunk is retried row by row
+                row("X".repeat(300), "09:00-21:00"),
+                row("Chez Nous", "09:00-21:00"));
+
+        assertThat(response.imported()).isEqualTo(2);
+        assertThat(response.failed()).isEqualTo(4);
+        assertThat(response.errors()).extracting(RestaurantImportError::line).containsExactly(2L, 3L, 4L, 6L);
+        assertThat(response.errors().get(0).message()).startsWith("Malformed JSON");
+        assertThat(response.errors().get(1).message()).isEqualTo("name: Restaurant name is required");
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM restaurant", Integer.class)).isEqualTo(2);
+        // Only the committed rows are announced
+        assertThat(importedEvents.restaurantIds()).hasSize(2);
+        assertThat(restaurantGeoIndex.size()).isEqualTo(indexedBefore + 2);
+    }
+
+    @Test
+    void rejectsRowsWithCuisinePricesThatAreNotWholePence() throws IOException {
+        RestaurantImportResponse response = importLines(
+                row("Mama's Kitchen", "09:00-21:00").replace("7.45", "7.455"),
+                row("Chez Nous", "09:00-21:00"));
+
+        assertThat(response.imported()).isEqualTo(1);
+        assertThat(response.errors()).containsExactly(new RestaurantImportError(1,
+                "cuisineTypes[0].price: Cuisine Price must have at most 2 decimal places"));
+    }
+
+    @Test
+    void publishesOneEventPerChunkLoadedWithOneQueryPerListener() throws IOException {
+        String[] lines = new String[1200];
+        for (int i = 0; i < lines.length; i++) {
+            lines[i] = row("Restaurant " + i, "09:00-21:00");
+        }
+
+        assertThat(importLines(lines).imported()).isEqualTo(1200);
+
+        assertThat(importedEvents.events).extracting(event -> event.restaurantIds().size())
+                .containsExactly(500, 500, 200);
+        assertThat(statistics.getQueryExecutionCount()).isEqualTo(3L * IMPORT_LISTENERS);
+        assertThat(restaurantGeoIndex.size()).isEqualTo(indexedBefore + 1200);
+        assertThat(queuedForCatalogue()).isEqualTo(1200);
+    }
+
+    private int queuedForCatalogue() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM catalogue_outbox", Integer.class);
+    }
+
+    private RestaurantImportResponse importLines(String... lines) throws IOException {
+        byte[] upload = String.join("\n", lines).getBytes(StandardCharsets.UTF_8);
+        return restaurantImportService.importRestaurants(new ByteArrayInputStream(upload));
+    }
+
+    private static String row(String name, String openingHours) {
+        return """
+                {"name":"%s","address":"1 Main St","contactNumber":"555-000-0000","location":"Downtown",\
+                "latitude":51.52,"longitude":-0.08,"description":"Test restaurant","openingHours":"%s",\
+                "rating":4.0,"isOpen":true,"priceRange":"$$",\
+                "cuisineTypes":[{"name":"Dal","description":"Slow-cooked lentils","price":7.45}]}\
+                """.formatted(name, openingHours);
+    }
+
+    @TestConfiguration
+    static class ImportSupport {
+
+        @Bean
+        ObjectMapper objectMapper() {
+            return new ObjectMapper();
+        }
+
+        @Bean
+        LocalValidatorFactoryBean validator() {
+            return new LocalValidatorFactoryBean();
+        }
+
+        @Bean
+        ImportedEvents importedEvents() {
+            return new ImportedEvents();
+        }
+    }
+
+    static class ImportedEvents {
+
+        private final List<RestaurantsImportedEvent> events = new CopyOnWriteArrayList<>();
+
+        @TransactionalEventListener
+        public void onRestaurantsImported(RestaurantsImportedEvent event) {
+            events.add(event);
+        }
+
+        List<Integer> restaurantIds() {
+            return events.stream().flatMap(event -> event.restaurantIds().stream()).toList();
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.devshaks.delivery.restaurant;
+
+import com.devshaks.delivery.capacity.KitchenCapacityLimiter;
+import com.devshaks.delivery.cuisine.CuisineDiffResponse;
+import com.devshaks.delivery.cuisine.CuisineRequest;
+import com.devshaks.delivery.cuisine.CuisineTypes;
+import com.devshaks.delivery.cuisine.CuisineTypesRepository;
+import com.devshaks.delivery.geo.RestaurantGeoIndex;
+import com.devshaks.delivery.inventory.InventoryReservationService;
+import com.devshaks.delivery.money.Money;
+import com.devshaks.delivery.popularity.DishPopularityTracker;
+import com.devshaks.delivery.schedule.RestaurantScheduleIndex;
+import com.devshaks.delivery.search.RestaurantSearchIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Menu updates against H2 with the production batching settings: only the cuisines
+ * that changed are written, and the restaurant version moves only when the menu did.
+ * Each update commits, as the forced version increment is applied at commit.
+ */
+@DataJpaTest(properties = {
+        "spring.cloud.config.enabled=false",
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.jdbc.batch_size=50",
+        "spring.jpa.properties.hibernate.order_inserts=true",
+        "spring.jpa.properties.hibernate.order_updates=true"
+})
+@Import({ RestaurantService.class, RestaurantMapper.class, PurchaseMetrics.class, SimpleMeterRegistry.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RestaurantMenuDiffTests {
+
+    // The in-memory views are not under test, so the commit listeners have nothing to query
+    @MockBean
+    private RestaurantGeoIndex restaurantGeoIndex;
+
+    @MockBean
+    private RestaurantSearchIndex restaurantSearchIndex;
+
+    @MockBean
+    private RestaurantScheduleIndex restaurantScheduleIndex;
+
+    @MockBean
+    private InventoryReservationService inventoryReservationService;
+
+    @MockBean
+    private KitchenCapacityLimiter kitchenCapacityLimiter;
+
+    @MockBean
+    private DishPopularityTracker dishPopularityTracker;
+
+    @Autowired
+    private RestaurantService restaurantService;
+
+    @Autowired
+    private RestaurantRepository restaurantRepository;
+
+    @Autowired
+    private CuisineTypesRepository cuisineTypesRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Restaurant restaurant;
+    private Integer ramenId;
+    private Integer gyozaId;
+    private Integer edamameId;
+
+    @BeforeEach
+    void setUp() {
+        restaurant = restaurantRepository.save(restaurant("Ramen Bar", "Ramen", "Gyoza", "Edamame"));
+        ramenId = restaurant.getCuisineTypes().get(0).getId();
+        gyozaId = restaurant.getCuisineTypes().get(1).getId();
+        edamameId = restaurant.getCuisineTypes().get(2).getId();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        cuisineTypesRepository.deleteAllInBatch();
+        restaurantRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void writesOnlyTheChangedCuisinesAndBumpsTheVersion() {
+        CuisineDiffResponse diff = restaurantService.updateRestaurantDetails(restaurant.getId(), request(
+                cuisine(ramenId, "Ramen", "7.00"),
+                cuisine(gyozaId, "Gyoza", "6.00"),
+                cuisine(null, "Karaage", "6.00"),
+                cuisine(null, "Miso Soup", "3.00")));
+
+        assertThat(diff.insertedCuisineIds()).hasSize(2).doesNotContainNull();
+        assertThat(diff.updatedCuisineIds()).containsExactly(gyozaId);
+        assertThat(diff.deletedCuisineIds()).containsExactly(edamameId);
+        assertThat(diff.unchangedCuisineIds()).containsExactly(ramenId);
+
+        // The restaurant with its menu, the bulk delete, the batched inserts, the update and the version bump
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(5);
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(2);
+        assertThat(statistics.getEntityUpdateCount()).isEqualTo(1);
+
+        Restaurant updated = restaurantRepository.findWithCuisineTypesById(restaurant.getId()).orElseThrow();
+        assertThat(updated.getVersion()).isEqualTo(restaurant.getVersion() + 1);
+        assertThat(updated.getCuisineTypes()).extracting(CuisineTypes::getName)
+                .containsExactlyInAnyOrder("Ramen", "Gyoza", "Karaage", "Miso Soup");
+        assertThat(cuisineTypesRepository.findById(gyozaId).orElseThrow().getPrice()).isEqualTo(Money.ofMinor(600));
+        assertThat(cuisineTypesRepository.existsById(edamameId)).isFalse();
+    }
+
+    @Test
+    void unchangedMenuIsNotWrittenAndKeepsTheVersion() {
+        CuisineDiffResponse diff = restaurantService.updateRestaurantDetails(restaurant.getId(), request(
+                cuisine(ramenId, "Ramen", "7.00"),
+                cuisine(gyozaId, "Gyoza", "7.00"),
+                cuisine(edamameId, "Edamame", "7.00")));
+
+        assertThat(diff.hasChanges()).isFalse();
+        assertThat(diff.unchangedCuisineIds()).containsExactly(ramenId, gyozaId, edamameId);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(restaurantRepository.findById(restaurant.getId()).orElseThrow().getVersion())
+                .isEqualTo(restaurant.getVersion());
+    }
+
+    @Test
+    void rejectsRepeatedCuisineIdsWithoutWritingAnything() {
+        assertThatThrownBy(() -> restaurantService.updateRestaurantDetails(restaurant.getId(), request(
+                cuisine(ramenId, "Ramen", "7.00"),
+                cuisine(ramenId, "Ramen", "8.00"))))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        assertUnchanged();
+    }
+
+    @Test
+    void rejectsCuisinesOfAnotherRestaurantWithoutWritingAnything() {
+        Restaurant other = restaurantRepository.save(restaurant("Taco Stand", "Tacos"));
+        Integer tacosId = other.getCuisineTypes().get(0).getId();
+
+        assertThatThrownBy(() -> restaurantService.updateRestaurantDetails(restaurant.getId(), request(
+                cuisine(ramenId, "Ramen", "7.00"),
+                cuisine(tacosId, "Tacos", "4.00"))))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining(String.valueOf(tacosId));
+
+        assertUnchanged();
+        assertThat(cuisineTypesRepository.findById(tacosId).orElseThrow().getRestaurant().getId())
+                .isEqualTo(other.getId());
+    }
+
+    private void assertUnchanged() {
+        Restaurant unchanged = restaurantRepository.findWithCuisineTypesById(restaurant.getId()).orElseThrow();
+        assertThat(unchanged.getVersion()).isEqualTo(restaurant.getVersion());
+        assertThat(unchanged.getCuisineTypes()).extracting(CuisineTypes::getId)
+                .containsExactlyInAnyOrder(ramenId, gyozaId, edamameId);
+        assertThat(unchanged.getCuisineTypes()).extracting(CuisineTypes::getPrice)
+                .containsOnly(Money.ofMinor(700));
+    }
+
+    private RestaurantRequest request(CuisineRequest... cuisines) {
+        return new RestaurantRequest(restaurant.getId(), restaurant.getName(), restaurant.getAddress(),
+                restaurant.getContactNumber(), restaurant.getLocation(), restaurant.getLatitude(),
+                restaurant.getLongitude(), restaurant.getDescription(), restaurant.getOpeningHours(),
+                restaurant.getRating(), restaurant.getIsOpen(), restaurant.getPriceRange(), List.of(cuisines));
+    }
+
+    // Prices are whole pounds, as H2 gives the entity's bare NUMERIC price column no decimal places
+    private static CuisineRequest cuisine(Integer id, String name, String price) {
+        return new CuisineRequest(id, name, name + " as the kitchen makes it", new BigDecimal(price));
+    }
+
+    private static Restaurant restaurant(String name, String... dishes) {
+        Restaurant restaurant = Restaurant.builder()
+                .name(name)
+                .address("1 Main St")
+                .contactNumber("555-000-0000")
+                .location("Downtown")
+                .description("Test restaurant")
+                .openingHours("09:00 - 21:00")
+                .rating(4.0)
+                .isOpen(true)
+                .priceRange("$$")
+                .cuisineTypes(new ArrayList<>())
+                .build();
+        for (String dish : dishes) {
+            restaurant.getCuisineTypes().add(CuisineTypes.builder()
+                    .name(dish)
+                    .description(dish + " as the kitchen makes it")
+                    .price(Money.ofMinor(700))
+                    .restaurant(restaurant)
+                    .build());
+        }
+        return restaurant;
+    }
+}
@@ -0,0 +1,168 @@
+package com.devshaks.delivery.restaurant;
+
+import com.devshaks.delivery.capacity.KitchenCapacityLimiter;
+import com.devshaks.delivery.cuisine.CuisineTypes;
+import com.devshaks.delivery.geo.RestaurantGeoIndex;
+import com.devshaks.delivery.inventory.InventoryReservationService;
+import com.devshaks.delivery.money.Money;
+import com.devshaks.delivery.popularity.DishPopularityTracker;
+import com.devshaks.delivery.schedule.RestaurantScheduleIndex;
+import com.devshaks.delivery.search.RestaurantSearchIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Guards the read endpoints against N+1 regressions by asserting how many SQL
+ * statements each one issues against a catalogue of several restaurants.
+ */
+@DataJpaTest(properties = {
+        "spring.cloud.config.enabled=false",
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import({ RestaurantService.class, RestaurantMapper.class, RestaurantGeoIndex.class,
+        RestaurantSearchIndex.class,
+        RestaurantScheduleIndex.class, InventoryReservationService.class,
+        KitchenCapacityLimiter.class, DishPopularityTracker.class, PurchaseMetrics.class,
+        SimpleMeterRegistry.class })
+class RestaurantQueryCountTests {
+
+    private static final int RESTAURANTS = 5;
+    private static final int CUISINES_PER_RESTAURANT = 3;
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private RestaurantService restaurantService;
+
+    private Statistics statistics;
+    private final List<Integer> restaurantIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        for (int r = 0; r < RESTAURANTS; r++) {
+            Restaurant restaurant = Restaurant.builder()
+                    .name("Restaurant " + r)
+                    .address(r + " Main St")
+                    .contactNumber("555-000-000" + r)
+                    .location("Downtown")
+                    .description("Test restaurant")
+                    .openingHours("09:00 - 21:00")
+                    .rating(4.0)
+                    .isOpen(true)
+                    .priceRange("$$")
+                    .cuisineTypes(new ArrayList<>())
+                    .build();
+            for (int c = 0; c < CUISINES_PER_RESTAURANT; c++) {
+                restaurant.getCuisineTypes().add(CuisineTypes.builder()
+                        .name("Dish " + c)
+                        .description("Test dish")
+                        .price(Money.ofMinor(999))
+                        .restaurant(restaurant)
+                        .build());
+            }
+            restaurantIds.add(testEntityManager.persist(restaurant).getId());
+        }
+        testEntityManager.flush();
+        testEntityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void findRestaurantByIdUsesOneStatement() {
+        RestaurantResponse response = restaurantService.findRestaurantById(restaurantIds.get(0));
+
+        assertThat(response.cuisineTypes()).hasSize(CUISINES_PER_RESTAURANT);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void findAllRestaurantsUsesOneStatement() {
+        List<RestaurantResponse> responses = restaurantService.findAllRestaurants();
+
+        assertThat(responses).hasSize(RESTAURANTS);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void findRestaurantPageBatchFetchesMenus() {
+        RestaurantPageResponse page = restaurantService.findRestaurantPage(null, RESTAURANTS);
+
+        assertThat(page.restaurants()).hasSize(RESTAURANTS);
+        assertThat(page.restaurants()).allSatisfy(r -> assertThat(r.cuisineTypes()).hasSize(CUISINES_PER_RESTAURANT));
+        // One statement for the page, one batch for all of its menus
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void streamAllRestaurantsJoinsMenusPerChunk() {
+        List<RestaurantResponse> streamed = new ArrayList<>();
+        restaurantService.streamAllRestaurants(streamed::add);
+
+        assertThat(streamed).extracting(RestaurantResponse::id).containsExactlyElementsOf(restaurantIds);
+        assertThat(streamed).allSatisfy(r -> assertThat(r.cuisineTypes()).hasSize(CUISINES_PER_RESTAURANT));
+        // One statement for the chunk's IDs, one for its restaurants joined with their menus
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void findRestaurantByIdsKeepsTheGivenOrderAndSkipsRepeatedAndUnknownIds() {
+        List<Integer> ids = List.of(restaurantIds.get(3), -1, restaurantIds.get(1), restaurantIds.get(3),
+                restaurantIds.get(0), restaurantIds.get(1));
+
+        List<RestaurantFavouriteResponse> found = restaurantService.findRestaurantByIds(ids);
+
+        assertThat(found).extracting(RestaurantFavouriteResponse::restaurantId)
+                .containsExactly(restaurantIds.get(3), restaurantIds.get(1), restaurantIds.get(0));
+        assertThat(found).extracting(RestaurantFavouriteResponse::restaurantName)
+                .containsExactly("Restaurant 3", "Restaurant 1", "Restaurant 0");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void findRestaurantByIdsLooksUpLongListsInChunks() {
+        // 1200 distinct IDs, the known ones last and in reverse; two of them repeated earlier
+        // on, so the known IDs span the last two chunks and their first occurrence sets the order
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 1; i <= 1200 - RESTAURANTS; i++) {
+            ids.add(-i);
+        }
+        List<Integer> known = new ArrayList<>(restaurantIds);
+        Collections.reverse(known);
+        ids.addAll(known);
+        ids.addAll(600, List.of(known.get(0), known.get(1)));
+
+        List<RestaurantFavouriteResponse> found = restaurantService.findRestaurantByIds(ids);
+
+        assertThat(found).extracting(RestaurantFavouriteResponse::restaurantId).containsExactlyElementsOf(known);
+        // Chunks of at most 500 IDs: 500, 500 and the last 200
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+    }
+
+    @Test
+    void findCuisineByRestaurantIdUsesOneStatement() {
+        assertThat(restaurantService.findCuisineByRestaurantId(restaurantIds.get(0))).hasSize(CUISINES_PER_RESTAURANT);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,160 @@
+package com.devshaks.delivery.review;
+
+import com.devshaks.delivery.exceptions.DuplicateReviewException;
+import com.devshaks.delivery.exceptions.OrderNotReviewableException;
+import com.devshaks.delivery.restaurant.Restaurant;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Reviews are only accepted for orders the order service confirmed, from the order's
+ * customer and for a restaurant the order was placed with.
+ */
+@DataJpaTest(showSql = false, properties = {
+        "spring.cloud.config.enabled=false",
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@Import({ ReviewService.class, CompletedOrderListener.class })
+class ReviewServiceTests {
+
+    private static final int ORDER_ID = 42;
+    private static final int CUSTOMER_ID = 7;
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    @Autowired
+    private ReviewService reviewService;
+
+    @Autowired
+    private CompletedOrderListener completedOrderListener;
+
+    private Integer restaurantId;
+    private Integer otherRestaurantId;
+
+    @BeforeEach
+    void setUp() {
+        restaurantId = persistRestaurant("Mama's Kitchen");
+        otherRestaurantId = persistRestaurant("Chez Nous");
+    }
+
+    @Test
+    void acceptsAReviewOfAConfirmedOrderByItsCustomer() {
+        completedOrderListener.onOrderConfirmation(orderConfirmation(ORDER_ID, CUSTOMER_ID, restaurantId));
+
+        Integer reviewId = reviewService.submitReview(restaurantId, new ReviewRequest(ORDER_ID, CUSTOMER_ID, 5, "Great"));
+
+        assertThat(testEntityManager.find(RestaurantReview.class, reviewId).getRating()).isEqualTo(5);
+    }
+
+    @Test
+    void rejectsAnUnknownOrder() {
+        assertThatThrownBy(() -> reviewService.submitReview(restaurantId, new ReviewRequest(ORDER_ID, CUSTOMER_ID, 1, null)))
+                .isInstanceOf(OrderNotReviewableException.class);
+    }
+
+    @Test
+    void rejectsAnotherCustomersOrder() {
+        completedOrderListener.onOrderConfirmation(orderConfirmation(ORDER_ID, CUSTOMER_ID, restaurantId));
+
+        assertThatThrownBy(() -> reviewService.submitReview(restaurantId, new ReviewRequest(ORDER_ID, 8, 1, null)))
+                .isInstanceOf(OrderNotReviewableException.class);
+    }
+
+    @Test
+    void rejectsARestaurantTheOrderWasNotPlacedWith() {
+        completedOrderListener.onOrderConfirmation(orderConfirmation(ORDER_ID, CUSTOMER_ID, restaurantId));
+
+        assertThatThrownBy(() -> reviewService.submitReview(otherRestaurantId, new ReviewRequest(ORDER_ID, CUSTOMER_ID, 1, null)))
+                .isInstanceOf(OrderNotReviewableException.class);
+    }
+
+    @Test
+    void acceptsOneReviewPerRestaurantOfAnOrder() {
+        completedOrderListener.onOrderConfirmation(orderConfirmation(ORDER_ID, CUSTOMER_ID, restaurantId));
+        reviewService.submitReview(restaurantId, new ReviewRequest(ORDER_ID, CUSTOMER_ID, 4, null));
+
+        assertThatThrownBy(() -> reviewService.submitReview(restaurantId, new ReviewRequest(ORDER_ID, CUSTOMER_ID, 2, null)))
+                .isInstanceOf(DuplicateReviewException.class);
+    }
+
+    @Test
+    void eachRestaurantOfAMultiRestaurantOrderCanBeReviewed() {
+        completedOrderListener.onOrderConfirmation(orderConfirmation(ORDER_ID, CUSTOMER_ID, restaurantId, otherRestaurantId));
+
+        Integer reviewId = reviewService.submitReview(restaurantId, new ReviewRequest(ORDER_ID, CUSTOMER_ID, 4, null));
+        Integer otherReviewId = reviewService.submitReview(otherRestaurantId, new ReviewRequest(ORDER_ID, CUSTOMER_ID, 2, null));
+
+        assertThat(testEntityManager.find(RestaurantReview.class, reviewId).getRestaurantId()).isEqualTo(restaurantId);
+        assertThat(testEntityManager.find(RestaurantReview.class, otherReviewId).getRestaurantId()).isEqualTo(otherRestaurantId);
+        assertThatThrownBy(() -> reviewService.submitReview(otherRestaurantId, new ReviewRequest(ORDER_ID, CUSTOMER_ID, 5, null)))
+                .isInstanceOf(DuplicateReviewException.class);
+    }
+
+    @Test
+    void redeliveredConfirmationIsRecordedOnce() {
+        completedOrderListener.onOrderConfirmation(orderConfirmation(ORDER_ID, CUSTOMER_ID, restaurantId));
+        completedOrderListener.onOrderConfirmation(orderConfirmation(ORDER_ID, CUSTOMER_ID, restaurantId));
+        testEntityManager.flush();
+
+        assertThat(testEntityManager.getEntityManager()
+                .createQuery("select count(c) from CompletedOrder c", Long.class)
+                .getSingleResult())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void readsTheOrderServiceEvent() {
+        String json = """
+                {"orderId":42,"orderReference":"0b6f6c8e-7d2b-4a4e-9d55-3f7f3e1e9a11",
+                 "orderAmount":{"minor":1700,"currency":"USD"},"paymentMethod":"CREDIT_CARD",
+                 "customer":{"id":7,"firstName":"Ada","lastName":"Lovelace","email":"ada@example.com"},
+                 "purchaseResponse":[{"restaurantId":3,"restaurantName":"Mama's Kitchen","items":[],
+                                      "orderAmount":{"minor":1700,"currency":"USD"},"orderStatus":"PENDING",
+                                      "reservationId":null}]}
+                """;
+
+        try (JsonDeserializer<OrderConfirmation> deserializer = new JsonDeserializer<>(OrderConfirmation.class, false)) {
+            OrderConfirmation orderConfirmation = deserializer.deserialize("order-topic", json.getBytes(StandardCharsets.UTF_8));
+
+            assertThat(orderConfirmation.orderId()).isEqualTo(42);
+            assertThat(orderConfirmation.customer().id()).isEqualTo(7);
+            assertThat(orderConfirmation.purchaseResponse()).extracting(OrderConfirmation.Purchase::restaurantId)
+                    .containsExactly(3);
+        }
+    }
+
+    private static OrderConfirmation orderConfirmation(int orderId, int customerId, Integer... restaurantIds) {
+        return new OrderConfirmation(orderId, new OrderConfirmation.Customer(customerId),
+                List.of(restaurantIds).stream().map(OrderConfirmation.Purchase::new).toList());
+    }
+
+    private Integer persistRestaurant(String name) {
+        return testEntityManager.persistAndFlush(Restaurant.builder()
+                .name(name)
+                .address("1 Main St")
+                .contactNumber("555-000-0000")
+                .location("Downtown")
+                .description("Test restaurant")
+                .openingHours("09:00 - 21:00")
+                .rating(4.0)
+                .isOpen(true)
+                .priceRange("$$")
+                .cuisineTypes(new ArrayList<>())
+                .build())
+                .getId();
+    }
+}
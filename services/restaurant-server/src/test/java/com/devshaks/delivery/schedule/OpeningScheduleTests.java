@@ -0,0 +1,100 @@
+package com.devshaks.delivery.schedule;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OpeningScheduleTests {
+
+    // A Monday
+    private static final LocalDateTime WEEK_START = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @Test
+    void closedSegmentOverridesEarlierHours() {
+        OpeningSchedule schedule = OpeningSchedule.parse("09:00-21:00; Sun closed");
+
+        assertThat(schedule.isOpenAt(at(DayOfWeek.SATURDAY, "12:00"))).isTrue();
+        assertThat(schedule.isOpenAt(at(DayOfWeek.SUNDAY, "12:00"))).isFalse();
+        assertThat(schedule.isOpenAt(at(DayOfWeek.MONDAY, "12:00"))).isTrue();
+    }
+
+    @Test
+    void perDaySchedule() {
+        OpeningSchedule schedule = OpeningSchedule.parse("Mon-Fri 09:00-17:00; Sat 10:00-23:30; Sun closed");
+
+        assertThat(schedule.isOpenAt(at(DayOfWeek.WEDNESDAY, "08:59"))).isFalse();
+        assertThat(schedule.isOpenAt(at(DayOfWeek.WEDNESDAY, "09:00"))).isTrue();
+        assertThat(schedule.isOpenAt(at(DayOfWeek.FRIDAY, "17:00"))).isFalse();
+        assertThat(schedule.isOpenAt(at(DayOfWeek.SATURDAY, "23:29"))).isTrue();
+        assertThat(schedule.isOpenAt(at(DayOfWeek.SUNDAY, "12:00"))).isFalse();
+    }
+
+    @Test
+    void rangeAfterClosedReopensTheDay() {
+        OpeningSchedule schedule = OpeningSchedule.parse("Sun closed; Sun 12:00-16:00");
+
+        assertThat(schedule.isOpenAt(at(DayOfWeek.SUNDAY, "13:00"))).isTrue();
+        assertThat(schedule.isOpenAt(at(DayOfWeek.SUNDAY, "16:00"))).isFalse();
+    }
+
+    @Test
+    void overnightRangeRunsIntoTheNextDay() {
+        OpeningSchedule schedule = OpeningSchedule.parse("Fri-Sat 18:00-02:00");
+
+        assertThat(schedule.isOpenAt(at(DayOfWeek.FRIDAY, "17:59"))).isFalse();
+        assertThat(schedule.isOpenAt(at(DayOfWeek.FRIDAY, "23:00"))).isTrue();
+        assertThat(schedule.isOpenAt(at(DayOfWeek.SATURDAY, "01:59"))).isTrue();
+        assertThat(schedule.isOpenAt(at(DayOfWeek.SATURDAY, "02:00"))).isFalse();
+        assertThat(schedule.isOpenAt(at(DayOfWeek.SUNDAY, "01:00"))).isTrue();
+        assertThat(schedule.isOpenAt(at(DayOfWeek.MONDAY, "01:00"))).isFalse();
+    }
+
+    @Test
+    void closedDayKeepsThePreviousNightRunningIntoIt() {
+        OpeningSchedule schedule = OpeningSchedule.parse("Sat 18:00-02:00; Sun closed");
+
+        assertThat(schedule.isOpenAt(at(DayOfWeek.SUNDAY, "01:00"))).isTrue();
+        assertThat(schedule.isOpenAt(at(DayOfWeek.SUNDAY, "18:00"))).isFalse();
+    }
+
+    @Test
+    void sundayOvernightRangeWrapsToMonday() {
+        OpeningSchedule schedule = OpeningSchedule.parse("Sun 22:00-03:00");
+
+        assertThat(schedule.isOpenAt(at(DayOfWeek.SUNDAY, "23:59"))).isTrue();
+        assertThat(schedule.isOpenAt(at(DayOfWeek.MONDAY, "00:00"))).isTrue();
+        assertThat(schedule.isOpenAt(at(DayOfWeek.MONDAY, "02:59"))).isTrue();
+        assertThat(schedule.isOpenAt(at(DayOfWeek.MONDAY, "03:00"))).isFalse();
+        assertThat(schedule.isOpenAt(at(DayOfWeek.SUNDAY, "21:59"))).isFalse();
+    }
+
+    @Test
+    void midnightAsAnEndTime() {
+        OpeningSchedule allWeek = OpeningSchedule.parse("00:00-24:00");
+        OpeningSchedule monday = OpeningSchedule.parse("Mon 10:00-24:00");
+
+        assertThat(allWeek.isOpenAt(at(DayOfWeek.MONDAY, "00:00"))).isTrue();
+        assertThat(allWeek.isOpenAt(at(DayOfWeek.SUNDAY, "23:59"))).isTrue();
+        assertThat(monday.isOpenAt(at(DayOfWeek.MONDAY, "23:59"))).isTrue();
+        assertThat(monday.isOpenAt(at(DayOfWeek.TUESDAY, "00:00"))).isFalse();
+    }
+
+    @Test
+    void rejectsInvalidInput() {
+        for (String openingHours : new String[] { null, " ", "9am-5pm", "25:00-26:00", "09:60-10:00",
+                "10:00-24:30", "Xyz 09:00-17:00", "Mon-Fri", "Mon 09:00-17:00 Tue" }) {
+            assertThatThrownBy(() -> OpeningSchedule.parse(openingHours))
+                    .as(openingHours)
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    private static LocalDateTime at(DayOfWeek day, String time) {
+        return WEEK_START.plusDays(day.getValue() - 1L).with(LocalTime.parse(time));
+    }
+}
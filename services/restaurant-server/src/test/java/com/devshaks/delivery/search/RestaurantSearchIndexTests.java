@@ -0,0 +1,166 @@
+package com.devshaks.delivery.search;
+
+import com.devshaks.delivery.cuisine.CuisineTypes;
+import com.devshaks.delivery.money.Money;
+import com.devshaks.delivery.restaurant.Restaurant;
+import com.devshaks.delivery.restaurant.RestaurantChangedEvent;
+import com.devshaks.delivery.restaurant.RestaurantRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RestaurantSearchIndexTests {
+
+    private final RestaurantRepository restaurantRepository = mock(RestaurantRepository.class);
+    private final RestaurantSearchIndex searchIndex = new RestaurantSearchIndex(restaurantRepository);
+
+    @Test
+    void tokenizesOnNonAlphanumericsLowerCasedAndOnce() {
+        assertThat(RestaurantSearchIndex.tokenize("Spicy-Tuna, SPICY rolls (8pc) Crème"))
+                .containsExactly("spicy", "tuna", "rolls", "8pc", "crème");
+        assertThat(RestaurantSearchIndex.tokenize(" ,; ")).isEmpty();
+        assertThat(RestaurantSearchIndex.tokenize(null)).isEmpty();
+    }
+
+    @Test
+    void everyTokenMustMatchAndTheLastAlsoAsAPrefix() {
+        load(restaurant(1, "Sushi Bar", "Japanese",
+                dish(11, "Spicy tuna roll", "Tuna, chilli mayo"),
+                dish(12, "Salmon roll", "Fresh salmon")));
+
+        assertThat(dishIds("spicy tun")).containsExactly(11);
+        assertThat(dishIds("roll sal")).containsExactly(12);
+        assertThat(dishIds("spicy salmon")).isEmpty();
+    }
+
+    @Test
+    void ranksNameMatchesAboveDescriptionMatchesAndRareTermsAboveCommonOnes() {
+        load(restaurant(1, "Noodle House", "Noodles and dumplings",
+                dish(11, "Ramen", "Pork broth with noodles"),
+                dish(12, "Chicken noodles", "Wok-fried"),
+                dish(13, "Beef noodles", "Wok-fried with ginger")));
+
+        List<SearchResultResponse> results = searchIndex.search("noodles", 0, 10).results();
+
+        // Name matches first, the restaurant and the ramen only by description
+        assertThat(results).extracting(SearchResultResponse::name)
+                .startsWith("Chicken noodles", "Beef noodles")
+                .containsOnly("Chicken noodles", "Beef noodles", "Noodle House", "Ramen");
+        assertThat(results).extracting(SearchResultResponse::score).isSortedAccordingTo((a, b) -> Float.compare(b, a));
+        // "ginger" is on one document, "wok" on two
+        assertThat(searchIndex.search("ginger", 0, 10).results().get(0).score())
+                .isGreaterThan(searchIndex.search("wok", 0, 10).results().get(0).score());
+    }
+
+    @Test
+    void pagesAreContiguousAndCountEveryMatch() {
+        List<CuisineTypes> dishes = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            dishes.add(dish(100 + i, "Pizza " + i, "Wood-fired"));
+        }
+        load(restaurant(1, "Trattoria", "Italian", dishes.toArray(CuisineTypes[]::new)));
+
+        SearchPageResponse first = searchIndex.search("pizza", 0, 10);
+        SearchPageResponse last = searchIndex.search("pizza", 2, 10);
+        List<SearchResultResponse> everything = searchIndex.search("pizza", 0, 25).results();
+
+        assertThat(first.totalMatches()).isEqualTo(25);
+        assertThat(first.results()).containsExactlyElementsOf(everything.subList(0, 10));
+        assertThat(searchIndex.search("pizza", 1, 10).results()).containsExactlyElementsOf(everything.subList(10, 20));
+        assertThat(last.results()).containsExactlyElementsOf(everything.subList(20, 25));
+        assertThat(searchIndex.search("pizza", 3, 10).results()).isEmpty();
+    }
+
+    @Test
+    void menuChangesReplaceTheRestaurantsDocuments() {
+        load(restaurant(1, "Curry Corner", "Indian", dish(11, "Korma", "Mild")),
+                restaurant(2, "Thai Garden", "Thai", dish(21, "Green curry", "Hot")));
+
+        searchIndex.indexRestaurant(restaurant(1, "Curry Corner", "Indian", dish(12, "Vindaloo", "Hot")));
+        assertThat(dishIds("korma")).isEmpty();
+        assertThat(dishIds("hot")).containsExactlyInAnyOrder(12, 21);
+
+        searchIndex.onRestaurantChanged(new RestaurantChangedEvent(2, true));
+        assertThat(dishIds("hot")).containsExactly(12);
+        assertThat(searchIndex.search("curry", 0, 10).totalMatches()).isEqualTo(1);
+    }
+
+    @Test
+    void compactionKeepsTheLiveDocuments() {
+        List<Restaurant> restaurants = new ArrayList<>();
+        for (int id = 1; id <= 600; id++) {
+            restaurants.add(restaurant(id, "Kitchen " + id, "Daily specials",
+                    dish(id * 10, "Soup", "Of the day"), dish(id * 10 + 1, "Stew", "Slow-cooked")));
+        }
+        load(restaurants.toArray(Restaurant[]::new));
+
+        // 1500 of the 1800 documents tombstoned crosses the compaction threshold
+        for (int id = 1; id <= 500; id++) {
+            searchIndex.removeRestaurant(id);
+        }
+        searchIndex.indexRestaurant(restaurant(600, "Kitchen 600", "Daily specials", dish(6002, "Curry", "Hot")));
+
+        assertThat(searchIndex.search("soup", 0, 1000).totalMatches()).isEqualTo(99);
+        assertThat(dishIds("curry")).containsExactly(6002);
+        assertThat(searchIndex.search("kitchen", 0, 1000).totalMatches()).isEqualTo(100);
+    }
+
+    @Test
+    void shortPrefixesExpandToTheMostFrequentTerms() {
+        List<CuisineTypes> dishes = new ArrayList<>();
+        // 100 rare terms that sort before "salad"
+        for (int i = 0; i < 100; i++) {
+            dishes.add(dish(1000 + i, String.format("Sal%03d", i), "Special"));
+        }
+        for (int i = 0; i < 5; i++) {
+            dishes.add(dish(2000 + i, "Salad", "Green"));
+        }
+        load(restaurant(1, "Deli", "Sandwiches", dishes.toArray(CuisineTypes[]::new)));
+
+        assertThat(dishIds("sal")).contains(2000, 2001, 2002, 2003, 2004);
+        assertThat(dishIds("sal007")).containsExactly(1007);
+    }
+
+    @Test
+    void prefixesShorterThanThreeCharactersOnlyMatchWholeWords() {
+        load(restaurant(1, "Dim Sum", "Cantonese", dish(11, "Har gow", "Prawn"), dish(12, "Ha", "Test")));
+
+        assertThat(dishIds("ha")).containsExactly(12);
+        assertThat(dishIds("har")).containsExactly(11);
+    }
+
+    private List<Integer> dishIds(String query) {
+        return searchIndex.search(query, 0, 1000).results().stream()
+                .filter(result -> result.type() == SearchResultType.DISH)
+                .map(SearchResultResponse::cuisineId)
+                .toList();
+    }
+
+    private void load(Restaurant... restaurants) {
+        when(restaurantRepository.findAllWithCuisineTypes()).thenReturn(List.of(restaurants));
+        searchIndex.load();
+    }
+
+    private static Restaurant restaurant(int id, String name, String description, CuisineTypes... dishes) {
+        return Restaurant.builder()
+                .id(id)
+                .name(name)
+                .description(description)
+                .cuisineTypes(List.of(dishes))
+                .build();
+    }
+
+    private static CuisineTypes dish(int id, String name, String description) {
+        return CuisineTypes.builder()
+                .id(id)
+                .name(name)
+                .description(description)
+                .price(Money.ofMinor(995))
+                .build();
+    }
+}